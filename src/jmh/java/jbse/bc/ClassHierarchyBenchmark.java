@@ -0,0 +1,92 @@
+package jbse.bc;
+
+import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jbse.bc.exc.BadClassFileVersionException;
+import jbse.bc.exc.ClassFileIllFormedException;
+import jbse.bc.exc.ClassFileNotAccessibleException;
+import jbse.bc.exc.ClassFileNotFoundException;
+import jbse.bc.exc.IncompatibleClassFileException;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.bc.exc.MethodNotAccessibleException;
+import jbse.bc.exc.MethodNotFoundException;
+import jbse.bc.exc.PleaseLoadClassException;
+import jbse.bc.exc.RenameUnsupportedException;
+import jbse.bc.exc.WrongClassNameException;
+import jbse.bench.BenchmarkEnvironment;
+import jbse.common.exc.InvalidInputException;
+
+/**
+ * Benchmarks class loading and method resolution in a 
+ * {@link ClassHierarchy}, both on a fresh hierarchy (cold,
+ * the classfiles must be read and parsed) and on a hierarchy
+ * where the classes are already loaded (warm).
+ * 
+ * @author Pietro Braione
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ClassHierarchyBenchmark {
+    @Param({"java/util/ArrayList", "tsafe/main/SimpleCalculator"})
+    public String className;
+    
+    private Classpath cp;
+    private ClassHierarchy warm;
+    private ClassFile accessor;
+    private Signature methodSignature;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InvalidClassFileFactoryClassException, InvalidInputException, 
+    ClassFileNotFoundException, ClassFileIllFormedException, ClassFileNotAccessibleException, 
+    IncompatibleClassFileException, BadClassFileVersionException, RenameUnsupportedException, 
+    WrongClassNameException, PleaseLoadClassException {
+        this.cp = BenchmarkEnvironment.classpath();
+        this.warm = newHierarchy();
+        this.accessor = this.warm.loadCreateClass(CLASSLOADER_APP, this.className, true);
+        //toString is declared by Object, so resolution walks the whole superclass chain
+        this.methodSignature = new Signature(this.className, "()Ljava/lang/String;", "toString");
+    }
+    
+    private ClassHierarchy newHierarchy() throws InvalidClassFileFactoryClassException, InvalidInputException {
+        return new ClassHierarchy(this.cp, ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap());
+    }
+    
+    @Benchmark
+    public ClassFile loadCreateClassCold() throws InvalidClassFileFactoryClassException, InvalidInputException, 
+    ClassFileNotFoundException, ClassFileIllFormedException, ClassFileNotAccessibleException, 
+    IncompatibleClassFileException, BadClassFileVersionException, RenameUnsupportedException, 
+    WrongClassNameException, PleaseLoadClassException {
+        return newHierarchy().loadCreateClass(CLASSLOADER_APP, this.className, true);
+    }
+    
+    @Benchmark
+    public ClassFile loadCreateClassWarm() throws InvalidInputException, ClassFileNotFoundException, 
+    ClassFileIllFormedException, ClassFileNotAccessibleException, IncompatibleClassFileException, 
+    BadClassFileVersionException, RenameUnsupportedException, WrongClassNameException, PleaseLoadClassException {
+        return this.warm.loadCreateClass(CLASSLOADER_APP, this.className, true);
+    }
+    
+    @Benchmark
+    public ClassFile resolveMethod() throws InvalidInputException, ClassFileNotFoundException, 
+    ClassFileIllFormedException, ClassFileNotAccessibleException, IncompatibleClassFileException, 
+    BadClassFileVersionException, RenameUnsupportedException, WrongClassNameException, 
+    MethodNotFoundException, MethodNotAccessibleException, PleaseLoadClassException {
+        return this.warm.resolveMethod(this.accessor, this.methodSignature, false, true);
+    }
+}
@@ -0,0 +1,159 @@
+package jbse.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import jbse.bc.Classpath;
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.DecisionProcedureAlgorithms;
+import jbse.dec.DecisionProcedureAlwSat;
+import jbse.dec.DecisionProcedureClassInit;
+import jbse.dec.DecisionProcedureSignAnalysis;
+import jbse.jvm.Runner;
+import jbse.jvm.RunnerBuilder;
+import jbse.jvm.RunnerParameters;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterExpressionOrConversionOnSimplex;
+import jbse.rewr.RewriterFunctionApplicationOnSimplex;
+import jbse.rewr.RewriterNegationElimination;
+import jbse.rewr.RewriterPolynomials;
+import jbse.rewr.RewriterZeroUnit;
+import jbse.rules.ClassInitRulesRepo;
+
+/**
+ * The environment shared by the benchmarks. The paths
+ * are taken from the system properties {@code jbse.bench.lib}
+ * (the JBSE classes, default {@code build/classes/java/main}),
+ * {@code jbse.bench.testdata} (the test classes, default 
+ * {@code src/test/resources/jbse/bc/testdata}) and 
+ * {@code jbse.bench.targets} (the benchmark target programs, 
+ * default {@code build/classes/java/jmh}), that the build 
+ * sets to absolute paths.
+ * 
+ * @author Pietro Braione
+ *
+ */
+public final class BenchmarkEnvironment {
+    public static Path jbseLib() {
+        return Paths.get(System.getProperty("jbse.bench.lib", "build/classes/java/main"));
+    }
+
+    public static Path testData() {
+        return Paths.get(System.getProperty("jbse.bench.testdata", "src/test/resources/jbse/bc/testdata"));
+    }
+
+    public static Path targets() {
+        return Paths.get(System.getProperty("jbse.bench.targets", "build/classes/java/jmh"));
+    }
+    
+    public static Path javaHome() {
+        return Paths.get(System.getProperty("java.home", ""));
+    }
+
+    /**
+     * Returns a {@link Classpath} for the JRE classes
+     * and the test classes.
+     * 
+     * @return a {@link Classpath}.
+     * @throws IOException if some path cannot be accessed.
+     */
+    public static Classpath classpath() throws IOException {
+        return new Classpath(jbseLib(), javaHome(), 
+                             new ArrayList<>(Arrays.stream(System.getProperty("java.ext.dirs", "").split(File.pathSeparator)).map(s -> Paths.get(s)).collect(Collectors.toList())), 
+                             Collections.singletonList(testData()));
+    }
+
+    /**
+     * Returns a {@link CalculatorRewriting} with the same
+     * rewriters as the one created by the launcher, plus 
+     * {@link RewriterPolynomials}.
+     * 
+     * @return a {@link CalculatorRewriting}.
+     */
+    public static CalculatorRewriting calculator() {
+        final CalculatorRewriting calc = new CalculatorRewriting();
+        calc.addRewriter(new RewriterExpressionOrConversionOnSimplex());
+        calc.addRewriter(new RewriterFunctionApplicationOnSimplex());
+        calc.addRewriter(new RewriterZeroUnit());
+        calc.addRewriter(new RewriterNegationElimination());
+        calc.addRewriter(new RewriterPolynomials());
+        return calc;
+    }
+    
+    /**
+     * Returns a decision procedure that needs no external
+     * solver, so the benchmarks measure the engine rather 
+     * than the solver.
+     * 
+     * @param calc a {@link CalculatorRewriting}.
+     * @return a {@link DecisionProcedureAlgorithms}.
+     * @throws InvalidInputException never.
+     */
+    public static DecisionProcedureAlgorithms decisionProcedure(CalculatorRewriting calc) throws InvalidInputException {
+        return new DecisionProcedureAlgorithms(new DecisionProcedureClassInit(new DecisionProcedureSignAnalysis(new DecisionProcedureAlwSat(calc)), new ClassInitRulesRepo()));
+    }
+
+    /**
+     * Returns the parameters for running a method of
+     * a benchmark target program.
+     * 
+     * @param calc a {@link CalculatorRewriting}.
+     * @param className a {@link String}, the name of the class
+     *        of the method.
+     * @param descriptor a {@link String}, the descriptor of the method.
+     * @param name a {@link String}, the name of the method.
+     * @return a {@link RunnerParameters}.
+     * @throws InvalidInputException never.
+     */
+    public static RunnerParameters runnerParameters(CalculatorRewriting calc, String className, String descriptor, String name) 
+    throws InvalidInputException {
+        final RunnerParameters p = new RunnerParameters();
+        p.setCalculator(calc);
+        p.setDecisionProcedure(decisionProcedure(calc));
+        p.setJBSELibPath(jbseLib());
+        p.setJavaHome(javaHome());
+        p.addUserClasspath(targets());
+        p.setMethodSignature(className, descriptor, name);
+        return p;
+    }
+
+    /**
+     * Runs the bootstrap of the JVM and the initialization
+     * of a method of a benchmark target program, and returns
+     * the initial state of its symbolic execution.
+     * 
+     * @param calc a {@link CalculatorRewriting}.
+     * @param className a {@link String}, the name of the class
+     *        of the method.
+     * @param descriptor a {@link String}, the descriptor of the method.
+     * @param name a {@link String}, the name of the method.
+     * @return the initial {@link State}.
+     * @throws Exception if building or running the engine fails.
+     */
+    public static State initialState(CalculatorRewriting calc, String className, String descriptor, String name) 
+    throws Exception {
+        final RunnerParameters p = runnerParameters(calc, className, descriptor, name);
+        p.setActions(new Runner.Actions() {
+            @Override
+            public boolean atInitial() {
+                return true;
+            }
+        });
+        final RunnerBuilder rb = new RunnerBuilder();
+        final Runner runner = rb.build(p);
+        runner.run();
+        return rb.getEngine().getCurrentState().clone();
+    }
+
+    private BenchmarkEnvironment() {
+        //do not instantiate!
+        throw new AssertionError();
+    }
+}
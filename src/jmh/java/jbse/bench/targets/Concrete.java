@@ -0,0 +1,33 @@
+package jbse.bench.targets;
+
+/**
+ * A benchmark target program whose execution is
+ * concrete: it does not depend on its (symbolic) 
+ * receiver, so it has a single path.
+ * 
+ * @author Pietro Braione
+ *
+ */
+public class Concrete {
+    public int run() {
+        final int[] a = new int[32];
+        for (int i = 0; i < a.length; ++i) {
+            a[i] = (i * 7919) % 31;
+        }
+        //bubble sort
+        for (int i = 0; i < a.length; ++i) {
+            for (int j = 0; j < a.length - 1 - i; ++j) {
+                if (a[j] > a[j + 1]) {
+                    final int tmp = a[j];
+                    a[j] = a[j + 1];
+                    a[j + 1] = tmp;
+                }
+            }
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < a.length; ++i) {
+            sb.append(a[i]);
+        }
+        return sb.toString().hashCode();
+    }
+}
@@ -0,0 +1,39 @@
+package jbse.bench.targets;
+
+/**
+ * A benchmark target program whose execution
+ * depends on its symbolic inputs, so it has many
+ * paths with nonlinear path conditions.
+ * 
+ * @author Pietro Braione
+ *
+ */
+public class Symbolic {
+    private Node list;
+    
+    private static class Node {
+        int value;
+        Node next;
+    }
+    
+    public int run(int a, int b, int c) {
+        int r = 0;
+        if (a * a + b > c) {
+            r += 1;
+        }
+        if (a - b * c < 0) {
+            r += 2;
+        }
+        if (b * b - 4 * a * c >= 0) {
+            r += 4;
+        }
+        int n = 0;
+        for (Node p = this.list; p != null && n < 3; p = p.next) {
+            if (p.value > a) {
+                r += p.value;
+            }
+            ++n;
+        }
+        return r;
+    }
+}
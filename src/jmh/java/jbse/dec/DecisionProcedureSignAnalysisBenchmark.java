@@ -0,0 +1,76 @@
+package jbse.dec;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jbse.bench.BenchmarkEnvironment;
+import jbse.common.Type;
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.exc.DecisionException;
+import jbse.mem.ClauseAssume;
+import jbse.mem.exc.ContradictionException;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Expression;
+import jbse.val.Term;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * Benchmarks {@link DecisionProcedureSignAnalysis#isSat(Expression)}
+ * under a path condition with a given number of sign 
+ * assumptions, both on a query that sign analysis refutes 
+ * and on a query that it must pass to the next decision
+ * procedure.
+ * 
+ * @author Pietro Braione
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DecisionProcedureSignAnalysisBenchmark {
+    /** The number of assumptions. */
+    @Param({"4", "64"})
+    public int assumptions;
+    
+    private DecisionProcedureSignAnalysis dec;
+    private Expression queryUnsat;
+    private Expression querySat;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidInputException, DecisionException, ContradictionException, 
+    InvalidOperandException, InvalidTypeException {
+        final CalculatorRewriting calc = BenchmarkEnvironment.calculator();
+        this.dec = new DecisionProcedureSignAnalysis(new DecisionProcedureAlwSat(calc));
+        final Term[] terms = new Term[this.assumptions];
+        for (int i = 0; i < this.assumptions; ++i) {
+            //X_i > 0 for even i, X_i < 0 for odd i
+            terms[i] = calc.valTerm(Type.INT, "X" + i);
+            final Expression assumption = (Expression) (i % 2 == 0 ? calc.push(terms[i]).gt(calc.valInt(0)) : calc.push(terms[i]).lt(calc.valInt(0))).pop();
+            this.dec.pushAssumption(new ClauseAssume(assumption));
+        }
+        final Term last = terms[this.assumptions - 1];
+        //X_0 * X_last >= 0 is refuted, X_0 * X_last < Y is not
+        this.queryUnsat = (Expression) calc.push(terms[0]).mul(last).ge(calc.valInt(0)).pop();
+        this.querySat = (Expression) calc.push(terms[0]).mul(last).lt(calc.valTerm(Type.INT, "Y")).pop();
+    }
+    
+    @Benchmark
+    public boolean isSatRefuted() throws InvalidInputException, DecisionException {
+        return this.dec.isSat(this.queryUnsat);
+    }
+    
+    @Benchmark
+    public boolean isSatPassed() throws InvalidInputException, DecisionException {
+        return this.dec.isSat(this.querySat);
+    }
+}
@@ -0,0 +1,73 @@
+package jbse.jvm;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jbse.bench.BenchmarkEnvironment;
+import jbse.rewr.CalculatorRewriting;
+
+/**
+ * Benchmarks {@link Engine#step()} by exploring all the 
+ * paths of a benchmark target program, starting from its
+ * initial state (the bootstrap of the JVM is performed once
+ * per trial, and is not measured). The number of steps is 
+ * reported as an auxiliary counter, so the time per step
+ * can be derived.
+ * 
+ * @author Pietro Braione
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class EngineBenchmark {
+    /** The target program: its class, method descriptor and method name. */
+    @Param({"jbse/bench/targets/Concrete:()I:run", "jbse/bench/targets/Symbolic:(III)I:run"})
+    public String target;
+    
+    private CalculatorRewriting calc;
+    private jbse.mem.State initial;
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long steps;
+        public long paths;
+    }
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final String[] sig = this.target.split(":");
+        this.calc = BenchmarkEnvironment.calculator();
+        this.initial = BenchmarkEnvironment.initialState(this.calc, sig[0], sig[1], sig[2]);
+    }
+    
+    @Benchmark
+    public void explore(Counters counters) throws Exception {
+        final RunnerParameters p = new RunnerParameters();
+        p.setCalculator(this.calc);
+        p.setDecisionProcedure(BenchmarkEnvironment.decisionProcedure(this.calc));
+        p.setStartingState(this.initial);
+        final RunnerBuilder rb = new RunnerBuilder();
+        final Runner runner = rb.build(p);
+        runner.run();
+        counters.steps += rb.getEngine().getAnalyzedStates();
+        counters.paths += runner.getPathsTotal();
+    }
+}
@@ -0,0 +1,103 @@
+package jbse.mem;
+
+import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bench.BenchmarkEnvironment;
+import jbse.rewr.CalculatorRewriting;
+
+/**
+ * Benchmarks {@link Heap#getObject(long)} on a heap that 
+ * comes from a chain of lazy clones of a given depth, where 
+ * each generation adds some objects. 
+ * 
+ * @author Pietro Braione
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HeapBenchmark {
+    private static final int OBJECTS_PER_GENERATION = 64;
+    
+    @Param({"1", "16", "256"})
+    public int depth;
+    
+    /** The last heap in the chain, after it was fully accessed. */
+    private Heap deep;
+    
+    /** The last heap in the chain, never accessed. */
+    private Heap deepPristine;
+    
+    private long[] positions;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final ClassHierarchy hier = new ClassHierarchy(BenchmarkEnvironment.classpath(), ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap());
+        final ClassFile classFile = hier.loadCreateClass(CLASSLOADER_APP, "tsafe/main/SimpleCalculator", true);
+        final CalculatorRewriting calc = BenchmarkEnvironment.calculator();
+        Heap h = new Heap(Long.MAX_VALUE);
+        this.positions = new long[this.depth * OBJECTS_PER_GENERATION];
+        int k = 0;
+        for (int i = 0; i < this.depth; ++i) {
+            h = h.lazyClone();
+            for (int j = 0; j < OBJECTS_PER_GENERATION; ++j) {
+                final InstanceImpl_DEFAULT o = new InstanceImpl_DEFAULT(calc, false, classFile, null, null, classFile.numOfStaticFields(), classFile.getObjectFields());
+                this.positions[k++] = h.addNew(o);
+            }
+        }
+        this.deepPristine = h.lazyClone();
+        this.deep = h.lazyClone();
+        for (long pos : this.positions) {
+            this.deep.getObject(pos);
+        }
+    }
+    
+    /**
+     * Gets all the objects from a heap where
+     * they were already accessed.
+     */
+    @Benchmark
+    public void getObjectWarm(Blackhole bh) {
+        for (long pos : this.positions) {
+            bh.consume(this.deep.getObject(pos));
+        }
+    }
+    
+    /**
+     * Lazily clones the heap, and gets all the objects
+     * from the clone, so every access must look up the 
+     * shared objects and wrap them.
+     */
+    @Benchmark
+    public void getObjectCold(Blackhole bh) {
+        final Heap h = this.deepPristine.lazyClone();
+        for (long pos : this.positions) {
+            bh.consume(h.getObject(pos));
+        }
+    }
+    
+    /**
+     * Gets the oldest object in a fresh lazy clone.
+     */
+    @Benchmark
+    public HeapObjekt getObjectOldest() {
+        return this.deepPristine.lazyClone().getObject(this.positions[0]);
+    }
+}
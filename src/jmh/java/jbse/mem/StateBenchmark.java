@@ -0,0 +1,51 @@
+package jbse.mem;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jbse.bench.BenchmarkEnvironment;
+
+/**
+ * Benchmarks the cloning of a {@link jbse.mem.State} right
+ * after the bootstrap of the JVM, i.e., with all the standard
+ * classes loaded and initialized and a large heap. 
+ * 
+ * @author Pietro Braione
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StateBenchmark {
+    private jbse.mem.State initial;
+    private jbse.mem.State lazyCloned;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.initial = BenchmarkEnvironment.initialState(BenchmarkEnvironment.calculator(), "jbse/bench/targets/Concrete", "()I", "run");
+        this.lazyCloned = this.initial.lazyClone();
+    }
+    
+    @Benchmark
+    public jbse.mem.State stateClone() {
+        return this.initial.clone();
+    }
+    
+    @Benchmark
+    public jbse.mem.State stateLazyClone() {
+        return this.initial.lazyClone();
+    }
+    
+    @Benchmark
+    public jbse.mem.State stateLazyCloneOfLazyClone() {
+        return this.lazyCloned.lazyClone();
+    }
+}
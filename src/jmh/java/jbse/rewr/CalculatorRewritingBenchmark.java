@@ -0,0 +1,80 @@
+package jbse.rewr;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jbse.bench.BenchmarkEnvironment;
+import jbse.common.Type;
+import jbse.val.Primitive;
+import jbse.val.Term;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * Benchmarks {@link CalculatorRewriting#simplify(Primitive)} 
+ * with {@link RewriterPolynomials} on the product of 
+ * polynomials, both on a fresh calculator (cold) and on a 
+ * calculator that already simplified the same term (warm).
+ * 
+ * @author Pietro Braione
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CalculatorRewritingBenchmark {
+    /** The number of factors of the product. */
+    @Param({"2", "4", "6"})
+    public int factors;
+    
+    private CalculatorRewriting warm;
+    private Primitive warmInput;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidOperandException, InvalidTypeException {
+        this.warm = BenchmarkEnvironment.calculator();
+        this.warmInput = build(this.warm);
+        this.warm.simplify(this.warmInput);
+    }
+    
+    /**
+     * Builds (A + 2 * B - 1) * (A + 2 * B - 2) * ... 
+     * with {@link #factors} factors, without simplifying it.
+     * 
+     * @param calc a {@link CalculatorRewriting}.
+     * @return a {@link Primitive}.
+     * @throws InvalidOperandException never.
+     * @throws InvalidTypeException never.
+     */
+    private Primitive build(CalculatorRewriting calc) throws InvalidOperandException, InvalidTypeException {
+        final CalculatorRewriting plain = new CalculatorRewriting(); //no rewriters, to build the raw term
+        final Term A = calc.valTerm(Type.INT, "A");
+        final Term B = calc.valTerm(Type.INT, "B");
+        Primitive retVal = null;
+        for (int i = 1; i <= this.factors; ++i) {
+            final Primitive factor = plain.push(A).add(plain.pushInt(2).mul(B).pop()).sub(calc.valInt(i)).pop();
+            retVal = (retVal == null ? factor : plain.push(retVal).mul(factor).pop());
+        }
+        return retVal;
+    }
+    
+    @Benchmark
+    public Primitive simplifyCold() throws InvalidOperandException, InvalidTypeException {
+        final CalculatorRewriting calc = BenchmarkEnvironment.calculator();
+        return calc.simplify(build(calc));
+    }
+    
+    @Benchmark
+    public Primitive simplifyWarm() {
+        return this.warm.simplify(this.warmInput);
+    }
+}
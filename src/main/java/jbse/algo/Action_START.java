@@ -131,6 +131,16 @@ public final class Action_START {
     ClasspathException, ContradictionException, InvalidInputException {
         //TODO do checks and possibly raise exceptions
 
+        //if possible, starts from a stored post-bootstrap state
+        if (ctx.getStateStart() == null) {
+            final State stateInitial = ctx.getStateStartupSnapshot();
+            if (stateInitial != null) {
+                stateInitial.setStutters(false);
+                ctx.stateTree.addStateInitial(stateInitial);
+                return;
+            }
+        }
+
         //gets or creates the starting state
         State state = ctx.getStateStart();
         boolean userProvidedStartState = true;
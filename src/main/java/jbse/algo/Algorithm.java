@@ -267,6 +267,9 @@ UP extends StrategyUpdate<R>> implements Action {
         final boolean branchAdded = possiblyAddBranchPoint(decisionResults);
         for (R result : decisionResults) {
             final State stateCurrent = (tot > 1 ? state.lazyClone() : state);
+            if (tot > 1) {
+                this.ctx.recordStateClone(stateCurrent);
+            }
 
             InterruptException interrupt = null;
             try {
@@ -578,9 +578,11 @@ import jbse.bc.ClassHierarchy;
 import jbse.bc.Classpath;
 import jbse.bc.Signature;
 import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.common.MetricsRegistry;
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.DecisionProcedureAlgorithms;
+import jbse.jvm.StartupSnapshots;
 import jbse.mem.State;
 import jbse.rules.TriggerRulesRepo;
 import jbse.tree.DecisionAlternative;
@@ -686,6 +688,21 @@ public final class ExecutionContext {
     
     /** The initial state. */
     public State stateInitial = null;
+    
+    /** The registry where the metrics are recorded, or {@code null}. */
+    private MetricsRegistry metrics = null;
+
+    /** The store of the post-bootstrap states, or {@code null}. */
+    private StartupSnapshots startupSnapshots = null;
+
+    /** The key of this execution in {@link #startupSnapshots}. */
+    private String startupSnapshotsKey = null;
+    
+    /** The number of lazy clones of states, or {@code null}. */
+    private MetricsRegistry.Counter stateClones = null;
+    
+    /** The number of heap objects in the cloned states, or {@code null}. */
+    private MetricsRegistry.Histogram stateCloneHeapObjects = null;
 
     /**
      * Constructor.
@@ -1091,6 +1108,76 @@ public final class ExecutionContext {
     	return this.calc;
     }
     
+    /**
+     * Sets the registry where the metrics are recorded.
+     * 
+     * @param metrics a {@link MetricsRegistry}, or {@code null}
+     *        for recording no metrics.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+        try {
+            this.stateClones = (metrics == null ? null : metrics.counter("jbse_state_clones_total"));
+            this.stateCloneHeapObjects = (metrics == null ? null : metrics.histogram("jbse_state_clone_heap_objects"));
+        } catch (InvalidInputException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+    }
+    
+    /**
+     * Returns the registry where the metrics are recorded.
+     * 
+     * @return a {@link MetricsRegistry}, or {@code null} if 
+     *         no metrics must be recorded.
+     */
+    public MetricsRegistry getMetrics() {
+        return this.metrics;
+    }
+    
+    /**
+     * Sets the store of the states at the end of the 
+     * pre-initial phase.
+     * 
+     * @param startupSnapshots a {@link StartupSnapshots}, or
+     *        {@code null} for always bootstrapping the JVM.
+     * @param key a {@link String}, the key of this execution
+     *        in {@code startupSnapshots}.
+     */
+    public void setStartupSnapshots(StartupSnapshots startupSnapshots, String key) {
+        this.startupSnapshots = startupSnapshots;
+        this.startupSnapshotsKey = key;
+    }
+
+    /**
+     * Returns the stored state at the end of the pre-initial 
+     * phase for this execution.
+     * 
+     * @return a {@link State}, a clone of the initial state
+     *         of a previous execution with the same settings, 
+     *         or {@code null} if there is no such state or 
+     *         a starting state was provided.
+     */
+    public State getStateStartupSnapshot() {
+        if (this.startupSnapshots == null || this.stateStart != null) {
+            return null;
+        }
+        return this.startupSnapshots.get(this.startupSnapshotsKey);
+    }
+
+    /**
+     * Records that a state was cloned, if metrics
+     * must be recorded.
+     * 
+     * @param clone the cloned {@link State}.
+     */
+    public void recordStateClone(State clone) {
+        if (this.stateClones != null) {
+            this.stateClones.inc();
+            this.stateCloneHeapObjects.record(clone.getHeapSize());
+        }
+    }
+    
     /**
      * Returns whether the classes created during
      * the pre-initialization phase shall be (pedantically)
@@ -1133,6 +1220,9 @@ public final class ExecutionContext {
     public void switchInitial(State stateInitial) {
         this.stateInitial = stateInitial.clone();
         this.stateTree.setBreadthModePostInitial();
+        if (this.startupSnapshots != null && this.stateStart == null) {
+            this.startupSnapshots.putIfAbsent(this.startupSnapshotsKey, this.stateInitial);
+        }
     }
 
     /**
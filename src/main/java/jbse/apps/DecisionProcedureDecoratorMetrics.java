@@ -0,0 +1,199 @@
+package jbse.apps;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import jbse.bc.ClassFile;
+import jbse.common.MetricsRegistry;
+import jbse.common.MetricsRegistry.Histogram;
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.DecisionProcedure;
+import jbse.dec.DecisionProcedureDecorator;
+import jbse.dec.exc.DecisionException;
+import jbse.mem.Clause;
+import jbse.mem.Objekt;
+import jbse.mem.exc.ContradictionException;
+import jbse.val.Expression;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
+
+/**
+ * A {@link DecisionProcedureDecorator} that records in a 
+ * {@link MetricsRegistry} the latency of its component, 
+ * as a histogram for each kind of query.
+ *  
+ * @author Pietro Braione
+ */
+public final class DecisionProcedureDecoratorMetrics extends DecisionProcedureDecorator {
+    private static final String NAME = "jbse_decision_procedure_duration_nanoseconds";
+    private static final String LABEL = "query";
+    
+    private final Histogram pushAssumption;
+    private final Histogram clearAssumptions;
+    private final Histogram addAssumptions;
+    private final Histogram setAssumptions;
+    private final Histogram getAssumptions;
+    private final Histogram isSat;
+    private final Histogram isSatNull;
+    private final Histogram isSatAliases;
+    private final Histogram isSatExpands;
+    private final Histogram isSatInitialized;
+    private final Histogram isSatNotInitialized;
+    private final Histogram getModel;
+    private final Histogram simplify;
+
+    /**
+     * Constructor.
+     * 
+     * @param component the component {@link DecisionProcedure}.
+     * @param metrics the {@link MetricsRegistry} where the latencies 
+     *        are recorded.
+     * @throws InvalidInputException if {@code component == null || metrics == null}.
+     */
+    public DecisionProcedureDecoratorMetrics(DecisionProcedure component, MetricsRegistry metrics) 
+    throws InvalidInputException {
+        super(component);
+        if (metrics == null) {
+            throw new InvalidInputException("Attempted to create a " + getClass().getName() + " with null metrics registry.");
+        }
+        this.pushAssumption = metrics.histogram(NAME, LABEL, "pushAssumption");
+        this.clearAssumptions = metrics.histogram(NAME, LABEL, "clearAssumptions");
+        this.addAssumptions = metrics.histogram(NAME, LABEL, "addAssumptions");
+        this.setAssumptions = metrics.histogram(NAME, LABEL, "setAssumptions");
+        this.getAssumptions = metrics.histogram(NAME, LABEL, "getAssumptions");
+        this.isSat = metrics.histogram(NAME, LABEL, "isSat");
+        this.isSatNull = metrics.histogram(NAME, LABEL, "isSatNull");
+        this.isSatAliases = metrics.histogram(NAME, LABEL, "isSatAliases");
+        this.isSatExpands = metrics.histogram(NAME, LABEL, "isSatExpands");
+        this.isSatInitialized = metrics.histogram(NAME, LABEL, "isSatInitialized");
+        this.isSatNotInitialized = metrics.histogram(NAME, LABEL, "isSatNotInitialized");
+        this.getModel = metrics.histogram(NAME, LABEL, "getModel");
+        this.simplify = metrics.histogram(NAME, LABEL, "simplify");
+    }
+
+    private static void record(Histogram h, long start) {
+        h.record(System.nanoTime() - start);
+    }
+
+    @Override
+    public void pushAssumption(Clause c) 
+    throws InvalidInputException, DecisionException, ContradictionException {
+        final long start = System.nanoTime();
+        super.pushAssumption(c);
+        record(this.pushAssumption, start);
+    }
+
+    @Override
+    public void clearAssumptions() 
+    throws DecisionException {
+        final long start = System.nanoTime();
+        super.clearAssumptions();
+        record(this.clearAssumptions, start);
+    }
+    
+    @Override
+    public void addAssumptions(Iterable<Clause> assumptionsToAdd) 
+    throws InvalidInputException, DecisionException, ContradictionException {
+        final long start = System.nanoTime();
+        super.addAssumptions(assumptionsToAdd);
+        record(this.addAssumptions, start);
+    }
+    
+    @Override
+    public void addAssumptions(Clause... assumptionsToAdd) 
+    throws InvalidInputException, DecisionException, ContradictionException {
+        final long start = System.nanoTime();
+        super.addAssumptions(assumptionsToAdd);
+        record(this.addAssumptions, start);
+    }
+
+    @Override
+    public void setAssumptions(Collection<Clause> newAssumptions) 
+    throws InvalidInputException, DecisionException, ContradictionException {
+        final long start = System.nanoTime();
+        super.setAssumptions(newAssumptions);
+        record(this.setAssumptions, start);
+    }
+
+    @Override
+    public List<Clause> getAssumptions() 
+    throws DecisionException {
+        final long start = System.nanoTime();
+        final List<Clause> result = super.getAssumptions();
+        record(this.getAssumptions, start);
+        return result;
+    }
+
+    @Override
+    public boolean isSat(Expression exp) 
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        final boolean result = super.isSat(exp);
+        record(this.isSat, start);
+        return result;
+    }
+
+    @Override
+    public boolean isSatNull(ReferenceSymbolic r) 
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        final boolean result = super.isSatNull(r);
+        record(this.isSatNull, start);
+        return result;
+    }
+
+    @Override
+    public boolean isSatAliases(ReferenceSymbolic r, long heapPos, Objekt o)
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        final boolean result = super.isSatAliases(r, heapPos, o);
+        record(this.isSatAliases, start);
+        return result;
+    }
+
+    @Override
+    public boolean isSatExpands(ReferenceSymbolic r, ClassFile classFile)
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        final boolean result = super.isSatExpands(r, classFile);
+        record(this.isSatExpands, start);
+        return result;
+    }
+
+    @Override
+    public boolean isSatInitialized(ClassFile classFile) 
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        final boolean result = super.isSatInitialized(classFile);
+        record(this.isSatInitialized, start);
+        return result;
+    }
+
+    @Override
+    public boolean isSatNotInitialized(ClassFile classFile)
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        final boolean result = super.isSatNotInitialized(classFile);
+        record(this.isSatNotInitialized, start);
+        return result;
+    }
+    
+    @Override
+    public Map<PrimitiveSymbolic, Simplex> getModel() throws DecisionException {
+        final long start = System.nanoTime();
+        final Map<PrimitiveSymbolic, Simplex> result = super.getModel();
+        record(this.getModel, start);
+        return result;
+    }
+    
+    @Override
+    public Primitive simplify(Primitive c) throws DecisionException {
+        final long start = System.nanoTime();
+        final Primitive result = super.simplify(c);
+        record(this.simplify, start);
+        return result;
+    }
+}
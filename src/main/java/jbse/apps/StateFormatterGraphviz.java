@@ -61,7 +61,7 @@ public class StateFormatterGraphviz implements Formatter {
     }
 
     private String formatHeap(State s) throws FrozenStateException {
-        final Map<Long, Objekt> h = s.getHeap();
+        final Map<Long, Objekt> h = s.getHeapView();
         String retVal = ""; //= "subgraph cluster_heap { label=\"heap\" labeljust=l ";
         this.currentNodePrefix = "H";
         this.nodes = "";
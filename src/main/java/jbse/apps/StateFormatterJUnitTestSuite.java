@@ -14,10 +14,13 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import jbse.common.Type;
 import jbse.common.exc.UnexpectedInternalException;
@@ -95,6 +98,40 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
         this.output = new StringBuilder();
     }
 
+    /**
+     * Merges many test suites emitted by this formatter, e.g., by
+     * the workers of a {@link jbse.jvm.RunnerDistributed}, into a 
+     * single test suite. The test methods are renumbered so their 
+     * names do not clash. Text outside the test suites is dropped.
+     * 
+     * @param suites a {@link List}{@code <}{@link String}{@code >}, 
+     *        the test suites.
+     * @return a {@link String}, the merged test suite.
+     */
+    public static String merge(List<String> suites) {
+        final StringBuilder retVal = new StringBuilder(PROLOGUE);
+        int testCounter = 0;
+        for (String suite : suites) {
+            final int start = suite.indexOf(PROLOGUE);
+            if (start < 0) {
+                continue;
+            }
+            final int end = suite.lastIndexOf('}');
+            final String body = suite.substring(start + PROLOGUE.length(), Math.max(start + PROLOGUE.length(), end));
+            final Matcher m = TEST_METHOD.matcher(body);
+            final StringBuffer renumbered = new StringBuffer();
+            while (m.find()) {
+                m.appendReplacement(renumbered, "    public void test" + (testCounter++) + "() {");
+            }
+            m.appendTail(renumbered);
+            retVal.append(renumbered);
+        }
+        retVal.append("}\n");
+        return retVal.toString();
+    }
+    
+    private static final Pattern TEST_METHOD = Pattern.compile("^    public void test\\d+\\(\\) \\{", Pattern.MULTILINE);
+
     private static final String PROLOGUE =
         "import static java.lang.System.identityHashCode;\n" +
         "import static org.junit.Assert.*;\n" +
@@ -598,7 +635,7 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
 
         private static String getTypeOfObjectInHeap(State finalState, long num) 
         throws FrozenStateException {
-            final Map<Long, Objekt> heap = finalState.getHeap();
+            final Map<Long, Objekt> heap = finalState.getHeapView();
             final Objekt o = heap.get(num);
             return o.getType().getClassName();
         }
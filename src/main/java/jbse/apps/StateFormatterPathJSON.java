@@ -0,0 +1,110 @@
+package jbse.apps;
+
+import static jbse.apps.Util.formatPrimitive;
+import static jbse.mem.Frame.UNKNOWN_PC;
+import static jbse.mem.Frame.UNKNOWN_SOURCE_ROW;
+
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.mem.SnippetFrameNoWrap;
+import jbse.mem.State;
+import jbse.mem.exc.FrozenStateException;
+import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.val.Primitive;
+import jbse.val.Reference;
+import jbse.val.Value;
+
+/**
+ * A {@link Formatter} which yields a compact summary of the
+ * current {@link State} as a one-line JSON object, so that the
+ * output of a symbolic execution is a newline-delimited
+ * JSON (NDJSON) stream. It reports the same information of
+ * {@link StateFormatterPath} with the exception of the
+ * disassembled bytecode, and is meant for processing
+ * by tools rather than humans.
+ *
+ * @author Pietro Braione
+ */
+public final class StateFormatterPathJSON implements Formatter {
+    /** Here the result of {@link #formatState(State)}. */
+    private String output = "";
+
+    @Override
+    public void formatState(State s) {
+        final StringBuilder sb = new StringBuilder("{\"id\":");
+        appendString(sb, s.getBranchIdentifier());
+        sb.append(",\"seq\":").append(s.getSequenceNumber());
+        sb.append(",\"depth\":").append(s.getDepth());
+        sb.append(",\"count\":").append(s.getCount());
+        try {
+            if (s.isStuck()) {
+                sb.append(",\"leaf\":true");
+                if (s.getStuckException() != null) {
+                    sb.append(",\"exception\":");
+                    appendString(sb, formatReturn(s, s.getStuckException()));
+                } else if (s.getStuckReturn() != null) {
+                    sb.append(",\"return\":");
+                    appendString(sb, formatReturn(s, s.getStuckReturn()));
+                }
+            } else if (s.getStackSize() > 0) {
+                try {
+                    final boolean snippet = (s.getCurrentFrame() instanceof SnippetFrameNoWrap);
+                    sb.append(",\"method\":");
+                    if (snippet) {
+                        sb.append("null");
+                    } else {
+                        appendString(sb, s.getCurrentMethodSignature().toString());
+                    }
+                    sb.append(",\"row\":").append(s.getSourceRow() == UNKNOWN_SOURCE_ROW ? "null" : Integer.toString(s.getSourceRow()));
+                    sb.append(",\"pc\":").append(s.getCurrentProgramCounter() == UNKNOWN_PC ? "null" : Integer.toString(s.getCurrentProgramCounter()));
+                } catch (ThreadStackEmptyException e) {
+                    //this should never happen
+                    throw new UnexpectedInternalException(e);
+                }
+            } //else we are at the initial state: nothing to add
+        } catch (FrozenStateException e) {
+            this.output = "";
+            return;
+        }
+        sb.append("}\n");
+        this.output = sb.toString();
+    }
+
+    private static String formatReturn(State s, Value v) throws FrozenStateException {
+        if (v instanceof Primitive) {
+            return formatPrimitive((Primitive) v);
+        } else if (v instanceof Reference) {
+            if (s.isNull((Reference) v)) {
+                return "null";
+            } else {
+                return s.getObject((Reference) v).getType().getClassName();
+            }
+        } else {
+            throw new UnexpectedInternalException("Unexpected value " + v + " returned.");
+        }
+    }
+
+    private static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    @Override
+    public String emit() {
+        return this.output;
+    }
+
+    @Override
+    public void cleanup() {
+        this.output = "";
+    }
+}
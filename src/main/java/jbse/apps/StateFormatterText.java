@@ -289,14 +289,14 @@ public final class StateFormatterText implements Formatter {
     private static void formatHeap(State s, StringBuilder sb, boolean fullPrint, Set<Long> reachable, boolean breakLines, String indentTxt, String indentCurrent) 
     throws FrozenStateException {
         final String lineSep = (breakLines ? LINE_SEP : "");
-        final Map<Long, Objekt> h = s.getHeap();
-        final Set<Map.Entry<Long, Objekt>> entries;
+        final Map<Long, Objekt> h = s.getHeapView();
+        final Iterable<Map.Entry<Long, Objekt>> entries;
         if (fullPrint) {
             entries = h.entrySet();
         } else {
-            entries = h.entrySet().stream()
-                      .filter(e -> reachable.contains(e.getKey()))
-                      .collect(Collectors.toMap(e -> e.getKey(), e -> e.getValue(), throwingMerger(), TreeMap::new)).entrySet();
+            entries = () -> h.entrySet().stream()
+                            .filter(e -> reachable.contains(e.getKey()))
+                            .iterator();
         }
         final int heapSize = h.size();
         sb.append(indentCurrent);
@@ -0,0 +1,181 @@
+package jbse.apps;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Writes formatted text to a channel incrementally, running the
+ * formatting on a background thread so it does not block the
+ * symbolic execution. The text is produced by formatting tasks
+ * that are executed in the order they are submitted; each task
+ * must thus only use data (e.g., a copy of a {@link jbse.mem.State})
+ * that the submitter does not modify afterwards. The text is
+ * encoded in UTF-8 in a buffer, that is written to the channel
+ * whenever it is full or no formatting task is pending.
+ *
+ * @author Pietro Braione
+ */
+public final class StreamingEmitter implements AutoCloseable {
+    /** The size of the buffer. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** The poison pill that stops the background thread. */
+    private static final Supplier<String> STOP = () -> "";
+
+    /** The channel where the text is written. */
+    private final WritableByteChannel channel;
+
+    /** The pending formatting tasks. */
+    private final ArrayBlockingQueue<Supplier<String>> tasks;
+
+    /** The buffer of the encoded text. */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /** The encoder of the text. */
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    /** The background thread. */
+    private final Thread thread;
+
+    /** The first failure of the background thread. */
+    private volatile Exception failure = null;
+
+    /** Whether this emitter is closed. */
+    private boolean closed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param channel the {@link WritableByteChannel} where the text
+     *        is written. It is closed by {@link #close()}.
+     * @param capacity a positive {@code int}, the maximum number of
+     *        pending formatting tasks; when it is reached,
+     *        {@link #submit(Supplier)} blocks.
+     */
+    public StreamingEmitter(WritableByteChannel channel, int capacity) {
+        this.channel = channel;
+        this.tasks = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(this::work, "jbse-emitter");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Submits a formatting task.
+     *
+     * @param task a {@link Supplier}{@code <}{@link String}{@code >}
+     *        that yields the formatted text. It is invoked by
+     *        the background thread.
+     * @throws IOException if a previous formatting task failed,
+     *         or writing to the channel failed, or this emitter
+     *         is closed.
+     */
+    public void submit(Supplier<String> task) throws IOException {
+        rethrowFailure();
+        if (this.closed) {
+            throw new IOException("Attempted to submit a formatting task to a closed emitter.");
+        }
+        try {
+            this.tasks.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Waits until all the submitted formatting tasks are executed,
+     * writes all the text, and closes the channel.
+     *
+     * @throws IOException if some formatting task failed, or
+     *         writing to or closing the channel failed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            this.tasks.put(STOP);
+            this.thread.join();
+        } catch (InterruptedException e) {
+            this.thread.interrupt();
+            Thread.currentThread().interrupt();
+        } finally {
+            this.channel.close();
+        }
+        rethrowFailure();
+    }
+
+    private void rethrowFailure() throws IOException {
+        final Exception e = this.failure;
+        if (e instanceof IOException) {
+            throw (IOException) e;
+        } else if (e != null) {
+            throw new IOException(e);
+        }
+    }
+
+    private void work() {
+        try {
+            while (true) {
+                final Supplier<String> task = this.tasks.take();
+                if (task == STOP) {
+                    flush();
+                    return;
+                }
+                if (this.failure == null) {
+                    encode(task.get());
+                    if (this.tasks.isEmpty()) {
+                        flush();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            //stops
+        } catch (Exception e) {
+            this.failure = e;
+            //drains the queue, so the submitter never blocks
+            while (true) {
+                try {
+                    if (this.tasks.take() == STOP) {
+                        return;
+                    }
+                } catch (InterruptedException e1) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void encode(String text) throws IOException {
+        final CharBuffer chars = CharBuffer.wrap(text);
+        while (true) {
+            final CoderResult result = this.encoder.encode(chars, this.buffer, true);
+            if (result.isOverflow()) {
+                flush();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        this.encoder.reset();
+    }
+
+    private void flush() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+}
@@ -1,5 +1,7 @@
 package jbse.apps.run;
 
+import java.io.IOException;
+
 import jbse.algo.ExecutionContext;
 import jbse.algo.exc.CannotManageStateException;
 import jbse.algo.exc.NotYetImplementedException;
@@ -21,6 +23,7 @@ import jbse.jvm.exc.FailureException;
 import jbse.jvm.exc.InitializationException;
 import jbse.jvm.exc.NonexistingObservedVariablesException;
 import jbse.jvm.RunnerParameters;
+import jbse.jvm.StartupSnapshots;
 import jbse.mem.Array;
 import jbse.mem.Array.AccessOutcome;
 import jbse.mem.Array.AccessOutcomeInValue;
@@ -49,6 +52,11 @@ import jbse.val.exc.InvalidTypeException;
 
 /**
  * {@link DecisionProcedureGuidance} that uses JBSE to perform concrete execution. 
+ * Optionally, the states reached by the concrete executions at their stop points 
+ * are kept in a {@link StartupSnapshots} store, so a guided analysis of an 
+ * entry point that was already driven with the same settings (e.g., a retry 
+ * after a {@link GuidanceException}) starts from a copy of the stored state 
+ * instead of re-executing the concrete prefix.
  */
 public final class DecisionProcedureGuidanceJBSE extends DecisionProcedureGuidance {
     /**
@@ -74,7 +82,8 @@ public final class DecisionProcedureGuidanceJBSE extends DecisionProcedureGuidan
     }
 
     /**
-     * Builds the {@link DecisionProcedureGuidanceJBSE}.
+     * Builds the {@link DecisionProcedureGuidanceJBSE}, that always
+     * performs the concrete execution.
      *
      * @param component the component {@link DecisionProcedure} it decorates.
      * @param calc a {@link Calculator}.
@@ -92,7 +101,33 @@ public final class DecisionProcedureGuidanceJBSE extends DecisionProcedureGuidan
      */
     public DecisionProcedureGuidanceJBSE(DecisionProcedure component, Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits) 
     throws GuidanceException, InvalidInputException {
-        super(component, new JVMJBSE(calc, runnerParameters, stopSignature, numberOfHits));
+        this(component, calc, runnerParameters, stopSignature, numberOfHits, null);
+    }
+
+    /**
+     * Builds the {@link DecisionProcedureGuidanceJBSE}.
+     *
+     * @param component the component {@link DecisionProcedure} it decorates.
+     * @param calc a {@link Calculator}.
+     * @param runnerParameters the {@link RunnerParameters} of the symbolic execution.
+     *        The constructor modifies this object by adding the {@link Runner.Actions}s
+     *        necessary to the execution.
+     * @param stopSignature the {@link Signature} of a method. The guiding concrete execution 
+     *        will stop at the entry of the {@code numberOfHits}-th invocation of the 
+     *        method whose signature is {@code stopSignature}, and the reached state will be used 
+     *        to answer queries.
+     * @param numberOfHits an {@code int} greater or equal to one.
+     * @param snapshots a {@link StartupSnapshots} where the states 
+     *        reached at the stop point are stored and looked up, 
+     *        or {@code null} if the concrete execution must always 
+     *        be performed.
+     * @throws GuidanceException if something fails during creation (and the caller
+     *         is to blame).
+     * @throws InvalidInputException if {@code component == null}.
+     */
+    public DecisionProcedureGuidanceJBSE(DecisionProcedure component, Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits, StartupSnapshots snapshots) 
+    throws GuidanceException, InvalidInputException {
+        super(component, new JVMJBSE(calc, runnerParameters, stopSignature, numberOfHits, snapshots));
     }
     
     private static class JVMJBSE extends JVM {
@@ -102,16 +137,25 @@ public final class DecisionProcedureGuidanceJBSE extends DecisionProcedureGuidan
         private final Frame rootFrameConcrete;
         private final State initialStateConcrete;
         
-        private final Engine engine; //used only by constructor
+        private Engine engine; //used only by constructor
         private Exception catastrophicFailure; //used only by constructor (to allow Actions to report errors)
         private boolean failedConcrete; //used only by constructor (to allow Actions to report errors)
 
-        public JVMJBSE(Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits) 
+        public JVMJBSE(Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits, StartupSnapshots snapshots) 
         throws GuidanceException {
             super(calc, runnerParameters, stopSignature, numberOfHits);
             this.catastrophicFailure = null;
             this.failedConcrete = false;
             
+            //looks for a state already reached with the same settings
+            final String key = snapshotKey(runnerParameters, stopSignature, numberOfHits, snapshots);
+            final State snapshot = (key == null ? null : snapshots.get(key));
+            if (snapshot != null) {
+                this.initialStateConcrete = snapshot;
+                this.rootFrameConcrete = currentFrame(snapshot);
+                return;
+            }
+
             //builds the runner actions
             final Actions a = new Actions() {
                 private int hitCounter = 0;
@@ -196,11 +240,9 @@ public final class DecisionProcedureGuidanceJBSE extends DecisionProcedureGuidan
             //saves the current state and its current frame as the 
             //concrete initial state/frame
             this.initialStateConcrete = this.engine.getCurrentState().clone();
-            try {
-                this.rootFrameConcrete = this.initialStateConcrete.getCurrentFrame();
-            } catch (ThreadStackEmptyException | FrozenStateException e) {
-                //this should never happen
-                throw new UnexpectedInternalException(e);
+            this.rootFrameConcrete = currentFrame(this.initialStateConcrete);
+            if (key != null) {
+                snapshots.putIfAbsent(key, this.initialStateConcrete);
             }
 
             //we don't need the guiding engine anymore
@@ -211,6 +253,40 @@ public final class DecisionProcedureGuidanceJBSE extends DecisionProcedureGuidan
             }
         }
         
+        private static Frame currentFrame(State state) {
+            try {
+                return state.getCurrentFrame();
+            } catch (ThreadStackEmptyException | FrozenStateException e) {
+                //this should never happen
+                throw new UnexpectedInternalException(e);
+            }
+        }
+        
+        /**
+         * Calculates the key of a concrete execution in a store
+         * of concrete states.
+         * 
+         * @param runnerParameters the {@link RunnerParameters} of the concrete execution.
+         * @param stopSignature the {@link Signature} of the stop method.
+         * @param numberOfHits an {@code int}, the number of hits of the stop method.
+         * @param snapshots a {@link StartupSnapshots} or {@code null}.
+         * @return a {@link String}, or {@code null} if the state
+         *         reached by the concrete execution cannot be stored
+         *         (i.e., if {@code snapshots == null}, if the concrete execution 
+         *         starts from a given state, or if the classpath cannot be
+         *         accessed).
+         */
+        private static String snapshotKey(RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits, StartupSnapshots snapshots) {
+            if (snapshots == null || runnerParameters.getEngineParameters().getStartingState() != null) {
+                return null;
+            }
+            try {
+                return StartupSnapshots.keyOf(runnerParameters.getEngineParameters()) + ":" + stopSignature + ":" + numberOfHits;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        
         @Override
         public String typeOfObject(ReferenceSymbolic origin) throws GuidanceException, ImpureMethodException {
             final ReferenceConcrete refInConcreteState = (ReferenceConcrete) getValue(origin);
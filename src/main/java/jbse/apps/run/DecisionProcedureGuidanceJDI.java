@@ -13,7 +13,6 @@ import static jbse.common.Type.internalClassName;
 import static jbse.common.Type.isPrimitiveOrVoidCanonicalName;
 import static jbse.common.Type.toPrimitiveOrVoidInternalName;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -21,7 +20,6 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -34,7 +32,6 @@ import java.util.function.Supplier;
 import com.sun.jdi.AbsentInformationException;
 import com.sun.jdi.ArrayReference;
 import com.sun.jdi.BooleanValue;
-import com.sun.jdi.Bootstrap;
 import com.sun.jdi.ByteValue;
 import com.sun.jdi.CharValue;
 import com.sun.jdi.ClassNotLoadedException;
@@ -57,10 +54,6 @@ import com.sun.jdi.ThreadReference;
 import com.sun.jdi.VMDisconnectedException;
 import com.sun.jdi.Value;
 import com.sun.jdi.VirtualMachine;
-import com.sun.jdi.connect.Connector;
-import com.sun.jdi.connect.IllegalConnectorArgumentsException;
-import com.sun.jdi.connect.LaunchingConnector;
-import com.sun.jdi.connect.VMStartException;
 import com.sun.jdi.event.BreakpointEvent;
 import com.sun.jdi.event.ClassPrepareEvent;
 import com.sun.jdi.event.Event;
@@ -81,6 +74,7 @@ import jbse.bc.Signature;
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.DecisionProcedure;
+import jbse.dec.exc.DecisionException;
 import jbse.jvm.Runner;
 import jbse.jvm.RunnerParameters;
 import jbse.mem.Frame;
@@ -106,6 +100,12 @@ import jbse.val.SymbolicMemberField;
  * perform concrete execution. 
  */
 public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidance {
+	/** The default number of debuggee JVMs launched in advance. */
+	public static final int DEFAULT_PRELAUNCHED_VMS = 2;
+	
+	/** The default maximum number of debuggee JVMs kept alive for uninterpreted functions. */
+	public static final int DEFAULT_MAX_LIVE_VMS = 8;
+	
 	/**
 	 * Builds the {@link DecisionProcedureGuidanceJDI}.
 	 *
@@ -146,7 +146,58 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 	 */
 	public DecisionProcedureGuidanceJDI(DecisionProcedure component, Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits) 
 	throws GuidanceException, InvalidInputException {
-		super(component, new JVMJDI(calc, runnerParameters, stopSignature, numberOfHits));
+		this(component, calc, runnerParameters, stopSignature, numberOfHits, DEFAULT_PRELAUNCHED_VMS, DEFAULT_MAX_LIVE_VMS);
+	}
+
+	/**
+	 * Builds the {@link DecisionProcedureGuidanceJDI}.
+	 *
+	 * @param component the component {@link DecisionProcedure} it decorates.
+	 * @param calc a {@link Calculator}.
+	 * @param runnerParameters the {@link RunnerParameters} of the symbolic execution.
+	 *        The constructor modifies this object by adding the {@link Runner.Actions}s
+	 *        necessary to the execution.
+	 * @param stopSignature the {@link Signature} of a method. The guiding concrete execution 
+	 *        will stop at the entry of the {@code numberOfHits}-th nonrecursive invocation of 
+	 *        the method whose signature is {@code stopSignature}, and the reached state will 
+	 *        be used to answer queries.
+	 * @param numberOfHits an {@code int} greater or equal to one.
+	 * @param prelaunchedVms an {@code int}, the number of debuggee JVMs that 
+	 *        are launched in advance, so that evaluating an uninterpreted 
+	 *        function does not wait for a JVM to start. If {@code prelaunchedVms <= 0}
+	 *        the JVMs are launched upon request.
+	 * @param maxLiveVms an {@code int}, the maximum number of debuggee JVMs 
+	 *        that are kept alive after evaluating an uninterpreted function 
+	 *        returning a reference. When exceeded, the least recently used 
+	 *        one is terminated, and relaunched should it be queried again. 
+	 *        If {@code maxLiveVms <= 0} there is no limit.
+	 * @throws GuidanceException if something fails during creation (and the caller
+	 *         is to blame).
+	 * @throws InvalidInputException if {@code component == null}.
+	 */
+	public DecisionProcedureGuidanceJDI(DecisionProcedure component, Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits, int prelaunchedVms, int maxLiveVms) 
+	throws GuidanceException, InvalidInputException {
+		super(component, makeJVM(calc, runnerParameters, stopSignature, numberOfHits, prelaunchedVms, maxLiveVms));
+	}
+	
+	private static JVMJDI makeJVM(Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits, int prelaunchedVms, int maxLiveVms) 
+	throws GuidanceException {
+		final DecisionProcedureGuidanceJDIPool pool = new DecisionProcedureGuidanceJDIPool(runnerParameters, prelaunchedVms, maxLiveVms);
+		try {
+			return new JVMJDI(calc, runnerParameters, stopSignature, numberOfHits, pool);
+		} catch (GuidanceException | RuntimeException e) {
+			pool.close();
+			throw e;
+		}
+	}
+	
+	@Override
+	public void close() throws DecisionException {
+		try {
+			super.close();
+		} finally {
+			((JVMJDI) this.jvm).pool.close();
+		}
 	}
 	
 	@Override
@@ -168,12 +219,19 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 	 */
 	public static int countNonRecursiveHits(RunnerParameters runnerParameters, Signature stopSignature) 
 	throws GuidanceException {
-		final JVMJDI jdiCompleteExecution = new JVMJDI(runnerParameters, stopSignature);
-		return jdiCompleteExecution.hitCounter;
+		final DecisionProcedureGuidanceJDIPool pool = new DecisionProcedureGuidanceJDIPool(runnerParameters, 0, 0);
+		try {
+			final JVMJDI jdiCompleteExecution = new JVMJDI(runnerParameters, stopSignature, pool);
+			return jdiCompleteExecution.hitCounter;
+		} finally {
+			pool.close();
+		}
 	}
         
 	private static class JVMJDI extends JVM {
 		private static final String ERROR_BAD_PATH = "Failed accessing through a memory access path: ";
+		private static final int ORIGIN_CACHE_CAPACITY = 4096; //the debuggee of the initial state never moves, so the caches would grow for the whole analysis
+		private static final int FIELD_VALUES_CACHE_CAPACITY = 1024;
 
 		StreamRedirectThread outThread = null; 
 		StreamRedirectThread errThread = null; 
@@ -181,28 +239,33 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 		protected VirtualMachine vm;
 		private BreakpointRequest breakpoint;
 		protected int hitCounter;
-		private  boolean valueDependsOnSymbolicApply;
 		private int numOfFramesAtMethodEntry;
 		protected Event currentExecutionPointEvent;        
 		private Map<String, ReferenceType> alreadyLoadedClasses = new HashMap<>();
 
-		private final RunnerParameters runnerParameters;
-		private final Signature stopSignature;
-		private final int numberOfHits;
+		protected final RunnerParameters runnerParameters;
+		protected final Signature stopSignature;
+		protected final int numberOfHits;
+		protected final DecisionProcedureGuidanceJDIPool pool;
 		
 		// Handling of uninterpreted functions
 		private Map<SymbolicApply, SymbolicApplyJVMJDI> symbolicApplyCache = new HashMap<>();
+		
+		// Memoization of the concrete state, valid until the debuggee moves
+		private final DecisionProcedureGuidanceJDICache cache = new DecisionProcedureGuidanceJDICache(ORIGIN_CACHE_CAPACITY, FIELD_VALUES_CACHE_CAPACITY);
+		private HashMap<String, Value> rootFrameValuesCache = null;
 		private Map<String, List<String>> symbolicApplyOperatorOccurrences = new HashMap<>();
 		private String currentHashMapModelMethod;
 		
-		private Supplier<State> currentStateSupplier = null;
+		protected Supplier<State> currentStateSupplier = null;
 		
-		public JVMJDI(RunnerParameters runnerParameters, Signature stopSignature) 
+		public JVMJDI(RunnerParameters runnerParameters, Signature stopSignature, DecisionProcedureGuidanceJDIPool pool) 
 		throws GuidanceException {
 			super(null, runnerParameters, stopSignature, Integer.MAX_VALUE);
 			this.runnerParameters = runnerParameters;
 			this.stopSignature = stopSignature;
 			this.numberOfHits = Integer.MAX_VALUE;
+			this.pool = pool;
 			this.vm = createVM();
 			try {
 				goToBreakpoint(stopSignature, 0, Integer.MAX_VALUE);			
@@ -219,12 +282,13 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 			this.currentStateSupplier = currentStateSupplier;
 		}
 
-		public JVMJDI(Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits) 
+		public JVMJDI(Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits, DecisionProcedureGuidanceJDIPool pool) 
 		throws GuidanceException {
 			super(calc, runnerParameters, stopSignature, numberOfHits);
 			this.runnerParameters = runnerParameters;
 			this.stopSignature = stopSignature;
 			this.numberOfHits = numberOfHits;
+			this.pool = pool;
 			this.vm = createVM();
 			goToBreakpoint(stopSignature, 0, numberOfHits);
 			try {
@@ -298,41 +362,12 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 
 		private VirtualMachine createVM() 
 		throws GuidanceException {
-			try {
-				final Iterable<Path> classPath = this.runnerParameters.getClasspath().userClassPath();
-				final ArrayList<String> listClassPath = new ArrayList<>();
-				classPath.forEach(p -> listClassPath.add(p.toString()));
-				final String stringClassPath = String.join(File.pathSeparator, listClassPath.toArray(new String[0]));
-				final String mainClass = DecisionProcedureGuidanceJDILauncher.class.getName();
-				final String targetClass = binaryClassName(this.runnerParameters.getMethodSignature().getClassName());
-				final String startMethodName = this.runnerParameters.getMethodSignature().getName();
-				return launchTarget("-classpath \"" + stringClassPath + File.pathSeparator + this.runnerParameters.getClasspath().jbseLibPath() + "\" " + mainClass + " " + targetClass + " " + startMethodName);
-			} catch (IOException e) {
-				throw new GuidanceException(e);
-			}
-		}
-
-		private VirtualMachine launchTarget(String mainArgs) throws GuidanceException {
-			final LaunchingConnector connector = findLaunchingConnector();
-			final Map<String, Connector.Argument> arguments = connectorArguments(connector, mainArgs);
-			try {
-				return connector.launch(arguments);
-			} catch (IOException | IllegalConnectorArgumentsException | VMStartException exc) {
-				throw new GuidanceException(exc);
-			}
-		}
-
-		private Map<String, Connector.Argument> connectorArguments(LaunchingConnector connector, String mainArgs) {
-			final Map<String, Connector.Argument> arguments = connector.defaultArguments();
-			final Connector.Argument mainArg = arguments.get("main");
-			if (mainArg == null) {
-				throw new Error("Bad launching connector");
-			}
-			mainArg.setValue(mainArgs);
-			return arguments;
+			return this.pool.lease();
 		}
 
 		protected void goToBreakpoint(Signature sig, int offset, int numberOfHits) throws GuidanceException {
+			invalidateCaches();
+
 			//System.out.println("*** moveJdiToCurrentExecutionPointOfJbse: " + jbseLocationAhead.sig + "::" + jbseLocationAhead.pc + " (occurrence " + numberOfHits + ")");
 
 			//sets event requests
@@ -456,16 +491,6 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 			return false;
 		}
 
-		private LaunchingConnector findLaunchingConnector() {
-			final List<Connector> connectors = Bootstrap.virtualMachineManager().allConnectors();
-			for (Connector connector : connectors) {
-				if (connector.name().equals("com.sun.jdi.CommandLineLaunch")) {
-					return (LaunchingConnector) connector;
-				}
-			}
-			throw new Error("No launching connector");
-		}
-
 		private StackFrame rootFrameConcrete() throws IncompatibleThreadStateException, GuidanceException {
 			final int numFramesFromRoot = numFramesFromRootFrameConcrete();
 			final List<StackFrame> frameStack = getCurrentThread().frames();
@@ -521,7 +546,6 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 
 		@Override
 		public Object getValue(Symbolic origin) throws GuidanceException, ImpureMethodException {
-			this.valueDependsOnSymbolicApply = false;
 			final com.sun.jdi.Value val = (com.sun.jdi.Value) getJDIValue(origin);
 			if (val instanceof IntegerValue) {
 				return this.calc.valInt(((IntegerValue) val).intValue());
@@ -559,6 +583,28 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 		 * @throws ImpureMethodException 
 		 */
 		protected Object getJDIValue(Symbolic origin) throws GuidanceException, ImpureMethodException {
+			return this.cache.get(origin, isCacheable(origin), this::getJDIValueUncached);
+		}
+		
+		private boolean isCacheable(Symbolic origin) {
+			return (origin instanceof SymbolicLocalVariable || 
+					origin instanceof KlassPseudoReference ||
+					origin instanceof PrimitiveSymbolicMemberArrayLength ||
+					origin instanceof SymbolicMemberArray ||
+					(origin instanceof SymbolicMemberField && 
+					!isInitialMapField(this.currentStateSupplier.get().getClassHierarchy(), (jbse.val.Value) origin))); //initial maps are cloned at each access
+		}
+		
+		/**
+		 * Empties the memoized concrete state. To be invoked
+		 * whenever the debuggee executes.
+		 */
+		protected void invalidateCaches() {
+			this.cache.invalidate();
+			this.rootFrameValuesCache = null;
+		}
+
+		private Object getJDIValueUncached(Symbolic origin) throws GuidanceException, ImpureMethodException {
 			try {
 				if (origin instanceof SymbolicLocalVariable) {
 					return getJDIValueLocalVariable(((SymbolicLocalVariable) origin).getVariableName());
@@ -582,7 +628,12 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 						throw new GuidanceException(ERROR_BAD_PATH + origin.asOriginString() + " : Fails because containing object is " + o);
 					}
 					try {
+						//the element depends on whatever the container and the index depend on
+						final boolean containerDependsOnSymbolicApply = this.cache.dependsOnSymbolicApply();
 						final Simplex index = (Simplex) eval(((SymbolicMemberArray) origin).getIndex());
+						if (containerDependsOnSymbolicApply) {
+							this.cache.setDependsOnSymbolicApply();
+						}
 						return ((ArrayReference) o).getValue(((Integer) index.getActualValue()).intValue());
 					} catch (ClassCastException e) {
 						throw new GuidanceException(e);
@@ -601,18 +652,18 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 					if (!this.symbolicApplyCache.containsKey(javaMapContainsKeySymbolicApply)) {
 						throw new GuidanceException(ERROR_BAD_PATH + origin.asOriginString() + " : Fails because cointainsKey was not evaluated before evaluating this GET symbol");
 					} 
-					final SymbolicApplyJVMJDI symbolicApplyVm = this.symbolicApplyCache.get(javaMapContainsKeySymbolicApply); 
+					final SymbolicApplyJVMJDI symbolicApplyVm = cachedSymbolicApplyVm(javaMapContainsKeySymbolicApply); 
 					if (!(symbolicApplyVm instanceof InitialMapSymbolicApplyJVMJDI)) {
 						throw new GuidanceException(ERROR_BAD_PATH + origin.asOriginString() + " : Fails because cointainsKey was evaluated as an ordinary abstractlt-interpreted call, rather than as a JAVA_MAP function");
 					} 
 					final InitialMapSymbolicApplyJVMJDI initialMapSymbolicApplyVm = (InitialMapSymbolicApplyJVMJDI) symbolicApplyVm;
 					final Value val = initialMapSymbolicApplyVm.getValueAtKey();
 					if (val != null) {
-						this.valueDependsOnSymbolicApply = true;
+						this.cache.setDependsOnSymbolicApply();
 					}
 					return val;
 				} else if (origin instanceof PrimitiveSymbolicHashCode) {
-					if (	this.valueDependsOnSymbolicApply) {
+					if (this.cache.dependsOnSymbolicApply()) {
 						throw new GuidanceException(ERROR_BAD_PATH + origin.asOriginString() + 
 								" : Fails because the curret implementation of JDI-guidance does not reliably support"
 								+ " decisions that deopend on hashCodes of SymbolicApply symbols or their fields");						
@@ -623,6 +674,7 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 					}
 					final ObjectReference oRef = (ObjectReference) o;
 					final Value retVal = oRef.invokeMethod(getCurrentThread(), oRef.referenceType().methodsByName("hashCode").get(0), Collections.emptyList(), ObjectReference.INVOKE_SINGLE_THREADED);
+					invalidateCaches(); //hashCode may update the state, e.g., String.hash
 					return retVal;
 				} else if (origin instanceof SymbolicApply) {
 					//Implicit invariant: when we see a ReferenceSymbolicApply for the first time, JDI is at the call point of the corresponding function
@@ -630,9 +682,10 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 					if (!this.symbolicApplyCache.containsKey(symbolicApply)) {
 						final SymbolicApplyJVMJDI symbolicApplyVm = startSymbolicApplyVm(symbolicApply);
 						this.symbolicApplyCache.put(symbolicApply, symbolicApplyVm);
+						makeLive(symbolicApply, symbolicApplyVm);
 					} 
-					final SymbolicApplyJVMJDI symbolicApplyVm = this.symbolicApplyCache.get(symbolicApply); 
-					this.valueDependsOnSymbolicApply = true;
+					final SymbolicApplyJVMJDI symbolicApplyVm = cachedSymbolicApplyVm(symbolicApply); 
+					this.cache.setDependsOnSymbolicApply();
 					return symbolicApplyVm.getRetValue();
 				} else {
 					throw new GuidanceException(ERROR_BAD_PATH + origin.asOriginString());
@@ -642,20 +695,54 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 			}
 		}
 
+		/**
+		 * Returns a cached {@link SymbolicApplyJVMJDI}, relaunching it
+		 * if it was evicted.
+		 * 
+		 * @param symbolicApply a {@link SymbolicApply} in {@code this.symbolicApplyCache}.
+		 * @return the {@link SymbolicApplyJVMJDI} that evaluated {@code symbolicApply}.
+		 * @throws GuidanceException if relaunching fails.
+		 * @throws ImpureMethodException if relaunching fails.
+		 */
+		private SymbolicApplyJVMJDI cachedSymbolicApplyVm(SymbolicApply symbolicApply) throws GuidanceException, ImpureMethodException {
+			SymbolicApplyJVMJDI symbolicApplyVm = this.symbolicApplyCache.get(symbolicApply);
+			if (symbolicApplyVm.evicted) {
+				symbolicApplyVm = symbolicApplyVm.relaunch();
+				this.symbolicApplyCache.put(symbolicApply, symbolicApplyVm);
+			}
+			makeLive(symbolicApply, symbolicApplyVm);
+			return symbolicApplyVm;
+		}
+		
+		/**
+		 * Records that a {@link SymbolicApplyJVMJDI} was used, and 
+		 * terminates the least recently used ones if too many are alive.
+		 * 
+		 * @param symbolicApply a {@link SymbolicApply}.
+		 * @param symbolicApplyVm the {@link SymbolicApplyJVMJDI} that evaluated {@code symbolicApply}.
+		 */
+		private void makeLive(SymbolicApply symbolicApply, SymbolicApplyJVMJDI symbolicApplyVm) {
+			if (symbolicApplyVm.vm == null) {
+				return; //closed because no longer needed
+			}
+			this.pool.makeLive(symbolicApply, () -> {
+				symbolicApplyVm.close();
+				symbolicApplyVm.evicted = true;
+			});
+		}
+
 		private SymbolicApplyJVMJDI startSymbolicApplyVm(SymbolicApply symbolicApply) throws GuidanceException, ImpureMethodException {
-			/* TODO: Add a strategy to limit the maximum number of SymbolicApplyJVMJDI that we might allocate 
-			 * to execute uninterpreted functions.
-			 * At the moment, we start a new SymbolicApplyJVMJDI for each symbolicApply, and we keep alive all 
+			/* We start a new SymbolicApplyJVMJDI for each symbolicApply, and we keep alive the 
 			 * SymbolicApplyJVMJDIs that handle any symbolicApply of type ReferenceSymbolicApply, because 
 			 * these might be re-queried at future states for the values of fields within the return object. 
-			 * However, this can become expensive if there are many invocations of ReferenceSymbolicApply 
-			 * uninterpreted functions. 			  
+			 * The pool bounds how many of them are kept alive (see makeLive), the others are
+			 * relaunched upon request.
 			 */
 			if (isSymbolicApplyOnInitialMap(this.currentStateSupplier.get().getClassHierarchy(), (jbse.val.Value) symbolicApply)) {
 				final String op = this.currentHashMapModelMethod; //the operator is containsKey, but we need to move into the jbse.base.JAVA_MAP method where containskey is being evaluated to obtain the proper value of the key
 				final List<String> hitCallCtxs = this.symbolicApplyOperatorOccurrences.get(op);
 				final SymbolicMemberField initialMap = (SymbolicMemberField) symbolicApply.getArgs()[0];
-				final InitialMapSymbolicApplyJVMJDI symbolicApplyVm = new InitialMapSymbolicApplyJVMJDI(this.calc, this.runnerParameters, this.stopSignature, this.numberOfHits, op, hitCallCtxs, initialMap, this.currentStateSupplier);
+				final InitialMapSymbolicApplyJVMJDI symbolicApplyVm = new InitialMapSymbolicApplyJVMJDI(this.calc, this.runnerParameters, this.stopSignature, this.numberOfHits, this.pool, op, hitCallCtxs, initialMap, this.currentStateSupplier);
 				symbolicApplyVm.eval_INVOKEX();
 				if (symbolicApplyVm.getValueAtKey() == null) {
 					// the return value of containsKey is a boolean and there is no Object associated with this key,
@@ -672,7 +759,7 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
             storeNewSymbolicApplyOperatorContextualOccurrence(op, opWithContext);
 			final List<String> hitCallCtxs = this.symbolicApplyOperatorOccurrences.get(op);
 
-			final SymbolicApplyJVMJDI symbolicApplyVm = new SymbolicApplyJVMJDI(this.calc, this.runnerParameters, this.stopSignature, this.numberOfHits, op, hitCallCtxs);
+			final SymbolicApplyJVMJDI symbolicApplyVm = new SymbolicApplyJVMJDI(this.calc, this.runnerParameters, this.stopSignature, this.numberOfHits, this.pool, op, hitCallCtxs);
 			symbolicApplyVm.eval_INVOKEX();
 			
 			//If the return value is a primitive, we do not need this vm any further
@@ -693,17 +780,21 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 		
 		private com.sun.jdi.Value getJDIValueLocalVariable(String var) 
 		throws GuidanceException, IncompatibleThreadStateException, AbsentInformationException {
-			final com.sun.jdi.Value val;
+			final StackFrame rootFrame = rootFrameConcrete();
 			if ("this".equals(var)) {
-				val = rootFrameConcrete().thisObject();
-			} else {
-				final LocalVariable variable = rootFrameConcrete().visibleVariableByName(var); 
-				if (variable == null) {
-					throw new GuidanceException(ERROR_BAD_PATH + "{ROOT}:" + var + ".");
+				return rootFrame.thisObject();
+			}
+			if (this.rootFrameValuesCache == null) {
+				//reads all the local variables in a single round-trip
+				this.rootFrameValuesCache = new HashMap<>();
+				for (Map.Entry<LocalVariable, Value> e : rootFrame.getValues(rootFrame.visibleVariables()).entrySet()) {
+					this.rootFrameValuesCache.put(e.getKey().name(), e.getValue());
 				}
-				val = rootFrameConcrete().getValue(variable);
 			}
-			return val;
+			if (!this.rootFrameValuesCache.containsKey(var)) {
+				throw new GuidanceException(ERROR_BAD_PATH + "{ROOT}:" + var + ".");
+			}
+			return this.rootFrameValuesCache.get(var);
 		}
 
 		private com.sun.jdi.ReferenceType getJDIObjectStatic(String className) 
@@ -750,7 +841,7 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 					throw new GuidanceException(ERROR_BAD_PATH + origin.asOriginString() + " (missing field " + fieldName + ").");
 				}
 				try {
-					return oReference.getValue(fld);
+					return this.cache.fieldValues(oReference, fields).get(fld);
 				} catch (IllegalArgumentException e) {
 					throw new GuidanceException(e);
 				}
@@ -806,6 +897,7 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 		@Override
 		public void step(State jbseState) throws GuidanceException {
 			// Nothing to do: This version of JVMJDI remains stuck at the initial state of the method under analysis
+			// (if it moved, it should invalidate the caches)
 		}
 
 		private static String jdiMethodClassName(Method jdiMeth) {
@@ -837,10 +929,7 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 		@Override
 		protected void close() {
 			if (this.vm != null) {
-				this.vm.exit(0);
-
-				//obviates to inferior process leak
-				this.vm.process().destroyForcibly();
+				this.pool.dispose(this.vm);
 				this.vm = null;
 			}
 			for (SymbolicApplyJVMJDI symbolicApplyVm: symbolicApplyCache.values()) {
@@ -851,22 +940,23 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 	}
 	
 	private static class SymbolicApplyJVMJDI extends JVMJDI {
-		private final String symbolicApplyOperator;
-		private final List<String> hitCallCtxs;
+		protected final String symbolicApplyOperator;
+		protected final List<String> hitCallCtxs;
 		public static final String callContextSeparator = "&&";
 		private final BreakpointRequest targetMethodExitedBreakpoint;
 		protected Value symbolicApplyRetValue;
 		private boolean postInitial = false;
+		private boolean evicted = false;
 
-		public SymbolicApplyJVMJDI(Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int stopSignatureNumberOfHits, String symbolicApplyOperator, List<String> hitCallCtxs) 
+		public SymbolicApplyJVMJDI(Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int stopSignatureNumberOfHits, DecisionProcedureGuidanceJDIPool pool, String symbolicApplyOperator, List<String> hitCallCtxs) 
 		throws GuidanceException {
-			super(calc, runnerParameters, stopSignature, stopSignatureNumberOfHits);
+			super(calc, runnerParameters, stopSignature, stopSignatureNumberOfHits, pool);
 			postInitial = true;
 			this.symbolicApplyOperator = symbolicApplyOperator;
 			if (hitCallCtxs == null || hitCallCtxs.isEmpty()) {
 				throw new UnexpectedInternalException("This should never happen: the considered symbolic apply operator (" + symbolicApplyOperator + ") must occurr at least once");
 			}
-			this.hitCallCtxs = hitCallCtxs;
+			this.hitCallCtxs = new ArrayList<>(hitCallCtxs); //the occurrences stored after this one are not relevant
 			
 			/* We set up a control breakpoint to check if, at any next step, JDI erroneously returns from the method under analysis */
 			try { 
@@ -906,6 +996,20 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 		public Value getRetValue() {
 			return this.symbolicApplyRetValue;
 		}
+		
+		/**
+		 * Launches a new {@link SymbolicApplyJVMJDI} that 
+		 * evaluates the same uninterpreted function as this.
+		 * 
+		 * @return a {@link SymbolicApplyJVMJDI}.
+		 * @throws GuidanceException if the evaluation fails.
+		 * @throws ImpureMethodException if the evaluation fails.
+		 */
+		protected SymbolicApplyJVMJDI relaunch() throws GuidanceException, ImpureMethodException {
+			final SymbolicApplyJVMJDI retVal = new SymbolicApplyJVMJDI(this.calc, this.runnerParameters, this.stopSignature, this.numberOfHits, this.pool, this.symbolicApplyOperator, this.hitCallCtxs);
+			retVal.eval_INVOKEX();
+			return retVal;
+		}
 
 		@Override
 		protected boolean handleBreakpointEvents(Event event, int numberOfHits) throws GuidanceException {
@@ -970,6 +1074,7 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 		}
 
 		private Value stepUpToMethodExit() throws GuidanceException, ImpureMethodException {
+			invalidateCaches();
 			final int currFrames;
 			final Method currMethod;
 			try {
@@ -1051,16 +1156,25 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 	}
 	
 	private static class InitialMapSymbolicApplyJVMJDI extends SymbolicApplyJVMJDI {
+		private final SymbolicMemberField initialMapOrigin;
 		private final ObjectReference initialMapRef;
 		private Value valueAtKey;
 
-		public InitialMapSymbolicApplyJVMJDI(Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits, String symbolicApplyOperator, List<String> hitCallCtxs, SymbolicMemberField initialMapOrigin, Supplier<State> currentStateSupplier) 
+		public InitialMapSymbolicApplyJVMJDI(Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits, DecisionProcedureGuidanceJDIPool pool, String symbolicApplyOperator, List<String> hitCallCtxs, SymbolicMemberField initialMapOrigin, Supplier<State> currentStateSupplier) 
 		throws GuidanceException, ImpureMethodException {
-			super(calc, runnerParameters, stopSignature, numberOfHits, symbolicApplyOperator, hitCallCtxs);
+			super(calc, runnerParameters, stopSignature, numberOfHits, pool, symbolicApplyOperator, hitCallCtxs);
 			setCurrentStateSupplier(currentStateSupplier);
+			this.initialMapOrigin = initialMapOrigin;
 			this.initialMapRef = (ObjectReference) getJDIValue(initialMapOrigin);
 		}
 		
+		@Override
+		protected SymbolicApplyJVMJDI relaunch() throws GuidanceException, ImpureMethodException {
+			final InitialMapSymbolicApplyJVMJDI retVal = new InitialMapSymbolicApplyJVMJDI(this.calc, this.runnerParameters, this.stopSignature, this.numberOfHits, this.pool, this.symbolicApplyOperator, this.hitCallCtxs, this.initialMapOrigin, this.currentStateSupplier);
+			retVal.eval_INVOKEX();
+			return retVal;
+		}
+		
 		@Override
 		protected void eval_INVOKEX() throws GuidanceException {
 			stepIntoSymbolicApplyMethod();
@@ -1068,6 +1182,7 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 				final ObjectReference keyRef = (ObjectReference) getCurrentThread().frame(0).getArgumentValues().get(0);
 				this.symbolicApplyRetValue = initialMapRef.invokeMethod(getCurrentThread(), initialMapRef.referenceType().methodsByName("containsKey").get(0), Collections.singletonList(keyRef), ObjectReference.INVOKE_SINGLE_THREADED);
 				this.valueAtKey = initialMapRef.invokeMethod(getCurrentThread(), initialMapRef.referenceType().methodsByName("get").get(0), Collections.singletonList(keyRef), ObjectReference.INVOKE_SINGLE_THREADED);
+				invalidateCaches();
 			} catch (InvalidTypeException | ClassNotLoadedException | IncompatibleThreadStateException | InvocationException e) {
 				throw new GuidanceException("Failed to call method on the concrete HashMap that corresponds to a symbolic HashMa:" + e);
 			}
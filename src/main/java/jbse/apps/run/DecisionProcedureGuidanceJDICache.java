@@ -0,0 +1,164 @@
+package jbse.apps.run;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.jdi.Field;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.Value;
+
+import jbse.val.Symbolic;
+
+/**
+ * The memoized concrete state of a debuggee of
+ * {@link DecisionProcedureGuidanceJDI}, valid until the debuggee
+ * moves. It maps the origins of the symbolic values to the JDI
+ * objects they resolve to, and the JDI objects to the values of
+ * their fields, both in least-recently-used order up to a maximum
+ * size. The values that depend on uninterpreted functions come
+ * from other debuggees, that might be evicted, thus are not
+ * memoized.
+ *
+ * @author Pietro Braione
+ */
+final class DecisionProcedureGuidanceJDICache {
+	/**
+	 * Resolves an origin on the debuggee.
+	 *
+	 * @author Pietro Braione
+	 */
+	interface Resolver {
+		/**
+		 * Resolves an origin. It may resolve other origins
+		 * through {@link DecisionProcedureGuidanceJDICache#get(Symbolic, boolean, Resolver) get},
+		 * and must invoke {@link DecisionProcedureGuidanceJDICache#setDependsOnSymbolicApply() setDependsOnSymbolicApply}
+		 * if the resolved object comes from the evaluation of
+		 * an uninterpreted function.
+		 *
+		 * @param origin a {@link Symbolic}.
+		 * @return the JDI object {@code origin} resolves to,
+		 *         possibly {@code null}.
+		 * @throws GuidanceException if resolution fails.
+		 * @throws ImpureMethodException if resolution fails.
+		 */
+		Object resolve(Symbolic origin) throws GuidanceException, ImpureMethodException;
+	}
+
+	/** Stands for {@code null} in {@link #origins}. */
+	private static final Object NULL_VALUE = new Object();
+
+	/** The JDI objects, by origin string. */
+	private final LinkedHashMap<String, Object> origins;
+
+	/** The values of the fields, by JDI object. */
+	private final LinkedHashMap<ObjectReference, Map<Field, Value>> fieldValues;
+
+	/**
+	 * Whether the object being resolved depends on the
+	 * evaluation of an uninterpreted function.
+	 */
+	private boolean dependsOnSymbolicApply = false;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param originsCapacity an {@code int}, the maximum number of
+	 *        memoized origins.
+	 * @param fieldValuesCapacity an {@code int}, the maximum number
+	 *        of objects whose field values are memoized.
+	 */
+	DecisionProcedureGuidanceJDICache(int originsCapacity, int fieldValuesCapacity) {
+		this.origins = lruMap(originsCapacity);
+		this.fieldValues = lruMap(fieldValuesCapacity);
+	}
+
+	private static <K, V> LinkedHashMap<K, V> lruMap(int capacity) {
+		return new LinkedHashMap<K, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Resolves an origin, possibly looking it up.
+	 *
+	 * @param origin a {@link Symbolic}.
+	 * @param cacheable {@code true} iff the object {@code origin}
+	 *        resolves to may be memoized.
+	 * @param resolver the {@link Resolver} to invoke if {@code origin}
+	 *        is not memoized.
+	 * @return the JDI object {@code origin} resolves to,
+	 *         possibly {@code null}.
+	 * @throws GuidanceException if {@code resolver} fails.
+	 * @throws ImpureMethodException if {@code resolver} fails.
+	 */
+	Object get(Symbolic origin, boolean cacheable, Resolver resolver) throws GuidanceException, ImpureMethodException {
+		final String key = origin.asOriginString();
+		final Object cached = this.origins.get(key);
+		if (cached != null) {
+			return (cached == NULL_VALUE ? null : cached);
+		}
+
+		//the object depends on an uninterpreted function if
+		//its resolution, or the enclosing one, does
+		final boolean dependsOnSymbolicApplyOuter = this.dependsOnSymbolicApply;
+		this.dependsOnSymbolicApply = false;
+		final Object retVal = resolver.resolve(origin);
+		if (!this.dependsOnSymbolicApply && cacheable) {
+			this.origins.put(key, (retVal == null ? NULL_VALUE : retVal));
+		}
+		this.dependsOnSymbolicApply = this.dependsOnSymbolicApply || dependsOnSymbolicApplyOuter;
+		return retVal;
+	}
+
+	/**
+	 * Records that the object being resolved depends on
+	 * the evaluation of an uninterpreted function.
+	 */
+	void setDependsOnSymbolicApply() {
+		this.dependsOnSymbolicApply = true;
+	}
+
+	/**
+	 * Checks whether the object being resolved depends on
+	 * the evaluation of an uninterpreted function.
+	 *
+	 * @return a {@code boolean}.
+	 */
+	boolean dependsOnSymbolicApply() {
+		return this.dependsOnSymbolicApply;
+	}
+
+	/**
+	 * Reads all the fields of an object in a single
+	 * round-trip with the debuggee, so that the accesses
+	 * to the sibling fields of an object cost nothing.
+	 *
+	 * @param o an {@link ObjectReference}.
+	 * @param fields the {@link List}{@code <}{@link Field}{@code >}
+	 *        returned by {@code o.referenceType().allFields()}.
+	 * @return a {@link Map}{@code <}{@link Field}{@code , }{@link Value}{@code >}.
+	 */
+	Map<Field, Value> fieldValues(ObjectReference o, List<Field> fields) {
+		Map<Field, Value> retVal = this.fieldValues.get(o);
+		if (retVal == null) {
+			retVal = o.getValues(fields);
+			this.fieldValues.put(o, retVal);
+		}
+		return retVal;
+	}
+
+	/**
+	 * Empties the memoized state. To be invoked
+	 * whenever the debuggee executes.
+	 */
+	void invalidate() {
+		this.origins.clear();
+		this.fieldValues.clear();
+	}
+}
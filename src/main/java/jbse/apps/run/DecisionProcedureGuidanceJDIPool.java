@@ -0,0 +1,370 @@
+package jbse.apps.run;
+
+import static jbse.common.Type.binaryClassName;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.sun.jdi.Bootstrap;
+import com.sun.jdi.VMDisconnectedException;
+import com.sun.jdi.VirtualMachine;
+import com.sun.jdi.connect.Connector;
+import com.sun.jdi.connect.IllegalConnectorArgumentsException;
+import com.sun.jdi.connect.LaunchingConnector;
+import com.sun.jdi.connect.VMStartException;
+import com.sun.jdi.event.BreakpointEvent;
+import com.sun.jdi.event.ClassPrepareEvent;
+import com.sun.jdi.event.Event;
+import com.sun.jdi.event.EventQueue;
+import com.sun.jdi.event.EventSet;
+import com.sun.jdi.request.BreakpointRequest;
+import com.sun.jdi.request.ClassPrepareRequest;
+import com.sun.jdi.request.EventRequest;
+import com.sun.jdi.request.EventRequestManager;
+
+import jbse.jvm.RunnerParameters;
+
+/**
+ * A pool of debuggee JVMs for {@link DecisionProcedureGuidanceJDI}.
+ * The JVMs are launched in advance on a background thread, and
+ * each is parked at the entry of the main method of
+ * {@link DecisionProcedureGuidanceJDILauncher}, so a client that
+ * leases one only pays for driving it up to the point it needs.
+ * A JVM cannot be rewound, thus a leased JVM is never given back
+ * to the pool: The client disposes it when done, and the pool
+ * replaces it with a fresh one. The pool also bounds the number 
+ * of leased JVMs that the client keeps alive for the evaluation
+ * of uninterpreted functions, evicting the least recently used.
+ *
+ * @author Pietro Braione
+ */
+final class DecisionProcedureGuidanceJDIPool {
+	/**
+	 * Launches the debuggee JVMs of a pool.
+	 * 
+	 * @author Pietro Braione
+	 */
+	interface Launcher {
+		/**
+		 * Launches a JVM, and suspends it at the entry of the 
+		 * main method of {@link DecisionProcedureGuidanceJDILauncher}.
+		 * 
+		 * @return a {@link VirtualMachine}.
+		 * @throws GuidanceException if the JVM fails to launch.
+		 */
+		VirtualMachine launch() throws GuidanceException;
+		
+		/**
+		 * Terminates a JVM.
+		 * 
+		 * @param vm a {@link VirtualMachine} returned by {@link #launch()}.
+		 */
+		void dispose(VirtualMachine vm);
+	}
+	
+	/** Launches the debuggee JVMs. */
+	private final Launcher launcher;
+
+	/** How many JVMs the pool keeps launched in advance. */
+	private final int prelaunched;
+
+	/**
+	 * How many JVMs for the evaluation of uninterpreted functions
+	 * a client may keep alive at the same time.
+	 */
+	private final int maxLive;
+
+	/** The JVMs being launched or parked. */
+	private final ArrayDeque<Future<VirtualMachine>> parked = new ArrayDeque<>();
+
+	/** The executor launching the JVMs, or {@code null} if {@code prelaunched == 0}. */
+	private final ExecutorService executor;
+
+	/** 
+	 * The evictors of the JVMs kept alive for the evaluation of 
+	 * uninterpreted functions, least recently used first. 
+	 */
+	private final LinkedHashMap<Object, Runnable> live = new LinkedHashMap<>(16, 0.75f, true); //access order, for LRU eviction
+
+	/** Whether the pool was closed. */
+	private volatile boolean closed = false;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param runnerParameters the {@link RunnerParameters} of the
+	 *        concrete execution the debuggee JVMs must perform.
+	 * @param prelaunched an {@code int}, how many JVMs the pool
+	 *        must keep launched in advance. If {@code prelaunched <= 0}
+	 *        the JVMs are launched upon request.
+	 * @param maxLive an {@code int}, how many JVMs for the
+	 *        evaluation of uninterpreted functions may be kept alive
+	 *        at the same time. If {@code maxLive <= 0} there is no limit.
+	 * @throws GuidanceException if the classpath of the JVMs cannot be determined.
+	 */
+	DecisionProcedureGuidanceJDIPool(RunnerParameters runnerParameters, int prelaunched, int maxLive)
+	throws GuidanceException {
+		this(new JDILauncher(mainArgs(runnerParameters)), prelaunched, maxLive);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param launcher the {@link Launcher} of the debuggee JVMs.
+	 * @param prelaunched an {@code int}, how many JVMs the pool
+	 *        must keep launched in advance. If {@code prelaunched <= 0}
+	 *        the JVMs are launched upon request.
+	 * @param maxLive an {@code int}, how many JVMs for the
+	 *        evaluation of uninterpreted functions may be kept alive
+	 *        at the same time. If {@code maxLive <= 0} there is no limit.
+	 */
+	DecisionProcedureGuidanceJDIPool(Launcher launcher, int prelaunched, int maxLive) {
+		this.launcher = launcher;
+		this.prelaunched = Math.max(0, prelaunched);
+		this.maxLive = Math.max(0, maxLive);
+		if (this.prelaunched == 0) {
+			this.executor = null;
+		} else {
+			this.executor = Executors.newSingleThreadExecutor(r -> {
+				final Thread t = new Thread(r, "JDI debuggee launcher");
+				t.setDaemon(true);
+				return t;
+			});
+			refill();
+		}
+	}
+
+	private static String mainArgs(RunnerParameters runnerParameters) throws GuidanceException {
+		try {
+			final Iterable<Path> classPath = runnerParameters.getClasspath().userClassPath();
+			final ArrayList<String> listClassPath = new ArrayList<>();
+			classPath.forEach(p -> listClassPath.add(p.toString()));
+			final String stringClassPath = String.join(File.pathSeparator, listClassPath.toArray(new String[0]));
+			final String mainClass = DecisionProcedureGuidanceJDILauncher.class.getName();
+			final String targetClass = binaryClassName(runnerParameters.getMethodSignature().getClassName());
+			final String startMethodName = runnerParameters.getMethodSignature().getName();
+			return "-classpath \"" + stringClassPath + File.pathSeparator + runnerParameters.getClasspath().jbseLibPath() + "\" " + mainClass + " " + targetClass + " " + startMethodName;
+		} catch (IOException e) {
+			throw new GuidanceException(e);
+		}
+	}
+
+	/**
+	 * Records that a leased JVM kept alive for the evaluation of 
+	 * an uninterpreted function was used, and evicts the least 
+	 * recently used ones if more than the maximum are alive.
+	 *
+	 * @param key an {@link Object} identifying the JVM.
+	 * @param evictor a {@link Runnable} that terminates the JVM
+	 *        when it is evicted. It replaces the one previously 
+	 *        recorded with {@code key}, if any.
+	 */
+	synchronized void makeLive(Object key, Runnable evictor) {
+		this.live.put(key, evictor);
+		if (this.maxLive > 0) {
+			final Iterator<Runnable> it = this.live.values().iterator();
+			while (this.live.size() > this.maxLive) {
+				final Runnable eldest = it.next();
+				it.remove();
+				eldest.run();
+			}
+		}
+	}
+
+	/**
+	 * Leases a JVM. The JVM is suspended at the entry of the
+	 * main method of {@link DecisionProcedureGuidanceJDILauncher}.
+	 *
+	 * @return a {@link VirtualMachine}. The caller becomes its
+	 *         owner, and must {@link #dispose(VirtualMachine) dispose}
+	 *         it when done.
+	 * @throws GuidanceException if the pool is closed, or the JVM
+	 *         fails to launch.
+	 */
+	synchronized VirtualMachine lease() throws GuidanceException {
+		if (this.closed) {
+			throw new GuidanceException("Cannot lease a JVM from a closed pool.");
+		}
+		final Future<VirtualMachine> next = this.parked.poll();
+		if (this.executor != null) {
+			refill();
+		}
+		if (next == null) {
+			return launchParked();
+		}
+		try {
+			return next.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof GuidanceException) {
+				throw (GuidanceException) e.getCause();
+			}
+			throw new GuidanceException(e);
+		} catch (InterruptedException e) {
+			throw new GuidanceException(e);
+		}
+	}
+
+	/**
+	 * Closes the pool, disposing all the parked JVMs. The JVMs
+	 * already leased are not affected.
+	 */
+	synchronized void close() {
+		this.closed = true;
+		if (this.executor != null) {
+			this.executor.shutdown();
+		}
+		for (Future<VirtualMachine> f : this.parked) {
+			if (f.isDone() && !f.isCancelled()) {
+				try {
+					dispose(f.get());
+				} catch (ExecutionException | InterruptedException e) {
+					//the JVM failed to launch, or was disposed
+				}
+			} else {
+				f.cancel(false); //if it is running, launchParked will dispose the JVM
+			}
+		}
+		this.parked.clear();
+	}
+
+	/**
+	 * Disposes a JVM.
+	 *
+	 * @param vm a {@link VirtualMachine} leased from this pool.
+	 */
+	void dispose(VirtualMachine vm) {
+		this.launcher.dispose(vm);
+	}
+
+	private void refill() {
+		while (this.parked.size() < this.prelaunched) {
+			this.parked.add(this.executor.submit(this::launchParked));
+		}
+	}
+
+	private VirtualMachine launchParked() throws GuidanceException {
+		final VirtualMachine vm = this.launcher.launch();
+		if (this.closed) {
+			dispose(vm);
+			throw new GuidanceException("The pool was closed while launching a JVM.");
+		}
+		return vm;
+	}
+
+	/**
+	 * The {@link Launcher} of the debuggee JVMs performing 
+	 * a concrete execution.
+	 * 
+	 * @author Pietro Braione
+	 */
+	private static final class JDILauncher implements Launcher {
+		/** The command line arguments of the debuggee JVMs. */
+		private final String mainArgs;
+		
+		JDILauncher(String mainArgs) {
+			this.mainArgs = mainArgs;
+		}
+		
+		@Override
+		public VirtualMachine launch() throws GuidanceException {
+			final LaunchingConnector connector = findLaunchingConnector();
+			final Map<String, Connector.Argument> arguments = connectorArguments(connector, this.mainArgs);
+			final VirtualMachine vm;
+			try {
+				vm = connector.launch(arguments);
+			} catch (IOException | IllegalConnectorArgumentsException | VMStartException exc) {
+				throw new GuidanceException(exc);
+			}
+			try {
+				park(vm);
+			} catch (GuidanceException | RuntimeException e) {
+				dispose(vm);
+				throw e;
+			}
+			return vm;
+		}
+		
+		@Override
+		public void dispose(VirtualMachine vm) {
+			try {
+				vm.exit(0);
+			} catch (VMDisconnectedException e) {
+				//already terminated
+			}
+
+			//obviates to inferior process leak
+			vm.process().destroyForcibly();
+		}
+	}
+
+	private static Map<String, Connector.Argument> connectorArguments(LaunchingConnector connector, String mainArgs) {
+		final Map<String, Connector.Argument> arguments = connector.defaultArguments();
+		final Connector.Argument mainArg = arguments.get("main");
+		if (mainArg == null) {
+			throw new Error("Bad launching connector");
+		}
+		mainArg.setValue(mainArgs);
+		return arguments;
+	}
+
+	private static LaunchingConnector findLaunchingConnector() {
+		final List<Connector> connectors = Bootstrap.virtualMachineManager().allConnectors();
+		for (Connector connector : connectors) {
+			if (connector.name().equals("com.sun.jdi.CommandLineLaunch")) {
+				return (LaunchingConnector) connector;
+			}
+		}
+		throw new Error("No launching connector");
+	}
+
+	/**
+	 * Drives a just launched JVM up to the entry of the main
+	 * method of {@link DecisionProcedureGuidanceJDILauncher},
+	 * and leaves it suspended there.
+	 *
+	 * @param vm a {@link VirtualMachine}.
+	 * @throws GuidanceException if the JVM terminates or
+	 *         the thread is interrupted.
+	 */
+	private static void park(VirtualMachine vm) throws GuidanceException {
+		final EventRequestManager mgr = vm.eventRequestManager();
+		final ClassPrepareRequest cprr = mgr.createClassPrepareRequest();
+		cprr.addClassFilter(DecisionProcedureGuidanceJDILauncher.class.getName());
+		cprr.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
+		cprr.enable();
+		BreakpointRequest bkpr = null;
+		vm.resume();
+		final EventQueue queue = vm.eventQueue();
+		try {
+			while (true) {
+				final EventSet eventSet = queue.remove();
+				for (Event event : eventSet) {
+					if (event instanceof ClassPrepareEvent) {
+						final com.sun.jdi.Method main = ((ClassPrepareEvent) event).referenceType().methodsByName("main").get(0);
+						bkpr = mgr.createBreakpointRequest(main.location());
+						bkpr.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
+						bkpr.enable();
+					} else if (event instanceof BreakpointEvent && event.request().equals(bkpr)) {
+						mgr.deleteEventRequest(cprr);
+						mgr.deleteEventRequest(bkpr);
+						return; //without resuming
+					}
+				}
+				eventSet.resume();
+			}
+		} catch (InterruptedException | VMDisconnectedException e) {
+			throw new GuidanceException(e);
+		}
+	}
+}
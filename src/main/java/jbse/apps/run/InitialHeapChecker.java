@@ -9,9 +9,14 @@ import static jbse.common.Type.internalClassName;
 
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Target;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 
 import jbse.algo.exc.CannotManageStateException;
@@ -35,6 +40,12 @@ import jbse.jvm.exc.EngineStuckException;
 import jbse.jvm.exc.FailureException;
 import jbse.jvm.exc.InitializationException;
 import jbse.jvm.exc.NonexistingObservedVariablesException;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.mem.ClauseAssumeAliases;
+import jbse.mem.ClauseAssumeExpands;
+import jbse.mem.ClauseAssumeNull;
+import jbse.mem.ClauseAssumeReferenceSymbolic;
 import jbse.mem.Objekt;
 import jbse.mem.State;
 import jbse.mem.exc.CannotRefineException;
@@ -43,23 +54,61 @@ import jbse.mem.exc.FrozenStateException;
 import jbse.mem.exc.InvalidProgramCounterException;
 import jbse.mem.exc.InvalidSlotException;
 import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.val.Any;
+import jbse.val.Expression;
+import jbse.val.NarrowingConversion;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolicApply;
+import jbse.val.PrimitiveSymbolicAtomic;
+import jbse.val.PrimitiveVisitor;
 import jbse.val.Reference;
 import jbse.val.ReferenceConcrete;
+import jbse.val.ReferenceSymbolic;
 import jbse.val.Simplex;
+import jbse.val.Symbolic;
+import jbse.val.Term;
 import jbse.val.Value;
+import jbse.val.WideningConversion;
 import jbse.val.exc.InvalidTypeException;
 
 public final class InitialHeapChecker {
+    /** The default maximum number of cached verdicts. */
+    public static final int DEFAULT_VERDICT_CACHE_CAPACITY = 4096;
+    
     private final RunnerParameters runnerParameters;
     private final CheckMethodTable checkMethodTable;
     private Supplier<State> initialStateSupplier = null;
     private Supplier<State> currentStateSupplier = null;
+    
+    /** 
+     * The verdicts of the check methods, by the part of the
+     * initial state they depend on (see {@link #verdictKey}).
+     */
+    private final LinkedHashMap<String, Boolean> verdicts;
+    
+    /** The number of verdicts found in {@code verdicts}. */
+    private long verdictHits = 0L;
 
     public InitialHeapChecker(RunnerParameters runnerParameters, 
                               Class<? extends Annotation> methodAnnotationClass,
                               Map<String, String> checkMethods) {
+        this(runnerParameters, methodAnnotationClass, checkMethods, DEFAULT_VERDICT_CACHE_CAPACITY);
+    }
+
+    public InitialHeapChecker(RunnerParameters runnerParameters, 
+                              Class<? extends Annotation> methodAnnotationClass,
+                              Map<String, String> checkMethods, 
+                              int verdictCacheCapacity) {
         this.runnerParameters = runnerParameters;
         this.checkMethodTable = new CheckMethodTable(methodAnnotationClass, checkMethods);
+        this.verdicts = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > verdictCacheCapacity;
+            }
+        };
     }
 
     public void setInitialStateSupplier(Supplier<State> initialStateSupplier) {
@@ -69,6 +118,16 @@ public final class InitialHeapChecker {
     public void setCurrentStateSupplier(Supplier<State> currentStateSupplier) {
         this.currentStateSupplier = currentStateSupplier;
     }   
+    
+    /**
+     * Returns the number of check method executions 
+     * that were spared because their verdict was cached.
+     * 
+     * @return a {@code long}.
+     */
+    public long getVerdictHits() {
+        return this.verdictHits;
+    }
 
     public boolean checkHeap(boolean scopeExhaustionMeansSuccess) {
         final State sIni = makeInitialState();
@@ -78,7 +137,7 @@ public final class InitialHeapChecker {
     public boolean checkHeap(State sIni, boolean scopeExhaustionMeansSuccess) {
         try {
         	//runs the check methods on all the instances in the heap 
-        	for (long heapPos : sIni.getHeap().keySet()) {
+        	for (long heapPos : sIni.getHeapView().keySet()) {
         		final Reference objectRef = new ReferenceConcrete(heapPos);
         		final Objekt obj = sIni.getObject(objectRef);
         		if (obj.isSymbolic()) {
@@ -86,9 +145,18 @@ public final class InitialHeapChecker {
         			if (methodSignature == null) {
         				//nothing to check
         			} else {
-        				final State sRun = sIni.clone();
-        				final boolean repOk = 
-        						runCheckMethod(sRun, objectRef, obj.getType(), methodSignature, this.runnerParameters, scopeExhaustionMeansSuccess);
+        				final String key = verdictKey(methodSignature, obj.getOrigin(), obj.getType().getClassName(), sIni.getPathCondition(), scopeExhaustionMeansSuccess);
+        				Boolean repOk = this.verdicts.get(key);
+        				if (repOk == null) {
+        					final State sRun = sIni.clone();
+        					final RepOkRunnerActions actions = runCheckMethod(sRun, objectRef, obj.getType(), methodSignature, this.runnerParameters, scopeExhaustionMeansSuccess);
+        					repOk = actions.repOk;
+        					if (actions.independent) {
+        						this.verdicts.put(key, repOk);
+        					}
+        				} else {
+        					++this.verdictHits;
+        				}
         				if (!repOk) {
         					return false; 
         				}
@@ -109,6 +177,209 @@ public final class InitialHeapChecker {
         return true;
     }
 
+    /**
+     * Builds the key of the verdict of a check method on an 
+     * object. The key is made of the assumptions in the path 
+     * condition the verdict may depend on: those on the references
+     * whose origins are in the subtree of the object, or in the 
+     * subtrees of the objects they alias, or that are not rooted in 
+     * a local variable (e.g., static fields), those on the primitive
+     * values that are connected to these subtrees through shared 
+     * symbols, and all the assumptions on class initialization. 
+     * Thus, the objects that are not reachable from a newly assumed 
+     * reference keep their key, and are not checked again. The key 
+     * does not account for the objects that a reference not yet 
+     * assumed might alias, so it may only be used to cache the 
+     * verdicts of the check methods that assumed nothing on 
+     * references.
+     * 
+     * @param methodSignature the {@link Signature} of the check method.
+     * @param objectOrigin the {@link ReferenceSymbolic} origin of the object
+     *        to be checked.
+     * @param className a {@link String}, the name of the class of 
+     *        the object to be checked.
+     * @param pathCondition a {@link List}{@code <}{@link Clause}{@code >}, 
+     *        the path condition of the initial state containing the object.
+     * @param scopeExhaustionMeansSuccess a {@code boolean}.
+     * @return a {@link String}.
+     */
+    static String verdictKey(Signature methodSignature, ReferenceSymbolic objectOrigin, String className, List<Clause> pathCondition, boolean scopeExhaustionMeansSuccess) {
+        //finds the origins the verdict depends on
+        final ArrayList<String> roots = new ArrayList<>();
+        roots.add(objectOrigin.asOriginString());
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Clause c : pathCondition) {
+                if (c instanceof ClauseAssumeAliases && inSlice(((ClauseAssumeAliases) c).getReference().asOriginString(), roots)) {
+                    final String aliasedOrigin = ((ClauseAssumeAliases) c).getObjekt().getOrigin().asOriginString();
+                    if (!roots.contains(aliasedOrigin)) {
+                        roots.add(aliasedOrigin);
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        //finds the primitive assumptions the verdict depends on, i.e., 
+        //those connected to the subtrees of the roots by shared symbols
+        final ArrayList<Set<String>> symbolsAssumptions = new ArrayList<>();
+        for (Clause c : pathCondition) {
+            if (c instanceof ClauseAssume) {
+                symbolsAssumptions.add(symbolsIn(((ClauseAssume) c).getCondition()));
+            }
+        }
+        final boolean[] relevant = new boolean[symbolsAssumptions.size()];
+        final HashSet<String> related = new HashSet<>();
+        changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < relevant.length; ++i) {
+                if (!relevant[i] && dependsOn(symbolsAssumptions.get(i), roots, related)) {
+                    relevant[i] = true;
+                    related.addAll(symbolsAssumptions.get(i));
+                    changed = true;
+                }
+            }
+        }
+
+        //builds the key
+        final StringBuilder retVal = new StringBuilder();
+        retVal.append(methodSignature.toString()).append('@').append(className);
+        retVal.append(scopeExhaustionMeansSuccess ? "+" : "-").append(roots.get(0));
+        int i = 0;
+        for (Clause c : pathCondition) {
+            if (c instanceof ClauseAssumeReferenceSymbolic) {
+                final String origin = ((ClauseAssumeReferenceSymbolic) c).getReference().asOriginString();
+                if (!inSlice(origin, roots)) {
+                    continue;
+                }
+                retVal.append(';').append(origin);
+                if (c instanceof ClauseAssumeExpands) {
+                    retVal.append(" fresh ").append(((ClauseAssumeExpands) c).getObjekt().getType().getClassName());
+                } else if (c instanceof ClauseAssumeAliases) {
+                    retVal.append(" aliases ").append(((ClauseAssumeAliases) c).getObjekt().getOrigin().asOriginString());
+                } else if (c instanceof ClauseAssumeNull) {
+                    retVal.append(" null");
+                } else {
+                    retVal.append(' ').append(c.toString());
+                }
+            } else if (c instanceof ClauseAssume) {
+                if (relevant[i++]) {
+                    retVal.append(';').append(c.toString());
+                }
+            } else {
+                retVal.append(';').append(c.toString());
+            }
+        }
+        return retVal.toString();
+    }
+    
+    /**
+     * Checks whether an origin is in the subtree of some roots.
+     * 
+     * @param origin a {@link String}, the origin of a symbol.
+     * @param roots a {@link List}{@code <}{@link String}{@code >}, 
+     *        the origins of the roots.
+     * @return {@code true} iff {@code origin} is not rooted in 
+     *         a local variable, or it is one of {@code roots}, 
+     *         or it is the origin of a member (field, array 
+     *         element, map entry, length, hash code) of one 
+     *         of them, or of a member of a member, etc.
+     */
+    static boolean inSlice(String origin, List<String> roots) {
+        if (!origin.startsWith("{ROOT}")) {
+            return true;
+        }
+        for (String root : roots) {
+            if (origin.startsWith(root) && 
+                (origin.length() == root.length() || ".[:".indexOf(origin.charAt(root.length())) >= 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean dependsOn(Set<String> symbols, List<String> roots, Set<String> related) {
+        for (String symbol : symbols) {
+            if (related.contains(symbol) || inSlice(symbol, roots)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static Set<String> symbolsIn(Primitive p) {
+        final SymbolsCollector collector = new SymbolsCollector();
+        try {
+            p.accept(collector);
+        } catch (Exception e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+        return collector.symbols;
+    }
+    
+    /**
+     * Collects the origins of the symbols in a {@link Primitive}.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class SymbolsCollector implements PrimitiveVisitor {
+        final HashSet<String> symbols = new HashSet<>();
+
+        @Override
+        public void visitAny(Any x) {
+            //nothing to do
+        }
+
+        @Override
+        public void visitExpression(Expression e) throws Exception {
+            if (e.isUnary()) {
+                e.getOperand().accept(this);
+            } else {
+                e.getFirstOperand().accept(this);
+                e.getSecondOperand().accept(this);
+            }
+        }
+
+        @Override
+        public void visitPrimitiveSymbolicApply(PrimitiveSymbolicApply x) throws Exception {
+            for (Value arg : x.getArgs()) {
+                if (arg instanceof Primitive) {
+                    ((Primitive) arg).accept(this);
+                } else if (arg instanceof Symbolic) {
+                    this.symbols.add(((Symbolic) arg).asOriginString());
+                }
+            }
+        }
+
+        @Override
+        public void visitPrimitiveSymbolicAtomic(PrimitiveSymbolicAtomic s) {
+            this.symbols.add(s.asOriginString());
+        }
+
+        @Override
+        public void visitSimplex(Simplex x) {
+            //nothing to do
+        }
+
+        @Override
+        public void visitTerm(Term x) {
+            //nothing to do
+        }
+
+        @Override
+        public void visitNarrowingConversion(NarrowingConversion x) throws Exception {
+            x.getArg().accept(this);
+        }
+
+        @Override
+        public void visitWideningConversion(WideningConversion x) throws Exception {
+            x.getArg().accept(this);
+        }
+    }
+
     public State makeInitialState() {
     	final State sIni;
     	//takes a copy of the initial state and refines it
@@ -235,8 +506,10 @@ public final class InitialHeapChecker {
      * @param scopeExhaustionMeansSuccess {@code true} iff a path that exhausts
      *        the execution scope must be interpreted as a successful 
      *        execution of the method that returns {@code true}. 
-     * @return {@code true} iff there is at least one successful execution
-     *         of the method that returns {@code true}. 
+     * @return the {@link RepOkRunnerActions} of the run: {@code repOk} is
+     *         {@code true} iff there is at least one successful execution
+     *         of the method that returns {@code true}, and {@code independent}
+     *         is {@code true} iff no execution assumed anything on references. 
      * @throws CannotBuildEngineException
      * @throws InitializationException
      * @throws InvalidClassFileFactoryClassException
@@ -255,7 +528,7 @@ public final class InitialHeapChecker {
      * @throws FrozenStateException
      */
     //TODO handle and convert all these exceptions and raise the abstraction level of the operation
-    private static boolean 
+    private static RepOkRunnerActions 
     runCheckMethod(State s, Reference r, ClassFile classFile, Signature methodSignatureImpl, RunnerParameters p, boolean scopeExhaustionMeansSuccess) 
     throws CannotBuildEngineException, InitializationException, 
     InvalidClassFileFactoryClassException, InvalidProgramCounterException, 
@@ -263,28 +536,54 @@ public final class InitialHeapChecker {
     DecisionException, CannotBacktrackException, CannotManageStateException, 
     ClasspathException, ContradictionException, EngineStuckException, FailureException, 
     ThreadStackEmptyException, FrozenStateException {
+        final RepOkRunnerActions actions = new RepOkRunnerActions(scopeExhaustionMeansSuccess, countReferenceAssumptions(s.getPathCondition()));
         try {
             s.pushFrame(p.getCalculator(), classFile, methodSignatureImpl, true, 0, r);
         } catch (MethodNotFoundException | MethodCodeNotFoundException | InvalidTypeException | InvalidInputException e) {
-            return true; //TODO ugly way to cope with nonexistent methods; possibly handle the situation in the constructor of CheckMethodTable
+            actions.repOk = true; //TODO ugly way to cope with nonexistent methods; possibly handle the situation in the constructor of CheckMethodTable
+            return actions;
         }
         p.setStartingState(s);
-        final RepOkRunnerActions actions = new RepOkRunnerActions(scopeExhaustionMeansSuccess);
         p.setActions(actions);
 
         //runs
         final RunnerBuilder builder = new RunnerBuilder();
         final Runner runner = builder.build(p);
         runner.run();
-        return actions.repOk;
+        return actions;
+    }
+    
+    private static int countReferenceAssumptions(List<Clause> pathCondition) {
+        int retVal = 0;
+        for (Clause c : pathCondition) {
+            if (c instanceof ClauseAssumeReferenceSymbolic) {
+                ++retVal;
+            }
+        }
+        return retVal;
     }
 
     private static class RepOkRunnerActions extends Runner.Actions {
         final boolean scopeExhaustionMeansSuccess;
+        final int referenceAssumptions;
         boolean repOk = false;
+        
+        /** 
+         * Whether no execution assumed anything on a reference, 
+         * thus the verdict does not depend on the objects the 
+         * references might alias (see {@link InitialHeapChecker#verdictKey}). 
+         */
+        boolean independent = true;
 
-        public RepOkRunnerActions(boolean scopeExhaustionMeansSuccess) { 
+        public RepOkRunnerActions(boolean scopeExhaustionMeansSuccess, int referenceAssumptions) { 
             this.scopeExhaustionMeansSuccess = scopeExhaustionMeansSuccess;
+            this.referenceAssumptions = referenceAssumptions;
+        }
+        
+        private void checkIndependent() {
+            if (countReferenceAssumptions(getEngine().getCurrentState().getPathCondition()) > this.referenceAssumptions) {
+                this.independent = false;
+            }
         }
 
         //TODO log differently!
@@ -307,6 +606,7 @@ public final class InitialHeapChecker {
          */
         @Override
         public boolean atPathEnd() {
+            checkIndependent();
             final Value retVal = this.getEngine().getCurrentState().getStuckReturn();
             if (retVal != null) {
                 final Simplex retValSimplex = (Simplex) retVal;
@@ -318,11 +618,13 @@ public final class InitialHeapChecker {
         @Override
         public boolean atContradictionException(ContradictionException e)
         throws ContradictionException {
+            checkIndependent();
             return false; //assumption violated: move to next path
         }
 
         @Override
         public boolean atScopeExhaustionHeap() {
+            this.independent = false; //the scope depends on the whole heap
             if (this.scopeExhaustionMeansSuccess) {
                 this.repOk = true;
                 return true;
@@ -333,6 +635,7 @@ public final class InitialHeapChecker {
 
         @Override
         public boolean atScopeExhaustionCount() {
+            this.independent = false; //the scope depends on the whole path condition
             if (this.scopeExhaustionMeansSuccess) {
                 this.repOk = true;
                 return true;
@@ -342,6 +645,7 @@ public final class InitialHeapChecker {
 
         @Override
         public boolean atScopeExhaustionDepth() {
+            this.independent = false; //the scope depends on the whole path condition
             if (this.scopeExhaustionMeansSuccess) {
                 this.repOk = true;
                 return true;
@@ -2,11 +2,20 @@ package jbse.apps.run;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 import jbse.JBSE;
 import jbse.algo.exc.CannotInvokeNativeException;
@@ -14,6 +23,7 @@ import jbse.algo.exc.CannotManageStateException;
 import jbse.algo.exc.MetaUnsupportedException;
 import jbse.algo.exc.NotYetImplementedException;
 import jbse.algo.exc.UninterpretedUnsupportedException;
+import jbse.apps.DecisionProcedureDecoratorMetrics;
 import jbse.apps.DecisionProcedureDecoratorPrint;
 import jbse.apps.DecisionProcedureDecoratorTimer;
 import jbse.apps.IO;
@@ -22,17 +32,21 @@ import jbse.apps.StateFormatterGraphviz;
 import jbse.apps.StateFormatterJUnitTestSuite;
 import jbse.apps.StateFormatterText;
 import jbse.apps.StateFormatterPath;
+import jbse.apps.StateFormatterPathJSON;
+import jbse.apps.StreamingEmitter;
 import jbse.apps.Timer;
 import jbse.apps.Util;
 import jbse.apps.run.RunParameters.DecisionProcedureCreationStrategy;
 import jbse.apps.run.RunParameters.DecisionProcedureType;
 import jbse.apps.run.RunParameters.GuidanceType;
 import jbse.apps.run.RunParameters.InteractionMode;
+import jbse.apps.run.RunParameters.MetricsFormat;
 import jbse.apps.run.RunParameters.StateFormatMode;
 import jbse.apps.run.RunParameters.StepShowMode;
 import jbse.apps.run.RunParameters.TextMode;
 import jbse.apps.run.RunParameters.PathTypes;
 import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.common.MetricsRegistry;
 import jbse.common.exc.ClasspathException;
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
@@ -44,11 +58,17 @@ import jbse.dec.DecisionProcedureEquality;
 import jbse.dec.DecisionProcedureLICS;
 import jbse.dec.DecisionProcedureSignAnalysis;
 import jbse.dec.DecisionProcedureSMTLIB2_AUFNIRA;
+import jbse.dec.DecisionProcedureSatCache;
+import jbse.dec.ExternalSolverPool;
 import jbse.dec.exc.DecisionBacktrackException;
 import jbse.dec.exc.DecisionException;
+import jbse.jvm.Checkpoint;
 import jbse.jvm.Engine;
 import jbse.jvm.Runner;
 import jbse.jvm.RunnerBuilder;
+import jbse.jvm.RunnerDistributed;
+import jbse.jvm.RunnerParallel;
+import jbse.jvm.RunnerParallelBuilder;
 import jbse.jvm.RunnerParameters;
 import jbse.jvm.exc.CannotBacktrackException;
 import jbse.jvm.exc.CannotBuildEngineException;
@@ -57,6 +77,7 @@ import jbse.jvm.exc.FailureException;
 import jbse.jvm.exc.InitializationException;
 import jbse.jvm.exc.NonexistingObservedVariablesException;
 import jbse.mem.State;
+import jbse.mem.State.Phase;
 import jbse.mem.exc.CannotRefineException;
 import jbse.mem.exc.ContradictionException;
 import jbse.mem.exc.FrozenStateException;
@@ -98,15 +119,24 @@ public final class Run {
     /** The {@link RunParameters} of the symbolic execution. */
     private final RunParameters parameters;
 
-    /** The {@link Runner} used to run the method. */
+    /** The {@link Runner} used to run the method, or {@code null} if the exploration is parallel. */
     private Runner runner = null; //TODO build run object during construction and make this final
 
-    /** The {@link Engine} underlying {@code runner}. */
+    /** The {@link RunnerParallel} used to run the method, or {@code null} if the exploration is sequential. */
+    private RunnerParallel runnerParallel = null;
+
+    /** The {@link RunnerDistributed} coordinating the worker processes, or {@code null} if the exploration is not distributed. */
+    private RunnerDistributed runnerDistributed = null;
+
+    /** The {@link Engine} underlying {@code runner}, or the first one of {@code runnerParallel}. */
     private Engine engine = null; //TODO build run object during construction and make this final
 
     /** The {@link DecisionProcedure} used by {@code engine}. */
     private DecisionProcedureAlgorithms decisionProcedure = null; //TODO build run object during construction and make this final
 
+    /** The {@link ActionsRun} of the workers, one for each worker. */
+    private final ArrayList<ActionsRun> actions = new ArrayList<>();
+
     /** The {@link PrintStream}s for the output. */
     private PrintStream[] out = null;
 
@@ -119,8 +149,33 @@ public final class Run {
     /** The {@link Formatter} to output states. */
     private Formatter formatter = null;
 
-    /** The {@link Timer} for the decision procedure. */
-    private Timer timer = null;
+    /** 
+     * The {@link StreamingEmitter} for the states, or {@code null} 
+     * if the states are output together with the rest of the output. 
+     */
+    private StreamingEmitter emitter = null;
+
+    /** 
+     * The initial state for the state being formatted by 
+     * {@code emitter} (accessed only by its thread), or by
+     * some worker of {@code runnerParallel} (accessed only
+     * while holding the lock of this object). 
+     */
+    private State emitterInitialState = null;
+
+    /** 
+     * The model for the state being formatted by 
+     * {@code emitter} (accessed only by its thread), or by
+     * some worker of {@code runnerParallel} (accessed only
+     * while holding the lock of this object). 
+     */
+    private Map<PrimitiveSymbolic, Simplex> emitterModel = null;
+
+    /** Whether {@code emitter} failed, and thus the states are not output anymore. */
+    private boolean emitterFailed = false;
+
+    /** The {@link Timer}s for the decision procedures, one for each worker. */
+    private final ArrayList<Timer> timers = new ArrayList<>();
 
     /** The {@link DecisionProcedureGuidance}, whenever this method is chosen for stepping the {@link Engine}. */
     private DecisionProcedureGuidance guidance = null;
@@ -128,33 +183,24 @@ public final class Run {
     /** A purely numeric decision procedure for concretization checks. */
     private DecisionProcedureAlgorithms decisionProcedureConcretization = null;
 
-    /** The concretization checker. */
-    private InitialHeapChecker checker = null;
-
-    /** Counter for the number of analyzed paths that are safe (do not violate assertions). */
-    private long pathsSafe = 0;
-
-    /** Counter for the number of analyzed paths that are unsafe (violate some assertion). */
-    private long pathsUnsafe = 0;
-
     /** 
-     * Counter for the number of analyzed paths that are unmanageable 
-     * (the symbolic executor is not able to execute them). 
+     * The purely numeric decision procedures for the conservative 
+     * repOk checks of the workers after the first one. 
      */
-    private long pathsUnmanageable = 0;
+    private final ArrayList<DecisionProcedureAlgorithms> decisionProceduresConcretizationOthers = new ArrayList<>();
 
-    /** Counter for the number of analyzed paths that are safe and concretizable. */
-    private long pathsConcretizableSafe = 0;
+    /** The concretization checker. */
+    private InitialHeapChecker checker = null;
 
-    /** Counter for the number of analyzed paths that are unsafe and concretizable. */
-    private long pathsConcretizableUnsafe = 0;
+    /** The pool the external solver processes are borrowed from. */
+    private ExternalSolverPool solverPool = null;
 
-    /** Counter for the number of analyzed paths that are out of scope and concretizable. */
-    private long pathsConcretizableOutOfScope = 0;
+    /** Whether {@code solverPool} was created by this object, and thus must be closed by it. */
+    private boolean solverPoolPrivate = false;
+
+    /** The registry of the metrics, or {@code null} if no metrics must be recorded. */
+    private MetricsRegistry metrics = null;
 
-    /** The time spent during the concretization checks. */
-    private long elapsedTimeConcretization = 0;
-    
     /** Whether we are still in the pre-initial phase. */
     private boolean atPreInitialPhase = true;
 
@@ -192,6 +238,51 @@ public final class Run {
         private PathTypes pathKind;
         private boolean mayPrint;
 
+        /** Whether the prologue and the epilogue are emitted by this object. */
+        private final boolean emitsPrologueEpilogue;
+
+        /** The {@link DecisionProcedureAlgorithms} of the worker. */
+        private DecisionProcedureAlgorithms decisionProcedure = null;
+
+        /** Counter for the number of analyzed paths that are safe (do not violate assertions). */
+        private long pathsSafe = 0;
+
+        /** Counter for the number of analyzed paths that are unsafe (violate some assertion). */
+        private long pathsUnsafe = 0;
+
+        /** 
+         * Counter for the number of analyzed paths that are unmanageable 
+         * (the symbolic executor is not able to execute them). 
+         */
+        private long pathsUnmanageable = 0;
+
+        /** Counter for the number of analyzed paths that are safe and concretizable. */
+        private long pathsConcretizableSafe = 0;
+
+        /** Counter for the number of analyzed paths that are unsafe and concretizable. */
+        private long pathsConcretizableUnsafe = 0;
+
+        /** Counter for the number of analyzed paths that are out of scope and concretizable. */
+        private long pathsConcretizableOutOfScope = 0;
+
+        /** The time spent during the concretization checks. */
+        private long elapsedTimeConcretization = 0;
+
+        /**
+         * Constructor.
+         * 
+         * @param emitsPrologueEpilogue {@code true} iff the
+         *        prologue and the epilogue must be emitted 
+         *        at the start and at the end of the exploration.
+         *        When the exploration is parallel, the actions
+         *        are invoked once per explored subtree, thus 
+         *        {@link Run} emits them.
+         */
+        ActionsRun(boolean emitsPrologueEpilogue) {
+            this.emitsPrologueEpilogue = emitsPrologueEpilogue;
+            Run.this.actions.add(this);
+        }
+
         /**
          * Determines whether the stack size of the current state 
          * is below the maximum threshold for being printed.
@@ -199,7 +290,7 @@ public final class Run {
          * @return {@code true} iff it is below the threshold.
          */
         private boolean stackSizeAcceptable() {
-            final State currentState = Run.this.engine.getCurrentState();
+            final State currentState = getEngine().getCurrentState();
             return (Run.this.parameters.getStackDepthShow() == 0 || 
                     Run.this.parameters.getStackDepthShow() > currentState.getStackSize());
         }
@@ -213,8 +304,8 @@ public final class Run {
         private boolean printAndAsk() {
             if (this.endOfPathMessage == null && this.pathKind != PathTypes.CONTRADICTORY && this.stackSizeAcceptable() && this.mayPrint) {
                 try {
-                    final State currentState = Run.this.getCurrentState();
-                    Run.this.emitState(currentState);
+                    final State currentState = getEngine().getCurrentState();
+                    Run.this.emitState(currentState, getEngine(), this.decisionProcedure);
                 } catch (UnexpectedInternalException e) {
                     Run.this.err(ERROR_UNEXPECTED);
                     Run.this.err(e);
@@ -235,10 +326,13 @@ public final class Run {
 
         @Override
         public boolean atStart() {
-            Run.this.emitPrologue();
+            if (this.emitsPrologueEpilogue) {
+                Run.this.emitPrologue();
+            }
             
             //enables or disables printing
-            this.mayPrint = Run.this.parameters.getShowSystemClassesInitialization();
+            this.mayPrint = Run.this.parameters.getShowSystemClassesInitialization() ||
+                            getEngine().getCurrentState().phase() == Phase.POST_INITIAL;
 
             //prints the state (all+bytecode and branches)
             boolean stop = false;
@@ -286,7 +380,10 @@ public final class Run {
 
         @Override
         public void atEnd() {
-            Run.this.emitEpilogue();
+            if (this.emitsPrologueEpilogue) {
+                Run.this.emitEpilogue();
+                Run.this.dumpMetrics();
+            }
             if (Run.this.atPreInitialPhase) {
             	//this means that an exception was raised during the
             	//pre-initial phase: fix the stats
@@ -315,6 +412,21 @@ public final class Run {
             }
         }
 
+        @Override
+        public void atCheckpoint(Checkpoint checkpoint) {
+            checkpoint.setCounter(COUNTER_PATHS_SAFE, this.pathsSafe);
+            checkpoint.setCounter(COUNTER_PATHS_UNSAFE, this.pathsUnsafe);
+            checkpoint.setCounter(COUNTER_PATHS_UNMANAGEABLE, this.pathsUnmanageable);
+            checkpoint.setCounter(COUNTER_PATHS_CONCRETIZABLE_SAFE, this.pathsConcretizableSafe);
+            checkpoint.setCounter(COUNTER_PATHS_CONCRETIZABLE_UNSAFE, this.pathsConcretizableUnsafe);
+            checkpoint.setCounter(COUNTER_PATHS_CONCRETIZABLE_OUT_OF_SCOPE, this.pathsConcretizableOutOfScope);
+        }
+
+        @Override
+        public void atCheckpointException(IOException e) {
+            Run.this.err(ERROR_CHECKPOINT_FILE_WRITE + e.getMessage());
+        }
+
         @Override
         public boolean atScopeExhaustionHeap() {
             this.pathKind = PathTypes.OUT_OF_SCOPE;
@@ -364,7 +476,7 @@ public final class Run {
 
         @Override
         public boolean atStepPost() {
-            final State currentState = Run.this.engine.getCurrentState();
+            final State currentState = getEngine().getCurrentState();
             
             try {
             	if (Run.this.guidance != null) {
@@ -385,7 +497,7 @@ public final class Run {
             }
             
             //enables printing if we hit the root method execution
-            if (Run.this.engine.atInitialState()) {
+            if (getEngine().atInitialState()) {
             	this.mayPrint = true;
             }
 
@@ -420,7 +532,7 @@ public final class Run {
         @Override
         public boolean atPathEnd() {
             try {
-                final State currentState = Run.this.engine.getCurrentState();
+                final State currentState = getEngine().getCurrentState();
                 //prints the leaf state if the case
                 if (Run.this.parameters.getStepShowMode() == StepShowMode.ALL ||       //already shown
                     Run.this.parameters.getStepShowMode() == StepShowMode.SOURCE ||    //already shown
@@ -432,25 +544,25 @@ public final class Run {
                 } else {
                     //prints the refined root state for the summaries case
                     if (Run.this.parameters.getStepShowMode() == StepShowMode.SUMMARIES) {
-                        State initialRefined = Run.this.engine.getInitialState();
+                        State initialRefined = getEngine().getInitialState();
                         initialRefined.refine(currentState);
-                        Run.this.emitState(initialRefined);
+                        Run.this.emitState(initialRefined, getEngine(), this.decisionProcedure);
                         Run.this.out("\n===\n");
                     }
                     //prints the leaf (stuck) state
-                    Run.this.emitState(currentState);
+                    Run.this.emitState(currentState, getEngine(), this.decisionProcedure);
                 } 
 
                 //displays path end message and updates stats
                 final CounterKind counterKind;
                 switch (this.pathKind) {
                 case SAFE:
-                    ++Run.this.pathsSafe;
+                    ++this.pathsSafe;
                     this.endOfPathMessage = MSG_PATH_SAFE;
                     counterKind = CounterKind.INC_SAFE;
                     break;
                 case UNSAFE:
-                    ++Run.this.pathsUnsafe;
+                    ++this.pathsUnsafe;
                     this.endOfPathMessage = MSG_PATH_UNSAFE;
                     counterKind = CounterKind.INC_UNSAFE;
                     break;
@@ -460,7 +572,7 @@ public final class Run {
                     counterKind = CounterKind.INC_OUT_OF_SCOPE;
                     break;
                 case UNMANAGEABLE:
-                    ++Run.this.pathsUnmanageable;
+                    ++this.pathsUnmanageable;
                     //this.endOfPathMessage already set
                     counterKind = null;
                     break;
@@ -557,18 +669,18 @@ public final class Run {
             final long startTime = System.currentTimeMillis();
             final boolean concretizable = Run.this.checker.checkHeap(false);
             final long elapsedTime = System.currentTimeMillis() - startTime;
-            Run.this.elapsedTimeConcretization += elapsedTime;
+            this.elapsedTimeConcretization += elapsedTime;
             if (concretizable) {
                 if (ctr == CounterKind.INC_OUT_OF_SCOPE) {
-                    ++Run.this.pathsConcretizableOutOfScope;
+                    ++this.pathsConcretizableOutOfScope;
                 } else if (ctr == CounterKind.INC_SAFE) {
-                    ++Run.this.pathsConcretizableSafe;
+                    ++this.pathsConcretizableSafe;
                 } else { //ctr == CounterKind.INC_UNSAFE
-                    ++Run.this.pathsConcretizableUnsafe;
+                    ++this.pathsConcretizableUnsafe;
                 }
             }
             if (Run.this.parameters.getShowWarnings()) {
-                final State currentState = Run.this.engine.getCurrentState();
+                final State currentState = getEngine().getCurrentState();
                 Run.this.log(currentState.getBranchIdentifier() +
                              (concretizable ? MSG_PATH_CONCRETIZABLE : MSG_PATH_NOT_CONCRETIZABLE));
             }
@@ -596,8 +708,27 @@ public final class Run {
         }
 
         // runs
+        if (this.parameters.getDistributionWorkers() > 0) {
+            retVal = runDistributed();
+            if (this.parameters.getShowInfo() && retVal == 0) {
+                log(MSG_END + new Date() + ".");
+                printFinalStats();
+            }
+            final int retValClose = close();
+            return (retVal > 0 ? retVal : retValClose);
+        }
         try {
-            this.runner.run();
+            if (this.runnerParallel == null) {
+                this.runner.run();
+            } else {
+                emitPrologue();
+                try {
+                    this.runnerParallel.run();
+                } finally {
+                    emitEpilogue();
+                    dumpMetrics();
+                }
+            }
         } catch (ClasspathException | 
                  DecisionException | CannotManageStateException | 
                  EngineStuckException | CannotBacktrackException | 
@@ -622,6 +753,65 @@ public final class Run {
         return close();
     }
 
+    /**
+     * Runs a distributed exploration: Pre-explores the symbolic
+     * execution tree, explores the regions found by the 
+     * pre-exploration with worker processes (see {@link RunWorker}), 
+     * and merges their outputs and counters.
+     * 
+     * @return an {@code int} value representing an error code.
+     */
+    private int runDistributed() {
+        final Path workDirectory = this.parameters.getDistributionWorkDirectory();
+        final List<String> regions;
+        try {
+            Files.createDirectories(workDirectory);
+            regions = RunnerDistributed.preExplore(this.parameters.getRunnerParameters(), this.parameters.getDistributionDepth());
+            this.runnerDistributed = new RunnerDistributed(RunnerDistributed.processLauncher(RunWorker.command(this.parameters.getDistributionParametersFactoryClassName())), 
+                                                           this.parameters.getDistributionWorkers(), workDirectory);
+            this.runnerDistributed.setTimeSlice(this.parameters.getDistributionTimeSlice(), TimeUnit.MILLISECONDS);
+            this.runnerDistributed.run(regions);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err(ERROR_DISTRIBUTED_FAILED + e);
+            return 1;
+        } catch (IOException | InvalidInputException | CannotBuildEngineException | DecisionException | 
+                 InitializationException | InvalidClassFileFactoryClassException | NonexistingObservedVariablesException | 
+                 ClasspathException | ContradictionException | CannotBacktrackException | 
+                 CannotManageStateException | ThreadStackEmptyException | EngineStuckException | FailureException e) {
+            err(ERROR_DISTRIBUTED_FAILED + e);
+            return 1;
+        }
+        this.timestampPreInitialPhaseEnd = this.runnerDistributed.getStartTime();
+
+        //the counters of the workers
+        final Checkpoint counters = new Checkpoint();
+        for (Map.Entry<String, Long> e : this.runnerDistributed.getCounters().entrySet()) {
+            counters.setCounter(e.getKey(), e.getValue());
+        }
+        resumeCounters(this.actions.get(0), counters);
+
+        //the outputs of the workers
+        final RunnerDistributed.Merger merger = 
+            (this.parameters.getStateFormatMode() == StateFormatMode.JUNIT_TEST ? 
+             StateFormatterJUnitTestSuite::merge : 
+             RunnerDistributed.MERGER_CONCATENATE);
+        try {
+            if (this.parameters.getStateOutputFilePath() == null) {
+                final Path merged = workDirectory.resolve("merged.result");
+                this.runnerDistributed.mergeResults(merger, merged);
+                outNoBreak(new String(Files.readAllBytes(merged), StandardCharsets.UTF_8));
+            } else {
+                closeEmitter();
+                this.runnerDistributed.mergeResults(merger, this.parameters.getStateOutputFilePath());
+            }
+        } catch (IOException e) {
+            err(ERROR_DISTRIBUTED_FAILED + e);
+            return 1;
+        }
+        return 0;
+    }
+
     /**
      * Gets a line of text on the input stream.
      * 
@@ -696,17 +886,64 @@ public final class Run {
             log(MSG_WELCOME_TXT);
         }
 
+        //checks that the exploration can be parallel
+        final int parallelism = this.parameters.getParallelism();
+        if (parallelism > 1 && 
+            (this.parameters.getInteractionMode() != InteractionMode.NO_INTERACTION ||
+             this.parameters.isGuided() || this.parameters.getDoConcretization() ||
+             this.parameters.getCheckpointFilePath() != null || this.parameters.getResumeFilePath() != null)) {
+            err(ERROR_PARALLEL_UNSUPPORTED);
+            return 1;
+        }
+
+        //checks that the exploration can be distributed
+        final boolean distributed = (this.parameters.getDistributionWorkers() > 0);
+        if (distributed && 
+            (parallelism > 1 || 
+             this.parameters.getInteractionMode() != InteractionMode.NO_INTERACTION ||
+             this.parameters.isGuided() || this.parameters.getDoConcretization() ||
+             this.parameters.getCheckpointFilePath() != null || this.parameters.getResumeFilePath() != null)) {
+            err(ERROR_DISTRIBUTED_UNSUPPORTED);
+            return 1;
+        }
+
         //builds
         try {
             final RunnerParameters runnerParameters = this.parameters.getRunnerParameters();
-            runnerParameters.setActions(new ActionsRun());
+            final ActionsRun actionsSeed = new ActionsRun(parallelism == 1);
+            runnerParameters.setActions(actionsSeed);
             final CalculatorRewriting calc = createCalculator();
             runnerParameters.setCalculator(calc);
+            if (this.parameters.getMetricsFilePath() != null) {
+                this.metrics = new MetricsRegistry();
+                runnerParameters.setMetrics(this.metrics);
+                registerGauges(calc);
+            }
             createDecisionProcedure(calc);
             runnerParameters.setDecisionProcedure(this.decisionProcedure);
-            final RunnerBuilder rb = new RunnerBuilder();
-            this.runner = rb.build(this.parameters.getRunnerParameters());
-            this.engine = rb.getEngine();
+            actionsSeed.decisionProcedure = this.decisionProcedure;
+            if (this.parameters.getResumeFilePath() != null) {
+                final Checkpoint checkpoint;
+                try {
+                    checkpoint = Checkpoint.load(this.parameters.getResumeFilePath());
+                } catch (IOException e) {
+                    err(ERROR_CHECKPOINT_FILE_READ + e.getMessage());
+                    return 1;
+                }
+                resumeCounters(actionsSeed, checkpoint);
+                runnerParameters.setResume(checkpoint);
+            }
+            if (distributed) {
+                //the pre-exploration and the workers build their own engines
+                return 0;
+            } else if (parallelism == 1) {
+                final RunnerBuilder rb = new RunnerBuilder();
+                this.runner = rb.build(this.parameters.getRunnerParameters());
+                this.engine = rb.getEngine();
+            } else {
+                this.runnerParallel = buildRunnerParallel(runnerParameters, calc, parallelism);
+                this.engine = this.runnerParallel.getEngine();
+            }
             if (this.engine == null) {
                 return 1;
             }
@@ -752,6 +989,64 @@ public final class Run {
         return 0;
     }
 
+    /**
+     * Builds the {@link RunnerParallel} for a parallel exploration.
+     * Each worker after the first one has its own copy of the 
+     * calculator, its own decision procedure and its own actions.
+     * 
+     * @param runnerParameters the {@link RunnerParameters} of the 
+     *        first worker.
+     * @param calc the {@link CalculatorRewriting} of the first worker.
+     * @param parallelism an {@code int}, the number of workers.
+     * @return a {@link RunnerParallel}.
+     * @throws CannotBuildDecisionProcedureException if the
+     *         decision procedure of some worker cannot be built.
+     * @throws CannotBuildEngineException as in {@link RunnerParallelBuilder#build(java.util.function.IntFunction, int)}.
+     * @throws DecisionException as in {@link RunnerParallelBuilder#build(java.util.function.IntFunction, int)}.
+     * @throws InitializationException as in {@link RunnerParallelBuilder#build(java.util.function.IntFunction, int)}.
+     * @throws InvalidClassFileFactoryClassException as in {@link RunnerParallelBuilder#build(java.util.function.IntFunction, int)}.
+     * @throws NonexistingObservedVariablesException as in {@link RunnerParallelBuilder#build(java.util.function.IntFunction, int)}.
+     * @throws ClasspathException as in {@link RunnerParallelBuilder#build(java.util.function.IntFunction, int)}.
+     * @throws NotYetImplementedException as in {@link RunnerParallelBuilder#build(java.util.function.IntFunction, int)}.
+     * @throws ContradictionException as in {@link RunnerParallelBuilder#build(java.util.function.IntFunction, int)}.
+     */
+    private RunnerParallel buildRunnerParallel(RunnerParameters runnerParameters, CalculatorRewriting calc, int parallelism) 
+    throws CannotBuildEngineException, DecisionException, InitializationException, 
+    InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, 
+    ClasspathException, NotYetImplementedException, ContradictionException {
+        final RunnerParameters[] workerParameters = new RunnerParameters[parallelism];
+        workerParameters[0] = runnerParameters;
+        final DecisionProcedureAlgorithms decisionProcedureSeed = this.decisionProcedure;
+        final DecisionProcedureAlgorithms decisionProcedureConcretizationSeed = this.decisionProcedureConcretization;
+        try {
+            for (int i = 1; i < parallelism; ++i) {
+                //calculators are not thread-safe, but the copies share 
+                //the hash-consing table, thus the values they produce
+                //can be exchanged among workers
+                final CalculatorRewriting calcWorker = new CalculatorRewriting(calc);
+                createDecisionProcedure(calcWorker);
+                if (this.decisionProcedureConcretization != null) {
+                    this.decisionProceduresConcretizationOthers.add(this.decisionProcedureConcretization);
+                }
+                final ActionsRun actionsWorker = new ActionsRun(false);
+                actionsWorker.decisionProcedure = this.decisionProcedure;
+                workerParameters[i] = runnerParameters.clone();
+                workerParameters[i].setCalculator(calcWorker);
+                workerParameters[i].setDecisionProcedure(this.decisionProcedure);
+                workerParameters[i].setActions(actionsWorker);
+            }
+        } finally {
+            this.decisionProcedure = decisionProcedureSeed;
+            this.decisionProcedureConcretization = decisionProcedureConcretizationSeed;
+        }
+        try {
+            return new RunnerParallelBuilder().build(i -> workerParameters[i], parallelism);
+        } catch (InvalidInputException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+    }
+
     private void setStreams() {
         // sets the output and error streams
         // first are to standard
@@ -778,6 +1073,19 @@ public final class Run {
         }
         this.out[1] = this.log[1] = this.err[1];
 
+        // tries to open the state output file
+        if (this.parameters.getStateOutputFilePath() != null) {
+            try {
+                final FileChannel channel = FileChannel.open(this.parameters.getStateOutputFilePath(), 
+                                                             StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, 
+                                                             StandardOpenOption.WRITE);
+                this.emitter = new StreamingEmitter(channel, EMITTER_CAPACITY);
+            } catch (IOException | SecurityException e) {
+                err(ERROR_STATE_FILE_OPEN);
+                this.emitter = null;
+            }
+        }
+
         // sets line separator style
         if (this.parameters.getTextMode() == TextMode.WINDOWS) {
             System.setProperty("line.separator", "\r\n");
@@ -816,8 +1124,20 @@ public final class Run {
      *         or {@code null} 
      */
     private Map<PrimitiveSymbolic, Simplex> getModel() {
+        return getModel(this.decisionProcedure);
+    }
+
+    /**
+     * Returns a decision procedure's current 
+     * model or {@code null}.
+     * 
+     * @param decisionProcedure a {@link DecisionProcedureAlgorithms}.
+     * @return a {@link Map}{@code <}{@link PrimitiveSymbolic}{@code ,}{@link Simplex}{@code >}
+     *         or {@code null} 
+     */
+    private static Map<PrimitiveSymbolic, Simplex> getModel(DecisionProcedureAlgorithms decisionProcedure) {
         try {
-            return this.decisionProcedure.getModel();
+            return decisionProcedure.getModel();
         } catch (DecisionException e) {
             return null;
         }
@@ -838,8 +1158,13 @@ public final class Run {
             this.formatter = new StateFormatterGraphviz();
         } else if (type == StateFormatMode.PATH) {
             this.formatter = new StateFormatterPath();
-        } else if (type == StateFormatMode.JUNIT_TEST) {
+        } else if (type == StateFormatMode.PATH_JSON) {
+            this.formatter = new StateFormatterPathJSON();
+        } else if (type == StateFormatMode.JUNIT_TEST && this.emitter == null && this.runnerParallel == null) {
             this.formatter = new StateFormatterJUnitTestSuite(this::getInitialState, this::getModel);
+        } else if (type == StateFormatMode.JUNIT_TEST) {
+            //the initial state and the model are captured when the state is emitted
+            this.formatter = new StateFormatterJUnitTestSuite(() -> this.emitterInitialState, () -> this.emitterModel);
         } else {
             throw new CannotBuildFormatterException(ERROR_UNDEF_STATE_FORMAT);
         }
@@ -916,8 +1241,8 @@ public final class Run {
     				z3CommandLine.add(switchChar + "smt2");
     				z3CommandLine.add(switchChar + "in");
     				z3CommandLine.add(switchChar + "t:10");
-    				core = new DecisionProcedureSMTLIB2_AUFNIRA(core, z3CommandLine);
-    				coreNumeric = (needHeapCheck ? new DecisionProcedureSMTLIB2_AUFNIRA(coreNumeric, z3CommandLine) : null);
+    				core = new DecisionProcedureSMTLIB2_AUFNIRA(core, z3CommandLine, getSolverPool());
+    				coreNumeric = (needHeapCheck ? new DecisionProcedureSMTLIB2_AUFNIRA(coreNumeric, z3CommandLine, getSolverPool()) : null);
     			} else if (type == DecisionProcedureType.CVC4) {
     				final ArrayList<String> cvc4CommandLine = new ArrayList<>();
     				cvc4CommandLine.add(path == null ? "cvc4" : path.toString());
@@ -926,8 +1251,8 @@ public final class Run {
     				cvc4CommandLine.add("--no-interactive");
     				cvc4CommandLine.add("--incremental");
     				cvc4CommandLine.add("--tlimit-per=10000");
-    				core = new DecisionProcedureSMTLIB2_AUFNIRA(core, cvc4CommandLine);
-    				coreNumeric = (needHeapCheck ? new DecisionProcedureSMTLIB2_AUFNIRA(coreNumeric, cvc4CommandLine) : null);
+    				core = new DecisionProcedureSMTLIB2_AUFNIRA(core, cvc4CommandLine, getSolverPool());
+    				coreNumeric = (needHeapCheck ? new DecisionProcedureSMTLIB2_AUFNIRA(coreNumeric, cvc4CommandLine, getSolverPool()) : null);
     			} else {
     				core.close();
     				if (coreNumeric != null) {
@@ -939,6 +1264,18 @@ public final class Run {
     			throw new CannotBuildDecisionProcedureException(e);
     		}
 
+    		//wraps cores with a satisfiability cache, if required
+    		if (this.parameters.getSatCacheSize() > 0) {
+    			final DecisionProcedureSatCache satCache = new DecisionProcedureSatCache(core, this.parameters.getSatCacheSize());
+    			if (this.metrics != null) {
+    				this.metrics.gauge(satCache::getHits, "jbse_sat_cache_lookups", "result", "hit");
+    				this.metrics.gauge(satCache::getSubsumptionHits, "jbse_sat_cache_lookups", "result", "subsumption");
+    				this.metrics.gauge(satCache::getMisses, "jbse_sat_cache_lookups", "result", "miss");
+    			}
+    			core = satCache;
+    			coreNumeric = (needHeapCheck ? new DecisionProcedureSatCache(coreNumeric, this.parameters.getSatCacheSize()) : null);
+    		}
+
     		//further wraps cores with sign analysis, if required
     		if (this.parameters.getDoSignAnalysis()) {
     			core = new DecisionProcedureSignAnalysis(core);
@@ -979,9 +1316,14 @@ public final class Run {
     			core = c.createAndWrap(core, calc);
     		}
 
+    		//wraps with metrics, if required
+    		if (this.metrics != null) {
+    			core = new DecisionProcedureDecoratorMetrics(core, this.metrics);
+    		}
+
     		//wraps with timer
     		final DecisionProcedureDecoratorTimer tCore = new DecisionProcedureDecoratorTimer(core);
-    		this.timer = tCore;
+    		this.timers.add(tCore);
     		core = tCore;
 
     		//wraps with printer if interaction with decision procedure must be shown
@@ -997,9 +1339,9 @@ public final class Run {
     			}
     			try {
     				if (this.parameters.getGuidanceType() == GuidanceType.JBSE) {
-    					this.guidance = new DecisionProcedureGuidanceJBSE(core, calc, guidanceDriverParameters, this.parameters.getMethodSignature(), this.parameters.getGuidedNumberOfHits());
+    					this.guidance = new DecisionProcedureGuidanceJBSE(core, calc, guidanceDriverParameters, this.parameters.getMethodSignature(), this.parameters.getGuidedNumberOfHits(), this.parameters.getGuidanceJBSESnapshots());
     				} else if (this.parameters.getGuidanceType() == GuidanceType.JDI) {
-    					this.guidance = new DecisionProcedureGuidanceJDI(core, calc, guidanceDriverParameters, this.parameters.getMethodSignature(), this.parameters.getGuidedNumberOfHits());
+    					this.guidance = new DecisionProcedureGuidanceJDI(core, calc, guidanceDriverParameters, this.parameters.getMethodSignature(), this.parameters.getGuidedNumberOfHits(), this.parameters.getGuidanceJDIPrelaunchedVms(), this.parameters.getGuidanceJDIMaxLiveVms());
     				} else {
     					throw new UnexpectedInternalException(ERROR_DECISION_PROCEDURE_GUIDANCE_UNRECOGNIZED + this.parameters.getGuidanceType().toString());
     				}
@@ -1020,6 +1362,29 @@ public final class Run {
     	}
     }
 
+    /**
+     * Returns the pool the external solver processes are
+     * borrowed from, creating a private one if the 
+     * {@link RunParameters} do not provide it.
+     * 
+     * @return an {@link ExternalSolverPool}.
+     */
+    private ExternalSolverPool getSolverPool() {
+        if (this.solverPool == null) {
+            this.solverPool = this.parameters.getSolverPool();
+            if (this.solverPool == null) {
+                try {
+                    this.solverPool = new ExternalSolverPool(SOLVER_POOL_MAX_IDLE);
+                } catch (InvalidInputException e) {
+                    //this should never happen
+                    throw new UnexpectedInternalException(e);
+                }
+                this.solverPoolPrivate = true;
+            }
+        }
+        return this.solverPool;
+    }
+
     /**
      * Creates the heap checker into {@code this.checker}.
      * 
@@ -1037,10 +1402,56 @@ public final class Run {
         }
     }
 
+    /**
+     * Registers the gauges for the metrics that are
+     * not recorded by the engine.
+     * 
+     * @param calc the {@link CalculatorRewriting}.
+     */
+    private void registerGauges(CalculatorRewriting calc) {
+        try {
+            final MetricsRegistry.Counter steps = this.metrics.counter("jbse_steps_total");
+            this.metrics.gauge(() -> steps.get() / this.metrics.getUptimeSeconds(), "jbse_steps_per_second");
+            this.metrics.gauge(calc::getSimplifyHits, "jbse_simplify_cache_lookups", "result", "hit");
+            this.metrics.gauge(calc::getSimplifyMisses, "jbse_simplify_cache_lookups", "result", "miss");
+        } catch (InvalidInputException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+    }
+
+    /**
+     * Dumps the metrics to the metrics file, 
+     * if metrics must be recorded.
+     */
+    private void dumpMetrics() {
+        if (this.metrics == null) {
+            return;
+        }
+        final String dump = (this.parameters.getMetricsFormat() == MetricsFormat.PROMETHEUS ? 
+                             this.metrics.toPrometheus() : this.metrics.toJson());
+        try {
+            Files.write(this.parameters.getMetricsFilePath(), dump.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | SecurityException e) {
+            err(ERROR_METRICS_FILE_WRITE + e.getMessage());
+        }
+    }
+
     /**
      * Emits the prologue of the symbolic execution.
      */
-    private void emitPrologue() {
+    private synchronized void emitPrologue() {
+        if (this.emitterFailed) {
+            return;
+        }
+        if (this.emitter != null) {
+            submit(() -> {
+                this.formatter.cleanup();
+                this.formatter.formatPrologue();
+                return this.formatter.emit();
+            });
+            return;
+        }
         this.formatter.cleanup();
         this.formatter.formatPrologue();
         outNoBreak(this.formatter.emit());
@@ -1050,19 +1461,115 @@ public final class Run {
      * Emits a {@link State} of the symbolic execution.
      * 
      * @param s the {@link State} to be emitted.
-     * @param isRootBranch {@code true} iff 
-     *        {@code s} is at a branch point.
+     * @param engine the {@link Engine} that produced {@code s}.
+     * @param decisionProcedure the {@link DecisionProcedureAlgorithms}
+     *        of {@code engine}.
      */
-    private void emitState(State s) {
+    private synchronized void emitState(State s, Engine engine, DecisionProcedureAlgorithms decisionProcedure) {
+        if (this.emitterFailed) {
+            return;
+        }
+        final boolean junit = (this.formatter instanceof StateFormatterJUnitTestSuite);
+        if (this.emitter != null) {
+            //the engine will modify s, so the emitter formats a copy
+            final State sCopy = s.clone();
+            final State initialState = (junit ? engine.getInitialState() : null);
+            final Map<PrimitiveSymbolic, Simplex> model = (junit ? getModel(decisionProcedure) : null);
+            submit(() -> {
+                this.emitterInitialState = initialState;
+                this.emitterModel = model;
+                this.formatter.cleanup();
+                this.formatter.formatState(sCopy);
+                return this.formatter.emit();
+            });
+            return;
+        }
+        if (junit && this.runnerParallel != null) {
+            this.emitterInitialState = engine.getInitialState();
+            this.emitterModel = getModel(decisionProcedure);
+        }
         this.formatter.cleanup();
         this.formatter.formatState(s);
         outNoBreak(this.formatter.emit());
     }
 
+    /**
+     * Submits a formatting task to the emitter. If 
+     * the emitter fails, it is closed and the states
+     * are not output anymore.
+     * 
+     * @param task a {@link Supplier}{@code <}{@link String}{@code >}.
+     */
+    private void submit(Supplier<String> task) {
+        try {
+            this.emitter.submit(task);
+        } catch (IOException e) {
+            err(ERROR_STATE_FILE_WRITE + e.getMessage());
+            closeEmitter();
+            this.emitterFailed = true;
+        }
+    }
+
+    /**
+     * Closes the emitter, if present.
+     */
+    private void closeEmitter() {
+        if (this.emitter == null) {
+            return;
+        }
+        try {
+            this.emitter.close();
+        } catch (IOException e) {
+            err(ERROR_STATE_FILE_WRITE + e.getMessage());
+        }
+        this.emitter = null;
+    }
+
+    /**
+     * Restores the path counters saved in a checkpoint.
+     * 
+     * @param a the {@link ActionsRun} whose counters must be restored.
+     * @param checkpoint a {@link Checkpoint}.
+     */
+    private static void resumeCounters(ActionsRun a, Checkpoint checkpoint) {
+        a.pathsSafe = checkpoint.getCounter(COUNTER_PATHS_SAFE);
+        a.pathsUnsafe = checkpoint.getCounter(COUNTER_PATHS_UNSAFE);
+        a.pathsUnmanageable = checkpoint.getCounter(COUNTER_PATHS_UNMANAGEABLE);
+        a.pathsConcretizableSafe = checkpoint.getCounter(COUNTER_PATHS_CONCRETIZABLE_SAFE);
+        a.pathsConcretizableUnsafe = checkpoint.getCounter(COUNTER_PATHS_CONCRETIZABLE_UNSAFE);
+        a.pathsConcretizableOutOfScope = checkpoint.getCounter(COUNTER_PATHS_CONCRETIZABLE_OUT_OF_SCOPE);
+    }
+
+    /**
+     * Sums a counter over the actions of all the workers.
+     * 
+     * @param counter a {@link ToLongFunction}{@code <}{@link ActionsRun}{@code >}
+     *        returning the counter of an {@link ActionsRun}.
+     * @return a {@code long}, the sum.
+     */
+    private long sum(ToLongFunction<ActionsRun> counter) {
+        long retVal = 0;
+        for (ActionsRun a : this.actions) {
+            retVal += counter.applyAsLong(a);
+        }
+        return retVal;
+    }
+
     /**
      * Emits the epilogue of the symbolic execution.
      */
-    private void emitEpilogue() {
+    private synchronized void emitEpilogue() {
+        if (this.emitterFailed) {
+            return;
+        }
+        if (this.emitter != null) {
+            submit(() -> {
+                this.formatter.cleanup();
+                this.formatter.formatEpilogue();
+                return this.formatter.emit();
+            });
+            return;
+        }
         this.formatter.cleanup();
         this.formatter.formatEpilogue();
         outNoBreak(this.formatter.emit());
@@ -1072,48 +1579,86 @@ public final class Run {
      * Prints statistics.
      */
     private void printFinalStats() {
-        final long elapsedTime = this.runner.getStopTime() - this.runner.getStartTime();
-        final long elapsedTimePreInitialPhase = (this.timestampPreInitialPhaseEnd - this.runner.getStartTime());
-        final long elapsedTimeDecisionProcedure = (this.timer == null ? 0 : this.timer.getTime());
-        final long speed = this.engine.getAnalyzedStates() * 1000 / elapsedTime;
-        final long speedPostInitialPhase = (elapsedTime == elapsedTimePreInitialPhase) ? 0 : (this.engine.getAnalyzedStates() - this.preInitialStateCount) * 1000 / (elapsedTime - elapsedTimePreInitialPhase);
+        final long startTime, stopTime, analyzedStates, pathsTotal, pathsOutOfScope, evictedStates, spilledStates;
+        if (this.runnerDistributed != null) {
+            startTime = this.runnerDistributed.getStartTime();
+            stopTime = this.runnerDistributed.getStopTime();
+            analyzedStates = this.runnerDistributed.getAnalyzedStates();
+            pathsTotal = this.runnerDistributed.getPathsTotal();
+            pathsOutOfScope = this.runnerDistributed.getPathsOutOfScope();
+            evictedStates = spilledStates = 0L; //not recorded in the checkpoints
+        } else if (this.runnerParallel != null) {
+            startTime = this.runnerParallel.getStartTime();
+            stopTime = this.runnerParallel.getStopTime();
+            analyzedStates = this.runnerParallel.getAnalyzedStates();
+            pathsTotal = this.runnerParallel.getPathsTotal();
+            pathsOutOfScope = this.runnerParallel.getPathsOutOfScope();
+            evictedStates = this.runnerParallel.getEvictedStates();
+            spilledStates = this.runnerParallel.getSpilledStates();
+        } else {
+            startTime = this.runner.getStartTime();
+            stopTime = this.runner.getStopTime();
+            analyzedStates = this.engine.getAnalyzedStates();
+            pathsTotal = this.runner.getPathsTotal();
+            pathsOutOfScope = this.runner.getPathsOutOfScope();
+            evictedStates = this.engine.getEvictedStates();
+            spilledStates = this.engine.getSpilledStates();
+        }
+        final long pathsSafe = sum(a -> a.pathsSafe);
+        final long pathsUnsafe = sum(a -> a.pathsUnsafe);
+        final long pathsUnmanageable = sum(a -> a.pathsUnmanageable);
+        final long elapsedTimeConcretization = sum(a -> a.elapsedTimeConcretization);
+        final long elapsedTime = stopTime - startTime;
+        final long elapsedTimePreInitialPhase = (this.timestampPreInitialPhaseEnd - startTime);
+        long elapsedTimeDecisionProcedure = 0;
+        for (Timer timer : this.timers) {
+            elapsedTimeDecisionProcedure += timer.getTime();
+        }
+        final long speed = analyzedStates * 1000 / elapsedTime;
+        final long speedPostInitialPhase = (elapsedTime == elapsedTimePreInitialPhase) ? 0 : (analyzedStates - this.preInitialStateCount) * 1000 / (elapsedTime - elapsedTimePreInitialPhase);
         final long pathsViolatingAssumptions = 
-            this.runner.getPathsTotal() -
-            this.pathsSafe - 
-            this.pathsUnsafe -
-            this.runner.getPathsOutOfScope() -
-            this.pathsUnmanageable;
-        log(MSG_END_STATES + this.engine.getAnalyzedStates() + ", " +
+            pathsTotal -
+            pathsSafe - 
+            pathsUnsafe -
+            pathsOutOfScope -
+            pathsUnmanageable;
+        log(MSG_END_STATES + analyzedStates + ", " +
         	MSG_END_STATES_PREINITIAL + this.preInitialStateCount + ", " +
-            MSG_END_PATHS_TOT + this.runner.getPathsTotal() + ", " +
-            MSG_END_PATHS_SAFE + this.pathsSafe + 
+            MSG_END_PATHS_TOT + pathsTotal + ", " +
+            MSG_END_PATHS_SAFE + pathsSafe + 
             (Run.this.parameters.getDoConcretization() ? 
-             " (" + this.pathsConcretizableSafe + " concretizable)" :
+             " (" + sum(a -> a.pathsConcretizableSafe) + " concretizable)" :
              "") +
             ", " +
-            MSG_END_PATHS_UNSAFE + this.pathsUnsafe + 
+            MSG_END_PATHS_UNSAFE + pathsUnsafe + 
             (Run.this.parameters.getDoConcretization() ? 
-             " (" + this.pathsConcretizableUnsafe + " concretizable)" :
+             " (" + sum(a -> a.pathsConcretizableUnsafe) + " concretizable)" :
              "") +
             ", " +
-            MSG_END_PATHS_OUT_OF_SCOPE + this.runner.getPathsOutOfScope() +
+            MSG_END_PATHS_OUT_OF_SCOPE + pathsOutOfScope +
             (Run.this.parameters.getDoConcretization() ? 
-             " (" + this.pathsConcretizableOutOfScope + " concretizable)" :  
+             " (" + sum(a -> a.pathsConcretizableOutOfScope) + " concretizable)" :  
              "") +
             ", " +
             MSG_END_PATHS_VIOLATING_ASSUMPTION + pathsViolatingAssumptions +
             ", " +
-            MSG_END_PATHS_UNMANAGEABLE + this.pathsUnmanageable + ".");
+            MSG_END_PATHS_UNMANAGEABLE + pathsUnmanageable + ".");
         log(MSG_END_ELAPSED + Util.formatTime(elapsedTime) + ", " +
         	MSG_END_ELAPSED_PREINITIAL + Util.formatTime(elapsedTimePreInitialPhase) + ", " +
             MSG_END_SPEED + speed + " states/sec, " +
             MSG_END_SPEED_POSTINITIAL + speedPostInitialPhase + " states/sec" +
             (Run.this.parameters.getDoConcretization() ? 
-             ", " + MSG_END_ELAPSED_CONCRETIZATION + Util.formatTime(this.elapsedTimeConcretization) + " (" + Util.formatTimePercent(this.elapsedTimeConcretization, elapsedTime) + " of total)" :
+             ", " + MSG_END_ELAPSED_CONCRETIZATION + Util.formatTime(elapsedTimeConcretization) + " (" + Util.formatTimePercent(elapsedTimeConcretization, elapsedTime) + " of total)" :
              "") +
-            (this.timer == null ? 
+            (this.timers.isEmpty() ? 
              "." :
              ", " + MSG_END_DECISION + Util.formatTime(elapsedTimeDecisionProcedure) + " (" + Util.formatTimePercent(elapsedTimeDecisionProcedure, elapsedTime) + " of total)."));
+        if (evictedStates > 0) {
+            log(MSG_END_STATES_EVICTED + evictedStates + ".");
+        }
+        if (spilledStates > 0) {
+            log(WARNING_STATES_NOT_REPLAYED + spilledStates + ".");
+        }
     }
 
     /**
@@ -1137,9 +1682,28 @@ public final class Run {
             }
         }
 
-        // quits the engine
+        // quits the numeric decision procedures for the conservative 
+        // repOk checks of the other workers
+        for (DecisionProcedureAlgorithms dec : this.decisionProceduresConcretizationOthers) {
+            try {
+                dec.close();
+            } catch (DecisionException e) {
+                err(ERROR_ENGINE_QUIT_DECISION_PROCEDURE);
+                err(e);
+                retVal = 1;
+            }
+        }
+        this.decisionProceduresConcretizationOthers.clear();
+
+        // quits the engine(s)
         try {
-            this.engine.close();
+            if (this.runnerParallel != null) {
+                this.runnerParallel.close();
+            } else if (this.engine != null) {
+                this.engine.close();
+            } else if (this.decisionProcedure != null) {
+                this.decisionProcedure.close();
+            }
         } catch (DecisionException e) {
             err(ERROR_ENGINE_QUIT_DECISION_PROCEDURE);
             err(e);
@@ -1150,6 +1714,15 @@ public final class Run {
             retVal = 2;
         }
 
+        // terminates the solver processes given back
+        // to the private pool
+        if (this.solverPoolPrivate) {
+            this.solverPool.close();
+        }
+
+        // waits for the emitter to write all the states
+        closeEmitter();
+
         // closes all the output streams with the exception of
         // stdout/err
         for (PrintStream p : this.out) {
@@ -1225,6 +1798,9 @@ public final class Run {
     /** Message: analyzed pre-initial states. */
     private static final String MSG_END_STATES_PREINITIAL = "Analyzed pre-initial states: ";
 
+    /** Message: evicted states. */
+    private static final String MSG_END_STATES_EVICTED = "Pending states evicted because of memory pressure, and replayed from the initial state: ";
+
     /** Message: total paths. */
     private static final String MSG_END_PATHS_TOT = "Analyzed paths: ";
 
@@ -1259,6 +1835,9 @@ public final class Run {
     /** Warning: timeout. */
     private static final String WARNING_TIMEOUT = "Timeout.";
 
+    /** Warning: some evicted states were not replayed. */
+    private static final String WARNING_STATES_NOT_REPLAYED = "Analysis incomplete, evicted states not replayed: ";
+
     /** Warning: exhausted heap scope. */
     private static final String WARNING_SCOPE_EXHAUSTED_HEAP = " path exhausted heap scope.";
 
@@ -1280,6 +1859,54 @@ public final class Run {
     /** Warning: a method call cannot be treated as returning an uninterpreted function value. */
     private static final String WARNING_UNINTERPRETED_UNSUPPORTED = " method call cannot be treated as returning an uninterpreted function symbolic value: ";
 
+    /** The maximum number of idle solver processes in the private pool. */
+    private static final int SOLVER_POOL_MAX_IDLE = 4;
+
+    /** The maximum number of states pending in the emitter. */
+    private static final int EMITTER_CAPACITY = 1024;
+
+    /** Error: unable to open the state output file. */
+    private static final String ERROR_STATE_FILE_OPEN = "Could not open the state output file. The states will not be displayed.";
+
+    /** Error: unable to write the state output file. */
+    private static final String ERROR_STATE_FILE_WRITE = "Could not write the state output file, cause: ";
+
+    /** Error: parallel exploration with unsupported settings. */
+    private static final String ERROR_PARALLEL_UNSUPPORTED = "Parallel exploration cannot be combined with interactive modes, guidance, concretization checks or checkpoints.";
+
+    /** Error: distributed exploration with unsupported settings. */
+    private static final String ERROR_DISTRIBUTED_UNSUPPORTED = "Distributed exploration cannot be combined with parallel exploration, interactive modes, guidance, concretization checks or checkpoints.";
+
+    /** Error: the distributed exploration failed. */
+    private static final String ERROR_DISTRIBUTED_FAILED = "The distributed exploration failed, cause: ";
+
+    /** Error: unable to read the checkpoint file. */
+    private static final String ERROR_CHECKPOINT_FILE_READ = "Could not read the checkpoint file, cause: ";
+
+    /** Error: unable to write the checkpoint file. */
+    private static final String ERROR_CHECKPOINT_FILE_WRITE = "Could not write the checkpoint file, cause: ";
+
+    /** Checkpoint counter: safe paths. */
+    private static final String COUNTER_PATHS_SAFE = "run.pathsSafe";
+
+    /** Checkpoint counter: unsafe paths. */
+    private static final String COUNTER_PATHS_UNSAFE = "run.pathsUnsafe";
+
+    /** Checkpoint counter: unmanageable paths. */
+    private static final String COUNTER_PATHS_UNMANAGEABLE = "run.pathsUnmanageable";
+
+    /** Checkpoint counter: safe concretizable paths. */
+    private static final String COUNTER_PATHS_CONCRETIZABLE_SAFE = "run.pathsConcretizableSafe";
+
+    /** Checkpoint counter: unsafe concretizable paths. */
+    private static final String COUNTER_PATHS_CONCRETIZABLE_UNSAFE = "run.pathsConcretizableUnsafe";
+
+    /** Checkpoint counter: out-of-scope concretizable paths. */
+    private static final String COUNTER_PATHS_CONCRETIZABLE_OUT_OF_SCOPE = "run.pathsConcretizableOutOfScope";
+
+    /** Error: unable to write the metrics file. */
+    private static final String ERROR_METRICS_FILE_WRITE = "Could not write the metrics file, cause: ";
+
     /** Error: unable to open dump file. */
     private static final String ERROR_DUMP_FILE_OPEN = "Could not open the dump file. The session will be displayed on console only.";
 
@@ -14,6 +14,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -25,9 +26,11 @@ import jbse.dec.DecisionProcedure;
 import jbse.dec.DecisionProcedureAlgorithms;
 import jbse.dec.DecisionProcedureAlwSat;
 import jbse.dec.DecisionProcedureClassInit;
+import jbse.dec.ExternalSolverPool;
 import jbse.jvm.EngineParameters;
 import jbse.jvm.ExecutionObserver;
 import jbse.jvm.RunnerParameters;
+import jbse.jvm.StartupSnapshots;
 import jbse.jvm.EngineParameters.BreadthMode;
 import jbse.jvm.EngineParameters.StateIdentificationMode;
 import jbse.mem.State;
@@ -212,6 +215,20 @@ public final class RunParameters implements Cloneable {
         CONTRADICTORY
     }
 
+    /**
+     * Enumeration of the possible formats of the 
+     * metrics file.
+     * 
+     * @author Pietro Braione
+     */
+    public enum MetricsFormat {
+        /** A JSON object. */
+        JSON,
+
+        /** The Prometheus text exposition format. */
+        PROMETHEUS
+    }
+
     /**
      * Enumeration of the possible text file line termination 
      * modes.
@@ -291,6 +308,13 @@ public final class RunParameters implements Cloneable {
          */
         PATH,
 
+        /** 
+         * Displays the traversed states in the same 
+         * format of {@link #PATH}, without bytecode, as 
+         * newline-delimited JSON objects. 
+         */
+        PATH_JSON,
+
         /**
          * Displays a JUnit class containing a suite that 
          * covers all the symbolic states according to the
@@ -317,6 +341,9 @@ public final class RunParameters implements Cloneable {
     /** The {@link Path} where the executable of the external decision procedure is. */
     private Path externalDecisionProcedurePath = null;
 
+    /** The pool of the external solver processes, or {@code null} for a private one. */
+    private ExternalSolverPool solverPool = null;
+
     /** 
      * Whether the engine should use its sign analysis 
      * decision support.
@@ -326,6 +353,12 @@ public final class RunParameters implements Cloneable {
     /** Whether the engine should do sign analysis before invoking the decision procedure. */
     private boolean doEqualityAnalysis = false;
 
+    /** 
+     * The maximum number of satisfiability answers the engine
+     * should cache, {@code 0} for no caching.
+     */
+    private int satCacheSize = 0;
+
     /** 
      * Whether the engine should use the LICS decision procedure.
      * Set to true by default because the LICS decision procedure
@@ -369,6 +402,42 @@ public final class RunParameters implements Cloneable {
     /** The path of the output file. */
     private Path outFilePath = null;
 
+    /** The path of the metrics file, or {@code null} for no metrics. */
+    private Path metricsFilePath = null;
+
+    /** The format of the metrics file. */
+    private MetricsFormat metricsFormat = MetricsFormat.JSON;
+
+    /** The path of the checkpoint file to resume from, or {@code null}. */
+    private Path resumeFilePath = null;
+
+    /** The number of threads exploring the symbolic execution tree. */
+    private int parallelism = 1;
+
+    /** 
+     * The number of worker processes exploring the symbolic execution 
+     * tree ({@code 0} for no distributed exploration).
+     */
+    private int distributionWorkers = 0;
+
+    /** The depth of the pre-exploration of a distributed exploration. */
+    private int distributionDepth = 1;
+
+    /** The time slice of the worker processes, in milliseconds ({@code 0L} for unlimited). */
+    private long distributionTimeSlice = 0L;
+
+    /** The directory for the checkpoint and result files of the worker processes. */
+    private Path distributionWorkDirectory = null;
+
+    /** 
+     * The name of the class whose instances create the 
+     * {@link RunParameters} of the worker processes. 
+     */
+    private String distributionParametersFactoryClassName = null;
+
+    /** The path of the state output file, or {@code null} for none. */
+    private Path stateOutputFilePath = null;
+
     /** The text mode. */
     private TextMode textMode = TextMode.PLATFORM;
 
@@ -438,6 +507,15 @@ public final class RunParameters implements Cloneable {
     
     /** The number of hits when guided == true. */
     private int numberOfHits = 1;
+    
+    /** The number of debuggee JVMs launched in advance by the JDI guidance. */
+    private int guidanceJDIPrelaunchedVms = DecisionProcedureGuidanceJDI.DEFAULT_PRELAUNCHED_VMS;
+    
+    /** The maximum number of debuggee JVMs kept alive by the JDI guidance. */
+    private int guidanceJDIMaxLiveVms = DecisionProcedureGuidanceJDI.DEFAULT_MAX_LIVE_VMS;
+    
+    /** The store of the concrete states of the JBSE guidance, or {@code null}. */
+    private StartupSnapshots guidanceJBSESnapshots = null;
 
     /**
      * Constructor.
@@ -758,6 +836,58 @@ public final class RunParameters implements Cloneable {
         this.runnerParameters.clearUserClasspath();
     }
 
+    /**
+     * Sets the directory where the indices of the jar files
+     * in the classpath are persisted, so they are reused 
+     * across runs. By default the indices are not persisted.
+     * 
+     * @param classpathIndexDirectory a {@link Path}, or {@code null}
+     *        for no persistence.
+     */
+    public void setClasspathIndexDirectory(Path classpathIndexDirectory) {
+        this.runnerParameters.setClasspathIndexDirectory(classpathIndexDirectory);
+    }
+
+    /**
+     * Returns the directory where the indices of the jar files
+     * in the classpath are persisted.
+     * 
+     * @return a {@link Path}, or {@code null} if the indices
+     *         are not persisted.
+     */
+    public Path getClasspathIndexDirectory() {
+        return this.runnerParameters.getClasspathIndexDirectory();
+    }
+
+    /**
+     * Sets the store of the states at the end of the 
+     * pre-initial phase. If the store contains a state
+     * for the same settings of these parameters the 
+     * symbolic execution starts from (a copy of) it, skipping 
+     * the bootstrap of the JVM; otherwise, it stores its 
+     * initial state in it. Sharing a store across the 
+     * executions in a same JVM (e.g., the analyses of many 
+     * methods of a same project) avoids repeating the 
+     * bootstrap for each of them. By default no store is used.
+     * 
+     * @param startupSnapshots a {@link StartupSnapshots}, 
+     *        or {@code null} for always bootstrapping
+     *        the JVM.
+     */
+    public void setStartupSnapshots(StartupSnapshots startupSnapshots) {
+        this.runnerParameters.setStartupSnapshots(startupSnapshots);
+    }
+
+    /**
+     * Gets the store of the states at the end of the 
+     * pre-initial phase.
+     * 
+     * @return a {@link StartupSnapshots}, or {@code null}.
+     */
+    public StartupSnapshots getStartupSnapshots() {
+        return this.runnerParameters.getStartupSnapshots();
+    }
+
     /**
      * Builds the classpath.
      * 
@@ -1507,6 +1637,33 @@ public final class RunParameters implements Cloneable {
         return this.externalDecisionProcedurePath;
     }
 
+    /**
+     * Sets the pool the external solver processes are borrowed 
+     * from. Sharing a pool among many symbolic executions in the 
+     * same JVM allows them to reuse the warm solver processes, 
+     * instead of launching new ones. The pool is not closed at the 
+     * end of the symbolic execution. By default every symbolic 
+     * execution uses a private pool, that is closed at its end.
+     * 
+     * @param solverPool an {@link ExternalSolverPool}, or {@code null}
+     *        for a private pool.
+     */
+    public void setSolverPool(ExternalSolverPool solverPool) {
+        this.solverPool = solverPool;
+    }
+
+    /**
+     * Returns the pool the external solver processes are 
+     * borrowed from.
+     * 
+     * @return the {@link ExternalSolverPool} set with 
+     *         {@link #setSolverPool(ExternalSolverPool)}, or 
+     *         {@code null} for a private pool.
+     */
+    public ExternalSolverPool getSolverPool() {
+        return this.solverPool;
+    }
+
     /**
      * Adds a creation strategy to the strategies 
      * for creating the {@link DecisionProcedure}.
@@ -1580,6 +1737,30 @@ public final class RunParameters implements Cloneable {
         return this.doEqualityAnalysis;
     }
 
+    /**
+     * Sets the maximum number of answers to satisfiability 
+     * queries that the engine should cache in front of the 
+     * decision procedure set with 
+     * {@link #setDecisionProcedureType(DecisionProcedureType)}.
+     * 
+     * @param satCacheSize an {@code int}, the maximum number of
+     *        cached answers; {@code 0} or less disables caching.
+     */
+    public void setSatCacheSize(int satCacheSize) {
+        this.satCacheSize = satCacheSize;
+    }
+
+    /**
+     * Gets the maximum number of answers to satisfiability 
+     * queries that the engine should cache.
+     * 
+     * @return an {@code int}; {@code 0} or less means that
+     *         caching is disabled.
+     */
+    public int getSatCacheSize() {
+        return this.satCacheSize;
+    }
+
     /**
      * Sets whether the engine shall invoke or not the conservative
      * repOk methods at every heap expansion. By default they are
@@ -2035,6 +2216,299 @@ public final class RunParameters implements Cloneable {
         return this.outFilePath;
     }
 
+    /**
+     * Sets the path of the metrics file. When set, the 
+     * engine records metrics (time per bytecode and per 
+     * decision procedure query, number of state clones, 
+     * cache hits, steps per second) and dumps them to 
+     * this file at the end of symbolic execution.
+     * 
+     * @param metricsFilePath the {@link Path} of a file.
+     * @param metricsFormat the {@link MetricsFormat} of the file.
+     * @throws NullPointerException if {@code metricsFilePath == null || metricsFormat == null}.
+     */
+    public void setMetricsFilePath(Path metricsFilePath, MetricsFormat metricsFormat) {
+        if (metricsFilePath == null || metricsFormat == null) {
+            throw new NullPointerException();
+        }
+        this.metricsFilePath = metricsFilePath;
+        this.metricsFormat = metricsFormat;
+    }
+
+    /**
+     * Instructs not to record metrics, cancelling
+     * any previous invocation of the {@link #setMetricsFilePath}
+     * method. This is the default behaviour. 
+     */
+    public void setMetricsFileNone() { 
+        this.metricsFilePath = null; 
+    }
+
+    /**
+     * Returns the path of the metrics file.
+     * 
+     * @return the {@link Path} of the file where the 
+     *         metrics will be dumped, or {@code null} if 
+     *         no metrics must be recorded.
+     */
+    public Path getMetricsFilePath() {
+        return this.metricsFilePath;
+    }
+
+    /**
+     * Returns the format of the metrics file.
+     * 
+     * @return a {@link MetricsFormat}.
+     */
+    public MetricsFormat getMetricsFormat() {
+        return this.metricsFormat;
+    }
+
+    /**
+     * Sets the path of the state output file. When set, 
+     * the formatted states are written only to this file,
+     * and they are formatted on a background thread that
+     * streams them incrementally to the file, so formatting
+     * does not block symbolic execution. 
+     * 
+     * @param stateOutputFilePath the {@link Path} of a file.
+     * @throws NullPointerException if {@code stateOutputFilePath == null}.
+     */
+    public void setStateOutputFilePath(Path stateOutputFilePath) {
+        if (stateOutputFilePath == null) {
+            throw new NullPointerException();
+        }
+        this.stateOutputFilePath = stateOutputFilePath;
+    }
+
+    /**
+     * Instructs to write the formatted states together with
+     * the rest of the output, cancelling any previous invocation 
+     * of the {@link #setStateOutputFilePath(Path)} method. 
+     * This is the default behaviour. 
+     */
+    public void setStateOutputFileNone() { 
+        this.stateOutputFilePath = null; 
+    }
+
+    /**
+     * Returns the path of the state output file.
+     * 
+     * @return the {@link Path} of the file where the 
+     *         formatted states are streamed, or {@code null} 
+     *         if they are written together with the rest 
+     *         of the output.
+     */
+    public Path getStateOutputFilePath() {
+        return this.stateOutputFilePath;
+    }
+
+    /**
+     * Sets the periodic saving of checkpoints of the 
+     * symbolic execution, that allow to resume it later
+     * with {@link #setResumeFilePath(Path)}. 
+     * 
+     * @param checkpointFilePath the {@link Path} of the checkpoint file.
+     * @param interval a {@code long}, the minimum interval between 
+     *        two checkpoints.
+     * @param timeUnit the {@link TimeUnit} of {@code interval}.
+     * @throws NullPointerException if {@code checkpointFilePath == null}.
+     */
+    public void setCheckpointFilePath(Path checkpointFilePath, long interval, TimeUnit timeUnit) {
+        this.runnerParameters.setCheckpointFile(checkpointFilePath, interval, timeUnit);
+    }
+
+    /**
+     * Instructs not to save checkpoints. This is 
+     * the default behaviour.
+     */
+    public void setCheckpointFileNone() {
+        this.runnerParameters.setCheckpointNone();
+    }
+
+    /**
+     * Returns the path of the checkpoint file.
+     * 
+     * @return the {@link Path} of the checkpoint file, or
+     *         {@code null} if no checkpoints must be saved.
+     */
+    public Path getCheckpointFilePath() {
+        return this.runnerParameters.getCheckpointFile();
+    }
+
+    /**
+     * Sets the checkpoint file the symbolic execution must
+     * resume from. The symbolic execution must be performed
+     * with the same parameters of the checkpointed one. 
+     * 
+     * @param resumeFilePath the {@link Path} of a checkpoint file.
+     * @throws NullPointerException if {@code resumeFilePath == null}.
+     */
+    public void setResumeFilePath(Path resumeFilePath) {
+        if (resumeFilePath == null) {
+            throw new NullPointerException();
+        }
+        this.resumeFilePath = resumeFilePath;
+    }
+
+    /**
+     * Instructs to start a fresh symbolic execution. This 
+     * is the default behaviour.
+     */
+    public void setResumeFileNone() {
+        this.resumeFilePath = null;
+    }
+
+    /**
+     * Returns the path of the checkpoint file the symbolic
+     * execution must resume from.
+     * 
+     * @return a {@link Path}, or {@code null} for a 
+     *         fresh symbolic execution.
+     */
+    public Path getResumeFilePath() {
+        return this.resumeFilePath;
+    }
+
+    /**
+     * Sets the number of threads that explore the symbolic 
+     * execution tree. With more than one thread each thread 
+     * has its own decision procedure, and the threads share the 
+     * pending states; the order the states are output 
+     * is nondeterministic. Parallel exploration cannot be 
+     * combined with interactive modes, guidance, concretization
+     * checks and checkpoints. By default the exploration is 
+     * sequential.
+     * 
+     * @param parallelism an {@code int}, the number of threads; 
+     *        values less than one are treated as one.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Returns the number of threads that explore the symbolic 
+     * execution tree.
+     * 
+     * @return a positive {@code int}.
+     */
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Sets the distributed exploration of the symbolic execution 
+     * tree. The tree is explored up to a depth, and the subtrees
+     * at the depth are assigned to worker processes (see 
+     * {@link jbse.jvm.RunnerDistributed}) launched on the local 
+     * machine with {@link RunWorker}. The worker processes 
+     * create their parameters with a nullary constructor of 
+     * {@code parametersFactory}, that must produce the same 
+     * parameters as these ones, and print their output on 
+     * files, that are finally merged in the output of this 
+     * symbolic execution. A distributed exploration cannot be 
+     * combined with parallel exploration, interactive modes, 
+     * guidance, concretization checks and checkpoints.
+     * 
+     * @param numWorkers an {@code int}, the maximum number of worker
+     *        processes running at the same time; values less than one 
+     *        are treated as one.
+     * @param depth an {@code int}, the depth of the pre-exploration; 
+     *        values less than one are treated as one.
+     * @param workDirectory the {@link Path} of a directory for the 
+     *        checkpoint and output files of the workers.
+     * @param parametersFactory a {@link Class}{@code <? extends }{@link Supplier}{@code <}{@link RunParameters}{@code >>}.
+     * @throws NullPointerException if {@code workDirectory == null || parametersFactory == null}.
+     */
+    public void setDistribution(int numWorkers, int depth, Path workDirectory, Class<? extends Supplier<RunParameters>> parametersFactory) {
+        if (workDirectory == null || parametersFactory == null) {
+            throw new NullPointerException();
+        }
+        this.distributionWorkers = Math.max(1, numWorkers);
+        this.distributionDepth = Math.max(1, depth);
+        this.distributionWorkDirectory = workDirectory;
+        this.distributionParametersFactoryClassName = parametersFactory.getName();
+    }
+
+    /**
+     * Sets the time slice of the worker processes of a distributed 
+     * exploration. A worker process that does not finish within its 
+     * time slice stops, and the states it left pending are explored
+     * by new worker processes. By default the time slice is unlimited.
+     * 
+     * @param time a {@code long}, the time slice, or {@code 0L}
+     *        for unlimited.
+     * @param timeUnit the {@link TimeUnit} of {@code time}.
+     */
+    public void setDistributionTimeSlice(long time, TimeUnit timeUnit) {
+        this.distributionTimeSlice = timeUnit.toMillis(time);
+    }
+
+    /**
+     * Instructs not to distribute the exploration across processes.
+     * This is the default behaviour.
+     */
+    public void setDistributionNone() {
+        this.distributionWorkers = 0;
+        this.distributionWorkDirectory = null;
+        this.distributionParametersFactoryClassName = null;
+    }
+
+    /**
+     * Returns the number of worker processes of a 
+     * distributed exploration.
+     * 
+     * @return an {@code int}, {@code 0} if the exploration
+     *         is not distributed.
+     */
+    public int getDistributionWorkers() {
+        return this.distributionWorkers;
+    }
+
+    /**
+     * Returns the depth of the pre-exploration of a
+     * distributed exploration.
+     * 
+     * @return a positive {@code int}.
+     */
+    public int getDistributionDepth() {
+        return this.distributionDepth;
+    }
+
+    /**
+     * Returns the time slice of the worker processes
+     * of a distributed exploration.
+     * 
+     * @return a {@code long}, in milliseconds ({@code 0L}
+     *         for unlimited).
+     */
+    public long getDistributionTimeSlice() {
+        return this.distributionTimeSlice;
+    }
+
+    /**
+     * Returns the directory for the checkpoint and output 
+     * files of the worker processes.
+     * 
+     * @return a {@link Path}, or {@code null} if the 
+     *         exploration is not distributed.
+     */
+    public Path getDistributionWorkDirectory() {
+        return this.distributionWorkDirectory;
+    }
+
+    /**
+     * Returns the name of the class that creates the parameters
+     * of the worker processes.
+     * 
+     * @return a {@link String}, or {@code null} if the 
+     *         exploration is not distributed.
+     */
+    public String getDistributionParametersFactoryClassName() {
+        return this.distributionParametersFactoryClassName;
+    }
+
     /**
      * Sets the line separation text mode.
      * 
@@ -2511,6 +2985,80 @@ public final class RunParameters implements Cloneable {
     public GuidanceType getGuidanceType() {
         return this.guidanceType;
     }
+    
+    /**
+     * Sets how many debuggee JVMs the {@link GuidanceType#JDI JDI} 
+     * guidance launches in advance, so that the evaluation of 
+     * uninterpreted functions does not wait for JVMs to start.
+     * 
+     * @param prelaunchedVms an {@code int}. If {@code prelaunchedVms <= 0}
+     *        the JVMs are launched upon request.
+     */
+    public void setGuidanceJDIPrelaunchedVms(int prelaunchedVms) {
+        this.guidanceJDIPrelaunchedVms = Math.max(0, prelaunchedVms);
+    }
+    
+    /**
+     * Returns how many debuggee JVMs the {@link GuidanceType#JDI JDI} 
+     * guidance launches in advance.
+     * 
+     * @return a nonnegative {@code int}.
+     */
+    public int getGuidanceJDIPrelaunchedVms() {
+        return this.guidanceJDIPrelaunchedVms;
+    }
+    
+    /**
+     * Sets how many debuggee JVMs the {@link GuidanceType#JDI JDI} 
+     * guidance keeps alive after the evaluation of uninterpreted 
+     * functions. When exceeded, the least recently used JVM 
+     * is terminated, and relaunched if needed.
+     * 
+     * @param maxLiveVms an {@code int}. If {@code maxLiveVms <= 0}
+     *        there is no limit.
+     */
+    public void setGuidanceJDIMaxLiveVms(int maxLiveVms) {
+        this.guidanceJDIMaxLiveVms = Math.max(0, maxLiveVms);
+    }
+    
+    /**
+     * Returns how many debuggee JVMs the {@link GuidanceType#JDI JDI} 
+     * guidance keeps alive after the evaluation of uninterpreted 
+     * functions.
+     * 
+     * @return a nonnegative {@code int}, where {@code 0} 
+     *         means no limit.
+     */
+    public int getGuidanceJDIMaxLiveVms() {
+        return this.guidanceJDIMaxLiveVms;
+    }
+    
+    /**
+     * Sets the store of the states reached by the concrete
+     * executions of the {@link GuidanceType#JBSE JBSE} guidance
+     * at their stop points. If the store contains a state for
+     * the same settings the guidance starts from (a copy of) it, 
+     * skipping the concrete execution; otherwise, the guidance 
+     * stores the state it reaches in it. By default no store
+     * is used.
+     * 
+     * @param guidanceJBSESnapshots a {@link StartupSnapshots}, 
+     *        or {@code null} for always performing the concrete
+     *        execution.
+     */
+    public void setGuidanceJBSESnapshots(StartupSnapshots guidanceJBSESnapshots) {
+        this.guidanceJBSESnapshots = guidanceJBSESnapshots;
+    }
+    
+    /**
+     * Gets the store of the states reached by the concrete
+     * executions of the {@link GuidanceType#JBSE JBSE} guidance.
+     * 
+     * @return a {@link StartupSnapshots}, or {@code null}.
+     */
+    public StartupSnapshots getGuidanceJBSESnapshots() {
+        return this.guidanceJBSESnapshots;
+    }
 
     /**
      * Returns a new {@link RunnerParameters} that can be used
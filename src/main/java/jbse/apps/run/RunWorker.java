@@ -0,0 +1,121 @@
+package jbse.apps.run;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import jbse.common.exc.InvalidInputException;
+import jbse.jvm.RunnerDistributed.Assignment;
+
+/**
+ * The main class of the worker processes of a distributed
+ * exploration (see {@link RunParameters#setDistribution(int, int, Path, Class)}).
+ * A worker process creates its {@link RunParameters}, restricts
+ * them to the region assigned by the coordinator, and
+ * {@link Run}s them.
+ *
+ * @author Pietro Braione
+ */
+public final class RunWorker {
+    /**
+     * The main method of a worker process.
+     *
+     * @param args a {@link String}{@code []}; {@code args[0]} is the
+     *        name of a class implementing {@link Supplier}{@code <}{@link RunParameters}{@code >}
+     *        with a nullary constructor, and the next arguments encode the
+     *        {@link Assignment} of the worker (see {@link Assignment#toArguments()}).
+     *        The process exits with status {@code 0} if everything went
+     *        ok, or with the error code of {@link Run#run()}, or with
+     *        status {@code 1} if the arguments are wrong.
+     */
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Runs a worker.
+     *
+     * @param args a {@link String}{@code []}, as in {@link #main(String[])}.
+     * @return an {@code int}, the exit status of the worker.
+     */
+    static int run(String[] args) {
+        final RunParameters parameters;
+        final Assignment assignment;
+        try {
+            if (args == null || args.length < 1) {
+                throw new InvalidInputException("Missing the name of the parameters factory class.");
+            }
+            assignment = Assignment.fromArguments(args, 1);
+            parameters = createParameters(args[0]);
+        } catch (InvalidInputException e) {
+            System.err.println(e.getMessage());
+            return 1;
+        }
+        configure(parameters, assignment);
+        return new Run(parameters).run();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RunParameters createParameters(String parametersFactoryClassName) throws InvalidInputException {
+        try {
+            final Supplier<RunParameters> factory = (Supplier<RunParameters>) Class.forName(parametersFactoryClassName).newInstance();
+            final RunParameters retVal = factory.get();
+            if (retVal == null) {
+                throw new InvalidInputException("The parameters factory " + parametersFactoryClassName + " produced no parameters.");
+            }
+            return retVal;
+        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | ClassCastException e) {
+            throw new InvalidInputException("Cannot create the parameters factory " + parametersFactoryClassName + ": " + e);
+        }
+    }
+
+    /**
+     * Configures the parameters of a worker process so it
+     * explores the assigned region, and writes its output
+     * on the result file of the assignment.
+     *
+     * @param parameters the {@link RunParameters} of the worker.
+     * @param assignment the {@link Assignment} of the worker.
+     */
+    static void configure(RunParameters parameters, Assignment assignment) {
+        parameters.setDistributionNone();
+        parameters.setParallelism(1);
+        parameters.setShowOnConsole(false);
+        assignment.applyTo(parameters.getRunnerParameters());
+        if (parameters.getStateOutputFilePath() == null) {
+            parameters.setOutputFilePath(assignment.getResultFile());
+        } else {
+            parameters.setStateOutputFilePath(assignment.getResultFile());
+            parameters.setOutputFilePath(Paths.get(assignment.getResultFile().toString() + ".out"));
+        }
+    }
+
+    /**
+     * Returns the command that launches a worker process on
+     * the local machine, with the same Java runtime and
+     * classpath of the invoking process.
+     *
+     * @param parametersFactoryClassName a {@link String}, the name of
+     *        the class creating the {@link RunParameters} of the worker.
+     * @return a {@link List}{@code <}{@link String}{@code >}, to be
+     *         completed with the encoded assignment of the worker.
+     */
+    static List<String> command(String parametersFactoryClassName) {
+        final ArrayList<String> retVal = new ArrayList<>();
+        retVal.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        retVal.add("-cp");
+        retVal.add(System.getProperty("java.class.path"));
+        retVal.add(RunWorker.class.getName());
+        retVal.add(parametersFactoryClassName);
+        return retVal;
+    }
+
+    /**
+     * Do not instantiate!
+     */
+    private RunWorker() {
+        //nothing to do
+    }
+}
@@ -3,6 +3,7 @@ package jbse.bc;
 import static jbse.bc.ClassLoaders.CLASSLOADER_NONE;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 
 import jbse.common.Type;
@@ -12,7 +13,9 @@ import jbse.common.exc.InvalidInputException;
  * A container for the loaded classfiles. Implements
  * the loaded class cache, similarly to what
  * in the Hotspot JVM implementation does the system
- * dictionary. 
+ * dictionary. The per-loader tables are shared with the
+ * clones of the store, and copied upon the first write, so 
+ * cloning does not depend on the number of loaded classes.
  */ 
 final class ClassFileStore implements Cloneable {  
     /** 
@@ -21,8 +24,21 @@ final class ClassFileStore implements Cloneable {
      */
     private ArrayList<HashMap<String, ClassFile>> loadedClassCache = new ArrayList<>(); //not final because of clone
     
+    /** 
+     * The initiating loader ids whose tables in {@code loadedClassCache} 
+     * are owned by this store, i.e., are not shared with other stores 
+     * and can be modified in place.
+     */
+    private BitSet loadedClassCacheOwned = new BitSet(); //not final because of clone
+    
     /** The cache for the anonymous classes. */
     private HashMap<String, ClassFile> anonymousClasses = new HashMap<>(); //not final because of clone
+    
+    /** 
+     * Whether {@code anonymousClasses} is owned by this store, i.e., is not 
+     * shared with other stores and can be modified in place.
+     */
+    private boolean anonymousClassesOwned = true;
 
     // The primitive classfiles.
     private final ClassFileBoolean primitiveClassFileBoolean = new ClassFileBoolean(); 
@@ -70,11 +86,12 @@ final class ClassFileStore implements Cloneable {
         //makes room
         for (int i = this.loadedClassCache.size(); i <= initiatingLoader; ++i) {
             this.loadedClassCache.add(new HashMap<>());
+            this.loadedClassCacheOwned.set(i);
         }
 
         final ClassFile previousClassFile = getClassFile(initiatingLoader, classFile.getClassName());
         if (previousClassFile == null) {
-            this.loadedClassCache.get(initiatingLoader).put(classFile.getClassName(), classFile);
+            loadedClassCacheForWriting(initiatingLoader).put(classFile.getClassName(), classFile);
         } else if (previousClassFile == classFile) {
             //reinsertion of the same classfile, does nothing
             return;
@@ -84,6 +101,25 @@ final class ClassFileStore implements Cloneable {
         }
     }
     
+    /**
+     * Returns the table of the loaded class cache for an
+     * initiating loader, copying it if it is shared with
+     * other stores.
+     * 
+     * @param initiatingLoader an {@code int}, the identifier of 
+     *        a classloader. It must be a valid index in the
+     *        loaded class cache.
+     * @return a {@link HashMap}{@code <}{@link String}{@code , }{@link ClassFile}{@code >}
+     *         that can be modified.
+     */
+    private HashMap<String, ClassFile> loadedClassCacheForWriting(int initiatingLoader) {
+        if (!this.loadedClassCacheOwned.get(initiatingLoader)) {
+            this.loadedClassCache.set(initiatingLoader, new HashMap<>(this.loadedClassCache.get(initiatingLoader)));
+            this.loadedClassCacheOwned.set(initiatingLoader);
+        }
+        return this.loadedClassCache.get(initiatingLoader);
+    }
+    
     /**
      * Puts an anonymous (in the sense of
      * {@link sun.misc.Unsafe#defineAnonymousClass}) {@link ClassFile} in this store.
@@ -108,6 +144,10 @@ final class ClassFileStore implements Cloneable {
         if (classFile.isDummy()) {
             throw new InvalidInputException("Invoked " + this.getClass().getName() + ".putAnonymousClassCache with a classFile parameter that is a dummy classfile.");
         }
+        if (!this.anonymousClassesOwned) {
+            this.anonymousClasses = new HashMap<>(this.anonymousClasses);
+            this.anonymousClassesOwned = true;
+        }
         this.anonymousClasses.put(classFile.getClassName(), classFile);
     }
     
@@ -191,14 +231,15 @@ final class ClassFileStore implements Cloneable {
             throw new InternalError(e);
         }
         
-        //loadedClassCache
-        o.loadedClassCache = new ArrayList<>();
-        for (HashMap<String, ClassFile> map : this.loadedClassCache) {
-            o.loadedClassCache.add(new HashMap<>(map));
-        }
+        //loadedClassCache: the tables are shared, and
+        //become owned by neither store
+        o.loadedClassCache = new ArrayList<>(this.loadedClassCache);
+        o.loadedClassCacheOwned = new BitSet();
+        this.loadedClassCacheOwned.clear();
         
-        //anonymousClasses
-        o.anonymousClasses = new HashMap<>(o.anonymousClasses);
+        //anonymousClasses: same as above
+        o.anonymousClassesOwned = false;
+        this.anonymousClassesOwned = false;
         
         return o;
     }
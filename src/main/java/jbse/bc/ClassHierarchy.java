@@ -95,6 +95,7 @@ public final class ClassHierarchy implements Cloneable {
      * JBSE execution. It is not mutated. 
      */
     private final ArrayList<Path> implementationClassPath;
+    private final ClasspathIndex implementationClassPathIndex;
     
     /** The {@link ClassFileFactory} used to create {@link ClassFile}s. */
     private final ClassFileFactory f;
@@ -163,6 +164,7 @@ public final class ClassHierarchy implements Cloneable {
 				throw new UnexpectedInternalException(e);
 			}
         }
+        this.implementationClassPathIndex = new ClasspathIndex(this.implementationClassPath, this.cp.indexDirectory());
         try {
             this.f = factoryClass.newInstance();
         } catch (InstantiationException | IllegalAccessException e) {
@@ -883,6 +885,19 @@ public final class ClassHierarchy implements Cloneable {
     	} else {
     		targetClassName = className;
     	}
+        final ClasspathIndex index = (toSubstitute ? this.implementationClassPathIndex :
+                                      initiatingLoader == CLASSLOADER_BOOT ? this.cp.bootClassPathIndex() :
+                                      initiatingLoader == CLASSLOADER_EXT ? this.cp.extClassPathIndex() :
+                                      this.cp.userClassPathIndex());
+        final ClasspathIndex.Location location = index.find(targetClassName);
+        if (location == null) {
+            return null;
+        }
+        try {
+            return new FindBytecodeResult(location.read(), location.getContainer());
+        } catch (IOException e) {
+            //falls back to scanning the classpath
+        }
         final Iterable<Path> paths = (toSubstitute ? this.implementationClassPath :
                                       initiatingLoader == CLASSLOADER_BOOT ? this.cp.bootClassPath() :
                                       initiatingLoader == CLASSLOADER_EXT ? this.cp.extClassPath() :
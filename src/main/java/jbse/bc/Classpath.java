@@ -26,6 +26,10 @@ public class Classpath implements Cloneable {
     private ArrayList<Path> extDirs; //nonfinal because of clone
     private ArrayList<Path> userClassPath; //nonfinal because of clone
     private ArrayList<Path> classPath; //nonfinal because of clone
+    private final Path indexDirectory;
+    private final ClasspathIndex bootClassPathIndex; //shared by clones, since paths are never modified
+    private final ClasspathIndex extClassPathIndex; //shared by clones, since paths are never modified
+    private final ClasspathIndex userClassPathIndex; //shared by clones, since paths are never modified
 
     /**
      * Constructor.
@@ -42,6 +46,27 @@ public class Classpath implements Cloneable {
      * @throws IOException if an I/O error occurs.
      */
     public Classpath(Path jbseLibPath, Path javaHome, List<Path> extDirs, List<Path> userPaths) throws IOException {
+        this(jbseLibPath, javaHome, extDirs, userPaths, null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param jbseLibPath a {@link Path}, the path of the JBSE library.
+     * @param javaHome a {@link Path}, the Java home directory.
+     * @param extDirs a {@link List}{@code <}{@link Path}{@code >}, 
+     *        the extension directories. It must contain valid paths
+     *        to directories. Only the jar files contained in these
+     *        directories will be considered.
+     * @param userPaths a {@link List}{@code <}{@link Path}{@code >},
+     *        the user classpath. It must contain valid paths to directories
+     *        or jar files.
+     * @param indexDirectory a {@link Path}, the directory where the 
+     *        indices of the jar files in the classpath are persisted
+     *        across runs, or {@code null} for no persistence.
+     * @throws IOException if an I/O error occurs.
+     */
+    public Classpath(Path jbseLibPath, Path javaHome, List<Path> extDirs, List<Path> userPaths, Path indexDirectory) throws IOException {
     	this.jbseLibPath = jbseLibPath.toAbsolutePath();
         this.javaHome = javaHome.toAbsolutePath();
         
@@ -80,6 +105,12 @@ public class Classpath implements Cloneable {
         this.classPath.addAll(this.bootClassPath);
         this.classPath.addAll(this.extClassPath);
         this.classPath.addAll(this.userClassPath);
+        
+        //the indices
+        this.indexDirectory = indexDirectory;
+        this.bootClassPathIndex = new ClasspathIndex(this.bootClassPath, indexDirectory);
+        this.extClassPathIndex = new ClasspathIndex(this.extClassPath, indexDirectory);
+        this.userClassPathIndex = new ClasspathIndex(this.userClassPath, indexDirectory);
     }
 
 	/**
@@ -185,6 +216,44 @@ public class Classpath implements Cloneable {
         return Collections.unmodifiableCollection(this.classPath);
     }
 
+    /**
+     * Returns the directory where the indices of 
+     * the jar files are persisted.
+     * 
+     * @return a {@link Path}, or {@code null} if the
+     *         indices are not persisted.
+     */
+    public Path indexDirectory() {
+        return this.indexDirectory;
+    }
+
+    /**
+     * Returns the index of the bootstrap classpath.
+     * 
+     * @return a {@link ClasspathIndex}.
+     */
+    public ClasspathIndex bootClassPathIndex() {
+        return this.bootClassPathIndex;
+    }
+
+    /**
+     * Returns the index of the extensions classpath.
+     * 
+     * @return a {@link ClasspathIndex}.
+     */
+    public ClasspathIndex extClassPathIndex() {
+        return this.extClassPathIndex;
+    }
+
+    /**
+     * Returns the index of the user classpath.
+     * 
+     * @return a {@link ClasspathIndex}.
+     */
+    public ClasspathIndex userClassPathIndex() {
+        return this.userClassPathIndex;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public Classpath clone() {
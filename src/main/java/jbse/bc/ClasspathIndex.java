@@ -0,0 +1,450 @@
+package jbse.bc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import jbse.common.Util;
+import jbse.common.exc.UnexpectedInternalException;
+
+/**
+ * An index of the class files in a sequence of classpath
+ * entries. The central directory of each jar file is read
+ * only once, yielding a map from the names of the classes to
+ * the positions of their class files in the jar, and the
+ * class files are read from a memory-mapped image of the jar.
+ * Jar indices are shared by all the {@link ClasspathIndex}es
+ * in the same JVM, and are optionally persisted to a directory
+ * to be reused across runs; they are invalidated when the jar's
+ * modification time or size change. Directories are not
+ * indexed but probed at each lookup, and so are the jar
+ * files that cannot be indexed (e.g., ZIP64 archives).
+ *
+ * @author Pietro Braione
+ */
+public final class ClasspathIndex {
+    /**
+     * The location of a class file.
+     *
+     * @author Pietro Braione
+     */
+    public static final class Location {
+        private final Path container;
+        private final JarIndex jarIndex;
+        private final String entryName;
+        private final byte[] content;
+
+        private Location(Path container, JarIndex jarIndex, String entryName, byte[] content) {
+            this.container = container;
+            this.jarIndex = jarIndex;
+            this.entryName = entryName;
+            this.content = content;
+        }
+
+        /**
+         * Returns the classpath entry containing the class file.
+         *
+         * @return a {@link Path}, to either a jar file or a directory.
+         */
+        public Path getContainer() {
+            return this.container;
+        }
+
+        /**
+         * Reads the class file.
+         *
+         * @return a {@code byte[]}, the content of the class file.
+         * @throws IOException if reading fails.
+         */
+        public byte[] read() throws IOException {
+            if (this.content != null) {
+                return this.content;
+            } else if (this.jarIndex == null) {
+                return Files.readAllBytes(this.container.resolve(this.entryName));
+            } else {
+                return this.jarIndex.read(this.entryName);
+            }
+        }
+    }
+
+    /** The index of a jar file. */
+    private static final class JarIndex {
+        /** The modification time of the jar file when indexed. */
+        final long modified;
+
+        /** The size of the jar file when indexed. */
+        final long size;
+
+        /**
+         * Maps the entry names to {method, compressed size,
+         * uncompressed size, local header offset}.
+         */
+        final HashMap<String, long[]> entries;
+
+        /** The memory-mapped jar file (lazily mapped). */
+        private MappedByteBuffer image = null;
+
+        /** The path of the jar file. */
+        private final Path jar;
+
+        JarIndex(Path jar, long modified, long size, HashMap<String, long[]> entries) {
+            this.jar = jar;
+            this.modified = modified;
+            this.size = size;
+            this.entries = entries;
+        }
+
+        private synchronized ByteBuffer image() throws IOException {
+            if (this.image == null) {
+                try (final FileChannel ch = FileChannel.open(this.jar, StandardOpenOption.READ)) {
+                    this.image = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                }
+            }
+            //duplicates so concurrent readers do not share the position
+            return this.image.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        byte[] read(String entryName) throws IOException {
+            final long[] entry = this.entries.get(entryName);
+            final ByteBuffer buf = image();
+            final int localHeader = (int) entry[3];
+            if (buf.getInt(localHeader) != SIG_LOCAL_HEADER) {
+                throw new IOException("Bad local header for entry " + entryName + " in jar file " + this.jar + ".");
+            }
+            final int dataStart = localHeader + 30 + (buf.getShort(localHeader + 26) & 0xFFFF) + (buf.getShort(localHeader + 28) & 0xFFFF);
+            final byte[] compressed = new byte[(int) entry[1]];
+            buf.position(dataStart);
+            buf.get(compressed);
+            if (entry[0] == METHOD_STORED) {
+                return compressed;
+            }
+            final byte[] retVal = new byte[(int) entry[2]];
+            final Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(compressed);
+                int n = 0;
+                while (n < retVal.length) {
+                    final int m = inflater.inflate(retVal, n, retVal.length - n);
+                    if (m == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    n += m;
+                }
+                if (n < retVal.length) {
+                    throw new IOException("Truncated entry " + entryName + " in jar file " + this.jar + ".");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException(e);
+            } finally {
+                inflater.end();
+            }
+            return retVal;
+        }
+    }
+
+    private static final int SIG_LOCAL_HEADER = 0x04034b50;
+    private static final int SIG_CENTRAL_HEADER = 0x02014b50;
+    private static final int SIG_END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final long METHOD_STORED = 0;
+    private static final long METHOD_DEFLATED = 8;
+    private static final int PERSISTED_MAGIC = 0x4a425349; //"JBSI"
+    private static final String CLASS_SUFFIX = ".class";
+
+    /** The jar indices of all the {@link ClasspathIndex}es, by jar path. */
+    private static final ConcurrentHashMap<Path, JarIndex> JAR_INDICES = new ConcurrentHashMap<>();
+
+    /** The classpath entries. */
+    private final ArrayList<Path> paths;
+
+    /** The directory where the jar indices are persisted, or {@code null}. */
+    private final Path cacheDirectory;
+
+    /**
+     * The indices of the entries in {@code paths} ({@code null} for
+     * directories and jars that cannot be indexed), lazily built.
+     */
+    private JarIndex[] indices = null;
+
+    /**
+     * Constructor.
+     *
+     * @param paths an {@link Iterable}{@code <}{@link Path}{@code >}, the
+     *        classpath entries (jar files or directories) in lookup order.
+     * @param cacheDirectory a {@link Path} to the directory where the jar
+     *        indices are persisted, or {@code null} for no persistence.
+     */
+    public ClasspathIndex(Iterable<Path> paths, Path cacheDirectory) {
+        this.paths = new ArrayList<>();
+        for (Path p : paths) {
+            this.paths.add(p);
+        }
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Finds a class file.
+     *
+     * @param className a {@link String}, the name of a class
+     *        in internal format (e.g., {@code java/lang/Object}).
+     * @return the {@link Location} of the class file in the
+     *         first classpath entry that contains it, or {@code null}
+     *         if no entry contains it.
+     */
+    public Location find(String className) {
+        final JarIndex[] indices = indices();
+        final String entryName = className + CLASS_SUFFIX;
+        for (int i = 0; i < indices.length; ++i) {
+            final Path path = this.paths.get(i);
+            if (indices[i] == null) {
+                if (Files.isDirectory(path)) {
+                    if (Files.isRegularFile(path.resolve(entryName))) {
+                        return new Location(path, null, entryName, null);
+                    }
+                } else if (Util.isJarFile(path)) {
+                    final byte[] content = probeJar(path, entryName);
+                    if (content != null) {
+                        return new Location(path, null, entryName, content);
+                    }
+                }
+            } else if (indices[i].entries.containsKey(entryName)) {
+                return new Location(path, indices[i], entryName, null);
+            }
+        }
+        return null;
+    }
+
+    private synchronized JarIndex[] indices() {
+        if (this.indices == null) {
+            this.indices = new JarIndex[this.paths.size()];
+            for (int i = 0; i < this.indices.length; ++i) {
+                final Path path = this.paths.get(i);
+                if (Util.isJarFile(path)) {
+                    this.indices[i] = jarIndex(path, this.cacheDirectory);
+                }
+            }
+        }
+        return this.indices;
+    }
+
+    /**
+     * Reads an entry of a jar file that cannot be indexed.
+     *
+     * @param jar a {@link Path} to a jar file.
+     * @param entryName the name of the entry.
+     * @return a {@code byte[]}, the content of the entry,
+     *         or {@code null} if the jar file has no such entry
+     *         or reading it fails.
+     */
+    private static byte[] probeJar(Path jar, String entryName) {
+        try (final JarFile f = new JarFile(jar.toFile())) {
+            final JarEntry e = f.getJarEntry(entryName);
+            if (e == null) {
+                return null;
+            }
+            final byte[] content = new byte[(int) e.getSize()];
+            try (final DataInputStream in = new DataInputStream(f.getInputStream(e))) {
+                in.readFully(content);
+            }
+            return content;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the index of a jar file, possibly building it.
+     *
+     * @param jar a {@link Path} to a jar file.
+     * @param cacheDirectory a {@link Path} to the directory where
+     *        the jar indices are persisted, or {@code null}.
+     * @return a {@link JarIndex}, or {@code null} if the jar file
+     *         cannot be indexed.
+     */
+    private static JarIndex jarIndex(Path jar, Path cacheDirectory) {
+        final Path key = jar.toAbsolutePath().normalize();
+        final long modified, size;
+        try {
+            modified = Files.getLastModifiedTime(key).toMillis();
+            size = Files.size(key);
+        } catch (IOException e) {
+            return null;
+        }
+        JarIndex retVal = JAR_INDICES.get(key);
+        if (retVal != null && retVal.modified == modified && retVal.size == size) {
+            return retVal;
+        }
+        retVal = (cacheDirectory == null ? null : loadJarIndex(key, modified, size, cacheDirectory));
+        if (retVal == null) {
+            try {
+                retVal = buildJarIndex(key, modified, size);
+            } catch (IOException | RuntimeException e) {
+                return null;
+            }
+            if (retVal == null) {
+                return null;
+            }
+            if (cacheDirectory != null) {
+                saveJarIndex(retVal, cacheDirectory);
+            }
+        }
+        JAR_INDICES.put(key, retVal);
+        return retVal;
+    }
+
+    /**
+     * Builds the index of a jar file by reading its central
+     * directory.
+     *
+     * @param jar a {@link Path}, the absolute path of a jar file.
+     * @param modified a {@code long}, the modification time of the jar.
+     * @param size a {@code long}, the size of the jar.
+     * @return a {@link JarIndex}, or {@code null} if the jar
+     *         cannot be indexed.
+     * @throws IOException if reading the jar file fails.
+     */
+    private static JarIndex buildJarIndex(Path jar, long modified, long size) throws IOException {
+        if (size > Integer.MAX_VALUE || size < 22) {
+            return null;
+        }
+        final ByteBuffer buf;
+        try (final FileChannel ch = FileChannel.open(jar, StandardOpenOption.READ)) {
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        //finds the end of central directory record, that is followed by a comment of at most 64K
+        int eocd = -1;
+        for (int i = (int) size - 22; i >= Math.max(0, (int) size - 22 - 0xFFFF); --i) {
+            if (buf.getInt(i) == SIG_END_OF_CENTRAL_DIRECTORY) {
+                eocd = i;
+                break;
+            }
+        }
+        if (eocd < 0) {
+            return null;
+        }
+        final int numEntries = buf.getShort(eocd + 10) & 0xFFFF;
+        final long cdOffset = buf.getInt(eocd + 16) & 0xFFFFFFFFL;
+        if (numEntries == 0xFFFF || cdOffset == 0xFFFFFFFFL) {
+            return null; //ZIP64
+        }
+
+        final HashMap<String, long[]> entries = new HashMap<>(numEntries * 2);
+        int pos = (int) cdOffset;
+        for (int i = 0; i < numEntries; ++i) {
+            if (buf.getInt(pos) != SIG_CENTRAL_HEADER) {
+                return null;
+            }
+            final long method = buf.getShort(pos + 10) & 0xFFFF;
+            final long compressedSize = buf.getInt(pos + 20) & 0xFFFFFFFFL;
+            final long uncompressedSize = buf.getInt(pos + 24) & 0xFFFFFFFFL;
+            final int nameLength = buf.getShort(pos + 28) & 0xFFFF;
+            final int extraLength = buf.getShort(pos + 30) & 0xFFFF;
+            final int commentLength = buf.getShort(pos + 32) & 0xFFFF;
+            final long localHeaderOffset = buf.getInt(pos + 42) & 0xFFFFFFFFL;
+            final byte[] name = new byte[nameLength];
+            buf.position(pos + 46);
+            buf.get(name);
+            final String entryName = new String(name, StandardCharsets.UTF_8);
+            if (entryName.endsWith(CLASS_SUFFIX) && (method == METHOD_STORED || method == METHOD_DEFLATED) &&
+                compressedSize != 0xFFFFFFFFL && uncompressedSize != 0xFFFFFFFFL && localHeaderOffset != 0xFFFFFFFFL) {
+                entries.putIfAbsent(entryName, new long[] { method, compressedSize, uncompressedSize, localHeaderOffset });
+            } else if (entryName.endsWith(CLASS_SUFFIX)) {
+                return null; //unsupported compression method or ZIP64 entry
+            }
+            pos += 46 + nameLength + extraLength + commentLength;
+        }
+        return new JarIndex(jar, modified, size, entries);
+    }
+
+    private static Path persistedFile(Path jar, Path cacheDirectory) {
+        try {
+            final MessageDigest md = MessageDigest.getInstance("SHA-256");
+            final byte[] digest = md.digest(jar.toString().getBytes(StandardCharsets.UTF_8));
+            final StringBuilder name = new StringBuilder();
+            for (int i = 0; i < 16; ++i) {
+                name.append(String.format("%02x", digest[i]));
+            }
+            return cacheDirectory.resolve(name.append(".idx").toString());
+        } catch (NoSuchAlgorithmException e) {
+            //this should never happen, SHA-256 is mandatory
+            throw new UnexpectedInternalException(e);
+        }
+    }
+
+    private static JarIndex loadJarIndex(Path jar, long modified, long size, Path cacheDirectory) {
+        final Path file = persistedFile(jar, cacheDirectory);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != PERSISTED_MAGIC || !jar.toString().equals(in.readUTF()) ||
+                in.readLong() != modified || in.readLong() != size) {
+                return null;
+            }
+            final int numEntries = in.readInt();
+            final HashMap<String, long[]> entries = new HashMap<>(numEntries * 2);
+            for (int i = 0; i < numEntries; ++i) {
+                final String entryName = in.readUTF();
+                entries.put(entryName, new long[] { in.readByte(), in.readLong(), in.readLong(), in.readLong() });
+            }
+            return new JarIndex(jar, modified, size, entries);
+        } catch (IOException | RuntimeException e) {
+            return null; //rebuilds it
+        }
+    }
+
+    private static void saveJarIndex(JarIndex index, Path cacheDirectory) {
+        final Path file = persistedFile(index.jar, cacheDirectory);
+        try {
+            Files.createDirectories(cacheDirectory);
+            final Path tmp = Files.createTempFile(cacheDirectory, file.getFileName().toString(), ".tmp");
+            try {
+                try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    out.writeInt(PERSISTED_MAGIC);
+                    out.writeUTF(index.jar.toString());
+                    out.writeLong(index.modified);
+                    out.writeLong(index.size);
+                    out.writeInt(index.entries.size());
+                    for (Map.Entry<String, long[]> e : index.entries.entrySet()) {
+                        out.writeUTF(e.getKey());
+                        out.writeByte((int) e.getValue()[0]);
+                        out.writeLong(e.getValue()[1]);
+                        out.writeLong(e.getValue()[2]);
+                        out.writeLong(e.getValue()[3]);
+                    }
+                }
+                try {
+                    Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            //persistence is an optimization: gives up
+        }
+    }
+}
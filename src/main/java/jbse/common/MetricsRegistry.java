@@ -0,0 +1,462 @@
+package jbse.common;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+import jbse.common.exc.InvalidInputException;
+
+/**
+ * A registry of metrics: counters, histograms and gauges,
+ * identified by a name and by an optional list of labels.
+ * Recording a metric is cheap and thread-safe, so the metrics
+ * can be recorded on the hot paths of the engine; the client
+ * should however look up a metric once and keep a reference to
+ * it, rather than looking it up at each recording. The registry
+ * can be dumped as JSON or in the Prometheus text exposition
+ * format.
+ *
+ * @author Pietro Braione
+ *
+ */
+public final class MetricsRegistry {
+    /**
+     * A metric, with a name and labels.
+     *
+     * @author Pietro Braione
+     *
+     */
+    public static abstract class Metric {
+        private final String name;
+        private final String labels;
+
+        private Metric(String name, String labels) {
+            this.name = name;
+            this.labels = labels;
+        }
+
+        /**
+         * Returns the name of this metric.
+         *
+         * @return a {@link String}.
+         */
+        public final String getName() {
+            return this.name;
+        }
+
+        /**
+         * Returns the labels of this metric, in
+         * Prometheus syntax.
+         *
+         * @return a {@link String}, e.g., {@code {opcode="iadd"}},
+         *         or the empty {@link String} if the metric has
+         *         no labels.
+         */
+        public final String getLabels() {
+            return this.labels;
+        }
+    }
+
+    /**
+     * A monotonically increasing counter.
+     *
+     * @author Pietro Braione
+     *
+     */
+    public static final class Counter extends Metric {
+        private final LongAdder value = new LongAdder();
+
+        private Counter(String name, String labels) {
+            super(name, labels);
+        }
+
+        /**
+         * Increments this counter by one.
+         */
+        public void inc() {
+            this.value.increment();
+        }
+
+        /**
+         * Increments this counter.
+         *
+         * @param delta a nonnegative {@code long}.
+         */
+        public void add(long delta) {
+            this.value.add(delta);
+        }
+
+        /**
+         * Returns the value of this counter.
+         *
+         * @return a {@code long}.
+         */
+        public long get() {
+            return this.value.sum();
+        }
+    }
+
+    /**
+     * A histogram of nonnegative {@code long} values
+     * (typically, durations in nanoseconds). As in HDR
+     * histograms, the buckets are log-linear: each power
+     * of two is split in {@code 2^}{@link #SUB_BUCKET_BITS}
+     * buckets, so the relative error of the recorded values
+     * is bounded (about 12%) and the histogram has a fixed,
+     * small size whatever the range of the values.
+     *
+     * @author Pietro Braione
+     *
+     */
+    public static final class Histogram extends Metric {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int NUM_BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong(0L);
+
+        private Histogram(String name, String labels) {
+            super(name, labels);
+        }
+
+        private static int bucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            final int exponent = 63 - Long.numberOfLeadingZeros(value);
+            final int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+            return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+        }
+
+        private static long bucketUpperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            final int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+            final int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+            final long lowerBound = ((long) (SUB_BUCKETS + subBucket)) << (exponent - SUB_BUCKET_BITS);
+            return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+
+        /**
+         * Records a value.
+         *
+         * @param value a {@code long}. Negative values
+         *        are recorded as zero.
+         */
+        public void record(long value) {
+            final long v = Math.max(value, 0L);
+            this.buckets.incrementAndGet(bucket(v));
+            this.count.increment();
+            this.sum.add(v);
+            long curMax;
+            while (v > (curMax = this.max.get()) && !this.max.compareAndSet(curMax, v)) {
+                //retry
+            }
+        }
+
+        /**
+         * Returns the number of recorded values.
+         *
+         * @return a {@code long}.
+         */
+        public long getCount() {
+            return this.count.sum();
+        }
+
+        /**
+         * Returns the sum of the recorded values.
+         *
+         * @return a {@code long}.
+         */
+        public long getSum() {
+            return this.sum.sum();
+        }
+
+        /**
+         * Returns the maximum recorded value.
+         *
+         * @return a {@code long}, {@code 0} if no
+         *         value was recorded.
+         */
+        public long getMax() {
+            return this.max.get();
+        }
+
+        /**
+         * Returns an approximation of a quantile
+         * of the recorded values.
+         *
+         * @param quantile a {@code double} between {@code 0}
+         *        and {@code 1}.
+         * @return a {@code long}, an upper bound to the value
+         *         below which {@code quantile} of the recorded
+         *         values fall, with the precision of the buckets;
+         *         {@code 0} if no value was recorded.
+         */
+        public long getValueAtQuantile(double quantile) {
+            final long total = getCount();
+            if (total == 0) {
+                return 0L;
+            }
+            final long target = Math.max(1L, (long) Math.ceil(quantile * total));
+            long cumulative = 0L;
+            for (int i = 0; i < NUM_BUCKETS; ++i) {
+                cumulative += this.buckets.get(i);
+                if (cumulative >= target) {
+                    return Math.min(bucketUpperBound(i), getMax());
+                }
+            }
+            return getMax();
+        }
+    }
+
+    /**
+     * A gauge, whose value is computed on demand.
+     *
+     * @author Pietro Braione
+     *
+     */
+    public static final class Gauge extends Metric {
+        private final DoubleSupplier supplier;
+
+        private Gauge(String name, String labels, DoubleSupplier supplier) {
+            super(name, labels);
+            this.supplier = supplier;
+        }
+
+        /**
+         * Returns the current value of this gauge.
+         *
+         * @return a {@code double}.
+         */
+        public double get() {
+            return this.supplier.getAsDouble();
+        }
+    }
+
+    /** The quantiles that are dumped for each histogram. */
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99 };
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    /** The time of creation of this registry. */
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Returns the time elapsed since the creation
+     * of this registry.
+     *
+     * @return a {@code double}, the elapsed time in seconds.
+     */
+    public double getUptimeSeconds() {
+        return (System.nanoTime() - this.startNanos) / 1e9;
+    }
+
+    /**
+     * Returns a counter, creating it if it does not exist.
+     *
+     * @param name a {@link String}, the name of the counter.
+     *        It must be a valid Prometheus metric name.
+     * @param labels a varargs of {@link String}s, alternating
+     *        label names and label values.
+     * @return the {@link Counter} with name {@code name} and
+     *         labels {@code labels}.
+     * @throws InvalidInputException if {@code labels} has
+     *         odd length.
+     */
+    public Counter counter(String name, String... labels) throws InvalidInputException {
+        final String l = formatLabels(labels);
+        return this.counters.computeIfAbsent(name + l, k -> new Counter(name, l));
+    }
+
+    /**
+     * Returns a histogram, creating it if it does not exist.
+     *
+     * @param name a {@link String}, the name of the histogram.
+     *        It must be a valid Prometheus metric name.
+     * @param labels a varargs of {@link String}s, alternating
+     *        label names and label values.
+     * @return the {@link Histogram} with name {@code name} and
+     *         labels {@code labels}.
+     * @throws InvalidInputException if {@code labels} has
+     *         odd length.
+     */
+    public Histogram histogram(String name, String... labels) throws InvalidInputException {
+        final String l = formatLabels(labels);
+        return this.histograms.computeIfAbsent(name + l, k -> new Histogram(name, l));
+    }
+
+    /**
+     * Registers a gauge, replacing any previously registered
+     * gauge with same name and labels.
+     *
+     * @param supplier a {@link DoubleSupplier} that calculates
+     *        the value of the gauge.
+     * @param name a {@link String}, the name of the gauge.
+     *        It must be a valid Prometheus metric name.
+     * @param labels a varargs of {@link String}s, alternating
+     *        label names and label values.
+     * @throws InvalidInputException if {@code supplier == null} or
+     *         {@code labels} has odd length.
+     */
+    public void gauge(DoubleSupplier supplier, String name, String... labels) throws InvalidInputException {
+        if (supplier == null) {
+            throw new InvalidInputException("Attempted to register a gauge with null supplier.");
+        }
+        final String l = formatLabels(labels);
+        this.gauges.put(name + l, new Gauge(name, l, supplier));
+    }
+
+    private static String formatLabels(String... labels) throws InvalidInputException {
+        if (labels.length % 2 != 0) {
+            throw new InvalidInputException("Attempted to identify a metric with an odd number of label names and values.");
+        }
+        if (labels.length == 0) {
+            return "";
+        }
+        final StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(labels[i]).append("=\"");
+            escape(sb, labels[i + 1]);
+            sb.append('"');
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static void escape(StringBuilder sb, String s) {
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+
+    private static String formatDouble(double d) {
+        if (Double.isNaN(d)) {
+            return "NaN";
+        } else if (Double.isInfinite(d)) {
+            return (d > 0 ? "+Inf" : "-Inf");
+        } else {
+            return String.format(Locale.ROOT, "%.6g", d);
+        }
+    }
+
+    /**
+     * Dumps this registry in the Prometheus text
+     * exposition format. Histograms are dumped as
+     * summaries with quantiles 0.5, 0.9 and 0.99.
+     *
+     * @return a {@link String}.
+     */
+    public String toPrometheus() {
+        final StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, ArrayList<Counter>> e : byName(this.counters).entrySet()) {
+            sb.append("# TYPE ").append(e.getKey()).append(" counter\n");
+            for (Counter c : e.getValue()) {
+                sb.append(c.getName()).append(c.getLabels()).append(' ').append(c.get()).append('\n');
+            }
+        }
+        for (Map.Entry<String, ArrayList<Gauge>> e : byName(this.gauges).entrySet()) {
+            sb.append("# TYPE ").append(e.getKey()).append(" gauge\n");
+            for (Gauge g : e.getValue()) {
+                sb.append(g.getName()).append(g.getLabels()).append(' ').append(formatDouble(g.get())).append('\n');
+            }
+        }
+        for (Map.Entry<String, ArrayList<Histogram>> e : byName(this.histograms).entrySet()) {
+            sb.append("# TYPE ").append(e.getKey()).append(" summary\n");
+            for (Histogram h : e.getValue()) {
+                final String labelsPrefix = (h.getLabels().isEmpty() ? "{" : h.getLabels().substring(0, h.getLabels().length() - 1) + ",");
+                for (double q : QUANTILES) {
+                    sb.append(h.getName()).append(labelsPrefix).append("quantile=\"").append(q).append("\"} ").append(h.getValueAtQuantile(q)).append('\n');
+                }
+                sb.append(h.getName()).append("_sum").append(h.getLabels()).append(' ').append(h.getSum()).append('\n');
+                sb.append(h.getName()).append("_count").append(h.getLabels()).append(' ').append(h.getCount()).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Dumps this registry as a JSON object, with members
+     * {@code "uptimeSeconds"}, {@code "counters"},
+     * {@code "gauges"} and {@code "histograms"}. Each metric
+     * is identified by its name followed by its labels.
+     *
+     * @return a {@link String}.
+     */
+    public String toJson() {
+        final StringBuilder sb = new StringBuilder("{\n");
+        sb.append("  \"uptimeSeconds\": ").append(formatJsonDouble(getUptimeSeconds())).append(",\n");
+        sb.append("  \"counters\": {");
+        boolean first = true;
+        for (Map.Entry<String, Counter> e : new TreeMap<>(this.counters).entrySet()) {
+            sb.append(first ? "\n    " : ",\n    ");
+            first = false;
+            appendJsonString(sb, e.getKey()).append(": ").append(e.getValue().get());
+        }
+        sb.append(first ? "},\n" : "\n  },\n");
+        sb.append("  \"gauges\": {");
+        first = true;
+        for (Map.Entry<String, Gauge> e : new TreeMap<>(this.gauges).entrySet()) {
+            sb.append(first ? "\n    " : ",\n    ");
+            first = false;
+            appendJsonString(sb, e.getKey()).append(": ").append(formatJsonDouble(e.getValue().get()));
+        }
+        sb.append(first ? "},\n" : "\n  },\n");
+        sb.append("  \"histograms\": {");
+        first = true;
+        for (Map.Entry<String, Histogram> e : new TreeMap<>(this.histograms).entrySet()) {
+            sb.append(first ? "\n    " : ",\n    ");
+            first = false;
+            final Histogram h = e.getValue();
+            appendJsonString(sb, e.getKey()).append(": {\"count\": ").append(h.getCount())
+            .append(", \"sum\": ").append(h.getSum()).append(", \"max\": ").append(h.getMax());
+            for (double q : QUANTILES) {
+                sb.append(", \"p").append(Math.round(q * 100)).append("\": ").append(h.getValueAtQuantile(q));
+            }
+            sb.append('}');
+        }
+        sb.append(first ? "}\n" : "\n  }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static String formatJsonDouble(double d) {
+        return (Double.isNaN(d) || Double.isInfinite(d) ? "null" : formatDouble(d));
+    }
+
+    private static StringBuilder appendJsonString(StringBuilder sb, String s) {
+        sb.append('"');
+        escape(sb, s);
+        return sb.append('"');
+    }
+
+    private static <M extends Metric> TreeMap<String, ArrayList<M>> byName(Map<String, M> metrics) {
+        final TreeMap<String, ArrayList<M>> retVal = new TreeMap<>();
+        for (M m : new TreeMap<>(metrics).values()) {
+            retVal.computeIfAbsent(m.getName(), k -> new ArrayList<>()).add(m);
+        }
+        return retVal;
+    }
+}
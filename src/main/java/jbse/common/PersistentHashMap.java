@@ -0,0 +1,134 @@
+package jbse.common;
+
+/**
+ * A persistent (immutable) hash map, implemented as a
+ * {@link PersistentLongMap} from the hash codes of the keys to
+ * immutable chains of the mappings with that hash code.
+ * Every update returns a new map that shares all the unchanged
+ * nodes with the original one, so taking a snapshot of a map
+ * costs O(1).
+ *
+ * @author Pietro Braione
+ *
+ * @param <K> the type of the keys. {@code null} keys are
+ *        not allowed.
+ * @param <V> the type of the values. {@code null} values are
+ *        not allowed.
+ */
+public final class PersistentHashMap<K, V> {
+    @SuppressWarnings("rawtypes")
+    private static final PersistentHashMap EMPTY = new PersistentHashMap<>(PersistentLongMap.empty(), 0);
+
+    /**
+     * A mapping in a chain of mappings with the
+     * same hash code.
+     */
+    private static final class Bucket {
+        final Object key;
+        final Object value;
+        final Bucket next;
+
+        Bucket(Object key, Object value, Bucket next) {
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /** The chains of mappings, by hash code. */
+    private final PersistentLongMap<Bucket> buckets;
+
+    /** The number of mappings. */
+    private final int size;
+
+    private PersistentHashMap(PersistentLongMap<Bucket> buckets, int size) {
+        this.buckets = buckets;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @param <K> the type of the keys.
+     * @param <V> the type of the values.
+     * @return an empty {@link PersistentHashMap}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Returns the number of mappings in this map.
+     *
+     * @return a nonnegative {@code int}.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    private static long hash(Object key) {
+        return key.hashCode() & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Gets the value associated to a key.
+     *
+     * @param key a {@code K}. It must not be {@code null}.
+     * @return the value associated to {@code key}, or {@code null}
+     *         if {@code key} has no associated value.
+     * @throws NullPointerException if {@code key == null}.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        for (Bucket b = this.buckets.get(hash(key)); b != null; b = b.next) {
+            if (b.key.equals(key)) {
+                return (V) b.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a key has an associated value.
+     *
+     * @param key a {@code K}. It must not be {@code null}.
+     * @return {@code true} iff {@code key} has an associated value.
+     * @throws NullPointerException if {@code key == null}.
+     */
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates a value to a key.
+     *
+     * @param key a {@code K}. It must not be {@code null}.
+     * @param value a {@code V}. It must not be {@code null}.
+     * @return a {@link PersistentHashMap} that is equal to this
+     *         map, but with {@code key} associated to {@code value}.
+     * @throws IllegalArgumentException if {@code key == null || value == null}.
+     */
+    public PersistentHashMap<K, V> put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Attempted to put a null key or a null value in a " + getClass().getName() + ".");
+        }
+        final long hash = hash(key);
+        final Bucket chain = this.buckets.get(hash);
+
+        //rebuilds the chain without the previous mapping for key, if any
+        Bucket newChain = null;
+        boolean found = false;
+        for (Bucket b = chain; b != null; b = b.next) {
+            if (b.key.equals(key)) {
+                found = true;
+            } else {
+                newChain = new Bucket(b.key, b.value, newChain);
+            }
+        }
+        if (!found) {
+            newChain = chain; //no need to rebuild
+        }
+        return new PersistentHashMap<>(this.buckets.put(hash, new Bucket(key, value, newChain)), this.size + (found ? 0 : 1));
+    }
+}
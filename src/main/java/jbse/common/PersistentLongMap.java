@@ -0,0 +1,339 @@
+package jbse.common;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A persistent (immutable) map from nonnegative {@code long} keys
+ * to values, implemented as a bitmapped radix trie with 32-way
+ * branching on the bits of the key. Lookup, insertion and removal
+ * cost O(log<sub>32</sub> k), where k is the largest key, and
+ * every update returns a new map that shares all the unchanged
+ * nodes with the original one, so taking a snapshot of a map
+ * costs O(1). Iteration is in ascending key order.
+ *
+ * @author Pietro Braione
+ *
+ * @param <V> the type of the values. {@code null} values are
+ *        not allowed.
+ */
+public final class PersistentLongMap<V> implements Iterable<Map.Entry<Long, V>> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int MAX_SHIFT = 60;
+
+    @SuppressWarnings("rawtypes")
+    private static final PersistentLongMap EMPTY = new PersistentLongMap<>(null, 0, 0L);
+
+    /**
+     * A node of the trie. If the node is at shift zero
+     * its children are values, otherwise they are
+     * {@link Node}s.
+     */
+    private static final class Node {
+        /** Bit i is set iff there is a child for digit i. */
+        final int bitmap;
+
+        /** The children, compacted. */
+        final Object[] children;
+
+        Node(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        int index(int bit) {
+            return Integer.bitCount(this.bitmap & (bit - 1));
+        }
+    }
+
+    /** The root of the trie, {@code null} iff the map is empty. */
+    private final Node root;
+
+    /** The shift of the digit at the root. */
+    private final int shift;
+
+    /** The number of mappings. */
+    private final long size;
+
+    private PersistentLongMap(Node root, int shift, long size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @param <V> the type of the values.
+     * @return an empty {@link PersistentLongMap}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentLongMap<V> empty() {
+        return (PersistentLongMap<V>) EMPTY;
+    }
+
+    /**
+     * Returns the number of mappings in this map.
+     *
+     * @return a nonnegative {@code long}.
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether this map is empty.
+     *
+     * @return {@code true} iff this map has no mappings.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    private static boolean inRange(long key, int shift) {
+        return (shift >= MAX_SHIFT || (key >>> (shift + BITS)) == 0);
+    }
+
+    private static int digit(long key, int shift) {
+        return (int) ((key >>> shift) & MASK);
+    }
+
+    /**
+     * Gets the value associated to a key.
+     *
+     * @param key a {@code long}.
+     * @return the value associated to {@code key}, or {@code null}
+     *         if {@code key} has no associated value.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key < 0 || this.root == null || !inRange(key, this.shift)) {
+            return null;
+        }
+        Node n = this.root;
+        for (int s = this.shift; ; s -= BITS) {
+            final int bit = 1 << digit(key, s);
+            if ((n.bitmap & bit) == 0) {
+                return null;
+            }
+            final Object child = n.children[n.index(bit)];
+            if (s == 0) {
+                return (V) child;
+            }
+            n = (Node) child;
+        }
+    }
+
+    /**
+     * Checks whether a key has an associated value.
+     *
+     * @param key a {@code long}.
+     * @return {@code true} iff {@code key} has an associated value.
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates a value to a key.
+     *
+     * @param key a {@code long}. It must be nonnegative.
+     * @param value a {@code V}. It must not be {@code null}.
+     * @return a {@link PersistentLongMap} that is equal to this
+     *         map, but with {@code key} associated to {@code value}.
+     * @throws IllegalArgumentException if {@code key < 0 || value == null}.
+     */
+    public PersistentLongMap<V> put(long key, V value) {
+        if (key < 0 || value == null) {
+            throw new IllegalArgumentException("Attempted to put a negative key or a null value in a " + getClass().getName() + ".");
+        }
+        Node r = this.root;
+        int s = (r == null ? 0 : this.shift);
+        while (!inRange(key, s)) {
+            if (r != null) {
+                //all the current keys have digit 0 at the new root
+                r = new Node(1, new Object[] { r });
+            }
+            s += BITS;
+        }
+        final boolean[] added = new boolean[1];
+        final Node newRoot = put(r, s, key, value, added);
+        if (newRoot == this.root && s == this.shift) {
+            return this;
+        }
+        return new PersistentLongMap<>(newRoot, s, this.size + (added[0] ? 1 : 0));
+    }
+
+    private static Node put(Node n, int s, long key, Object value, boolean[] added) {
+        final int bit = 1 << digit(key, s);
+        if (n == null) {
+            final Object child = (s == 0 ? value : put(null, s - BITS, key, value, added));
+            added[0] = (s == 0 ? true : added[0]);
+            return new Node(bit, new Object[] { child });
+        }
+        final int idx = n.index(bit);
+        if ((n.bitmap & bit) != 0) {
+            final Object child = n.children[idx];
+            final Object newChild = (s == 0 ? value : put((Node) child, s - BITS, key, value, added));
+            if (newChild == child) {
+                return n;
+            }
+            final Object[] children = n.children.clone();
+            children[idx] = newChild;
+            return new Node(n.bitmap, children);
+        } else {
+            final Object newChild = (s == 0 ? value : put(null, s - BITS, key, value, added));
+            added[0] = true;
+            final Object[] children = new Object[n.children.length + 1];
+            System.arraycopy(n.children, 0, children, 0, idx);
+            children[idx] = newChild;
+            System.arraycopy(n.children, idx, children, idx + 1, n.children.length - idx);
+            return new Node(n.bitmap | bit, children);
+        }
+    }
+
+    /**
+     * Removes the value associated to a key.
+     *
+     * @param key a {@code long}.
+     * @return a {@link PersistentLongMap} that is equal to this
+     *         map, but with no value associated to {@code key}.
+     */
+    public PersistentLongMap<V> remove(long key) {
+        if (key < 0 || this.root == null || !inRange(key, this.shift)) {
+            return this;
+        }
+        final Node newRoot = remove(this.root, this.shift, key);
+        if (newRoot == this.root) {
+            return this;
+        }
+        return (newRoot == null ? empty() : new PersistentLongMap<>(newRoot, this.shift, this.size - 1));
+    }
+
+    private static Node remove(Node n, int s, long key) {
+        final int bit = 1 << digit(key, s);
+        if ((n.bitmap & bit) == 0) {
+            return n;
+        }
+        final int idx = n.index(bit);
+        final Object child = n.children[idx];
+        if (s > 0) {
+            final Node newChild = remove((Node) child, s - BITS, key);
+            if (newChild == child) {
+                return n;
+            }
+            if (newChild != null) {
+                final Object[] children = n.children.clone();
+                children[idx] = newChild;
+                return new Node(n.bitmap, children);
+            }
+        }
+        //removes the child
+        if (n.children.length == 1) {
+            return null;
+        }
+        final Object[] children = new Object[n.children.length - 1];
+        System.arraycopy(n.children, 0, children, 0, idx);
+        System.arraycopy(n.children, idx + 1, children, idx, n.children.length - idx - 1);
+        return new Node(n.bitmap & ~bit, children);
+    }
+
+    /**
+     * Returns an iterator over the mappings of this map
+     * in ascending key order.
+     *
+     * @return an {@link Iterator}{@code <}{@link Map.Entry}{@code <}{@link Long}{@code , V>>}.
+     */
+    @Override
+    public Iterator<Map.Entry<Long, V>> iterator() {
+        return new EntryIterator<>(this, 0L);
+    }
+
+    /**
+     * Returns an iterator over the mappings of this map
+     * whose keys are greater than or equal to a given key,
+     * in ascending key order.
+     *
+     * @param fromKey a {@code long}.
+     * @return an {@link Iterator}{@code <}{@link Map.Entry}{@code <}{@link Long}{@code , V>>}.
+     */
+    public Iterator<Map.Entry<Long, V>> iteratorFrom(long fromKey) {
+        return new EntryIterator<>(this, Math.max(fromKey, 0L));
+    }
+
+    private static final class EntryIterator<V> implements Iterator<Map.Entry<Long, V>> {
+        private final int rootShift;
+        private final Node[] nodes;
+        private final int[] remaining;
+        private final long[] prefix;
+        private final long fromKey;
+        private int depth;
+        private Map.Entry<Long, V> next;
+
+        EntryIterator(PersistentLongMap<V> map, long fromKey) {
+            this.rootShift = map.shift;
+            final int levels = map.shift / BITS + 1;
+            this.nodes = new Node[levels];
+            this.remaining = new int[levels];
+            this.prefix = new long[levels];
+            this.fromKey = fromKey;
+            if (map.root == null || !inRange(fromKey, map.shift)) {
+                this.depth = -1;
+            } else {
+                this.depth = 0;
+                this.nodes[0] = map.root;
+                this.remaining[0] = map.root.bitmap;
+                this.prefix[0] = 0L;
+            }
+            advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            this.next = null;
+            while (this.depth >= 0) {
+                final int rem = this.remaining[this.depth];
+                if (rem == 0) {
+                    --this.depth;
+                    continue;
+                }
+                final int digit = Integer.numberOfTrailingZeros(rem);
+                this.remaining[this.depth] = rem & (rem - 1);
+                final int s = this.rootShift - this.depth * BITS;
+                final long key = this.prefix[this.depth] | (((long) digit) << s);
+                final long keyMax = key | (s == 0 ? 0L : ((1L << s) - 1));
+                if (keyMax < this.fromKey) {
+                    continue; //whole subtree before fromKey
+                }
+                final Node n = this.nodes[this.depth];
+                final Object child = n.children[n.index(1 << digit)];
+                if (s == 0) {
+                    this.next = new SimpleImmutableEntry<>(key, (V) child);
+                    return;
+                }
+                ++this.depth;
+                this.nodes[this.depth] = (Node) child;
+                this.remaining[this.depth] = ((Node) child).bitmap;
+                this.prefix[this.depth] = key;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next != null;
+        }
+
+        @Override
+        public Map.Entry<Long, V> next() {
+            if (this.next == null) {
+                throw new NoSuchElementException();
+            }
+            final Map.Entry<Long, V> retVal = this.next;
+            advance();
+            return retVal;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import static jbse.mem.Util.forAllInitialObjects;
 import static jbse.mem.Util.isResolved;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -256,6 +257,12 @@ public class DecisionProcedureAlgorithms extends DecisionProcedureDecorator {
     
     protected Supplier<State> currentStateSupplier;
     protected final Calculator calc;
+    
+    /** 
+     * The index of the references resolved and of the objects 
+     * expanded by the current assumptions. 
+     */
+    private final ResolutionIndex resolutionIndex = new ResolutionIndex();
 
     public DecisionProcedureAlgorithms(DecisionProcedure component) 
     throws InvalidInputException {
@@ -263,6 +270,84 @@ public class DecisionProcedureAlgorithms extends DecisionProcedureDecorator {
         this.calc = getCalculator();
     }
     
+    @Override
+    public void pushAssumption(Clause c) 
+    throws InvalidInputException, DecisionException, ContradictionException {
+        try {
+            super.pushAssumption(c);
+        } catch (InvalidInputException | DecisionException | ContradictionException | RuntimeException e) {
+            this.resolutionIndex.invalidate();
+            throw e;
+        }
+        this.resolutionIndex.push(c);
+    }
+    
+    @Override
+    public void clearAssumptions() throws DecisionException {
+        try {
+            super.clearAssumptions();
+        } catch (DecisionException | RuntimeException e) {
+            this.resolutionIndex.invalidate();
+            throw e;
+        }
+        this.resolutionIndex.clear();
+    }
+    
+    @Override
+    public void addAssumptions(Iterable<Clause> assumptionsToAdd) 
+    throws InvalidInputException, DecisionException, ContradictionException {
+        try {
+            super.addAssumptions(assumptionsToAdd);
+        } catch (InvalidInputException | DecisionException | ContradictionException | RuntimeException e) {
+            this.resolutionIndex.invalidate();
+            throw e;
+        }
+        for (Clause c : assumptionsToAdd) {
+            this.resolutionIndex.push(c);
+        }
+    }
+    
+    @Override
+    public void addAssumptions(Clause... assumptionsToAdd) 
+    throws InvalidInputException, DecisionException, ContradictionException {
+        try {
+            super.addAssumptions(assumptionsToAdd);
+        } catch (InvalidInputException | DecisionException | ContradictionException | RuntimeException e) {
+            this.resolutionIndex.invalidate();
+            throw e;
+        }
+        for (Clause c : assumptionsToAdd) {
+            this.resolutionIndex.push(c);
+        }
+    }
+    
+    @Override
+    public void setAssumptions(Collection<Clause> newAssumptions) 
+    throws InvalidInputException, DecisionException, ContradictionException {
+        try {
+            super.setAssumptions(newAssumptions);
+        } catch (InvalidInputException | DecisionException | ContradictionException | RuntimeException e) {
+            this.resolutionIndex.invalidate();
+            throw e;
+        }
+        this.resolutionIndex.set(newAssumptions);
+    }
+    
+    /**
+     * Returns the index of the current assumptions, 
+     * rebuilding it if it is not in sync with them.
+     * 
+     * @return a {@link ResolutionIndex}.
+     * @throws DecisionException upon failure of getting 
+     *         the current assumptions.
+     */
+    private ResolutionIndex resolutionIndex() throws DecisionException {
+        if (!this.resolutionIndex.isValid()) {
+            this.resolutionIndex.set(getAssumptions());
+        }
+        return this.resolutionIndex;
+    }
+    
     @Override
     public void setCurrentStateSupplier(Supplier<State> currentStateSupplier) {
         this.currentStateSupplier = currentStateSupplier;
@@ -789,7 +874,7 @@ public class DecisionProcedureAlgorithms extends DecisionProcedureDecorator {
         if (valToLoad == null || result == null) {
             throw new InvalidInputException("resolve_XLOAD_GETX invoked with a null parameter.");
         }
-        if (isResolved(getAssumptions(), valToLoad)) {
+        if (isResolved(resolutionIndex().resolvedReferences(), valToLoad)) {
             result.add(new DecisionAlternative_XLOAD_GETX_Resolved(valToLoad));
             return Outcome.FFF;
         } else { 
@@ -980,7 +1065,7 @@ public class DecisionProcedureAlgorithms extends DecisionProcedureDecorator {
         for (ArrayAccessInfo arrayAccessInfo : arrayAccessInfos) {
             final boolean accessConcrete = (arrayAccessInfo.accessExpression == null);
             final boolean accessOutOfBounds = (arrayAccessInfo.readValue == null);
-            final boolean valToLoadResolved = accessOutOfBounds || isResolved(getAssumptions(), arrayAccessInfo.readValue);
+            final boolean valToLoadResolved = accessOutOfBounds || isResolved(resolutionIndex().resolvedReferences(), arrayAccessInfo.readValue);
             final Outcome o;
             final TreeSet<DecisionAlternative_XALOAD> localResult = new TreeSet<>(result.comparator());
             if (valToLoadResolved && accessConcrete) {
@@ -1537,9 +1622,8 @@ public class DecisionProcedureAlgorithms extends DecisionProcedureDecorator {
 
         final TreeMap<Long, Objekt> retVal = new TreeMap<>();
 
-        //scans the path condition for compatible objects
-        final List<Clause> pathCondition = getAssumptions();
-        forAllInitialObjects(pathCondition, (object, heapPosition) -> {
+        //scans the expanded objects for compatible objects
+        forAllInitialObjects(resolutionIndex().expansions(), (object, heapPosition) -> {
             //if it is type and epoch compatible, adds the object
             //to the result
             try {
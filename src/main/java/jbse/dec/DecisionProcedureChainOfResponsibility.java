@@ -364,7 +364,11 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
         while (iterOld.hasNext() && iterNew.hasNext()) {
             final Clause oldAssumption = iterOld.next();
             final Clause newAssumption = iterNew.next();
-            if (!oldAssumption.equals(newAssumption)) {
+            //the path conditions of sibling states share the clauses
+            //in their common prefix, so the clauses are usually
+            //the same objects and the (deep) equality check is
+            //needed only at the first differing clause
+            if (oldAssumption != newAssumption && !oldAssumption.equals(newAssumption)) {
                 break;
             }
             ++retVal;
@@ -491,13 +495,32 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
         if (expSimpl instanceof Simplex) {
             return ((Simplex) expSimpl).surelyTrue();
         } else { // (expSimpl instanceof Expression)
-            final boolean localDecidesSat = isSatLocal(expression, (Expression) expSimpl);
-            if (localDecidesSat && hasNext()) {
-                //tries the delegate, that could have a more restrictive answer
-                return delegateIsSat(expression);  //TODO shouldn't we pass expSimpl instead? do we really need to pass the original exp to the next in chain?
-            }
-            return localDecidesSat;
+            return isSatLocalThenNext(expression, (Expression) expSimpl);
+        }
+    }
+
+    /**
+     * Decides the satisfiability of an {@link Expression} that 
+     * local simplification did not reduce to a {@link Simplex}, 
+     * by first invoking {@link #isSatLocal(Expression, Expression)} 
+     * and then, if the local answer is {@code true}, by querying 
+     * the next decision procedure in the chain. Can be overridden 
+     * by subclasses that need to intercept the whole decision, 
+     * e.g., to cache it. 
+     * 
+     * @param exp see {@link #isSat(Expression) isSat}. 
+     * @param expSimpl {@code exp} after local simplification.
+     * @return see {@link #isSat(Expression) isSat}.
+     * @throws DecisionException upon failure.
+     */
+    protected boolean isSatLocalThenNext(Expression exp, Expression expSimpl) 
+    throws DecisionException {
+        final boolean localDecidesSat = isSatLocal(exp, expSimpl);
+        if (localDecidesSat && hasNext()) {
+            //tries the delegate, that could have a more restrictive answer
+            return delegateIsSat(exp);  //TODO shouldn't we pass expSimpl instead? do we really need to pass the original exp to the next in chain?
         }
+        return localDecidesSat;
     }
 
     /**
@@ -1,10 +1,6 @@
 package jbse.dec;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
@@ -46,7 +42,7 @@ import jbse.val.WideningConversion;
 final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionProcedureExternalInterface {
     //commands
     private static final String PROLOGUE = 
-        "(set-option :print-success true)\n" +
+        "(set-option :print-success false)\n" +
         "(set-option :interactive-mode true)\n" +
         "(set-option :produce-models true)\n" +
         "(set-logic AUFNIRA)\n" +
@@ -61,7 +57,7 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
     private static final String EXIT = "(exit)\n";
     
     //answers
-    private static final String SUCCESS = "success";
+    private static final String ERROR = "(error";
     private static final String SAT = "sat";
     private static final String UNSAT = "unsat";
     private static final String UNKNOWN = "unknown";
@@ -71,10 +67,9 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
 
     private final Calculator calc;
     private final ExpressionMangler m;
+    private final ExternalSolverPool pool;
+    private final ExternalSolverPool.Session session;
     private boolean working;
-    private Process solver;
-    private BufferedReader solverIn;
-    private BufferedWriter solverOut;
     private String currentQueryPositive;
     private String currentQueryNegative;
     private boolean hasCurrentClause;
@@ -92,18 +87,34 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
      *        command line to launch the external process for the decision procedure.
      */
     public DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(Calculator calc, List<String> solverCommandLine) 
+    throws ExternalProtocolInterfaceException, IOException {
+        this(calc, solverCommandLine, null);
+    }
+    
+    /** 
+     * Costructor.
+     * 
+     * @param calc a {@link Calculator}.
+     * @param solverCommandLine a {@link List}{@code <}{@link String}{@code >}, the
+     *        command line to launch the external process for the decision procedure.
+     * @param pool an {@link ExternalSolverPool} from where the external process 
+     *        is borrowed, and to where it is given back upon {@link #quit()}. 
+     *        If {@code null} a fresh process is launched, and it is terminated 
+     *        upon {@link #quit()}.
+     */
+    public DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(Calculator calc, List<String> solverCommandLine, ExternalSolverPool pool) 
     throws ExternalProtocolInterfaceException, IOException {
         this.calc = calc;
         this.m = new ExpressionMangler("X", "", calc);
         this.working = true;
-        final ProcessBuilder pb = new ProcessBuilder(solverCommandLine);
-        pb.redirectErrorStream(true);
-        this.solver = pb.start();
-        this.solverIn = new BufferedReader(new InputStreamReader(this.solver.getInputStream()));
-        this.solverOut = new BufferedWriter(new OutputStreamWriter(this.solver.getOutputStream()));
+        this.pool = pool;
+        this.session = (pool == null ? ExternalSolverPool.Session.launch(solverCommandLine) : pool.borrow(solverCommandLine));
         
-        final String query = PROLOGUE + PUSH_1;
-        sendAndCheckAnswer(query);
+        //a pooled session has been already initialized and 
+        //brought back to the base level by its previous user
+        final String query = (this.session.isInitialized() ? PUSH_1 : PROLOGUE + PUSH_1);
+        send(query);
+        this.session.setInitialized();
         clear();
     }
 
@@ -229,17 +240,19 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
         if (smtlib2Query == null) {
             return true;
         }
-        sendAndCheckAnswer(smtlib2Query);
-        final boolean isSat = sendAndCheckAnswerChecksat();
-        sendAndCheckAnswer(POP_1);
-        return isSat;
+        send(smtlib2Query);
+        send(CHECKSAT);
+        send(POP_1);
+        return readAnswerChecksat();
     }
     
     @Override
     public Map<PrimitiveSymbolic, Simplex> getModel() 
     throws NoModelException, ExternalProtocolInterfaceException, IOException {
-        sendAndCheckAnswerChecksat(); //always need a checksat before reading a model
-        final String smtlib2Model = sendAndCheckAnswerGetmodel();
+        send(CHECKSAT); //always need a checksat before reading a model
+        sendGetmodel();
+        readAnswerChecksat();
+        final String smtlib2Model = readAnswerGetmodel();
         if (smtlib2Model == null || smtlib2Model.startsWith("(error")) {
             throw new NoModelException();
         }
@@ -414,7 +427,7 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
         } else {
         	this.pushedClauseIsOutsideTheory.add(false);
             rememberPushedDeclarations();
-            sendAndCheckAnswer(smtlib2Query);
+            send(smtlib2Query);
         }
     }
 
@@ -427,7 +440,7 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
         	//do nothing
         } else {
             forgetPoppedDeclarations();
-        	sendAndCheckAnswer(POP_1);
+        	send(POP_1);
         }
     }
 
@@ -436,62 +449,59 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
     throws ExternalProtocolInterfaceException, IOException {
         final int nToPop = (this.nSymPushed == null ? 0 : this.nSymPushed.size());
         if (nToPop > 0) {
-            sendAndCheckAnswer(POP_BEGIN + nToPop + POP_END);
+            send(POP_BEGIN + nToPop + POP_END);
         }
         this.currentQueryPositive = this.currentQueryNegative = null;
         this.hasCurrentClause = false;
         forgetAllDeclarations();
     }
     
+    /**
+     * Sends a command to the solver. Since the solver is
+     * configured not to print success, the command is 
+     * just buffered, and is flushed together with all the 
+     * other pending commands when an answer is read.
+     * Errors caused by the command are thus detected 
+     * at the next read.
+     * 
+     * @param query a {@link String}, the command.
+     * @throws IOException if writing fails.
+     */
     private void send(String query) throws IOException {
         //System.err.print("--->SMTLIB2: " + query); //TODO log differently!
     	
         try {
-            this.solverOut.write(query);
-            this.solverOut.flush();
+            this.session.write(query);
         } catch (IOException e) {
             this.working = false;
             throw e;
         }
     }
     
-    private void sendAndCheckAnswer(String query) throws IOException, ExternalProtocolInterfaceException {
-        send(query);
-        for (int i = 0; i < query.length(); ++i) {
-            if (query.charAt(i) == '\n') {
-                final String answer = read();
-                if (answer == null) {
-                    this.working = false;
-                    throw new IOException("Failed read of solver answer. Query: " + query + ", failed at character " + i);
-                }
-                if (!answer.equals(SUCCESS)) {
-                    this.working = false;
-                    throw new ExternalProtocolInterfaceException("Unexpected solver answer. Message: " + answer + ". Query: " + query + ", failed at character " + i);
-                }
-            }
-        }
-    }
-    
     private String read() throws IOException {
         final String answer;
         try {
-            answer = this.solverIn.readLine();
+            answer = this.session.readLine();
         } catch (IOException e) {
             this.working = false;
             throw e;
         }
         if (answer == null) {
             this.working = false;
-            throw new IOException("Failed read of solver output, premature end of stream reached, process alive: " + this.solver.isAlive() + ", exit value: " + this.solver.exitValue());
+            final Process solver = this.session.getProcess();
+            throw new IOException("Failed read of solver output, premature end of stream reached, process alive: " + solver.isAlive() + (solver.isAlive() ? "" : ", exit value: " + solver.exitValue()));
         }
 
         //System.err.println("<---SMTLIB2: " + answer); //TODO log differently!
         return answer;
     }
     
-    private boolean sendAndCheckAnswerChecksat() throws IOException, ExternalProtocolInterfaceException {
-        send(CHECKSAT);
+    private boolean readAnswerChecksat() throws IOException, ExternalProtocolInterfaceException {
         final String answer = read();
+        if (answer.startsWith(ERROR)) {
+            this.working = false;
+            throw new ExternalProtocolInterfaceException("Unexpected solver answer. Message: " + answer);
+        }
         if (!answer.equals(SAT) && !answer.equals(UNSAT) && !answer.equals(UNKNOWN)) {
             this.working = false;
             throw new ExternalProtocolInterfaceException("Unrecognized answer from solver when checking satisfiability. Message: " + answer);
@@ -499,8 +509,7 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
         return answer.equals(SAT); //conservatively returns false if answer is unknown
     }
     
-    private String sendAndCheckAnswerGetmodel() 
-    throws IOException, ExternalProtocolInterfaceException {
+    private void sendGetmodel() throws IOException {
         final StringBuilder query = new StringBuilder(GETVALUE_BEGIN);
         for (String symbol : this.v.smtlib2DeclaredSymbols) {
             query.append(symbol);
@@ -508,6 +517,10 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
         }
         query.append(GETVALUE_END);
         send(query.toString());
+    }
+    
+    private String readAnswerGetmodel() 
+    throws IOException, ExternalProtocolInterfaceException {
         //answer can be multiline, we count parentheses to
         //determine when the answer is over
         final StringBuilder retVal = new StringBuilder();
@@ -913,17 +926,32 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
     @Override
     public void quit() 
     throws ExternalProtocolInterfaceException, IOException {
-        this.working = false;
-        send(EXIT);
-        while (this.solverIn.readLine() != null) {
-            //do nothing
+        if (this.pool != null && this.working) {
+            //brings the solver back to the base level (pops
+            //all the assumptions and the initial push), and
+            //checks that it is still in sync before giving
+            //it back to the pool
+            final int nToPop = (this.nSymPushed == null ? 0 : this.nSymPushed.size()) + 1;
+            send(POP_BEGIN + nToPop + POP_END);
+            send(CHECKSAT);
+            boolean inSync;
+            try {
+                inSync = readAnswerChecksat();
+            } catch (ExternalProtocolInterfaceException e) {
+                inSync = false;
+            }
+            this.working = false;
+            if (inSync && this.pool.giveBack(this.session)) {
+                return;
+            }
+            this.session.kill();
+            return;
         }
-        this.solverIn.close();
-        this.solverOut.close();
+        this.working = false;
         try {
             //we don't check the exit code because Z3 seems to 
             //always exit with code 1 when invoked from Java
-            this.solver.waitFor();
+            this.session.exit(EXIT);
         } catch (InterruptedException e) {
             throw new ExternalProtocolInterfaceException(e);
         }
@@ -935,38 +963,6 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
     @Override
     public void fail() {
         this.working = false;
-        try {
-			while (this.solverIn.readLine() != null) {
-			    //do nothing
-			}
-		} catch (IOException e) {
-			//do nothing
-		}
-        try {
-			this.solverIn.close();
-		} catch (IOException e) {
-			//do nothing
-		}
-        try {
-			this.solverOut.close();
-		} catch (IOException e) {
-			//do nothing
-		}
-        try {
-			this.solver.getInputStream().close();
-		} catch (IOException e) {
-			//do nothing
-		}
-        try {
-			this.solver.getOutputStream().close();
-		} catch (IOException e) {
-			//do nothing
-		}
-        try {
-			this.solver.getErrorStream().close();
-		} catch (IOException e) {
-			//do nothing
-		}
-        this.solver.destroyForcibly();
+        this.session.kill();
     }
 }
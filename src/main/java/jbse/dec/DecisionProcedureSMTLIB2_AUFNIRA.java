@@ -38,6 +38,29 @@ public final class DecisionProcedureSMTLIB2_AUFNIRA extends DecisionProcedureExt
 		}
 	}
 	
+	/**
+	 * Constructor. The solver process is borrowed from a pool,
+	 * and is given back to it when this decision procedure
+	 * is closed.
+	 * 
+	 * @param next the next {@link DecisionProcedure} in the chain.
+	 * @param solverCommandLine a {@link List}{@code <}{@link String}{@code >}, the
+	 *        command line to launch the solver.
+	 * @param pool an {@link ExternalSolverPool}.
+	 * @throws InvalidInputException if {@code next == null}.
+	 * @throws DecisionException if the solver process cannot be 
+	 *         launched or initialized.
+	 */
+	public DecisionProcedureSMTLIB2_AUFNIRA(DecisionProcedure next, List<String> solverCommandLine, ExternalSolverPool pool) 
+	throws InvalidInputException, DecisionException {
+		super(next);
+		try {
+			this.extIf = new DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(getCalculator(), solverCommandLine, pool);
+		} catch (ExternalProtocolInterfaceException | IOException e) {
+			throw new DecisionException(e);
+		}
+	}
+	
 	@Override
 	protected boolean canPopAssumptions() {
 		return true; //TODO should query the external tool for capabilities?
@@ -0,0 +1,257 @@
+package jbse.dec;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.exc.DecisionException;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.val.Expression;
+import jbse.val.Primitive;
+
+/**
+ * A decision procedure that memoizes the answers of the next
+ * decision procedures in the chain to satisfiability queries
+ * on {@link Expression}s. An entry is keyed on the query and on
+ * the set of the current numeric assumptions (the conditions of
+ * the {@link ClauseAssume} clauses), so the same query under
+ * the same assumptions, possibly pushed in a different order
+ * (e.g., on a sibling branch), is answered without
+ * querying the next decision procedure. Entries are evicted
+ * in least-recently-used order. Moreover, as in KLEE's
+ * counterexample cache, the sets of assumptions that were found 
+ * satisfiable with a query are remembered, so the query under
+ * a subset of a satisfiable set is satisfiable. Dually, KLEE
+ * answers unsatisfiable a query under a superset of an 
+ * unsatisfiable set, but this cache does not: A negative answer 
+ * of the next decision procedures may mean that the solver 
+ * could not decide (e.g., it answered unknown or timed out, see
+ * {@link DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA}), 
+ * and propagating it to the supersets would prune satisfiable 
+ * paths that the next decision procedures might decide.
+ *
+ * @author Pietro Braione
+ *
+ */
+public final class DecisionProcedureSatCache extends DecisionProcedureChainOfResponsibility {
+	/**
+	 * The maximum number of satisfiable sets remembered for
+	 * each query for subsumption.
+	 */
+	private static final int MAX_SUBSUMING_PER_QUERY = 16;
+
+	/**
+	 * A cache key: a query and a set of assumptions.
+	 *
+	 * @author Pietro Braione
+	 *
+	 */
+	private static final class Key {
+		private final Set<Primitive> assumptions;
+		private final Primitive query;
+		private final int hashCode;
+
+		Key(Set<Primitive> assumptions, Primitive query) {
+			this.assumptions = assumptions;
+			this.query = query;
+			this.hashCode = 31 * assumptions.hashCode() + query.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return this.hashCode == other.hashCode && this.query.equals(other.query) && this.assumptions.equals(other.assumptions);
+		}
+	}
+
+	/** The maximum number of cached answers. */
+	private final int capacity;
+
+	/**
+	 * The conditions of the current assumptions, one per pushed
+	 * clause, {@code null} if the clause is not a {@link ClauseAssume}.
+	 */
+	private final ArrayList<Primitive> assumptions = new ArrayList<>();
+
+	/** The cached answers, in least-recently-used order. */
+	private final LinkedHashMap<Key, Boolean> answers;
+
+	/**
+	 * The satisfiable assumption sets, by query, in
+	 * least-recently-used order of the queries.
+	 */
+	private final LinkedHashMap<Primitive, ArrayDeque<Set<Primitive>>> satSets;
+
+	/** The number of queries answered by lookup. */
+	private long hits = 0;
+
+	/** The number of queries answered by subsumption. */
+	private long subsumptionHits = 0;
+
+	/** The number of queries answered by the next decision procedure. */
+	private long misses = 0;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param next the next {@link DecisionProcedure} in the chain.
+	 * @param capacity an {@code int}, the maximum number of cached
+	 *        answers, and of queries for which the satisfiable
+	 *        assumption sets are remembered.
+	 * @throws InvalidInputException if {@code next == null || capacity <= 0}.
+	 */
+	public DecisionProcedureSatCache(DecisionProcedure next, int capacity) throws InvalidInputException {
+		super(next);
+		if (capacity <= 0) {
+			throw new InvalidInputException("Attempted to create a " + getClass().getName() + " with nonpositive capacity.");
+		}
+		this.capacity = capacity;
+		this.answers = lruMap();
+		this.satSets = lruMap();
+	}
+
+	/**
+	 * Builds an access-ordered map bounded by the capacity
+	 * of this cache.
+	 *
+	 * @return a {@link LinkedHashMap} that evicts its least-recently-used
+	 *         entry when its size exceeds {@link #capacity}.
+	 */
+	private <K, V> LinkedHashMap<K, V> lruMap() {
+		return new LinkedHashMap<K, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return size() > DecisionProcedureSatCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the number of queries answered by lookup.
+	 *
+	 * @return a {@code long}.
+	 */
+	public long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * Returns the number of queries answered because
+	 * their assumptions are a subset of a satisfiable set.
+	 *
+	 * @return a {@code long}.
+	 */
+	public long getSubsumptionHits() {
+		return this.subsumptionHits;
+	}
+
+	/**
+	 * Returns the number of queries that were not found
+	 * in the cache.
+	 *
+	 * @return a {@code long}.
+	 */
+	public long getMisses() {
+		return this.misses;
+	}
+
+	@Override
+	protected void pushAssumptionLocal(Clause cSimpl) {
+		this.assumptions.add(cSimpl instanceof ClauseAssume ? ((ClauseAssume) cSimpl).getCondition() : null);
+	}
+
+	@Override
+	protected boolean canPopAssumptions() {
+		return true;
+	}
+
+	@Override
+	protected void popAssumptionLocal() {
+		this.assumptions.remove(this.assumptions.size() - 1);
+	}
+
+	@Override
+	protected void clearAssumptionsLocal() {
+		this.assumptions.clear();
+	}
+
+	@Override
+	protected boolean isSatLocalThenNext(Expression exp, Expression expSimpl)
+	throws DecisionException {
+		final HashSet<Primitive> assumptionsSet = new HashSet<>();
+		for (Primitive p : this.assumptions) {
+			if (p != null) {
+				assumptionsSet.add(p);
+			}
+		}
+		final Key key = new Key(Collections.unmodifiableSet(assumptionsSet), exp);
+		final Boolean cached = this.answers.get(key);
+		if (cached != null) {
+			++this.hits;
+			return cached.booleanValue();
+		}
+		if (subsumes(this.satSets.get(exp), assumptionsSet)) {
+			++this.subsumptionHits;
+			this.answers.put(key, Boolean.TRUE);
+			return true;
+		}
+		++this.misses;
+		final boolean retVal = super.isSatLocalThenNext(exp, expSimpl);
+		this.answers.put(key, Boolean.valueOf(retVal));
+		if (retVal) {
+			final ArrayDeque<Set<Primitive>> sets = this.satSets.computeIfAbsent(exp, k -> new ArrayDeque<>());
+			if (sets.size() >= MAX_SUBSUMING_PER_QUERY) {
+				sets.removeFirst();
+			}
+			sets.addLast(key.assumptions);
+		}
+		return retVal;
+	}
+
+	/**
+	 * Checks whether a set of assumptions is a subset of
+	 * one of a sequence of remembered satisfiable sets.
+	 *
+	 * @param sets the remembered sets, or {@code null}.
+	 * @param assumptionsSet the set of assumptions to check.
+	 * @return {@code true} iff {@code assumptionsSet} is subsumed.
+	 */
+	private static boolean subsumes(ArrayDeque<Set<Primitive>> sets, Set<Primitive> assumptionsSet) {
+		if (sets == null) {
+			return false;
+		}
+		for (Iterator<Set<Primitive>> it = sets.descendingIterator(); it.hasNext(); ) {
+			final Set<Primitive> s = it.next();
+			if (s.size() >= assumptionsSet.size() && s.containsAll(assumptionsSet)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	protected void closeLocal() {
+		this.answers.clear();
+		this.satSets.clear();
+	}
+}
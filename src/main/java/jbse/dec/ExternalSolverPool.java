@@ -0,0 +1,286 @@
+package jbse.dec;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jbse.common.exc.InvalidInputException;
+
+/**
+ * A pool of warm external solver processes. A solver process
+ * is expensive to launch and to initialize, so decision procedures
+ * that are created and quit often (e.g., one per exploration
+ * worker or per heap check) can borrow a process from a pool
+ * and give it back when they quit, instead of launching a new
+ * one each time. Processes are pooled by command line. This class
+ * is thread-safe, but the processes it hands out are not:
+ * a process is used by a single decision procedure at a time.
+ *
+ * @author Pietro Braione
+ */
+public final class ExternalSolverPool implements AutoCloseable {
+    /**
+     * A session with an external solver process, i.e.,
+     * a process with its input and output streams. Writes
+     * are buffered, and the buffer is flushed only before
+     * reading an answer, so that commands without
+     * an answer are pipelined to the solver.
+     *
+     * @author Pietro Braione
+     */
+    static final class Session {
+        private final List<String> commandLine;
+        private final Process process;
+        private final BufferedReader in;
+        private final BufferedWriter out;
+        private boolean initialized;
+
+        private Session(List<String> commandLine) throws IOException {
+            this.commandLine = commandLine;
+            final ProcessBuilder pb = new ProcessBuilder(commandLine);
+            pb.redirectErrorStream(true);
+            this.process = pb.start();
+            this.in = new BufferedReader(new InputStreamReader(this.process.getInputStream()));
+            this.out = new BufferedWriter(new OutputStreamWriter(this.process.getOutputStream()));
+            this.initialized = false;
+        }
+
+        /**
+         * Launches a new, unpooled solver process.
+         *
+         * @param commandLine a {@link List}{@code <}{@link String}{@code >}, the
+         *        command line to launch the solver.
+         * @return a {@link Session}.
+         * @throws IOException if launching the process fails.
+         */
+        static Session launch(List<String> commandLine) throws IOException {
+            return new Session(new ArrayList<>(commandLine));
+        }
+
+        /**
+         * Checks whether the session was already initialized
+         * by a previous user.
+         *
+         * @return a {@code boolean}.
+         */
+        boolean isInitialized() {
+            return this.initialized;
+        }
+
+        /**
+         * Marks this session as initialized, so subsequent
+         * users can skip the initialization.
+         */
+        void setInitialized() {
+            this.initialized = true;
+        }
+
+        boolean isAlive() {
+            return this.process.isAlive();
+        }
+
+        /**
+         * Writes a string to the solver without flushing.
+         *
+         * @param s a {@link String}.
+         * @throws IOException if writing fails.
+         */
+        void write(String s) throws IOException {
+            this.out.write(s);
+        }
+
+        /**
+         * Flushes all the pending writes and reads a line
+         * from the solver.
+         *
+         * @return the line read, or {@code null} if the end
+         *         of the stream is reached.
+         * @throws IOException if flushing or reading fails.
+         */
+        String readLine() throws IOException {
+            this.out.flush();
+            return this.in.readLine();
+        }
+
+        Process getProcess() {
+            return this.process;
+        }
+
+        /**
+         * Sends an exit command to the solver and waits
+         * for it to terminate.
+         *
+         * @param exitCommand a {@link String}, the command that
+         *        makes the solver exit.
+         * @throws IOException if communication with the solver fails.
+         * @throws InterruptedException if interrupted while waiting
+         *         for the solver to terminate.
+         */
+        void exit(String exitCommand) throws IOException, InterruptedException {
+            this.out.write(exitCommand);
+            this.out.flush();
+            while (this.in.readLine() != null) {
+                //do nothing
+            }
+            this.in.close();
+            this.out.close();
+            this.process.waitFor();
+        }
+
+        /**
+         * Kills the solver, ignoring all errors.
+         */
+        void kill() {
+            try {
+                this.in.close();
+            } catch (IOException e) {
+                //do nothing
+            }
+            try {
+                this.out.close();
+            } catch (IOException e) {
+                //do nothing
+            }
+            try {
+                this.process.getInputStream().close();
+            } catch (IOException e) {
+                //do nothing
+            }
+            try {
+                this.process.getOutputStream().close();
+            } catch (IOException e) {
+                //do nothing
+            }
+            try {
+                this.process.getErrorStream().close();
+            } catch (IOException e) {
+                //do nothing
+            }
+            this.process.destroyForcibly();
+        }
+    }
+
+    /** The maximum number of idle processes kept for each command line. */
+    private final int maxIdle;
+
+    /** The idle processes, by command line. */
+    private final HashMap<List<String>, ArrayDeque<Session>> idle = new HashMap<>();
+
+    /** Set to {@code true} by {@link #close()}. */
+    private boolean closed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param maxIdle an {@code int}, the maximum number of idle
+     *        processes kept for each command line. Processes returned
+     *        to the pool when it is full are terminated.
+     * @throws InvalidInputException if {@code maxIdle < 1}.
+     */
+    public ExternalSolverPool(int maxIdle) throws InvalidInputException {
+        if (maxIdle < 1) {
+            throw new InvalidInputException("Attempted to create an " + getClass().getName() + " with maxIdle < 1.");
+        }
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Launches processes in advance, so that the first
+     * decision procedures borrowing them do not pay
+     * the launch time.
+     *
+     * @param commandLine a {@link List}{@code <}{@link String}{@code >}, the
+     *        command line to launch the solver.
+     * @param howMany an {@code int}, the number of processes to launch.
+     *        The number of idle processes is never raised above the
+     *        maximum set at construction.
+     * @throws IOException if launching a process fails.
+     */
+    public void warmUp(List<String> commandLine, int howMany) throws IOException {
+        final List<String> key = new ArrayList<>(commandLine);
+        for (int i = 0; i < howMany; ++i) {
+            synchronized (this) {
+                if (this.closed || this.idle.computeIfAbsent(key, k -> new ArrayDeque<>()).size() >= this.maxIdle) {
+                    return;
+                }
+            }
+            final Session s = new Session(key);
+            if (!giveBack(s)) {
+                s.kill();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Borrows a process from the pool, launching a new one
+     * if no idle live process is available.
+     *
+     * @param commandLine a {@link List}{@code <}{@link String}{@code >}, the
+     *        command line to launch the solver.
+     * @return a {@link Session}.
+     * @throws IOException if launching a process fails.
+     */
+    Session borrow(List<String> commandLine) throws IOException {
+        final List<String> key = new ArrayList<>(commandLine);
+        synchronized (this) {
+            final ArrayDeque<Session> sessions = this.idle.get(key);
+            while (sessions != null && !sessions.isEmpty()) {
+                final Session s = sessions.pollLast(); //the most recently used
+                if (s.isAlive()) {
+                    return s;
+                }
+                s.kill();
+            }
+        }
+        return new Session(key);
+    }
+
+    /**
+     * Gives back a borrowed process to the pool. The caller
+     * must leave the solver in the state it had right after
+     * initialization.
+     *
+     * @param s a {@link Session}.
+     * @return {@code true} iff the process was accepted. If
+     *         {@code false}, the caller must terminate it.
+     */
+    synchronized boolean giveBack(Session s) {
+        if (this.closed || !s.isAlive()) {
+            return false;
+        }
+        final ArrayDeque<Session> sessions = this.idle.computeIfAbsent(s.commandLine, k -> new ArrayDeque<>());
+        if (sessions.size() >= this.maxIdle) {
+            return false;
+        }
+        sessions.offerLast(s);
+        return true;
+    }
+
+    /**
+     * Terminates all the idle processes. Processes
+     * that are currently borrowed are terminated when
+     * given back.
+     */
+    @Override
+    public void close() {
+        final ArrayList<Session> toKill = new ArrayList<>();
+        synchronized (this) {
+            this.closed = true;
+            for (Map.Entry<List<String>, ArrayDeque<Session>> e : this.idle.entrySet()) {
+                toKill.addAll(e.getValue());
+            }
+            this.idle.clear();
+        }
+        for (Session s : toKill) {
+            s.kill();
+        }
+    }
+}
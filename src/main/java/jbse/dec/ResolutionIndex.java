@@ -0,0 +1,163 @@
+package jbse.dec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssumeExpands;
+import jbse.mem.ClauseAssumeReferenceSymbolic;
+import jbse.val.ReferenceSymbolic;
+
+/**
+ * An index of the symbolic references resolved, and of the
+ * objects assumed by expansion, by a sequence of assumptions.
+ * It is incrementally maintained while the assumptions are pushed
+ * and set, so that checking whether a reference is resolved
+ * costs O(1) rather than O(n), and scanning the initial
+ * objects costs O(e) rather than O(n), where n is the number
+ * of assumptions and e is the number of expansions.
+ *
+ * @author Pietro Braione
+ */
+final class ResolutionIndex {
+    /** The indexed assumptions. */
+    private final ArrayList<Clause> clauses = new ArrayList<>();
+
+    /**
+     * The symbolic references resolved by {@link #clauses},
+     * with the number of clauses that resolve them.
+     */
+    private final HashMap<ReferenceSymbolic, Integer> resolved = new HashMap<>();
+
+    /** The expansion clauses in {@link #clauses}, in order. */
+    private final ArrayList<ClauseAssumeExpands> expansions = new ArrayList<>();
+
+    /**
+     * Set to {@code false} when the indexed assumptions
+     * may differ from the decision procedure's ones.
+     */
+    private boolean valid = true;
+
+    /**
+     * Checks whether this index is in sync with the
+     * assumptions of its decision procedure.
+     *
+     * @return a {@code boolean}.
+     */
+    boolean isValid() {
+        return this.valid;
+    }
+
+    /**
+     * Marks this index as not in sync with the
+     * assumptions of its decision procedure, e.g.,
+     * because an update of the assumptions failed.
+     */
+    void invalidate() {
+        this.valid = false;
+    }
+
+    /**
+     * Indexes an assumption.
+     *
+     * @param c the {@link Clause} that is pushed.
+     */
+    void push(Clause c) {
+        this.clauses.add(c);
+        if (c instanceof ClauseAssumeReferenceSymbolic) {
+            this.resolved.merge(((ClauseAssumeReferenceSymbolic) c).getReference(), 1, Integer::sum);
+        }
+        if (c instanceof ClauseAssumeExpands) {
+            this.expansions.add((ClauseAssumeExpands) c);
+        }
+    }
+
+    /**
+     * Removes the last indexed assumption.
+     */
+    private void pop() {
+        final Clause c = this.clauses.remove(this.clauses.size() - 1);
+        if (c instanceof ClauseAssumeReferenceSymbolic) {
+            final ReferenceSymbolic r = ((ClauseAssumeReferenceSymbolic) c).getReference();
+            final int count = this.resolved.get(r);
+            if (count == 1) {
+                this.resolved.remove(r);
+            } else {
+                this.resolved.put(r, count - 1);
+            }
+        }
+        if (c instanceof ClauseAssumeExpands) {
+            this.expansions.remove(this.expansions.size() - 1);
+        }
+    }
+
+    /**
+     * Removes all the indexed assumptions, and
+     * makes this index valid.
+     */
+    void clear() {
+        this.clauses.clear();
+        this.resolved.clear();
+        this.expansions.clear();
+        this.valid = true;
+    }
+
+    /**
+     * Replaces the indexed assumptions, by popping and
+     * pushing only the clauses after their common prefix
+     * with the current ones, and makes this index valid.
+     *
+     * @param newAssumptions an {@link Iterable}{@code <}{@link Clause}{@code >}.
+     */
+    void set(Iterable<Clause> newAssumptions) {
+        if (!this.valid) {
+            clear();
+        }
+        final Iterator<Clause> it = newAssumptions.iterator();
+        int common = 0;
+        Clause firstDifferent = null;
+        while (it.hasNext()) {
+            final Clause c = it.next();
+            if (common < this.clauses.size() && (this.clauses.get(common) == c || this.clauses.get(common).equals(c))) {
+                ++common;
+            } else {
+                firstDifferent = c;
+                break;
+            }
+        }
+        while (this.clauses.size() > common) {
+            pop();
+        }
+        if (firstDifferent != null) {
+            push(firstDifferent);
+            while (it.hasNext()) {
+                push(it.next());
+            }
+        }
+    }
+
+    /**
+     * Returns the resolved symbolic references.
+     *
+     * @return a {@link Set}{@code <}{@link ReferenceSymbolic}{@code >},
+     *         all the symbolic references resolved by the indexed
+     *         assumptions.
+     */
+    Set<ReferenceSymbolic> resolvedReferences() {
+        return Collections.unmodifiableSet(this.resolved.keySet());
+    }
+
+    /**
+     * Returns the expansion clauses.
+     *
+     * @return a {@link List}{@code <}{@link ClauseAssumeExpands}{@code >},
+     *         all the expansion clauses in the indexed assumptions, in order.
+     */
+    List<ClauseAssumeExpands> expansions() {
+        return Collections.unmodifiableList(this.expansions);
+    }
+}
@@ -0,0 +1,178 @@
+package jbse.jvm;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A checkpoint of an exploration, that allows to resume it
+ * after a crash or a timeout. It records the counters of
+ * the exploration and the branch identifiers of the
+ * states that remained to be explored. Since states are
+ * not serializable, a resumed exploration re-executes
+ * the paths from the root to these states, and does not
+ * explore anew the branches that diverge from them. For
+ * this reason the resumed exploration must be performed
+ * with the same parameters, and a deterministic
+ * search strategy, of the checkpointed one.
+ *
+ * @author Pietro Braione
+ */
+public final class Checkpoint {
+    /** The first line of a checkpoint file. */
+    private static final String HEADER = "jbse-checkpoint 1";
+
+    /** The prefix of the lines with the counters. */
+    private static final String PREFIX_COUNTER = "counter ";
+
+    /** The prefix of the lines with the pending branch identifiers. */
+    private static final String PREFIX_PENDING = "pending ";
+
+    /** Counter: analyzed states. */
+    public static final String COUNTER_ANALYZED_STATES = "analyzedStates";
+
+    /** Counter: analyzed paths. */
+    public static final String COUNTER_PATHS_TOTAL = "pathsTotal";
+
+    /** Counter: out-of-scope paths. */
+    public static final String COUNTER_PATHS_OUT_OF_SCOPE = "pathsOutOfScope";
+
+    /** The counters, by name. */
+    private final LinkedHashMap<String, Long> counters = new LinkedHashMap<>();
+
+    /** The branch identifiers of the pending states. */
+    private final ArrayList<String> pending = new ArrayList<>();
+
+    /**
+     * Sets a counter.
+     *
+     * @param name a {@link String}, the name of the counter.
+     *        It must not contain whitespaces.
+     * @param value a {@code long}, the value of the counter.
+     */
+    public void setCounter(String name, long value) {
+        this.counters.put(name, value);
+    }
+
+    /**
+     * Gets a counter.
+     *
+     * @param name a {@link String}, the name of the counter.
+     * @return a {@code long}, the value of the counter, or
+     *         {@code 0} if the counter was not set.
+     */
+    public long getCounter(String name) {
+        final Long retVal = this.counters.get(name);
+        return (retVal == null ? 0L : retVal);
+    }
+
+    /**
+     * Returns the names of the counters.
+     *
+     * @return a read-only {@link Set}{@code <}{@link String}{@code >}.
+     */
+    public Set<String> getCounterNames() {
+        return Collections.unmodifiableSet(this.counters.keySet());
+    }
+
+    /**
+     * Adds the branch identifier of a pending state.
+     *
+     * @param branchIdentifier a {@link String}.
+     */
+    public void addPending(String branchIdentifier) {
+        this.pending.add(branchIdentifier);
+    }
+
+    /**
+     * Returns the branch identifiers of the pending states.
+     *
+     * @return a read-only {@link List}{@code <}{@link String}{@code >}.
+     *         If it is empty, the exploration was complete.
+     */
+    public List<String> getPending() {
+        return Collections.unmodifiableList(this.pending);
+    }
+
+    /**
+     * Writes this checkpoint to a file. The file is
+     * replaced atomically, where the file system supports
+     * it, so a crash while saving never leaves a
+     * corrupted checkpoint.
+     *
+     * @param file the {@link Path} of the file.
+     * @throws IOException if writing fails.
+     */
+    public void save(Path file) throws IOException {
+        final Path dir = file.toAbsolutePath().getParent();
+        final Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (final BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                w.write(HEADER);
+                w.newLine();
+                for (Map.Entry<String, Long> e : this.counters.entrySet()) {
+                    w.write(PREFIX_COUNTER + e.getKey() + " " + e.getValue());
+                    w.newLine();
+                }
+                for (String id : this.pending) {
+                    w.write(PREFIX_PENDING + id);
+                    w.newLine();
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Reads a checkpoint from a file.
+     *
+     * @param file the {@link Path} of the file.
+     * @return the read {@link Checkpoint}.
+     * @throws IOException if reading fails, or the
+     *         file is not a checkpoint file.
+     */
+    public static Checkpoint load(Path file) throws IOException {
+        final Checkpoint retVal = new Checkpoint();
+        try (final BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(r.readLine())) {
+                throw new IOException("File " + file + " is not a checkpoint file.");
+            }
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (line.startsWith(PREFIX_COUNTER)) {
+                    final String[] nameValue = line.substring(PREFIX_COUNTER.length()).split(" ");
+                    if (nameValue.length != 2) {
+                        throw new IOException("Ill-formed counter line in checkpoint file " + file + ": " + line);
+                    }
+                    try {
+                        retVal.setCounter(nameValue[0], Long.parseLong(nameValue[1]));
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Ill-formed counter line in checkpoint file " + file + ": " + line);
+                    }
+                } else if (line.startsWith(PREFIX_PENDING)) {
+                    retVal.addPending(line.substring(PREFIX_PENDING.length()));
+                } else if (!line.isEmpty()) {
+                    throw new IOException("Ill-formed line in checkpoint file " + file + ": " + line);
+                }
+            }
+        }
+        return retVal;
+    }
+}
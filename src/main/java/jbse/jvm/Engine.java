@@ -11,7 +11,9 @@ import static jbse.bc.Opcodes.OP_INVOKEVIRTUAL;
 import static jbse.bc.Opcodes.OP_IRETURN;
 import static jbse.bc.Opcodes.OP_RETURN;
 
+import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import jbse.algo.Algorithm;
@@ -21,7 +23,9 @@ import jbse.algo.Action;
 import jbse.algo.Action_START;
 import jbse.algo.exc.CannotManageStateException;
 import jbse.apps.run.DecisionProcedureGuidance;
+import jbse.bc.Opcodes;
 import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.common.MetricsRegistry;
 import jbse.common.exc.ClasspathException;
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
@@ -38,6 +42,7 @@ import jbse.mem.State.Phase;
 import jbse.mem.exc.ContradictionException;
 import jbse.mem.exc.FrozenStateException;
 import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.tree.StateTree;
 import jbse.tree.StateTree.BranchPoint;
 import jbse.val.ReferenceSymbolic;
 
@@ -106,6 +111,16 @@ public final class Engine implements AutoCloseable {
     /** The total number of {@link State}s analyzed by the {@link Engine}. */
     private long analyzedStates = 0L;
     
+    /** 
+     * The time spent by the steps, indexed by opcode (unsigned), 
+     * plus one entry for the initialization step; lazily filled, 
+     * {@code null} if no metrics must be recorded. 
+     */
+    private final MetricsRegistry.Histogram[] stepTimes;
+    
+    /** The number of steps, or {@code null} if no metrics must be recorded. */
+    private final MetricsRegistry.Counter steps;
+    
     //Construction.
 
     /**
@@ -116,6 +131,14 @@ public final class Engine implements AutoCloseable {
     Engine(ExecutionContext ctx, VariableObserverManager vom) {
         this.ctx = ctx;
         this.vom = vom;
+        final MetricsRegistry metrics = ctx.getMetrics();
+        this.stepTimes = (metrics == null ? null : new MetricsRegistry.Histogram[257]);
+        try {
+            this.steps = (metrics == null ? null : metrics.counter("jbse_steps_total"));
+        } catch (InvalidInputException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
     }
 
     /**
@@ -303,9 +326,11 @@ public final class Engine implements AutoCloseable {
         	this.preStepSourceRow = (this.preStepStackSize == 0 ? -1 : this.currentState.getSourceRow());
 
         	//steps
+        	final byte opcode = (atLastPreInitialState ? 0 : this.currentState.getInstruction());
+        	final long stepStart = (this.stepTimes == null ? 0L : System.nanoTime());
         	Action action = (atLastPreInitialState ? 
   				             this.ctx.dispatcher.selectInit() :
-  				             this.ctx.dispatcher.select(this.currentState.getInstruction()));
+  				             this.ctx.dispatcher.select(opcode));
         	boolean hasContinuation;
         	do {
         		try {
@@ -324,6 +349,10 @@ public final class Engine implements AutoCloseable {
         			throw e;
         		} 
         	} while (hasContinuation);
+        	if (this.stepTimes != null) {
+        		stepTime(atLastPreInitialState, opcode).record(System.nanoTime() - stepStart);
+        		this.steps.inc();
+        	}
 
         	//possibly gets information about symbolic references that were not expanded
         	if (action instanceof Algorithm<?, ?, ?, ?, ?>) {
@@ -342,13 +371,36 @@ public final class Engine implements AutoCloseable {
 
         	//updates the current state and calculates the return value
         	BranchPoint retVal = null;
+        	boolean jumped = false;
         	if (this.ctx.stateTree.createdBranch()) {
+        		final BranchPoint created = this.ctx.stateTree.lastBranch();
         		retVal = this.ctx.stateTree.nextBranch();
         		this.currentState = this.ctx.stateTree.nextState();
+        		if (retVal != created) {
+        			//the search strategy jumped to another branch:
+        			//resynchronizes the decision procedure
+        			this.ctx.decisionProcedure.setAssumptions(this.currentState.getPathCondition());
+        			this.currentState.resetLastPathConditionClauses();
+        			
+        			//saves the values of the observed variables for the
+        			//created branch, and restores those of the branch
+        			//jumped to, as backtrack does
+        			if (this.currentState.phase() == Phase.POST_INITIAL) {
+        				this.vom.saveObservedVariablesValues(created);
+        				this.vom.restoreObservedVariablesValues(retVal, getNumOfStatesAtBranch(retVal) == 0);
+        			}
+        			jumped = true;
+        		}
         	} else {
         		this.currentState.incSequenceNumber();
         	}
         	
+        	//drops the values of the observed variables saved for
+        	//the branches whose states were all evicted
+        	for (BranchPoint evicted : this.ctx.stateTree.takeEvictedBranches()) {
+        		this.vom.forgetObservedVariablesValues(evicted);
+        	}
+        	
         	//updates the counters for depth/count scope
         	if (this.currentState.branchingDecision() && !this.currentState.stutters()) {
         		this.currentState.incDepth();
@@ -363,8 +415,9 @@ public final class Engine implements AutoCloseable {
         		this.currentState.resetLastPathConditionClauses();
         	}
 
-        	//notifies observers of variables
-        	if (this.currentState.phase() == Phase.POST_INITIAL) {
+        	//notifies observers of variables (after a jump the values 
+        	//were restored from the branch jumped to, as after a backtrack)
+        	if (!jumped && this.currentState.phase() == Phase.POST_INITIAL) {
         		this.vom.notifyObservers(retVal);
         	}
 
@@ -381,6 +434,37 @@ public final class Engine implements AutoCloseable {
         }
     }
 
+    /**
+     * Returns the histogram of the time spent by the steps
+     * of a given kind.
+     * 
+     * @param init {@code true} for the initialization step.
+     * @param opcode a {@code byte}, the opcode of the bytecode
+     *        executed by the step. Ignored if {@code init == true}.
+     * @return a {@link MetricsRegistry.Histogram}.
+     * @throws InvalidInputException never.
+     */
+    private MetricsRegistry.Histogram stepTime(boolean init, byte opcode) throws InvalidInputException {
+    	final int index = (init ? 256 : (opcode & 0xFF));
+    	if (this.stepTimes[index] == null) {
+    		final String label = (init ? "<INIT>" : Opcodes.opcodeName(opcode));
+    		this.stepTimes[index] = this.ctx.getMetrics().histogram("jbse_step_duration_nanoseconds", "opcode", label);
+    	}
+    	return this.stepTimes[index];
+    }
+
+    /**
+     * Returns the registry where the engine records its
+     * metrics, so that {@link Runner.Actions} can dump them, e.g.,
+     * {@link Runner.Actions#atEnd() atEnd}.
+     * 
+     * @return a {@link MetricsRegistry}, or {@code null} if 
+     *         the engine records no metrics.
+     */
+    public MetricsRegistry getMetrics() {
+    	return this.ctx.getMetrics();
+    }
+
     /**
      * Returns the engine's current JVM state 
      * (<em>not</em> a copy).
@@ -401,6 +485,104 @@ public final class Engine implements AutoCloseable {
         return this.analyzedStates;
     }
 
+    /**
+     * Returns the number of pending symbolic states that were 
+     * evicted to bound the used memory. The evicted states 
+     * are re-executed by {@link #replaySpilledStates()}.
+     * 
+     * @return a {@code long}.
+     */
+    public long getEvictedStates() {
+        return this.ctx.stateTree.getNumOfEvictedStates();
+    }
+
+    /**
+     * Returns the number of evicted symbolic states that 
+     * were not replayed yet. If it is not zero at the end 
+     * of the exploration, the exploration is incomplete.
+     * 
+     * @return a {@code long}.
+     */
+    public long getSpilledStates() {
+        return this.ctx.stateTree.getNumOfSpilledStates();
+    }
+
+    /**
+     * Returns the branch identifiers of the evicted 
+     * symbolic states that were not replayed yet.
+     * 
+     * @return a {@link List}{@code <}{@link String}{@code >}.
+     * @throws IOException if reading the identifiers fails.
+     */
+    public List<String> getSpilledBranchIdentifiers() throws IOException {
+        return this.ctx.stateTree.getSpilledBranchIdentifiers();
+    }
+
+    /**
+     * Restarts the execution from the initial state, so 
+     * the evicted symbolic states can be re-executed. It
+     * can be invoked only when there are no pending states.
+     * The caller must restrict the exploration to the paths 
+     * leading to the returned branch identifiers.
+     * 
+     * @return a {@link List}{@code <}{@link String}{@code >}, the
+     *         branch identifiers of the evicted states. It is empty, 
+     *         and the execution is not restarted, if there are 
+     *         no evicted states to replay, or they cannot be 
+     *         replayed because there are still pending states, 
+     *         or the initial state is not available (e.g., the
+     *         execution started from a post-initial state), or 
+     *         the identifiers cannot be read.
+     */
+    public List<String> replaySpilledStates() {
+        final State stateInitial = this.ctx.getStateInitial();
+        if (getSpilledStates() == 0 || canBacktrack() || stateInitial == null) {
+            return Collections.emptyList();
+        }
+        final List<String> retVal;
+        try {
+            retVal = this.ctx.stateTree.takeSpilledBranchIdentifiers();
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+        try {
+            //the state is given the phase it has after its 
+            //first step, so it is not initial again 
+            stateInitial.setPhasePostInitial();
+            stateInitial.resetDepth();
+            stateInitial.resetCount();
+            this.ctx.stateTree.addStateStart(stateInitial, true);
+            this.ctx.stateTree.createdBranch(); //the branch is not created by a step
+            this.vom.saveInitialObservedVariablesValues(this.ctx.stateTree.nextBranch());
+        } catch (InvalidInputException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+        return retVal;
+    }
+
+    /**
+     * Adds to the number of analyzed symbolic states,
+     * e.g., the ones analyzed before resuming an 
+     * exploration from a checkpoint.
+     * 
+     * @param analyzedStates a {@code long}.
+     */
+    void addAnalyzedStates(long analyzedStates) {
+        this.analyzedStates += analyzedStates;
+    }
+
+    /**
+     * Returns the branch identifiers of the states
+     * still to be explored.
+     * 
+     * @return a {@link List}{@code <}{@link String}{@code >}.
+     * @see StateTree#getPendingBranchIdentifiers()
+     */
+    public List<String> getPendingBranchIdentifiers() {
+        return this.ctx.stateTree.getPendingBranchIdentifiers();
+    }
+
     /**
      * Returns the number of assumed object of a given class.
      * 
@@ -438,6 +620,23 @@ public final class Engine implements AutoCloseable {
     	return this.ctx.stateTree.getStateAtBranch(bp, index);
     }
 
+    /**
+     * Removes from the pending states those at the oldest 
+     * branch, so they can be explored by some other {@link Engine}.
+     * 
+     * @return a {@link List}{@code <}{@link State}{@code >}, possibly
+     *         empty, of the removed states.
+     * @see StateTree#removeStatesAtOldestBranch()
+     */
+    List<State> removeStatesAtOldestBranch() {
+        try {
+            return this.ctx.stateTree.removeStatesAtOldestBranch();
+        } catch (FrozenStateException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+    }
+
     /**
      * Stops the execution along the current path.
      */
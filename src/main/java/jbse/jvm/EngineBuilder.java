@@ -11,6 +11,7 @@ import jbse.bc.Signature;
 import jbse.bc.exc.InvalidClassFileFactoryClassException;
 import jbse.common.exc.ClasspathException;
 import jbse.common.exc.InvalidInputException;
+import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.exc.DecisionException;
 import jbse.jvm.exc.CannotBuildEngineException;
 import jbse.jvm.exc.InitializationException;
@@ -94,6 +95,29 @@ public class EngineBuilder {
 	                               parameters.getTriggerRulesRepo(),
 	                               parameters.getClassInvariantAfterInitialization());
 	
+	        //sets the metrics registry
+	        ctx.setMetrics(parameters.getMetrics());
+
+	        //sets the search strategy
+	        try {
+	            ctx.stateTree.setSearchStrategy(parameters.getSearchStrategy());
+	        } catch (InvalidInputException e) {
+	            //this should never happen
+	            throw new UnexpectedInternalException(e);
+	        }
+
+	        //sets the memory bound for the pending states
+	        try {
+	            ctx.stateTree.setMemoryWatermarks(parameters.getMemoryHighWatermark(), parameters.getMemoryLowWatermark());
+	        } catch (InvalidInputException e) {
+	            throw new CannotBuildEngineException(e);
+	        }
+
+	        //sets the store of the post-bootstrap states
+	        if (parameters.getStartupSnapshots() != null && parameters.getStartingState() == null) {
+	            ctx.setStartupSnapshots(parameters.getStartupSnapshots(), StartupSnapshots.keyOf(parameters));
+	        }
+	
 	        //sets the meta-level directives
 	        setOverrides(ctx, parameters);
 	        setUninterpreted(ctx, parameters);
@@ -17,10 +17,13 @@ import java.util.stream.Collectors;
 
 import jbse.bc.Classpath;
 import jbse.bc.Signature;
+import jbse.common.MetricsRegistry;
 import jbse.dec.DecisionProcedureAlgorithms;
 import jbse.mem.State;
 import jbse.mem.exc.ThreadStackEmptyException;
 import jbse.rules.TriggerRulesRepo;
+import jbse.tree.SearchStrategy;
+import jbse.tree.SearchStrategyDepthFirst;
 import jbse.tree.StateTree;
 import jbse.val.Calculator;
 
@@ -152,6 +155,18 @@ public final class EngineParameters implements Cloneable {
     /** The breadth mode. */
     private BreadthMode breadthMode = BreadthMode.MORE_THAN_ONE;
 
+    /** The search strategy. */
+    private SearchStrategy searchStrategy = new SearchStrategyDepthFirst();
+
+    /** 
+     * The memory high watermark for the pending states, 
+     * {@code 0} for no bound. 
+     */
+    private double memoryHighWatermark = 0.0;
+
+    /** The memory low watermark for the pending states. */
+    private double memoryLowWatermark = 0.0;
+
     /** 
      * The initial {@link State} of the symbolic execution, or
      * {@code null} iff an initial state for a method invocation 
@@ -193,6 +208,12 @@ public final class EngineParameters implements Cloneable {
      */
     private ArrayList<Path> userPaths = new ArrayList<>();
 
+    /** 
+     * The directory where the indices of the classpath jars 
+     * are persisted, or {@code null} for no persistence.
+     */
+    private Path classpathIndexDirectory = null;
+
     /** 
      * The {@link Calculator}; overridden by {@code initialState}'s 
      * calculator when {@code initialState != null}. 
@@ -202,6 +223,15 @@ public final class EngineParameters implements Cloneable {
     /** The decision procedure. */
     private DecisionProcedureAlgorithms decisionProcedure = null;
 
+    /** The registry where the engine records its metrics, or {@code null}. */
+    private MetricsRegistry metrics = null;
+
+    /** 
+     * The store of the post-bootstrap states shared among the engines, 
+     * or {@code null}.
+     */
+    private StartupSnapshots startupSnapshots = null;
+
     /** The signatures of the variables observed by {@code this.observers}. */
     private ArrayList<Signature> observedVars = new ArrayList<>();
 
@@ -279,6 +309,54 @@ public final class EngineParameters implements Cloneable {
         return this.decisionProcedure;
     }
 
+    /**
+     * Sets the registry where the engine records its metrics
+     * (time per bytecode, number of state clones and steps).
+     * By default no metric is recorded.
+     * 
+     * @param metrics a {@link MetricsRegistry}, or {@code null}
+     *        for recording no metrics.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the registry where the engine records its metrics.
+     * 
+     * @return a {@link MetricsRegistry}, or {@code null}.
+     */
+    public MetricsRegistry getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Sets the store of the states at the end of the 
+     * pre-initial phase. If the store contains a state
+     * for the same settings of these parameters the engine
+     * starts from (a copy of) it, skipping the bootstrap 
+     * of the JVM; otherwise, the engine stores its 
+     * initial state in it. It is ignored if a starting
+     * state is set. By default no store is used.
+     * 
+     * @param startupSnapshots a {@link StartupSnapshots}, 
+     *        or {@code null} for always bootstrapping
+     *        the JVM.
+     */
+    public void setStartupSnapshots(StartupSnapshots startupSnapshots) {
+        this.startupSnapshots = startupSnapshots;
+    }
+
+    /**
+     * Gets the store of the states at the end of the 
+     * pre-initial phase.
+     * 
+     * @return a {@link StartupSnapshots}, or {@code null}.
+     */
+    public StartupSnapshots getStartupSnapshots() {
+        return this.startupSnapshots;
+    }
+
     /**
      * Sets the state identification mode, i.e., how a state will be
      * identified.
@@ -327,6 +405,72 @@ public final class EngineParameters implements Cloneable {
         return this.breadthMode;
     }
 
+    /**
+     * Sets the search strategy, i.e., the order the 
+     * pending states of the symbolic execution tree will
+     * be explored. By default the tree is explored
+     * depth-first. Since search strategies may record
+     * information on the explored states, a same strategy
+     * object should not be used by different engines.
+     * 
+     * @param searchStrategy a {@link SearchStrategy}.
+     * @throws NullPointerException if {@code searchStrategy == null}.
+     */
+    public void setSearchStrategy(SearchStrategy searchStrategy) {
+        if (searchStrategy == null) {
+            throw new NullPointerException();
+        }
+        this.searchStrategy = searchStrategy;
+    }
+
+    /**
+     * Gets the search strategy.
+     * 
+     * @return the {@link SearchStrategy} set by the
+     *         last call to {@link #setSearchStrategy(SearchStrategy)}.
+     */
+    public SearchStrategy getSearchStrategy() {
+        return this.searchStrategy;
+    }
+
+    /**
+     * Bounds the memory used by the pending states of the
+     * symbolic execution tree. Whenever the used JVM heap
+     * exceeds the high watermark, the coldest pending states
+     * are discarded, shrinking their number by a factor 
+     * {@code low / high}; in this case the exploration is 
+     * incomplete. By default the pending states are never 
+     * discarded.
+     * 
+     * @param high a {@code double}, the high watermark, as a fraction
+     *        of the maximum JVM heap, or {@code 0} for no bound.
+     * @param low a {@code double}, the low watermark, as a fraction
+     *        of the maximum JVM heap. It must be 
+     *        {@code 0 < low < high <= 1}.
+     */
+    public void setMemoryWatermarks(double high, double low) {
+        this.memoryHighWatermark = high;
+        this.memoryLowWatermark = low;
+    }
+
+    /**
+     * Gets the memory high watermark for the pending states.
+     * 
+     * @return a {@code double}, {@code 0} for no bound.
+     */
+    public double getMemoryHighWatermark() {
+        return this.memoryHighWatermark;
+    }
+
+    /**
+     * Gets the memory low watermark for the pending states.
+     * 
+     * @return a {@code double}.
+     */
+    public double getMemoryLowWatermark() {
+        return this.memoryLowWatermark;
+    }
+
     /** 
      * Adds an {@link ExecutionObserver} performing additional
      * actions when a field changes its value.
@@ -656,6 +800,29 @@ public final class EngineParameters implements Cloneable {
         this.userPaths.clear();
     }
 
+    /**
+     * Sets the directory where the indices of the jar files
+     * in the classpath are persisted, so they are reused 
+     * across runs. By default the indices are not persisted.
+     * 
+     * @param classpathIndexDirectory a {@link Path}, or {@code null}
+     *        for no persistence.
+     */
+    public void setClasspathIndexDirectory(Path classpathIndexDirectory) {
+        this.classpathIndexDirectory = classpathIndexDirectory;
+    }
+
+    /**
+     * Returns the directory where the indices of the jar files
+     * in the classpath are persisted.
+     * 
+     * @return a {@link Path}, or {@code null} if the indices
+     *         are not persisted.
+     */
+    public Path getClasspathIndexDirectory() {
+        return this.classpathIndexDirectory;
+    }
+
     /**
      * Builds the classpath.
      * 
@@ -664,7 +831,7 @@ public final class EngineParameters implements Cloneable {
      */
     public Classpath getClasspath() throws IOException {
         if (this.startingState == null) {
-            return new Classpath(this.jbseLibPath, this.javaHome, this.extPaths, this.userPaths);
+            return new Classpath(this.jbseLibPath, this.javaHome, this.extPaths, this.userPaths, this.classpathIndexDirectory);
         } else {
             return this.startingState.getClasspath();
         }
@@ -1172,7 +1339,7 @@ public final class EngineParameters implements Cloneable {
             o.startingState = this.startingState.clone();
         }
         o.userPaths = (ArrayList<Path>) this.userPaths.clone();
-        //calc and decisionProcedure are *not* cloned
+        //calc, decisionProcedure, metrics, startupSnapshots and searchStrategy are *not* cloned
         o.observedVars = (ArrayList<Signature>) this.observedVars.clone();
         o.triggerRulesRepo = this.triggerRulesRepo.clone();
         o.expansionBackdoor = new HashMap<>();
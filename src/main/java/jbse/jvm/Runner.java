@@ -3,7 +3,12 @@ package jbse.jvm;
 import static jbse.val.HistoryPoint.BRANCH_IDENTIFIER_SEPARATOR_COMPACT;
 import static jbse.val.HistoryPoint.BRANCH_IDENTIFIER_SEPARATOR_LONG;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 
 import jbse.algo.exc.CannotManageStateException;
 import jbse.common.exc.ClasspathException;
@@ -231,6 +236,24 @@ public class Runner {
          */
         public void atEnd() { }
 
+        /**
+         * Invoked by a {@link Runner}'s {@link Runner#run run} method before
+         * saving a checkpoint, to record in it the counters of the actions. 
+         * By default does nothing.
+         * 
+         * @param checkpoint the {@link Checkpoint} that will be saved.
+         */
+        public void atCheckpoint(Checkpoint checkpoint) { }
+
+        /**
+         * Invoked by a {@link Runner}'s {@link Runner#run run} method whenever 
+         * saving a checkpoint fails. By default does nothing (the previous 
+         * checkpoint file, if any, is left untouched).
+         * 
+         * @param e the {@link IOException} raised while saving.
+         */
+        public void atCheckpointException(IOException e) { }
+
         /**
          * Invoked by a {@link Runner}'s {@link Runner#run run} method whenever a 
          * {@link DecisionException} is thrown by the {@link Engine}. 
@@ -417,6 +440,44 @@ public class Runner {
     /** Stores the stop time. */
     private long stopTime;
 
+    /** 
+     * Invoked after each branch to share work with other 
+     * runners ({@code null} means no sharing).
+     */
+    private Runnable atBranchShare = null;
+
+    /** Whether the last {@link #run} explored all the pending states. */
+    private boolean explorationEnded = false;
+
+    /** The file where the checkpoints are saved ({@code null} means no checkpoint). */
+    private Path checkpointFile = null;
+
+    /** The interval between two checkpoints, in milliseconds. */
+    private long checkpointInterval = 0L;
+
+    /** The time of the last checkpoint. */
+    private long checkpointLast = 0L;
+
+    /** 
+     * The branch identifiers of the states that remained to be 
+     * explored by the resumed exploration ({@code null} means that
+     * the exploration is not resumed). 
+     */
+    private HashSet<String> resumePending = null;
+
+    /** The same identifiers of {@link #resumePending}, sorted. */
+    private TreeSet<String> resumePendingSorted = null;
+
+    /** The number of analyzed states restored from the resumed checkpoint. */
+    private long analyzedStatesResumed = 0L;
+
+    /** 
+     * The number of states analyzed on the path from the root to 
+     * the identifier subregion, that are not recorded in the
+     * checkpoints ({@code -1L} until the subregion is entered).
+     */
+    private long analyzedStatesBeforeSubregion;
+
     /**
      * Constructor.
      * 
@@ -446,6 +507,7 @@ public class Runner {
         this.actions = actions;
         this.actions.engine = engine;
         this.identifierSubregion = identifierSubregion;
+        this.analyzedStatesBeforeSubregion = (identifierSubregion == null ? 0L : -1L);
         this.timeout = timeout;
         this.heapScope = heapScope;
         this.depthScope = depthScope;
@@ -458,14 +520,168 @@ public class Runner {
     	return this.engine;
     }
 
+    /**
+     * Sets the action to be performed after each branch
+     * to share the pending states with other runners. 
+     * 
+     * @param atBranchShare a {@link Runnable}, or {@code null}
+     *        for no sharing.
+     */
+    void setAtBranchShare(Runnable atBranchShare) {
+        this.atBranchShare = atBranchShare;
+    }
+
+    /**
+     * Sets the periodic saving of checkpoints.
+     * 
+     * @param checkpointFile the {@link Path} of the checkpoint file, 
+     *        or {@code null} for no checkpointing.
+     * @param checkpointInterval a {@code long}, the minimum interval
+     *        between two checkpoints, in milliseconds.
+     */
+    void setCheckpoint(Path checkpointFile, long checkpointInterval) {
+        this.checkpointFile = checkpointFile;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Resumes an exploration from a checkpoint: Restores 
+     * its counters, and restricts the exploration to the
+     * paths leading to the states that remained to be
+     * explored.
+     * 
+     * @param checkpoint a {@link Checkpoint}.
+     */
+    void setResume(Checkpoint checkpoint) {
+        this.pathsTot = checkpoint.getCounter(Checkpoint.COUNTER_PATHS_TOTAL);
+        this.pathsOutOfScope = checkpoint.getCounter(Checkpoint.COUNTER_PATHS_OUT_OF_SCOPE);
+        this.analyzedStatesResumed = checkpoint.getCounter(Checkpoint.COUNTER_ANALYZED_STATES);
+        this.engine.addAnalyzedStates(this.analyzedStatesResumed);
+        this.resumePending = new HashSet<>(checkpoint.getPending());
+        this.resumePendingSorted = new TreeSet<>(checkpoint.getPending());
+    }
+
+    /**
+     * Possibly saves a checkpoint.
+     * 
+     * @param force a {@code boolean}; if {@code true} the
+     *        checkpoint is saved even if the checkpoint interval
+     *        has not yet elapsed.
+     * @param currentPending a {@code boolean}; if {@code true}
+     *        the current state is recorded as still to be explored. 
+     */
+    private void possiblyCheckpoint(boolean force, boolean currentPending) {
+        if (this.checkpointFile == null) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        if (!force && now - this.checkpointLast < this.checkpointInterval) {
+            return;
+        }
+        this.checkpointLast = now;
+        final Checkpoint checkpoint = new Checkpoint();
+        final long analyzedStates = this.engine.getAnalyzedStates();
+        checkpoint.setCounter(Checkpoint.COUNTER_ANALYZED_STATES, analyzedStates - 
+                              (this.analyzedStatesBeforeSubregion < 0 ? analyzedStates - this.analyzedStatesResumed : this.analyzedStatesBeforeSubregion));
+        checkpoint.setCounter(Checkpoint.COUNTER_PATHS_TOTAL, this.pathsTot);
+        checkpoint.setCounter(Checkpoint.COUNTER_PATHS_OUT_OF_SCOPE, this.pathsOutOfScope);
+        if (currentPending) {
+            checkpoint.addPending(this.engine.getCurrentState().getBranchIdentifier());
+        }
+        for (String pending : this.engine.getPendingBranchIdentifiers()) {
+            checkpoint.addPending(pending);
+        }
+        try {
+            for (String spilled : this.engine.getSpilledBranchIdentifiers()) {
+                checkpoint.addPending(spilled);
+            }
+        } catch (IOException e) {
+            this.actions.atCheckpointException(e);
+            return;
+        }
+        this.actions.atCheckpoint(checkpoint);
+        try {
+            checkpoint.save(this.checkpointFile);
+        } catch (IOException e) {
+            this.actions.atCheckpointException(e);
+        }
+    }
+
+    /**
+     * Checks whether the engine can backtrack. When there 
+     * are no pending states, but some were evicted to bound 
+     * memory, restarts the engine from the initial state and 
+     * restricts the exploration to the paths leading to the 
+     * evicted states.
+     * 
+     * @return a {@code boolean}.
+     */
+    private boolean canBacktrack() {
+        if (this.engine.canBacktrack()) {
+            return true;
+        }
+        final List<String> spilled = this.engine.replaySpilledStates();
+        if (spilled.isEmpty()) {
+            return false;
+        }
+        this.resumePending = new HashSet<>(spilled);
+        this.resumePendingSorted = new TreeSet<>(spilled);
+        return true;
+    }
+
     private boolean currentStateIsInRunSubregion() {
+        return currentStateIsInIdentifierSubregion() && currentStateIsInResumedRegion();
+    }
+
+    /**
+     * Checks whether the current state is on a path to, or 
+     * below, one of the states that remained to be explored 
+     * by the resumed exploration. 
+     * 
+     * @return a {@code boolean}.
+     */
+    private boolean currentStateIsInResumedRegion() {
+        if (this.resumePending == null) {
+            return true;
+        }
+        final String currentRegion = this.engine.getCurrentState().getBranchIdentifier();
+
+        //is some pending state an ancestor of (or is) the current state?
+        if (this.resumePending.contains(currentRegion)) {
+            return true;
+        }
+        for (int i = 0; i < currentRegion.length(); ++i) {
+            final char c = currentRegion.charAt(i);
+            if ((c == BRANCH_IDENTIFIER_SEPARATOR_COMPACT.charAt(0) || c == BRANCH_IDENTIFIER_SEPARATOR_LONG.charAt(0)) && 
+                this.resumePending.contains(currentRegion.substring(0, i))) {
+                return true;
+            }
+        }
+
+        //is the current state an ancestor of some pending state?
+        for (String separator : new String[] { BRANCH_IDENTIFIER_SEPARATOR_COMPACT, BRANCH_IDENTIFIER_SEPARATOR_LONG }) {
+            final String prefix = currentRegion + separator;
+            final String descendant = this.resumePendingSorted.ceiling(prefix);
+            if (descendant != null && descendant.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean currentStateIsInIdentifierSubregion() {
         if (this.identifierSubregion == null) {
             return true;
         }
         final String currentRegion = this.engine.getCurrentState().getBranchIdentifier();
-        final boolean retVal = (this.identifierSubregion.equals(currentRegion) ||
+        final boolean inside = (this.identifierSubregion.equals(currentRegion) ||
                                 currentRegion.startsWith(this.identifierSubregion + BRANCH_IDENTIFIER_SEPARATOR_COMPACT) || 
-                                currentRegion.startsWith(this.identifierSubregion + BRANCH_IDENTIFIER_SEPARATOR_LONG) || 
+                                currentRegion.startsWith(this.identifierSubregion + BRANCH_IDENTIFIER_SEPARATOR_LONG));
+        if (inside && this.analyzedStatesBeforeSubregion < 0) {
+            //the states analyzed up to here re-execute the path to the subregion
+            this.analyzedStatesBeforeSubregion = this.engine.getAnalyzedStates() - this.analyzedStatesResumed;
+        }
+        final boolean retVal = (inside ||
                                 this.identifierSubregion.startsWith(currentRegion + BRANCH_IDENTIFIER_SEPARATOR_COMPACT) ||
                                 this.identifierSubregion.startsWith(currentRegion + BRANCH_IDENTIFIER_SEPARATOR_LONG));
         return retVal;
@@ -515,6 +731,7 @@ public class Runner {
     ContradictionException, DecisionException, EngineStuckException, 
     FailureException, NonexistingObservedVariablesException  {
         this.startTime = System.currentTimeMillis();
+        this.explorationEnded = false;
 
         try {
             doRun();
@@ -533,8 +750,11 @@ public class Runner {
         while (true) {
             if (this.actions.atPathStart()) { return; }
 
-            //explores the path
-            while (this.engine.canStep() && currentStateIsInRunSubregion()) {
+            //explores the path; the branch identifier of the current
+            //state changes only at branch points, so the run subregion
+            //is checked only there
+            boolean inRunSubregion = currentStateIsInRunSubregion();
+            while (inRunSubregion && this.engine.canStep()) {
                 if (this.engine.atInitialState()) {
                     if (this.actions.atInitial()) { return; }
                 }
@@ -570,8 +790,12 @@ public class Runner {
                 if (this.actions.atStepPost()) { return; }
                 
                 if (bp != null) {
-                    if (!currentStateIsInRunSubregion()) { break; }
+                    inRunSubregion = currentStateIsInRunSubregion();
+                    if (!inRunSubregion) { break; }
                     if (this.actions.atBranch(bp)) { return; }
+                    if (this.atBranchShare != null) {
+                        this.atBranchShare.run();
+                    }
                 }
 
                 if (outOfScope()) {
@@ -590,6 +814,7 @@ public class Runner {
 
                 if (this.timeout > 0) {
                     if (System.currentTimeMillis() - this.startTime > this.timeout) {
+                        possiblyCheckpoint(true, this.engine.canStep());
                         this.actions.atTimeout();
                         return;
                     }
@@ -605,15 +830,16 @@ public class Runner {
             }
 
             //stuck or out-of-run-subregion state reached
-            if (currentStateIsInRunSubregion()) {
+            if (inRunSubregion) {
                 //in this case, the state must be stuck (it should be impossible that a state
                 //is both stuck and out of the run subregion)
                 ++this.pathsTot;
                 if (this.actions.atPathEnd()) { return; }
             }
+            possiblyCheckpoint(false, false);
 
             //backtracks
-            if (this.engine.canBacktrack()) {
+            if (canBacktrack()) {
                 if (this.actions.atBacktrackPre()) { return; }
 
                 BranchPoint bp = null;
@@ -622,7 +848,7 @@ public class Runner {
                     do {
                         bp = this.engine.backtrack();
                         found = currentStateIsInRunSubregion();
-                    } while (!found && this.engine.canBacktrack());
+                    } while (!found && canBacktrack());
                 } catch (DecisionBacktrackException e) {
                     if (this.actions.atDecisionBacktrackException(e)) { return; }
                 } catch (CannotBacktrackException e) {
@@ -633,16 +859,31 @@ public class Runner {
                 if (found) {
                     if (this.actions.atBacktrackPost(bp)) { return; }
                 } else {
+                    this.explorationEnded = true;
+                    possiblyCheckpoint(true, false);
                     this.actions.atEnd();
                     return;
                 }
             } else {
+                this.explorationEnded = true;
+                possiblyCheckpoint(true, false);
                 this.actions.atEnd();
                 return;
             }
         }
     }
 
+    /**
+     * Checks whether the last {@link #run()} stopped because 
+     * all the states were explored, rather than because of a
+     * timeout or of a stop request from the {@link Actions}.
+     * 
+     * @return a {@code boolean}.
+     */
+    boolean explorationEnded() {
+        return this.explorationEnded;
+    }
+
     /**
      * Returns the start time, i.e., the time when
      * the method {@link #run()} was invoked.
@@ -54,9 +54,14 @@ public class RunnerBuilder {
 	InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, ClasspathException, 
 	NotYetImplementedException, ContradictionException {
 		this.engine = this.eb.build(parameters.getEngineParameters());
-		return new Runner(this.engine, parameters.getActions(), parameters.getIdentifierSubregion(), 
+		final Runner retVal = new Runner(this.engine, parameters.getActions(), parameters.getIdentifierSubregion(), 
 				parameters.getTimeout(), parameters.getHeapScope(), parameters.getDepthScope(), 
 				parameters.getCountScope());
+		retVal.setCheckpoint(parameters.getCheckpointFile(), parameters.getCheckpointInterval());
+		if (parameters.getResume() != null) {
+			retVal.setResume(parameters.getResume());
+		}
+		return retVal;
 	}
 	
 	/**
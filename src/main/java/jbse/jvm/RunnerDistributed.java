@@ -0,0 +1,610 @@
+package jbse.jvm;
+
+import static jbse.val.HistoryPoint.BRANCH_IDENTIFIER_SEPARATOR_COMPACT;
+import static jbse.val.HistoryPoint.BRANCH_IDENTIFIER_SEPARATOR_LONG;
+
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import jbse.algo.exc.CannotManageStateException;
+import jbse.algo.exc.NotYetImplementedException;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.common.exc.ClasspathException;
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.exc.DecisionException;
+import jbse.jvm.exc.CannotBacktrackException;
+import jbse.jvm.exc.CannotBuildEngineException;
+import jbse.jvm.exc.EngineStuckException;
+import jbse.jvm.exc.FailureException;
+import jbse.jvm.exc.InitializationException;
+import jbse.jvm.exc.NonexistingObservedVariablesException;
+import jbse.mem.exc.ContradictionException;
+import jbse.mem.exc.ThreadStackEmptyException;
+
+/**
+ * Class implementing a coordinator that distributes the exploration
+ * of a Java method across many worker processes. The symbolic execution
+ * tree is first partitioned in regions (branch identifier prefixes, see
+ * {@link RunnerParameters#setIdentifierSubregion(String)}) by a shallow
+ * pre-exploration (see {@link #preExplore(RunnerParameters, int)}). Each
+ * region is then assigned to a worker, that explores it and saves
+ * a {@link Checkpoint} at its end. If a time slice is set, a worker that
+ * does not finish its region in the time slice stops, and the
+ * regions of the states it left pending are assigned anew to
+ * the idle workers: This way the regions of slow workers are split.
+ * A worker that stops before making any progress in its region 
+ * is relaunched on the same region with a doubled time slice.
+ * The results of the workers (e.g., their output files) and the counters
+ * in their checkpoints are finally merged.
+ *
+ * @author Pietro Braione
+ */
+public final class RunnerDistributed {
+    /**
+     * The assignment of a region to a worker.
+     *
+     * @author Pietro Braione
+     */
+    public static final class Assignment {
+        /** The region (a branch identifier prefix). */
+        private final String region;
+
+        /** The file where the worker must save its checkpoints. */
+        private final Path checkpointFile;
+
+        /** The file where the worker must save its results. */
+        private final Path resultFile;
+
+        /** The time slice, in milliseconds ({@code 0L} for unlimited). */
+        private final long timeSlice;
+
+        /**
+         * Constructor.
+         *
+         * @param region a {@link String}, the region.
+         * @param checkpointFile the {@link Path} of the checkpoint file.
+         * @param resultFile the {@link Path} of the result file.
+         * @param timeSlice a {@code long}, the time slice in milliseconds
+         *        ({@code 0L} for unlimited).
+         */
+        public Assignment(String region, Path checkpointFile, Path resultFile, long timeSlice) {
+            this.region = region;
+            this.checkpointFile = checkpointFile;
+            this.resultFile = resultFile;
+            this.timeSlice = timeSlice;
+        }
+
+        /**
+         * Returns the region the worker must explore.
+         *
+         * @return a {@link String}.
+         */
+        public String getRegion() {
+            return this.region;
+        }
+
+        /**
+         * Returns the file where the worker must save its checkpoints.
+         *
+         * @return a {@link Path}.
+         */
+        public Path getCheckpointFile() {
+            return this.checkpointFile;
+        }
+
+        /**
+         * Returns the file where the worker must save its results.
+         *
+         * @return a {@link Path}.
+         */
+        public Path getResultFile() {
+            return this.resultFile;
+        }
+
+        /**
+         * Returns the time slice of the worker.
+         *
+         * @return a {@code long}, in milliseconds ({@code 0L} for unlimited).
+         */
+        public long getTimeSlice() {
+            return this.timeSlice;
+        }
+
+        /**
+         * Configures the parameters of a worker so it explores
+         * the assigned region, within the time slice, and saves
+         * a checkpoint at its end. It is up to the worker to write
+         * its results in {@link #getResultFile()}.
+         *
+         * @param parameters the {@link RunnerParameters} of the worker.
+         */
+        public void applyTo(RunnerParameters parameters) {
+            parameters.setIdentifierSubregion(this.region);
+            parameters.setCheckpointFile(this.checkpointFile, Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            if (this.timeSlice > 0) {
+                parameters.setTimeout(this.timeSlice, TimeUnit.MILLISECONDS);
+            } else {
+                parameters.setTimeoutUnlimited();
+            }
+        }
+
+        /**
+         * Encodes this assignment as command line arguments.
+         *
+         * @return a {@link List}{@code <}{@link String}{@code >}.
+         */
+        public List<String> toArguments() {
+            final ArrayList<String> retVal = new ArrayList<>();
+            retVal.add(this.region);
+            retVal.add(this.checkpointFile.toString());
+            retVal.add(this.resultFile.toString());
+            retVal.add(Long.toString(this.timeSlice));
+            return retVal;
+        }
+
+        /**
+         * Decodes an assignment from command line arguments.
+         *
+         * @param args a {@link String}{@code []}, the command line arguments.
+         * @param from an {@code int}, the position in {@code args} of the
+         *        first argument produced by {@link #toArguments()}.
+         * @return the decoded {@link Assignment}.
+         * @throws InvalidInputException if {@code args} does not encode
+         *         an assignment at position {@code from}.
+         */
+        public static Assignment fromArguments(String[] args, int from) throws InvalidInputException {
+            if (args == null || from < 0 || args.length < from + 4) {
+                throw new InvalidInputException("Too few arguments for decoding a worker assignment.");
+            }
+            try {
+                return new Assignment(args[from], Paths.get(args[from + 1]), Paths.get(args[from + 2]), Long.parseLong(args[from + 3]));
+            } catch (RuntimeException e) {
+                throw new InvalidInputException("Ill-formed worker assignment: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A worker.
+     *
+     * @author Pietro Braione
+     */
+    public interface Worker {
+        /**
+         * Checks whether the worker is still running.
+         *
+         * @return a {@code boolean}.
+         */
+        boolean isAlive();
+
+        /**
+         * Returns the exit status of a terminated worker.
+         *
+         * @return an {@code int}, {@code 0} for success.
+         */
+        int exitValue();
+
+        /**
+         * Stops the worker.
+         */
+        void destroy();
+    }
+
+    /**
+     * Launches the workers.
+     *
+     * @author Pietro Braione
+     */
+    @FunctionalInterface
+    public interface WorkerLauncher {
+        /**
+         * Launches a worker.
+         *
+         * @param assignment the {@link Assignment} of the worker.
+         * @return the launched {@link Worker}.
+         * @throws IOException if launching the worker fails.
+         */
+        Worker launch(Assignment assignment) throws IOException;
+    }
+
+    /**
+     * Merges the results of the workers.
+     *
+     * @author Pietro Braione
+     */
+    @FunctionalInterface
+    public interface Merger {
+        /**
+         * Merges results.
+         *
+         * @param results a {@link List}{@code <}{@link String}{@code >},
+         *        the contents of the result files of the workers.
+         * @return a {@link String}, the merged result.
+         */
+        String merge(List<String> results);
+    }
+
+    /** A {@link Merger} that concatenates the results. */
+    public static final Merger MERGER_CONCATENATE = results -> String.join("", results);
+
+    /** The time between two polls of the workers, in milliseconds. */
+    private static final long POLL_INTERVAL = 50L;
+
+    /** The {@link WorkerLauncher}. */
+    private final WorkerLauncher launcher;
+
+    /** The maximum number of workers that run at the same time. */
+    private final int numWorkers;
+
+    /** The directory for the checkpoint and result files. */
+    private final Path workDir;
+
+    /** The time slice of each worker, in milliseconds. */
+    private long timeSlice = 0L;
+
+    /** The number of launched workers. */
+    private int launched = 0;
+
+    /** 
+     * The time slices of the regions whose workers stopped
+     * without making progress, in milliseconds.
+     */
+    private final HashMap<String, Long> timeSlicesExtended = new HashMap<>();
+
+    /** The result files, by region. */
+    private final TreeMap<String, List<Path>> resultFiles = new TreeMap<>();
+
+    /** The sum of the counters in the checkpoints of the workers. */
+    private final HashMap<String, Long> counters = new HashMap<>();
+
+    /** Stores the start time. */
+    private long startTime;
+
+    /** Stores the stop time. */
+    private long stopTime;
+
+    /**
+     * Constructor.
+     *
+     * @param launcher the {@link WorkerLauncher}.
+     * @param numWorkers an {@code int}, the maximum number of workers
+     *        that run at the same time.
+     * @param workDir the {@link Path} of a directory where the checkpoint
+     *        and result files of the workers are saved.
+     * @throws InvalidInputException if {@code launcher == null || numWorkers < 1 || workDir == null}.
+     */
+    public RunnerDistributed(WorkerLauncher launcher, int numWorkers, Path workDir) throws InvalidInputException {
+        if (launcher == null || numWorkers < 1 || workDir == null) {
+            throw new InvalidInputException("Attempted to create a " + getClass().getName() + " with null launcher or work directory, or no workers.");
+        }
+        this.launcher = launcher;
+        this.numWorkers = numWorkers;
+        this.workDir = workDir;
+    }
+
+    /**
+     * Sets the time slice of the workers. A worker that does not
+     * finish within its time slice stops, and the states it
+     * left pending are explored by new workers.
+     *
+     * @param time a {@code long}, the time slice, or {@code 0L}
+     *        for unlimited (no rebalancing). This is the default.
+     * @param timeUnit the {@link TimeUnit} of {@code time}.
+     */
+    public void setTimeSlice(long time, TimeUnit timeUnit) {
+        this.timeSlice = timeUnit.toMillis(time);
+    }
+
+    /**
+     * Partitions the symbolic execution tree in regions by exploring
+     * it up to some depth. Every path ending at or above the depth yields a
+     * (single-path) region, and every path exceeding the depth yields the
+     * region of the subtree rooted at its first state below the depth.
+     * The regions are disjoint and cover the whole tree, provided the workers
+     * are run with the same parameters of the pre-exploration.
+     *
+     * @param parameters the {@link RunnerParameters} of the pre-exploration.
+     *        They are cloned, and their actions, depth scope, timeout,
+     *        subregion and checkpoints are overridden.
+     * @param depth a positive {@code int}, the depth of the pre-exploration.
+     * @return a {@link List}{@code <}{@link String}{@code >}, the regions.
+     * @throws InvalidInputException if {@code parameters == null || depth < 1}.
+     * @throws CannotBuildEngineException as in {@link RunnerBuilder#build(RunnerParameters)}.
+     * @throws DecisionException as in {@link RunnerBuilder#build(RunnerParameters)}
+     *         and {@link Runner#run()}.
+     * @throws InitializationException as in {@link RunnerBuilder#build(RunnerParameters)}.
+     * @throws InvalidClassFileFactoryClassException as in {@link RunnerBuilder#build(RunnerParameters)}.
+     * @throws NonexistingObservedVariablesException as in {@link RunnerBuilder#build(RunnerParameters)}
+     *         and {@link Runner#run()}.
+     * @throws ClasspathException as in {@link RunnerBuilder#build(RunnerParameters)}
+     *         and {@link Runner#run()}.
+     * @throws NotYetImplementedException as in {@link RunnerBuilder#build(RunnerParameters)}.
+     * @throws ContradictionException as in {@link RunnerBuilder#build(RunnerParameters)}
+     *         and {@link Runner#run()}.
+     * @throws CannotBacktrackException as in {@link Runner#run()}.
+     * @throws CannotManageStateException as in {@link Runner#run()}.
+     * @throws ThreadStackEmptyException as in {@link Runner#run()}.
+     * @throws EngineStuckException as in {@link Runner#run()}.
+     * @throws FailureException as in {@link Runner#run()}.
+     */
+    public static List<String> preExplore(RunnerParameters parameters, int depth)
+    throws InvalidInputException, CannotBuildEngineException, DecisionException, InitializationException,
+    InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, ClasspathException,
+    NotYetImplementedException, ContradictionException, CannotBacktrackException, CannotManageStateException,
+    ThreadStackEmptyException, EngineStuckException, FailureException {
+        if (parameters == null || depth < 1) {
+            throw new InvalidInputException("Attempted to pre-explore with null parameters or nonpositive depth.");
+        }
+        final ArrayList<String> retVal = new ArrayList<>();
+        final RunnerParameters p = parameters.clone();
+        final Engine[] engine = new Engine[1];
+        p.setActions(new Runner.Actions() {
+            @Override
+            public boolean atPathEnd() {
+                retVal.add(engine[0].getCurrentState().getBranchIdentifier());
+                return false;
+            }
+        });
+        p.setDepthScope(depth);
+        p.setTimeoutUnlimited();
+        p.setIdentifierSubregionRoot();
+        p.setCheckpointNone();
+        p.setResumeNone();
+        final Runner runner = new RunnerBuilder().build(p);
+        engine[0] = runner.getEngine();
+        runner.run();
+        return retVal;
+    }
+
+    /**
+     * Explores regions with the workers, and waits until
+     * all of them are explored.
+     *
+     * @param regions a {@link List}{@code <}{@link String}{@code >},
+     *        the regions to explore, e.g., as returned by
+     *        {@link #preExplore(RunnerParameters, int)}.
+     * @throws IOException if launching some worker fails, some worker
+     *         fails or stops without a time slice and without exploring 
+     *         its region, or its checkpoint cannot be read. In this case all
+     *         the running workers are stopped.
+     * @throws InterruptedException if the invoking thread is interrupted
+     *         while waiting for the workers. In this case all the running
+     *         workers are stopped.
+     */
+    public void run(List<String> regions) throws IOException, InterruptedException {
+        final ArrayDeque<String> toAssign = new ArrayDeque<>(regions);
+        final HashMap<Worker, Assignment> running = new HashMap<>();
+        this.startTime = System.currentTimeMillis();
+        try {
+            while (!toAssign.isEmpty() || !running.isEmpty()) {
+                while (!toAssign.isEmpty() && running.size() < this.numWorkers) {
+                    final Assignment assignment = assign(toAssign.removeFirst());
+                    running.put(this.launcher.launch(assignment), assignment);
+                }
+                final ArrayList<Worker> terminated = new ArrayList<>();
+                for (Worker worker : running.keySet()) {
+                    if (!worker.isAlive()) {
+                        terminated.add(worker);
+                    }
+                }
+                if (terminated.isEmpty()) {
+                    Thread.sleep(POLL_INTERVAL);
+                    continue;
+                }
+                for (Worker worker : terminated) {
+                    final Assignment assignment = running.remove(worker);
+                    if (worker.exitValue() != 0) {
+                        throw new IOException("The worker exploring region " + assignment.getRegion() + " exited with status " + worker.exitValue() + ".");
+                    }
+                    collect(assignment, toAssign);
+                }
+            }
+        } finally {
+            for (Worker worker : running.keySet()) {
+                worker.destroy();
+            }
+            this.stopTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Returns the start time of the last {@link #run(List)}.
+     * 
+     * @return a {@code long}, the start time in milliseconds.
+     */
+    public long getStartTime() {
+        return this.startTime;
+    }
+
+    /**
+     * Returns the stop time of the last {@link #run(List)}.
+     * 
+     * @return a {@code long}, the stop time in milliseconds.
+     */
+    public long getStopTime() {
+        return this.stopTime;
+    }
+
+    private Assignment assign(String region) {
+        final int n = this.launched++;
+        final Path checkpointFile = this.workDir.resolve("worker-" + n + ".checkpoint");
+        final Path resultFile = this.workDir.resolve("worker-" + n + ".result");
+        final Long timeSliceExtended = this.timeSlicesExtended.get(region);
+        return new Assignment(region, checkpointFile, resultFile, (timeSliceExtended == null ? this.timeSlice : timeSliceExtended));
+    }
+
+    private void collect(Assignment assignment, ArrayDeque<String> toAssign) throws IOException {
+        final String region = assignment.getRegion();
+        final Checkpoint checkpoint = Checkpoint.load(assignment.getCheckpointFile());
+        final ArrayList<String> pendingInRegion = new ArrayList<>();
+        for (String pending : checkpoint.getPending()) {
+            if (pending.equals(region) || isInRegion(region, pending)) {
+                if (assignment.getTimeSlice() == 0L) {
+                    throw new IOException("The worker exploring region " + region + " stopped without exploring it.");
+                }
+                //the worker stopped before leaving the root of its region, 
+                //and a new worker with the same time slice would do the same:
+                //retries with a longer time slice, and drops the results
+                this.timeSlicesExtended.put(region, 2 * assignment.getTimeSlice());
+                toAssign.addLast(region);
+                return;
+            }
+            //the checkpoint may contain states outside the region,
+            //that are explored by other workers
+            if (isInRegion(pending, region)) {
+                pendingInRegion.add(pending);
+            }
+        }
+        this.timeSlicesExtended.remove(region);
+        toAssign.addAll(pendingInRegion);
+        for (String name : checkpoint.getCounterNames()) {
+            this.counters.merge(name, checkpoint.getCounter(name), Long::sum);
+        }
+        if (Files.exists(assignment.getResultFile())) {
+            this.resultFiles.computeIfAbsent(region, k -> new ArrayList<>()).add(assignment.getResultFile());
+        }
+    }
+
+    private static boolean isInRegion(String branchIdentifier, String region) {
+        return (branchIdentifier.equals(region) ||
+                branchIdentifier.startsWith(region + BRANCH_IDENTIFIER_SEPARATOR_COMPACT) ||
+                branchIdentifier.startsWith(region + BRANCH_IDENTIFIER_SEPARATOR_LONG));
+    }
+
+    /**
+     * Returns the sum of a counter over the checkpoints
+     * of all the workers.
+     *
+     * @param name a {@link String}, the name of the counter
+     *        (e.g., {@link Checkpoint#COUNTER_PATHS_TOTAL}).
+     * @return a {@code long}.
+     */
+    public long getCounter(String name) {
+        final Long retVal = this.counters.get(name);
+        return (retVal == null ? 0L : retVal);
+    }
+
+    /**
+     * Returns the sum of all the counters in the checkpoints
+     * of the workers.
+     *
+     * @return a {@link Map}{@code <}{@link String}{@code , }{@link Long}{@code >}.
+     */
+    public Map<String, Long> getCounters() {
+        return Collections.unmodifiableMap(this.counters);
+    }
+
+    /**
+     * Returns the total number of paths explored by all the workers.
+     *
+     * @return a {@code long}.
+     */
+    public long getPathsTotal() {
+        return getCounter(Checkpoint.COUNTER_PATHS_TOTAL);
+    }
+
+    /**
+     * Returns the total number of out-of-scope paths explored
+     * by all the workers.
+     *
+     * @return a {@code long}.
+     */
+    public long getPathsOutOfScope() {
+        return getCounter(Checkpoint.COUNTER_PATHS_OUT_OF_SCOPE);
+    }
+
+    /**
+     * Returns the total number of states analyzed by all the workers.
+     *
+     * @return a {@code long}.
+     */
+    public long getAnalyzedStates() {
+        return getCounter(Checkpoint.COUNTER_ANALYZED_STATES);
+    }
+
+    /**
+     * Returns the result files of the workers, sorted by region.
+     *
+     * @return a {@link List}{@code <}{@link Path}{@code >}.
+     */
+    public List<Path> getResultFiles() {
+        final ArrayList<Path> retVal = new ArrayList<>();
+        for (List<Path> files : this.resultFiles.values()) {
+            retVal.addAll(files);
+        }
+        return Collections.unmodifiableList(retVal);
+    }
+
+    /**
+     * Merges the result files of the workers and writes
+     * the merged result to a file.
+     *
+     * @param merger the {@link Merger}.
+     * @param output the {@link Path} of the file where the
+     *        merged result must be written.
+     * @throws IOException if reading the result files or
+     *         writing the merged result fails.
+     */
+    public void mergeResults(Merger merger, Path output) throws IOException {
+        final ArrayList<String> results = new ArrayList<>();
+        for (Path resultFile : getResultFiles()) {
+            results.add(new String(Files.readAllBytes(resultFile), StandardCharsets.UTF_8));
+        }
+        Files.write(output, merger.merge(results).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns a {@link WorkerLauncher} that launches each worker
+     * as a local process. The command line of the process is
+     * a command followed by the arguments encoding the
+     * assignment (see {@link Assignment#toArguments()}). The
+     * standard output and error of the process are redirected
+     * to the result file plus the {@code .log} suffix.
+     *
+     * @param command a {@link List}{@code <}{@link String}{@code >},
+     *        the command that launches a worker, e.g.,
+     *        {@code java -cp <classpath> <main class>}.
+     * @return a {@link WorkerLauncher}.
+     */
+    public static WorkerLauncher processLauncher(List<String> command) {
+        final ArrayList<String> commandCopy = new ArrayList<>(command);
+        return assignment -> {
+            final ArrayList<String> commandLine = new ArrayList<>(commandCopy);
+            commandLine.addAll(assignment.toArguments());
+            final Path log = Paths.get(assignment.getResultFile().toString() + ".log");
+            final Process process = new ProcessBuilder(commandLine)
+                                    .redirectErrorStream(true)
+                                    .redirectOutput(Redirect.to(log.toFile()))
+                                    .start();
+            return new Worker() {
+                @Override
+                public boolean isAlive() {
+                    return process.isAlive();
+                }
+
+                @Override
+                public int exitValue() {
+                    return process.exitValue();
+                }
+
+                @Override
+                public void destroy() {
+                    process.destroyForcibly();
+                }
+            };
+        };
+    }
+
+}
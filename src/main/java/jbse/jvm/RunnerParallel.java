@@ -0,0 +1,492 @@
+package jbse.jvm;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jbse.algo.exc.CannotManageStateException;
+import jbse.algo.exc.NotYetImplementedException;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.common.exc.ClasspathException;
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.dec.exc.DecisionException;
+import jbse.jvm.exc.CannotBacktrackException;
+import jbse.jvm.exc.CannotBuildEngineException;
+import jbse.jvm.exc.EngineStuckException;
+import jbse.jvm.exc.FailureException;
+import jbse.jvm.exc.InitializationException;
+import jbse.jvm.exc.NonexistingObservedVariablesException;
+import jbse.mem.State;
+import jbse.mem.State.Phase;
+import jbse.mem.exc.ContradictionException;
+import jbse.mem.exc.ThreadStackEmptyException;
+
+/**
+ * Class implementing an algorithm for fully running a Java method by
+ * steering many {@link Engine}s in parallel. Each worker runs on its
+ * own thread with its own {@link RunnerParameters} (and thus its own
+ * calculator and decision procedure). Workers share a frontier of pending states:
+ * Whenever some worker is idle, a busy worker hands over the states
+ * at its oldest pending branch, that the idle workers then explore
+ * with a fresh {@link Runner} started from them.
+ *
+ * The {@link Runner.Actions} of each worker are invoked only by the
+ * thread of that worker, once per handed over subtree; in particular,
+ * {@link Runner.Actions#atStart()} and {@link Runner.Actions#atEnd()}
+ * are invoked at the start and end of the exploration of each subtree.
+ * Variable observers are not supported.
+ *
+ * @author Pietro Braione
+ */
+public final class RunnerParallel implements AutoCloseable {
+    /**
+     * The shared frontier of pending states.
+     */
+    private static final class Frontier {
+        /** The pending states, in emission order. */
+        private final ArrayDeque<State> states = new ArrayDeque<>();
+
+        /** The number of workers that are exploring some subtree. */
+        private int busy = 1; //the seed worker
+
+        /** The number of workers that are waiting for some state. */
+        private int idle = 0;
+
+        /** Whether the exploration must be stopped. */
+        private boolean shutdown = false;
+
+        /** Cache of {@code idle > states.size() && !shutdown}. */
+        private volatile boolean hungry = false;
+
+        /**
+         * Takes a state from the frontier, waiting until either a
+         * state is available or all the workers are idle.
+         *
+         * @param wasBusy {@code true} iff the invoking worker
+         *        was exploring some subtree.
+         * @return a {@link State}, or {@code null} if the exploration
+         *         is over.
+         * @throws InterruptedException if the invoking thread is
+         *         interrupted while waiting.
+         */
+        synchronized State take(boolean wasBusy) throws InterruptedException {
+            if (wasBusy) {
+                --this.busy;
+            }
+            ++this.idle;
+            updateHungry();
+            notifyAll();
+            try {
+                while (this.states.isEmpty() && this.busy > 0 && !this.shutdown) {
+                    wait();
+                }
+            } finally {
+                --this.idle;
+            }
+            if (this.shutdown || this.states.isEmpty()) {
+                this.shutdown = true;
+                updateHungry();
+                notifyAll();
+                return null;
+            }
+            ++this.busy;
+            final State retVal = this.states.removeFirst();
+            updateHungry();
+            return retVal;
+        }
+
+        /**
+         * Offers states to the frontier. The states are deep 
+         * copied, so workers do not share heap delegates. Cloning 
+         * a state writes the copy-on-write flags of its components,
+         * that it may share with the states of other workers, thus 
+         * all the clones are done while holding the lock of the 
+         * frontier.
+         * 
+         * @param toOffer a {@link List}{@code <}{@link State}{@code >}.
+         */
+        synchronized void offer(List<State> toOffer) {
+            if (this.shutdown) {
+                return;
+            }
+            for (State s : toOffer) {
+                this.states.add(s.clone());
+            }
+            updateHungry();
+            notifyAll();
+        }
+
+        synchronized void shutdown() {
+            this.shutdown = true;
+            this.states.clear();
+            updateHungry();
+            notifyAll();
+        }
+
+        boolean hungry() {
+            return this.hungry;
+        }
+
+        private void updateHungry() {
+            this.hungry = (!this.shutdown && this.idle > this.states.size());
+        }
+    }
+
+    /** The {@link RunnerParameters} of the workers, one per worker. */
+    private final RunnerParameters[] parameters;
+
+    /** The {@link Runner} that starts the exploration, run by the first worker. */
+    private final Runner seed;
+
+    /** The shared {@link Frontier}. */
+    private final Frontier frontier = new Frontier();
+
+    /** The timeout. */
+    private final long timeout;
+
+    /**
+     * The initial state, taken from the first {@link Engine}
+     * that shares its pending states (possibly {@code null};
+     * guarded by {@code frontier}).
+     */
+    private State stateInitial = null;
+
+    /** Whether {@code stateInitial} was already taken (guarded by {@code frontier}). */
+    private boolean stateInitialTaken = false;
+
+    /** The first exception thrown by some worker. */
+    private Exception failure = null;
+
+    /** Counter for the total number of analyzed paths. */
+    private long pathsTot = 0;
+
+    /** Counter for the number of analyzed paths stopped because of scope exhaustion. */
+    private long pathsOutOfScope = 0;
+
+    /** Counter for the total number of analyzed states. */
+    private long analyzedStates = 0;
+
+    /** Counter for the total number of evicted states. */
+    private long evictedStates = 0;
+
+    /** Counter for the number of evicted states that were not replayed. */
+    private long spilledStates = 0;
+
+    /** Stores the start time. */
+    private long startTime;
+
+    /** Stores the stop time. */
+    private long stopTime;
+
+    /**
+     * Constructor.
+     *
+     * @param parameters a {@link RunnerParameters}{@code []}, the
+     *        parameters of the workers, one per worker. All the
+     *        elements must be coherent and have distinct decision
+     *        procedures and actions.
+     * @param seed the {@link Runner} built from {@code parameters[0]}.
+     */
+    RunnerParallel(RunnerParameters[] parameters, Runner seed) {
+        this.parameters = parameters;
+        this.seed = seed;
+        this.timeout = parameters[0].getTimeout();
+    }
+
+    /**
+     * Returns the {@link Engine} of the {@link Runner} that starts
+     * the exploration.
+     *
+     * @return an {@link Engine}.
+     */
+    public Engine getEngine() {
+        return this.seed.getEngine();
+    }
+
+    /**
+     * Returns the number of workers.
+     *
+     * @return a positive {@code int}.
+     */
+    public int getNumOfWorkers() {
+        return this.parameters.length;
+    }
+
+    /**
+     * Runs the method.
+     *
+     * @throws CannotBacktrackException as in {@link Runner#run()}
+     * @throws CannotManageStateException as in {@link Runner#run()}
+     * @throws ClasspathException as in {@link Runner#run()}
+     * @throws ThreadStackEmptyException as in {@link Runner#run()}
+     * @throws ContradictionException as in {@link Runner#run()}
+     * @throws DecisionException as in {@link Runner#run()}
+     * @throws EngineStuckException as in {@link Runner#run()}
+     * @throws FailureException as in {@link Runner#run()}
+     * @throws NonexistingObservedVariablesException as in {@link Runner#run()}
+     */
+    public void run()
+    throws CannotBacktrackException, CannotManageStateException,
+    ClasspathException, ThreadStackEmptyException,
+    ContradictionException, DecisionException, EngineStuckException,
+    FailureException, NonexistingObservedVariablesException {
+        this.startTime = System.currentTimeMillis();
+        try {
+            final ArrayList<Thread> workers = new ArrayList<>();
+            for (int i = 0; i < this.parameters.length; ++i) {
+                final int worker = i;
+                final Thread t = new Thread(() -> work(worker), "jbse-worker-" + worker);
+                workers.add(t);
+                t.start();
+            }
+            for (Thread t : workers) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    this.frontier.shutdown();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        } finally {
+            this.stopTime = System.currentTimeMillis();
+        }
+        rethrowFailure();
+    }
+
+    private void work(int worker) {
+        Runner runner = (worker == 0 ? this.seed : null);
+        try {
+            while (true) {
+                if (runner != null) {
+                    runSubtree(runner);
+                }
+                final State s = this.frontier.take(runner != null);
+                if (s == null) {
+                    return;
+                }
+                runner = makeRunner(this.parameters[worker], s);
+                if (runner == null) {
+                    this.frontier.shutdown();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            this.frontier.shutdown();
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    private void runSubtree(Runner runner)
+    throws CannotBacktrackException, CannotManageStateException,
+    ClasspathException, ThreadStackEmptyException,
+    ContradictionException, DecisionException, EngineStuckException,
+    FailureException, NonexistingObservedVariablesException {
+        final Engine engine = runner.getEngine();
+        runner.setAtBranchShare(() -> share(engine));
+        try {
+            runner.run();
+        } finally {
+            synchronized (this) {
+                this.pathsTot += runner.getPathsTotal();
+                this.pathsOutOfScope += runner.getPathsOutOfScope();
+                this.analyzedStates += engine.getAnalyzedStates();
+                this.evictedStates += engine.getEvictedStates();
+                this.spilledStates += engine.getSpilledStates();
+            }
+        }
+        if (!runner.explorationEnded()) {
+            //either timeout or stop requested by actions
+            this.frontier.shutdown();
+        }
+    }
+
+    private void share(Engine engine) {
+        if (!this.frontier.hungry() || engine.getCurrentState().phase() != Phase.POST_INITIAL) {
+            return;
+        }
+        synchronized (this.frontier) {
+            if (!this.stateInitialTaken) {
+                this.stateInitial = engine.getInitialState();
+                this.stateInitialTaken = true;
+            }
+        }
+        final List<State> states = engine.removeStatesAtOldestBranch();
+        if (states.isEmpty()) {
+            return;
+        }
+        this.frontier.offer(states);
+    }
+
+    /**
+     * Builds a {@link Runner} for exploring the subtree
+     * rooted at a state.
+     *
+     * @param p the {@link RunnerParameters} of the worker.
+     * @param s the root {@link State} of the subtree.
+     * @return a {@link Runner}, or {@code null} if the
+     *         time is over.
+     */
+    private Runner makeRunner(RunnerParameters p, State s)
+    throws CannotBuildEngineException, DecisionException, InitializationException,
+    InvalidClassFileFactoryClassException, NonexistingObservedVariablesException,
+    ClasspathException, NotYetImplementedException, ContradictionException {
+        final RunnerParameters pSubtree = p.clone();
+        pSubtree.setStartingState(s);
+        if (this.timeout > 0) {
+            final long remaining = this.timeout - (System.currentTimeMillis() - this.startTime);
+            if (remaining <= 0) {
+                return null;
+            }
+            pSubtree.setTimeout(remaining, TimeUnit.MILLISECONDS);
+        }
+        //building the runner and switching the initial state clone 
+        //states whose components may be shared with other workers
+        synchronized (this.frontier) {
+            final Runner retVal = new RunnerBuilder().build(pSubtree);
+            if (this.stateInitial != null) {
+                retVal.getEngine().getExecutionContext().switchInitial(this.stateInitial);
+            }
+            return retVal;
+        }
+    }
+
+    private synchronized void fail(Exception e) {
+        if (this.failure == null) {
+            this.failure = e;
+        }
+        this.frontier.shutdown();
+    }
+
+    private synchronized void rethrowFailure()
+    throws CannotBacktrackException, CannotManageStateException,
+    ClasspathException, ThreadStackEmptyException,
+    ContradictionException, DecisionException, EngineStuckException,
+    FailureException, NonexistingObservedVariablesException {
+        final Exception e = this.failure;
+        if (e == null) {
+            return;
+        } else if (e instanceof CannotBacktrackException) {
+            throw (CannotBacktrackException) e;
+        } else if (e instanceof CannotManageStateException) {
+            throw (CannotManageStateException) e;
+        } else if (e instanceof ClasspathException) {
+            throw (ClasspathException) e;
+        } else if (e instanceof ThreadStackEmptyException) {
+            throw (ThreadStackEmptyException) e;
+        } else if (e instanceof ContradictionException) {
+            throw (ContradictionException) e;
+        } else if (e instanceof DecisionException) {
+            throw (DecisionException) e;
+        } else if (e instanceof EngineStuckException) {
+            throw (EngineStuckException) e;
+        } else if (e instanceof FailureException) {
+            throw (FailureException) e;
+        } else if (e instanceof NonexistingObservedVariablesException) {
+            throw (NonexistingObservedVariablesException) e;
+        } else if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        } else {
+            //building a runner from a pending state should never fail
+            throw new UnexpectedInternalException(e);
+        }
+    }
+
+    /**
+     * Returns the start time, i.e., the time when
+     * the method {@link #run()} was invoked.
+     *
+     * @return a {@code long}, {@code 0L} if this
+     * method is invoked before {@link #run()}.
+     */
+    public long getStartTime() {
+        return this.startTime;
+    }
+
+    /**
+     * Returns the stop time, i.e., the time when
+     * the method {@link #run()} returned.
+     *
+     * @return a {@code long}, {@code 0L} if this
+     * method is invoked before {@link #run()}
+     * returns.
+     */
+    public long getStopTime() {
+        return this.stopTime;
+    }
+
+    /**
+     * Returns the total number of paths explored by
+     * all the workers.
+     *
+     * @return a {@code long}.
+     */
+    public synchronized long getPathsTotal() {
+        return this.pathsTot;
+    }
+
+    /**
+     * Returns the total number of out-of-scope paths explored
+     * by all the workers.
+     *
+     * @return a {@code long}.
+     */
+    public synchronized long getPathsOutOfScope() {
+        return this.pathsOutOfScope;
+    }
+
+    /**
+     * Returns the total number of states analyzed by
+     * all the workers.
+     *
+     * @return a {@code long}.
+     */
+    public synchronized long getAnalyzedStates() {
+        return this.analyzedStates;
+    }
+
+    /**
+     * Returns the total number of pending states evicted
+     * by all the workers.
+     *
+     * @return a {@code long}.
+     */
+    public synchronized long getEvictedStates() {
+        return this.evictedStates;
+    }
+
+    /**
+     * Returns the total number of evicted states that
+     * the workers did not replay.
+     *
+     * @return a {@code long}.
+     */
+    public synchronized long getSpilledStates() {
+        return this.spilledStates;
+    }
+
+    /**
+     * Cleans up the decision procedures of all
+     * the workers.
+     *
+     * @throws DecisionException when clean-up of some
+     *         decision procedure fails.
+     */
+    @Override
+    public void close() throws DecisionException {
+        DecisionException first = null;
+        for (RunnerParameters p : this.parameters) {
+            try {
+                p.getDecisionProcedure().close();
+            } catch (DecisionException e) {
+                if (first == null) {
+                    first = e;
+                }
+            }
+        }
+        if (first != null) {
+            throw first;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package jbse.jvm;
+
+import java.util.function.IntFunction;
+
+import jbse.algo.exc.NotYetImplementedException;
+import jbse.bc.exc.InvalidClassFileFactoryClassException;
+import jbse.common.exc.ClasspathException;
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.exc.DecisionException;
+import jbse.jvm.exc.CannotBuildEngineException;
+import jbse.jvm.exc.InitializationException;
+import jbse.jvm.exc.NonexistingObservedVariablesException;
+import jbse.mem.exc.ContradictionException;
+
+/**
+ * A Builder for {@link RunnerParallel}.
+ *
+ * @author Pietro Braione
+ */
+public class RunnerParallelBuilder {
+	/**
+	 * Constructor.
+	 */
+	public RunnerParallelBuilder() { }
+
+	/**
+	 * Builds a {@link RunnerParallel}.
+	 *
+	 * @param parametersFactory an {@link IntFunction}{@code <}{@link RunnerParameters}{@code >}
+	 *        that, given the index of a worker (between {@code 0} and {@code numWorkers - 1}),
+	 *        returns the {@link RunnerParameters} for that worker. It will be invoked
+	 *        exactly once for each worker, and must return coherent parameters that
+	 *        differ only by the calculator, the decision procedure and the actions, 
+	 *        that must be distinct objects for each worker (calculators are not 
+	 *        thread-safe: use copies sharing the same hash-consing table). The 
+	 *        timeout of the {@link RunnerParallel} is that of worker {@code 0}.
+	 * @param numWorkers an {@code int}, the number of workers.
+	 * @return a {@link RunnerParallel}.
+	 * @throws InvalidInputException if {@code parametersFactory == null || numWorkers < 1},
+	 *         or if {@code parametersFactory} returns {@code null} or the same decision
+	 *         procedure for two different workers.
+	 * @throws CannotBuildEngineException as in {@link RunnerBuilder#build(RunnerParameters)}.
+	 * @throws DecisionException as in {@link RunnerBuilder#build(RunnerParameters)}.
+	 * @throws InitializationException as in {@link RunnerBuilder#build(RunnerParameters)}.
+	 * @throws InvalidClassFileFactoryClassException as in {@link RunnerBuilder#build(RunnerParameters)}.
+	 * @throws NonexistingObservedVariablesException as in {@link RunnerBuilder#build(RunnerParameters)}.
+	 * @throws ClasspathException as in {@link RunnerBuilder#build(RunnerParameters)}.
+	 * @throws NotYetImplementedException as in {@link RunnerBuilder#build(RunnerParameters)}.
+	 * @throws ContradictionException as in {@link RunnerBuilder#build(RunnerParameters)}.
+	 */
+	public RunnerParallel build(IntFunction<RunnerParameters> parametersFactory, int numWorkers)
+	throws InvalidInputException, CannotBuildEngineException, DecisionException, InitializationException,
+	InvalidClassFileFactoryClassException, NonexistingObservedVariablesException, ClasspathException,
+	NotYetImplementedException, ContradictionException {
+		if (parametersFactory == null || numWorkers < 1) {
+			throw new InvalidInputException("Attempted to build a " + RunnerParallel.class.getName() + " with null parameters factory or no workers.");
+		}
+		final RunnerParameters[] parameters = new RunnerParameters[numWorkers];
+		for (int i = 0; i < numWorkers; ++i) {
+			parameters[i] = parametersFactory.apply(i);
+			if (parameters[i] == null) {
+				throw new InvalidInputException("The parameters factory returned null parameters for worker " + i + ".");
+			}
+			for (int j = 0; j < i; ++j) {
+				if (parameters[i].getDecisionProcedure() == parameters[j].getDecisionProcedure()) {
+					throw new InvalidInputException("The parameters factory returned the same decision procedure for workers " + j + " and " + i + ".");
+				}
+			}
+		}
+		final Runner seed = new RunnerBuilder().build(parameters[0]);
+		return new RunnerParallel(parameters, seed);
+	}
+}
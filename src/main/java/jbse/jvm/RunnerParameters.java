@@ -12,12 +12,14 @@ import java.util.function.Function;
 
 import jbse.bc.Classpath;
 import jbse.bc.Signature;
+import jbse.common.MetricsRegistry;
 import jbse.dec.DecisionProcedureAlgorithms;
 import jbse.jvm.EngineParameters.BreadthMode;
 import jbse.jvm.EngineParameters.StateIdentificationMode;
 import jbse.jvm.Runner.Actions;
 import jbse.mem.State;
 import jbse.rules.TriggerRulesRepo;
+import jbse.tree.SearchStrategy;
 import jbse.val.Calculator;
 
 /**
@@ -64,6 +66,15 @@ public final class RunnerParameters implements Cloneable {
      */
     private String identifierSubregion = null;
 
+    /** The path of the checkpoint file ({@code null} for no checkpoints). */
+    private Path checkpointFile = null;
+
+    /** The minimum interval between two checkpoints, in milliseconds. */
+    private long checkpointInterval = 0L;
+
+    /** The checkpoint to resume from ({@code null} for a fresh exploration). */
+    private Checkpoint resume = null;
+
     /** 
      * Constructor. 
      */
@@ -109,6 +120,54 @@ public final class RunnerParameters implements Cloneable {
         return this.engineParameters.getDecisionProcedure();
     }
 
+    /**
+     * Sets the registry where the engine records its metrics
+     * (time per bytecode, number of state clones and steps).
+     * By default no metric is recorded.
+     * 
+     * @param metrics a {@link MetricsRegistry}, or {@code null}
+     *        for recording no metrics.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.engineParameters.setMetrics(metrics);
+    }
+
+    /**
+     * Gets the registry where the engine records its metrics.
+     * 
+     * @return a {@link MetricsRegistry}, or {@code null}.
+     */
+    public MetricsRegistry getMetrics() {
+        return this.engineParameters.getMetrics();
+    }
+
+    /**
+     * Sets the store of the states at the end of the 
+     * pre-initial phase. If the store contains a state
+     * for the same settings of these parameters the engine
+     * starts from (a copy of) it, skipping the bootstrap 
+     * of the JVM; otherwise, the engine stores its 
+     * initial state in it. It is ignored if a starting
+     * state is set. By default no store is used.
+     * 
+     * @param startupSnapshots a {@link StartupSnapshots}, 
+     *        or {@code null} for always bootstrapping
+     *        the JVM.
+     */
+    public void setStartupSnapshots(StartupSnapshots startupSnapshots) {
+        this.engineParameters.setStartupSnapshots(startupSnapshots);
+    }
+
+    /**
+     * Gets the store of the states at the end of the 
+     * pre-initial phase.
+     * 
+     * @return a {@link StartupSnapshots}, or {@code null}.
+     */
+    public StartupSnapshots getStartupSnapshots() {
+        return this.engineParameters.getStartupSnapshots();
+    }
+
     /**
      * Sets the state identification mode, i.e., how a state will be
      * identified.
@@ -151,6 +210,68 @@ public final class RunnerParameters implements Cloneable {
         return this.engineParameters.getBreadthMode();
     }
 
+    /**
+     * Sets the search strategy, i.e., the order the 
+     * pending states of the symbolic execution tree will
+     * be explored. By default the tree is explored
+     * depth-first. Since search strategies may record
+     * information on the explored states, a same strategy
+     * object should not be used by different runners.
+     * 
+     * @param searchStrategy a {@link SearchStrategy}.
+     * @throws NullPointerException if {@code searchStrategy == null}.
+     */
+    public void setSearchStrategy(SearchStrategy searchStrategy) {
+        this.engineParameters.setSearchStrategy(searchStrategy);
+    }
+
+    /**
+     * Gets the search strategy.
+     * 
+     * @return the {@link SearchStrategy} set by the
+     *         last call to {@link #setSearchStrategy(SearchStrategy)}.
+     */
+    public SearchStrategy getSearchStrategy() {
+        return this.engineParameters.getSearchStrategy();
+    }
+
+    /**
+     * Bounds the memory used by the pending states of the
+     * symbolic execution tree. Whenever the used JVM heap
+     * exceeds the high watermark, the coldest pending states
+     * are discarded, shrinking their number by a factor 
+     * {@code low / high}; in this case the exploration is 
+     * incomplete. By default the pending states are never 
+     * discarded.
+     * 
+     * @param high a {@code double}, the high watermark, as a fraction
+     *        of the maximum JVM heap, or {@code 0} for no bound.
+     * @param low a {@code double}, the low watermark, as a fraction
+     *        of the maximum JVM heap. It must be 
+     *        {@code 0 < low < high <= 1}.
+     */
+    public void setMemoryWatermarks(double high, double low) {
+        this.engineParameters.setMemoryWatermarks(high, low);
+    }
+
+    /**
+     * Gets the memory high watermark for the pending states.
+     * 
+     * @return a {@code double}, {@code 0} for no bound.
+     */
+    public double getMemoryHighWatermark() {
+        return this.engineParameters.getMemoryHighWatermark();
+    }
+
+    /**
+     * Gets the memory low watermark for the pending states.
+     * 
+     * @return a {@code double}.
+     */
+    public double getMemoryLowWatermark() {
+        return this.engineParameters.getMemoryLowWatermark();
+    }
+
     /** 
      * Adds an {@link ExecutionObserver} performing additional
      * actions when a field changes its value.
@@ -417,6 +538,29 @@ public final class RunnerParameters implements Cloneable {
         this.engineParameters.clearUserClasspath();
     }
 
+    /**
+     * Sets the directory where the indices of the jar files
+     * in the classpath are persisted, so they are reused 
+     * across runs. By default the indices are not persisted.
+     * 
+     * @param classpathIndexDirectory a {@link Path}, or {@code null}
+     *        for no persistence.
+     */
+    public void setClasspathIndexDirectory(Path classpathIndexDirectory) {
+        this.engineParameters.setClasspathIndexDirectory(classpathIndexDirectory);
+    }
+
+    /**
+     * Returns the directory where the indices of the jar files
+     * in the classpath are persisted.
+     * 
+     * @return a {@link Path}, or {@code null} if the indices
+     *         are not persisted.
+     */
+    public Path getClasspathIndexDirectory() {
+        return this.engineParameters.getClasspathIndexDirectory();
+    }
+
     /**
      * Builds the classpath.
      * 
@@ -1083,6 +1227,86 @@ public final class RunnerParameters implements Cloneable {
         return this.identifierSubregion;
     }
 
+    /**
+     * Sets the periodic saving of checkpoints of the exploration. 
+     * A checkpoint is saved at the end of a path whenever the 
+     * checkpoint interval has elapsed since the last checkpoint, 
+     * at timeout, and at the end of the exploration.
+     * 
+     * @param checkpointFile the {@link Path} of the checkpoint file.
+     * @param interval a {@code long}, the minimum interval between 
+     *        two checkpoints.
+     * @param timeUnit the {@link TimeUnit} of {@code interval}.
+     * @throws NullPointerException if {@code checkpointFile == null}.
+     */
+    public void setCheckpointFile(Path checkpointFile, long interval, TimeUnit timeUnit) {
+        if (checkpointFile == null) {
+            throw new NullPointerException();
+        }
+        this.checkpointFile = checkpointFile;
+        this.checkpointInterval = timeUnit.toMillis(interval);
+    }
+
+    /**
+     * Instructs not to save checkpoints. This 
+     * is the default behavior.
+     */
+    public void setCheckpointNone() {
+        this.checkpointFile = null;
+    }
+
+    /**
+     * Gets the path of the checkpoint file.
+     * 
+     * @return a {@link Path}, or {@code null} if no
+     *         checkpoints must be saved.
+     */
+    public Path getCheckpointFile() {
+        return this.checkpointFile;
+    }
+
+    /**
+     * Gets the minimum interval between two checkpoints.
+     * 
+     * @return a {@code long}, the interval in milliseconds.
+     */
+    public long getCheckpointInterval() {
+        return this.checkpointInterval;
+    }
+
+    /**
+     * Sets the checkpoint the exploration must resume from.
+     * The exploration must be performed with the same parameters
+     * of the checkpointed one.
+     * 
+     * @param resume a {@link Checkpoint}.
+     * @throws NullPointerException if {@code resume == null}.
+     */
+    public void setResume(Checkpoint resume) {
+        if (resume == null) {
+            throw new NullPointerException();
+        }
+        this.resume = resume;
+    }
+
+    /**
+     * Instructs to start a fresh exploration. This
+     * is the default behavior.
+     */
+    public void setResumeNone() {
+        this.resume = null;
+    }
+
+    /**
+     * Gets the checkpoint the exploration must resume from.
+     * 
+     * @return a {@link Checkpoint}, or {@code null} for 
+     *         a fresh exploration.
+     */
+    public Checkpoint getResume() {
+        return this.resume;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public RunnerParameters clone() {
@@ -0,0 +1,220 @@
+package jbse.jvm;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jbse.bc.Classpath;
+import jbse.common.exc.InvalidInputException;
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.mem.State;
+
+/**
+ * A store of the states at the end of the pre-initial
+ * phase of symbolic execution, i.e., after the bootstrap of
+ * the JVM, keyed by the hash of the settings that may affect
+ * the bootstrap. An {@link Engine} that is built with the same
+ * settings of an {@link Engine} that already reached its initial
+ * state starts from a copy of it, instead of re-executing the
+ * whole bootstrap. This class is thread-safe, so a store can be
+ * shared by all the analyses in a same JVM (see 
+ * {@link RunnerParameters#setStartupSnapshots(StartupSnapshots)}).
+ * The store is in-memory only: persisting the states across 
+ * processes is out of scope, so a sequence of short-lived JVMs 
+ * (e.g., one per test in a CI job) still pays one bootstrap
+ * per JVM.
+ *
+ * @author Pietro Braione
+ */
+public final class StartupSnapshots {
+    /** The maximum number of stored states. */
+    private final int capacity;
+
+    /** The stored states, by key, in least-recently-used order. */
+    private final LinkedHashMap<String, State> snapshots;
+
+    /** The number of calls to {@link #get(String)} that found a state. */
+    private long hits = 0;
+
+    /** The number of calls to {@link #get(String)} that found no state. */
+    private long misses = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity an {@code int}, the maximum number of
+     *        stored states.
+     * @throws InvalidInputException if {@code capacity <= 0}.
+     */
+    public StartupSnapshots(int capacity) throws InvalidInputException {
+        if (capacity <= 0) {
+            throw new InvalidInputException("Attempted to create a " + getClass().getName() + " with nonpositive capacity.");
+        }
+        this.capacity = capacity;
+        this.snapshots = new LinkedHashMap<String, State>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, State> eldest) {
+                return size() > StartupSnapshots.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets a stored state.
+     *
+     * @param key a {@link String}, as returned by {@link #keyOf(EngineParameters)}.
+     * @return a clone of the state stored with {@code key}, or
+     *         {@code null} if no state is stored with {@code key}.
+     */
+    public State get(String key) {
+        //the state must be cloned while holding the lock, 
+        //because cloning a state updates its copy-on-write
+        //flags
+        synchronized (this) {
+            final State s = this.snapshots.get(key);
+            if (s == null) {
+                ++this.misses;
+                return null;
+            }
+            ++this.hits;
+            return s.clone();
+        }
+    }
+
+    /**
+     * Returns the number of times a stored state was found.
+     * 
+     * @return a {@code long}.
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of times a state was looked
+     * up and not found.
+     * 
+     * @return a {@code long}.
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Stores a state, unless a state is already stored
+     * with the same key.
+     *
+     * @param key a {@link String}, as returned by {@link #keyOf(EngineParameters)}.
+     * @param s a {@link State} at the end of the pre-initial phase.
+     *        It is cloned before being stored.
+     */
+    public void putIfAbsent(String key, State s) {
+        synchronized (this) {
+            if (this.snapshots.containsKey(key)) {
+                return;
+            }
+        }
+        final State sClone = s.clone();
+        synchronized (this) {
+            this.snapshots.putIfAbsent(key, sClone);
+        }
+    }
+
+    /**
+     * Removes all the stored states.
+     */
+    public void clear() {
+        synchronized (this) {
+            this.snapshots.clear();
+        }
+    }
+
+    /**
+     * Calculates the key of the settings that may affect
+     * the pre-initial phase of symbolic execution. The key
+     * depends on the classpath (including the modification time
+     * and size of its entries), on the root method, and on the
+     * settings that affect class loading, the heap and the
+     * execution of the methods. The files under the directories
+     * in the classpath are not inspected, so a class file that
+     * is rewritten in place does not change the key: after 
+     * recompiling into a classpath directory the store must be
+     * {@link #clear() clear}ed.
+     *
+     * @param parameters the {@link EngineParameters}.
+     * @return a {@link String}, the key.
+     * @throws IOException if some classpath entry cannot be accessed.
+     */
+    public static String keyOf(EngineParameters parameters) throws IOException {
+        final StringBuilder buf = new StringBuilder();
+        final Classpath cp = parameters.getClasspath();
+        buf.append("jbselib=").append(cp.jbseLibPath()).append('\n');
+        buf.append("javahome=").append(cp.javaHome()).append('\n');
+        for (Path p : cp.classPath()) {
+            buf.append("cp=").append(p).append('\n');
+            appendFileStamps(buf, p);
+        }
+        buf.append("method=").append(parameters.getMethodSignature()).append('\n');
+        buf.append("bypass=").append(parameters.getBypassStandardLoading()).append('\n');
+        buf.append("maxSimpleArrayLength=").append(parameters.getMaxSimpleArrayLength()).append('\n');
+        buf.append("maxHeapSize=").append(parameters.getMaxHeapSize()).append('\n');
+        buf.append("makePreInitClassesSymbolic=").append(parameters.getMakePreInitClassesSymbolic()).append('\n');
+        buf.append("useHashMapModel=").append(parameters.getUseHashMapModel()).append('\n');
+        buf.append("calculator=").append(className(parameters.getCalculator())).append('\n');
+        buf.append("decisionProcedure=").append(className(parameters.getDecisionProcedure())).append('\n');
+        buf.append("expansionBackdoor=").append(new TreeMap<>(parameters.getExpansionBackdoor())).append('\n');
+        buf.append("modelClassSubstitutions=").append(new TreeMap<>(parameters.getModelClassSubstitutions())).append('\n');
+        buf.append("classInvariantAfterInitialization=").append(parameters.getClassInvariantAfterInitialization()).append('\n');
+        for (String[] rule : parameters.getMetaOverridden()) {
+            buf.append("metaOverridden=").append(String.join(":", rule)).append('\n');
+        }
+        for (String[] rule : parameters.getUninterpreted()) {
+            buf.append("uninterpreted=").append(String.join(":", rule)).append('\n');
+        }
+        for (String[] rule : parameters.getUninterpretedPattern()) {
+            buf.append("uninterpretedPattern=").append(String.join(":", rule)).append('\n');
+        }
+        try {
+            final MessageDigest md = MessageDigest.getInstance("SHA-256");
+            final byte[] digest = md.digest(buf.toString().getBytes(StandardCharsets.UTF_8));
+            final StringBuilder retVal = new StringBuilder();
+            for (byte b : digest) {
+                retVal.append(String.format("%02x", b));
+            }
+            return retVal.toString();
+        } catch (NoSuchAlgorithmException e) {
+            //this should never happen, SHA-256 is mandatory
+            throw new UnexpectedInternalException(e);
+        }
+    }
+
+    /**
+     * Appends the modification time and size of a classpath
+     * entry to a key. Directories are not walked, because 
+     * doing it at each build of an engine costs as much as
+     * the bootstrap the store avoids.
+     * 
+     * @param buf the {@link StringBuilder} where the key is built.
+     * @param p a {@link Path}, the classpath entry.
+     * @throws IOException if {@code p} cannot be accessed.
+     */
+    private static void appendFileStamps(StringBuilder buf, Path p) throws IOException {
+        if (Files.exists(p)) {
+            buf.append(Files.getLastModifiedTime(p).toMillis()).append(':').append(Files.size(p)).append('\n');
+        } else {
+            buf.append("missing\n");
+        }
+    }
+
+    private static String className(Object o) {
+        return (o == null ? null : o.getClass().getName());
+    }
+}
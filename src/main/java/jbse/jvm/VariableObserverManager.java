@@ -47,6 +47,9 @@ class VariableObserverManager {
     /** Cache for the {@link Value}s of the variables under observation (for backtrack). */
     private Map<BranchPoint, ArrayList<Value>> savedValues;
 
+    /** The {@link Value}s of the variables under observation in the initial state. */
+    private ArrayList<Value> valuesInitial = new ArrayList<>();
+
     /** Backlink to the {@link Engine}; will be initialized later. */
     private Engine engine;
 
@@ -86,6 +89,7 @@ class VariableObserverManager {
                 }
             }
             this.savedValues = new HashMap<>();
+            this.valuesInitial = new ArrayList<>(this.values);
         }
 
         //if some of the observed variables does not exist, throws 
@@ -116,6 +120,26 @@ class VariableObserverManager {
         }
     }
 
+    /**
+     * Saves the values the observed variables have in
+     * the initial state, for a backtrack to a copy 
+     * of the initial state.
+     * 
+     * @param bp the {@link BranchPoint} of the copy of the
+     *        initial state.
+     */
+    void saveInitialObservedVariablesValues(BranchPoint bp) {
+        if (hasObservers()) {
+            final ArrayList<Value> toSave = new ArrayList<>();
+            for (Value v : this.valuesInitial) { 
+                if (v != null) {
+                    toSave.add(v);
+                }
+            }
+            this.savedValues.put(bp, toSave);
+        }
+    }
+
     void saveObservedVariablesValues(BranchPoint bp) {
         if (hasObservers()) {
             final boolean mayBacktrack = (bp != null);
@@ -140,6 +164,19 @@ class VariableObserverManager {
         }
     }
 
+    /**
+     * Discards the values of the observed variables saved
+     * for a branch that will not be backtracked to, e.g., 
+     * because its states were evicted.
+     * 
+     * @param bp a {@link BranchPoint}.
+     */
+    void forgetObservedVariablesValues(BranchPoint bp) {
+        if (hasObservers() && this.savedValues != null) {
+            this.savedValues.remove(bp);
+        }
+    }
+
     /**
      * Tests whether there are some variables under observation.
      * 
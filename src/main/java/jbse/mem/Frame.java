@@ -32,6 +32,12 @@ public abstract class Frame implements Cloneable {
     
     /** The bytecode of the frame's method. */
     private byte[] bytecode; //not final to implement clone method (bytecode may be patched)
+    
+    /** 
+     * Whether {@link #bytecode} is shared with a clone, and 
+     * therefore must be copied before being patched. 
+     */
+    private boolean bytecodeShared;
 
     /** The program counter for the frame's method. */
     private int programCounter;
@@ -124,6 +130,10 @@ public abstract class Frame implements Cloneable {
      *        Note that the action is destructive.
      */
     public final void patchCode(byte bytecode) {
+        if (this.bytecodeShared) {
+            this.bytecode = this.bytecode.clone();
+            this.bytecodeShared = false;
+        }
         this.bytecode[this.programCounter] = bytecode;
     }
 
@@ -336,7 +346,9 @@ public abstract class Frame implements Cloneable {
         } catch (CloneNotSupportedException e) {
             throw new InternalError(e);
         }
-        o.bytecode = o.bytecode.clone();
+        //the bytecode is rarely patched, so it is copied on write
+        this.bytecodeShared = true;
+        o.bytecodeShared = true;
         return o;
     }
 }
\ No newline at end of file
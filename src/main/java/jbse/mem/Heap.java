@@ -1,21 +1,38 @@
 package jbse.mem;
 
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
-import java.util.TreeSet;
 
+import jbse.common.PersistentLongMap;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.mem.exc.HeapMemoryExhaustedException;
 
 /**
- * Class that implements the heap in the JVM's memory.
+ * Class that implements the heap in the JVM's memory. The objects 
+ * are stored in a persistent map, so lazy cloning is O(1) and lookup
+ * cost does not depend on the number of lazy clones the heap comes 
+ * from. The objects in the persistent map may be shared with other 
+ * heaps, and are wrapped (for copy-on-write) before being handed out.
  */
 final class Heap implements Cloneable {
     private final long maxHeapSize;
-	private Heap delegate; //nonfinal to allow cloning
+    
+    /** 
+     * The objects that may be shared with other heaps. They must
+     * not be modified, and must be wrapped before being handed out.
+     */
+    private PersistentLongMap<HeapObjektImpl> shared; //nonfinal to allow cloning
+    
+    /** 
+     * The objects owned by this heap, either {@link HeapObjektImpl}s 
+     * or {@link HeapObjektWrapper}s of objects in {@code shared}. 
+     */
     private TreeMap<Long, HeapObjekt> objects; //nonfinal to allow cloning
+    
+    private long size;
     private long nextIndex;
     
     /**
@@ -25,9 +42,10 @@ final class Heap implements Cloneable {
      *        of objects this heap can store.
      */
     Heap(long maxHeapSize) {
-    	this.delegate = null;
         this.maxHeapSize = maxHeapSize;
+        this.shared = PersistentLongMap.empty();
         this.objects = new TreeMap<>();
+        this.size = 0;
         this.nextIndex = Util.POS_ROOT;
     }
 
@@ -43,7 +61,7 @@ final class Heap implements Cloneable {
      *         cannot store any more object.
      */
     long addNew(HeapObjektImpl item) throws HeapMemoryExhaustedException {
-        if (this.objects.size() >= this.maxHeapSize) {
+        if (this.size >= this.maxHeapSize) {
             throw new HeapMemoryExhaustedException();
         }
         return addNewSurely(item);
@@ -59,7 +77,7 @@ final class Heap implements Cloneable {
      *         where {@code item} is stored.
      */
     long addNewSurely(HeapObjektImpl item) {
-        this.objects.put(this.nextIndex, item);
+        set(this.nextIndex, item);
         long retVal = this.nextIndex;
         while (existsAt(this.nextIndex)) {
             if (this.nextIndex == Long.MAX_VALUE) {
@@ -77,11 +95,7 @@ final class Heap implements Cloneable {
      * @return {@code true} iff there is an object at position {@code index}.
      */
     boolean existsAt(long index) {
-    	if (this.objects.containsKey(index)) {
-    		return (this.objects.get(index) != null);
-    	} else {
-    		return (this.delegate != null && this.delegate.existsAt(index));
-    	}
+        return (this.objects.containsKey(index) || this.shared.containsKey(index));
     }
 
     /**
@@ -92,6 +106,9 @@ final class Heap implements Cloneable {
      * @param item the {@link HeapObjekt} to stored at {@code pos}.
      */
     void set(long pos, HeapObjekt item) {
+        if (!existsAt(pos)) {
+            ++this.size;
+        }
         this.objects.put(pos, item);
     }
 
@@ -104,19 +121,17 @@ final class Heap implements Cloneable {
      *         {@code null} if nothing is stored at {@code pos}.
      */
     HeapObjekt getObject(long pos) {
-    	if (existsAt(pos)) {
-    		final HeapObjekt localObjekt = this.objects.get(pos);
-    		if (localObjekt == null) {
-    			final HeapObjektImpl trueObjekt = getTheRealThing(pos);
-    			final HeapObjektWrapper<?> delegateObjekt = trueObjekt.makeWrapper(this, pos);
-    			set(pos, delegateObjekt);
-    			return delegateObjekt;
-    		} else {
-    			return localObjekt;
-    		}
-    	} else {
-    		return null;
-    	}
+        final HeapObjekt localObjekt = this.objects.get(pos);
+        if (localObjekt != null) {
+            return localObjekt;
+        }
+        final HeapObjektImpl sharedObjekt = this.shared.get(pos);
+        if (sharedObjekt == null) {
+            return null;
+        }
+        final HeapObjektWrapper<?> delegateObjekt = sharedObjekt.makeWrapper(this, pos);
+        this.objects.put(pos, delegateObjekt);
+        return delegateObjekt;
     }
     
     /**
@@ -125,45 +140,55 @@ final class Heap implements Cloneable {
      * 
      * @param pos a {@code long}. It must be 
      * {@link #existsAt(long) existsObjectAt}{@code (pos) == true}.
-     * @return the {@link ObjektImpl} stored at {@code pos}, obtained
-     * by walking through the delegation chain until either an {@link ObjektImpl}
-     * or an {@link ObjektWrapper} is found (in the latter case, the wrapped
+     * @return the {@link ObjektImpl} stored at {@code pos}, either
+     * owned by this heap, or shared, or wrapped by an
+     * {@link ObjektWrapper} (in the latter case, the wrapped
      * object is returned).
      */
     private HeapObjektImpl getTheRealThing(long pos) {
-		final HeapObjekt localObjekt = this.objects.get(pos);
-		if (localObjekt == null) {
-			return this.delegate.getTheRealThing(pos);
-		} else if (localObjekt instanceof ObjektWrapper<?>) {
-			return ((HeapObjektWrapper<?>) localObjekt).getDelegate();
-		} else {
-			return (HeapObjektImpl) localObjekt;
-		}
+        final HeapObjekt localObjekt = this.objects.get(pos);
+        if (localObjekt == null) {
+            return this.shared.get(pos);
+        } else {
+            return getTheRealThing(localObjekt);
+        }
     }
     
-    private TreeSet<Long> filledPositions() {
-    	final TreeSet<Long> retVal = new TreeSet<>();
-    	for (long pos : this.objects.keySet()) {
-    		if (this.objects.get(pos) != null) {
-    			retVal.add(pos);
-    		}
-    	}
-    	if (this.delegate != null) {
-    		retVal.addAll(this.delegate.filledPositions());
-    	}
-    	return retVal;
+    private static HeapObjektImpl getTheRealThing(HeapObjekt objekt) {
+        if (objekt instanceof ObjektWrapper<?>) {
+            return ((HeapObjektWrapper<?>) objekt).getDelegate();
+        } else {
+            return (HeapObjektImpl) objekt;
+        }
     }
     
-    private void makeAllWrappers() {
-        for (long pos : filledPositions()) {
-            if (!this.objects.containsKey(pos)) {
-            	final HeapObjektImpl trueObjekt = getTheRealThing(pos);
-            	final HeapObjektWrapper<?> delegateObjekt = trueObjekt.makeWrapper(this, pos);
-            	this.objects.put(pos, delegateObjekt);
-            }
+    /**
+     * Returns the first position with an object
+     * that is not less than a given one. It does not 
+     * wrap any object.
+     * 
+     * @param from a nonnegative {@code long}.
+     * @return a {@code long}, the first position not less than
+     *         {@code from} with an object, or {@link Util#POS_UNKNOWN}
+     *         if there is no object after {@code from}.
+     */
+    long nextPosition(long from) {
+        final Long nextOwned = this.objects.ceilingKey(from);
+        final Iterator<Map.Entry<Long, HeapObjektImpl>> itShared = this.shared.iteratorFrom(from);
+        final long nextShared = (itShared.hasNext() ? itShared.next().getKey() : Util.POS_UNKNOWN);
+        if (nextOwned == null) {
+            return nextShared;
+        } else if (nextShared == Util.POS_UNKNOWN) {
+            return nextOwned;
+        } else {
+            return Math.min(nextOwned, nextShared);
         }
     }
 
+    private long nextPositionAfter(long pos) {
+        return (pos == Long.MAX_VALUE ? Util.POS_UNKNOWN : nextPosition(pos + 1));
+    }
+
     /**
      * Returns the objects in the heap as a {@link Map}.
      * 
@@ -173,8 +198,21 @@ final class Heap implements Cloneable {
      * at them.
      */
     SortedMap<Long, Objekt> getObjects() {
-    	makeAllWrappers();
-        return new TreeMap<>(this.objects);
+        return new TreeMap<>(getObjectsView());
+    }
+
+    /**
+     * Returns a view of the objects in the heap as a {@link Map}.
+     * 
+     * @return a read-only 
+     * {@link SortedMap}{@code <}{@link Long}{@code , }{@link Objekt}{@code >}
+     * mapping heap positions to the {@link Objekt}s stored 
+     * at them. It is a view backed by this heap, and the 
+     * objects are got from the heap only when they are 
+     * accessed.
+     */
+    SortedMap<Long, Objekt> getObjectsView() {
+        return new HeapView(this, 0L, Long.MAX_VALUE);
     }    
 
     /**
@@ -183,7 +221,7 @@ final class Heap implements Cloneable {
      * @return a positive {@code int}.
      */
     int getSize() {
-        return filledPositions().size();
+        return (int) this.size;
     }
     
     /**
@@ -195,15 +233,37 @@ final class Heap implements Cloneable {
      *        will.
      */
     void disposeExcept(Set<Long> exceptPos) {
-        for (long pos : filledPositions()) {
+        for (long pos = nextPosition(0L); pos != Util.POS_UNKNOWN; pos = nextPositionAfter(pos)) {
             if (exceptPos.contains(pos)) {
                 continue;
             }
-            this.objects.put(pos, null);
+            this.objects.remove(pos);
+            this.shared = this.shared.remove(pos);
+            --this.size;
         }
     }
+    
+    /**
+     * Moves all the objects owned by this heap to the 
+     * shared objects, so this heap can be snapshotted
+     * by just copying the reference to the shared objects.
+     * After this operation the objects previously 
+     * handed out by this heap must not be modified.
+     */
+    private void share() {
+        for (Map.Entry<Long, HeapObjekt> e : this.objects.entrySet()) {
+            final long pos = e.getKey();
+            final HeapObjektImpl trueObjekt = getTheRealThing(e.getValue());
+            if (this.shared.get(pos) != trueObjekt) {
+                this.shared = this.shared.put(pos, trueObjekt);
+            }
+        }
+        this.objects = new TreeMap<>();
+    }
 
     Heap lazyClone() {
+        share();
+        
         final Heap h;
         try {
             h = (Heap) super.clone();
@@ -211,7 +271,6 @@ final class Heap implements Cloneable {
             throw new InternalError(e);
         }
 
-        h.delegate = this;
         h.objects = new TreeMap<>();
         
         return h;
@@ -222,7 +281,7 @@ final class Heap implements Cloneable {
         final StringBuilder buf = new StringBuilder();
         buf.append("[");
         boolean isFirst = true;
-        for (long pos : filledPositions()) {
+        for (long pos = nextPosition(0L); pos != Util.POS_UNKNOWN; pos = nextPositionAfter(pos)) {
             if (isFirst) {
                 isFirst = false;
             } else {
@@ -245,13 +304,13 @@ final class Heap implements Cloneable {
             throw new InternalError(e);
         }
 
-        h.delegate = null;
+        h.shared = PersistentLongMap.empty();
         final TreeMap<Long, HeapObjekt> objectsClone = new TreeMap<>();
-        for (long pos : filledPositions()) {
+        for (long pos = nextPosition(0L); pos != Util.POS_UNKNOWN; pos = nextPositionAfter(pos)) {
             objectsClone.put(pos, getTheRealThing(pos).clone());
         }
         h.objects = objectsClone;
         
         return h;
     }
-}
\ No newline at end of file
+}
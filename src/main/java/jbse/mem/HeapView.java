@@ -0,0 +1,219 @@
+package jbse.mem;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * A read-only, non-copying view of (a range of positions of)
+ * a {@link Heap} as a {@link SortedMap}. The view is backed by
+ * the heap, so it reflects its changes, and it lazily gets
+ * the objects from it: iterating over the positions, or looking
+ * up an object, does not wrap the other objects shared
+ * with other heaps.
+ *
+ * @author Pietro Braione
+ */
+final class HeapView extends AbstractMap<Long, Objekt> implements SortedMap<Long, Objekt> {
+    private final Heap heap;
+
+    /** The lowest position in the view (inclusive). */
+    private final long from;
+
+    /** The highest position in the view (exclusive). */
+    private final long to;
+
+    /**
+     * Constructor.
+     *
+     * @param heap the {@link Heap} to view.
+     * @param from a {@code long}, the lowest position in the view (inclusive).
+     * @param to a {@code long}, the highest position in the view (exclusive).
+     */
+    HeapView(Heap heap, long from, long to) {
+        this.heap = heap;
+        this.from = Math.max(from, 0L);
+        this.to = to;
+    }
+
+    private boolean inRange(long pos) {
+        return pos >= this.from && pos < this.to;
+    }
+
+    /**
+     * Returns the first position in the view
+     * that is not less than a given one.
+     *
+     * @param pos a {@code long}.
+     * @return a {@code long}, the position of the first
+     *         object not before {@code pos}, or {@link Util#POS_UNKNOWN}
+     *         if there is no such object in the view.
+     */
+    private long nextPosition(long pos) {
+        final long retVal = this.heap.nextPosition(Math.max(pos, this.from));
+        return (retVal != Util.POS_UNKNOWN && retVal < this.to ? retVal : Util.POS_UNKNOWN);
+    }
+
+    private long nextPositionAfter(long pos) {
+        return (pos == Long.MAX_VALUE ? Util.POS_UNKNOWN : nextPosition(pos + 1));
+    }
+
+    @Override
+    public Objekt get(Object key) {
+        if (!(key instanceof Long) || !inRange((Long) key)) {
+            return null;
+        }
+        return this.heap.getObject((Long) key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return (key instanceof Long) && inRange((Long) key) && this.heap.existsAt((Long) key);
+    }
+
+    @Override
+    public int size() {
+        if (this.from == 0L && this.to == Long.MAX_VALUE) {
+            return this.heap.getSize();
+        }
+        int retVal = 0;
+        for (long pos = nextPosition(this.from); pos != Util.POS_UNKNOWN; pos = nextPositionAfter(pos)) {
+            ++retVal;
+        }
+        return retVal;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return nextPosition(this.from) == Util.POS_UNKNOWN;
+    }
+
+    @Override
+    public Set<Map.Entry<Long, Objekt>> entrySet() {
+        return new AbstractSet<Map.Entry<Long, Objekt>>() {
+            @Override
+            public Iterator<Map.Entry<Long, Objekt>> iterator() {
+                return new Iterator<Map.Entry<Long, Objekt>>() {
+                    private long next = nextPosition(HeapView.this.from);
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.next != Util.POS_UNKNOWN;
+                    }
+
+                    @Override
+                    public Map.Entry<Long, Objekt> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final long pos = this.next;
+                        this.next = nextPositionAfter(pos);
+                        return new LazyEntry(pos);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return HeapView.this.size();
+            }
+        };
+    }
+
+    /**
+     * An entry whose object is got from the heap
+     * only when it is requested.
+     *
+     * @author Pietro Braione
+     */
+    private final class LazyEntry implements Map.Entry<Long, Objekt> {
+        private final long pos;
+
+        LazyEntry(long pos) {
+            this.pos = pos;
+        }
+
+        @Override
+        public Long getKey() {
+            return this.pos;
+        }
+
+        @Override
+        public Objekt getValue() {
+            return HeapView.this.heap.getObject(this.pos);
+        }
+
+        @Override
+        public Objekt setValue(Objekt value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return getKey().equals(e.getKey()) && getValue().equals(e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ getValue().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return this.pos + "=" + getValue();
+        }
+    }
+
+    @Override
+    public Comparator<? super Long> comparator() {
+        return null; //natural ordering
+    }
+
+    @Override
+    public SortedMap<Long, Objekt> subMap(Long fromKey, Long toKey) {
+        if (fromKey > toKey) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        return new HeapView(this.heap, Math.max(this.from, fromKey), Math.min(this.to, toKey));
+    }
+
+    @Override
+    public SortedMap<Long, Objekt> headMap(Long toKey) {
+        return new HeapView(this.heap, this.from, Math.min(this.to, toKey));
+    }
+
+    @Override
+    public SortedMap<Long, Objekt> tailMap(Long fromKey) {
+        return new HeapView(this.heap, Math.max(this.from, fromKey), this.to);
+    }
+
+    @Override
+    public Long firstKey() {
+        final long retVal = nextPosition(this.from);
+        if (retVal == Util.POS_UNKNOWN) {
+            throw new NoSuchElementException();
+        }
+        return retVal;
+    }
+
+    @Override
+    public Long lastKey() {
+        long retVal = Util.POS_UNKNOWN;
+        for (long pos = nextPosition(this.from); pos != Util.POS_UNKNOWN; pos = nextPositionAfter(pos)) {
+            retVal = pos;
+        }
+        if (retVal == Util.POS_UNKNOWN) {
+            throw new NoSuchElementException();
+        }
+        return retVal;
+    }
+}
@@ -1,6 +1,7 @@
 package jbse.mem;
 
-import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 
@@ -12,15 +13,49 @@ import jbse.val.Value;
  */
 //TODO manage stack maps and possibly raise unexpected internal error
 final class OperandStack implements Cloneable {
-    /** Not final because of clone(). */
-    private ArrayDeque<Value> valueStack;
+    /** The initial capacity of {@link #valueStack}. */
+    private static final int INITIAL_CAPACITY = 8;
+    
+    /** 
+     * The values in the operand stack, from the bottom 
+     * (at position 0) to the top (at position {@link #size}{@code  - 1}).
+     * Not final because of clone(). 
+     */
+    private Value[] valueStack;
+    
+    /** The number of values in the operand stack. */
+    private int size;
+    
+    /** 
+     * Whether {@link #valueStack} is shared with a clone, and
+     * therefore must be copied before being written.
+     */
+    private boolean shared;
     
     /**
      * Constructor of empty operand stack.
      * 
      */
     OperandStack() {
-        this.valueStack = new ArrayDeque<Value>();
+        this.valueStack = new Value[INITIAL_CAPACITY];
+        this.size = 0;
+        this.shared = false;
+    }
+    
+    /**
+     * Makes {@link #valueStack} writable and with room
+     * for at least {@code capacity} values.
+     * 
+     * @param capacity an {@code int}.
+     */
+    private void ensureWritable(int capacity) {
+        if (this.shared || capacity > this.valueStack.length) {
+            final int newLength = (capacity > this.valueStack.length ? Math.max(capacity, 2 * this.valueStack.length) : this.valueStack.length);
+            final Value[] newValueStack = new Value[newLength];
+            System.arraycopy(this.valueStack, 0, newValueStack, 0, this.size);
+            this.valueStack = newValueStack;
+            this.shared = false;
+        }
     }
     
     /**
@@ -29,7 +64,11 @@ final class OperandStack implements Cloneable {
      *             of the operand stack.
      */
     void push(Value item) {
-        this.valueStack.push(item);
+        if (item == null) {
+            throw new NullPointerException(); //same as ArrayDeque
+        }
+        ensureWritable(this.size + 1);
+        this.valueStack[this.size++] = item;
     }
     
     /**
@@ -39,10 +78,12 @@ final class OperandStack implements Cloneable {
      * @throws InvalidNumberOfOperandsException if the operand stack is empty.
      */
     Value pop() throws InvalidNumberOfOperandsException {
-    	if (this.valueStack.isEmpty()) {
+    	if (this.size == 0) {
     		throw new InvalidNumberOfOperandsException();
     	}
-    	return this.valueStack.pop();
+    	final Value retVal = this.valueStack[this.size - 1];
+    	pop(1);
+    	return retVal;
     }
 
     /**
@@ -54,11 +95,16 @@ final class OperandStack implements Cloneable {
      *         if {@code num} is negative.
      */
     void pop(int num) throws InvalidNumberOfOperandsException {
-        if (num < 0 || this.valueStack.size() < num) {
+        if (num < 0 || this.size < num) {
             throw new InvalidNumberOfOperandsException();
         }
+        if (this.shared) {
+            //no need to copy, just forget the popped values
+            this.size -= num;
+            return;
+        }
         for (int i = 1; i <= num; ++i) {
-            this.valueStack.pop();
+            this.valueStack[--this.size] = null;
         }
     }
     
@@ -69,10 +115,10 @@ final class OperandStack implements Cloneable {
      * @throws InvalidNumberOfOperandsException if the operand stack is empty.
      */
     Value top() throws InvalidNumberOfOperandsException {
-    	if (this.valueStack.isEmpty()) {
+    	if (this.size == 0) {
     		throw new InvalidNumberOfOperandsException();
     	}
-        return(this.valueStack.peek());
+        return this.valueStack[this.size - 1];
     }
 
     /**
@@ -88,27 +134,35 @@ final class OperandStack implements Cloneable {
      *         or if {@code num} is negative. 
      */
     Value[] operands(int num) throws InvalidNumberOfOperandsException {
-        if (num < 0 || this.valueStack.size() < num) {
+        if (num < 0 || this.size < num) {
             throw new InvalidNumberOfOperandsException();
         }
-        final Value[] retVal = new Value[num];
-        int i = num - 1;
-        for (Value v : this.valueStack) {
-            if (i < 0) {
-                break;
-            }
-            retVal[i] = v;
-            --i;
-        }
-        return retVal;
+        return Arrays.copyOfRange(this.valueStack, this.size - num, this.size);
     }
     
     void clear() {
-    	this.valueStack.clear();
+        if (this.shared) {
+            this.valueStack = new Value[INITIAL_CAPACITY];
+            this.shared = false;
+        } else {
+            Arrays.fill(this.valueStack, 0, this.size, null);
+        }
+        this.size = 0;
     }
     
+    /**
+     * Returns the values in the operand stack.
+     * 
+     * @return an unmodifiable {@link Collection}{@code <}{@link Value}{@code >}
+     *         of the values in the operand stack, from the topmost 
+     *         to the bottommost.
+     */
     Collection<Value> values() {
-    	return Collections.unmodifiableCollection(this.valueStack);
+        final ArrayList<Value> retVal = new ArrayList<>(this.size);
+        for (int i = this.size - 1; i >= 0; --i) {
+            retVal.add(this.valueStack[i]);
+        }
+    	return Collections.unmodifiableCollection(retVal);
     }
     
     /**
@@ -117,14 +171,11 @@ final class OperandStack implements Cloneable {
     public String toString() {
         final StringBuilder buf = new StringBuilder();
         buf.append("{");
-        boolean isFirst = true;
-        for (Value v : this.valueStack) {
-            if (isFirst) {
-                isFirst = false;
-            } else {
+        for (int i = this.size - 1; i >= 0; --i) {
+            buf.append(this.valueStack[i].toString());
+            if (i > 0) {
                 buf.append(", ");
             }
-            buf.append(v.toString());
         }
         buf.append("}");
         return buf.toString();
@@ -137,10 +188,11 @@ final class OperandStack implements Cloneable {
             o = (OperandStack) super.clone();
         } catch (CloneNotSupportedException e) {
             throw new InternalError(e);
-        }        
-        o.valueStack = new ArrayDeque<Value>(this.valueStack);
+        }
+        //the values are copied on write, so cloning 
+        //a frame that is not modified afterwards is cheap
+        this.shared = true;
+        o.shared = true;
         return o;
     }
 }
-
-
@@ -1,13 +1,14 @@
 package jbse.mem;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import jbse.bc.ClassFile;
+import jbse.common.PersistentHashMap;
+import jbse.common.PersistentLongMap;
 import jbse.common.exc.InvalidInputException;
 import jbse.mem.exc.ContradictionException;
 import jbse.val.Expression;
@@ -19,30 +20,46 @@ import jbse.val.Simplex;
  * A path condition. It retains all the clauses gathered at the 
  * different branch points traversed during execution as a 
  * suitable {@link Collection}{@code <}{@link Clause}{@code >}. 
+ * All its data structures are persistent, so a clone shares them
+ * with the original path condition and cloning costs O(1), and 
+ * the path conditions of sibling states share their common prefix
+ * of clauses.
  */
 final class PathCondition implements Cloneable {
-    /** {@link ArrayList} of all the {@link Clause}s forming the path condition. */
-    private ArrayList<Clause> clauses;
+    /** 
+     * All the {@link Clause}s forming the path condition, 
+     * by their position in the path condition.
+     */
+    private PersistentLongMap<Clause> clauses;
 
     /** 
      * Maps symbolic references to their respective heap positions.
      * It is just a cache of information already contained in {@code clauses}.
      */
-    private HashMap<ReferenceSymbolic, Long> referenceResolutionMap;
+    private PersistentHashMap<ReferenceSymbolic, Long> referenceResolutionMap;
 
     /**
      * Maps each class with the number of assumed objects in it. 
      * It is just a cache of information already contained in {@code clauses}.
      */
-    private HashMap<String, Integer> objectCounters;
+    private PersistentHashMap<String, Integer> objectCounters;
 
     /**
      * Constructor.
      */
     PathCondition() {
-        this.clauses = new ArrayList<>();
-        this.referenceResolutionMap = new HashMap<>();
-        this.objectCounters = new HashMap<>();
+        this.clauses = PersistentLongMap.empty();
+        this.referenceResolutionMap = PersistentHashMap.empty();
+        this.objectCounters = PersistentHashMap.empty();
+    }
+    
+    /**
+     * Appends a clause to the path condition.
+     * 
+     * @param clause a {@link Clause}.
+     */
+    private void add(Clause clause) {
+        this.clauses = this.clauses.put(this.clauses.size(), clause);
     }
 
     /**
@@ -65,7 +82,7 @@ final class PathCondition implements Cloneable {
     	if (condition.surelyFalse()) {
     		throw new ContradictionException("Attempted to invoke " + getClass().getName() + ".addClauseAssume with a surely false condition.");
     	}
-        this.clauses.add(clause);
+        add(clause);
     }
 
     /**
@@ -95,15 +112,12 @@ final class PathCondition implements Cloneable {
         		throw new ContradictionException("Attempted to invoke " + getClass().getName() + ".addClauseAssumeExpands with an referenceSymbolic resolved to a heap position different to " + heapPosition + ".");
         	}
         }
-        this.clauses.add(clause);
-        this.referenceResolutionMap.put(referenceSymbolic, heapPosition);
+        add(clause);
+        this.referenceResolutionMap = this.referenceResolutionMap.put(referenceSymbolic, heapPosition);
 
         //increments objectCounters
-        if (!this.objectCounters.containsKey(object.getType().getClassName())) {
-            this.objectCounters.put(object.getType().getClassName(), 0);
-        }
-        final int nobjects = this.objectCounters.get(object.getType().getClassName());
-        this.objectCounters.put(object.getType().getClassName(), nobjects + 1);
+        final int nobjects = getNumAssumed(object.getType().getClassName());
+        this.objectCounters = this.objectCounters.put(object.getType().getClassName(), nobjects + 1);
     }
 
     /**
@@ -133,8 +147,8 @@ final class PathCondition implements Cloneable {
         		throw new ContradictionException("Attempted to invoke " + getClass().getName() + ".addClauseAssumeAliases with an referenceSymbolic resolved to a heap position different to " + heapPosition + ".");
         	}
         }
-        this.clauses.add(clause);
-        this.referenceResolutionMap.put(referenceSymbolic, heapPosition);
+        add(clause);
+        this.referenceResolutionMap = this.referenceResolutionMap.put(referenceSymbolic, heapPosition);
     }
 
     /**
@@ -156,8 +170,8 @@ final class PathCondition implements Cloneable {
         		throw new ContradictionException("Attempted to invoke " + getClass().getName() + ".addClauseAssumeNull with a referenceSymbolic that is already resolved but not to null.");
         	}
         }
-        this.clauses.add(clause);
-        this.referenceResolutionMap.put(referenceSymbolic, Util.POS_NULL);
+        add(clause);
+        this.referenceResolutionMap = this.referenceResolutionMap.put(referenceSymbolic, Util.POS_NULL);
     }
 
     /**
@@ -171,7 +185,7 @@ final class PathCondition implements Cloneable {
      * @throws InvalidInputException if {@code classFile == null || klass == null}.
      */
     void addClauseAssumeClassInitialized(ClassFile classFile, Klass klass) throws InvalidInputException {
-        this.clauses.add(new ClauseAssumeClassInitialized(classFile, klass));
+        add(new ClauseAssumeClassInitialized(classFile, klass));
     }
 
     /**
@@ -181,7 +195,7 @@ final class PathCondition implements Cloneable {
      * @param classFile a {@link ClassFile}.
      */
     void addClauseAssumeClassNotInitialized(ClassFile classFile) {
-        this.clauses.add(new ClauseAssumeClassNotInitialized(classFile));
+        add(new ClauseAssumeClassNotInitialized(classFile));
     }
 
     /**
@@ -221,13 +235,13 @@ final class PathCondition implements Cloneable {
      *         {@code pathCondition} returns {@code null}.
      */
     Iterator<Clause> refines(PathCondition pathCondition) {
-        final Iterator<Clause> i = this.clauses.iterator();
-        for (Clause c : pathCondition.clauses) {
+        final Iterator<Clause> i = getClauses().iterator();
+        for (Clause c : pathCondition.getClauses()) {
             if (!i.hasNext()) {
                 return null;
             }
             final Clause cc = i.next();
-            if (!cc.equals(c)) {
+            if (cc != c && !cc.equals(c)) {
                 return null;
             }
         }
@@ -242,10 +256,8 @@ final class PathCondition implements Cloneable {
      * assumed by this path condition.
      */
     int getNumAssumed(String className) {
-        if (this.objectCounters.containsKey(className)) {
-            return this.objectCounters.get(className);
-        }
-        return 0;
+        final Integer retVal = this.objectCounters.get(className);
+        return (retVal == null ? 0 : retVal.intValue());
     }
 
     /**
@@ -253,17 +265,61 @@ final class PathCondition implements Cloneable {
      *  
      * @return a read-only {@link List}{@code <}{@link Clause}{@code >} 
      * representing all the {@link Clause}s cumulated in {@code this}. 
-     * It is valid until {@code this} is modified.
+     * It is a snapshot, and thus it is not affected by subsequent 
+     * modifications of {@code this}.
      */
     List<Clause> getClauses() {
-        return Collections.unmodifiableList(this.clauses);
+        return new ClauseList(this.clauses);
+    }
+    
+    /**
+     * A read-only {@link List} view of a {@link PersistentLongMap} 
+     * from the positions of the clauses to the clauses.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class ClauseList extends AbstractList<Clause> {
+        private final PersistentLongMap<Clause> clauses;
+        
+        ClauseList(PersistentLongMap<Clause> clauses) {
+            this.clauses = clauses;
+        }
+        
+        @Override
+        public Clause get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return this.clauses.get(index);
+        }
+        
+        @Override
+        public int size() {
+            return (int) this.clauses.size();
+        }
+        
+        @Override
+        public Iterator<Clause> iterator() {
+            final Iterator<Map.Entry<Long, Clause>> it = this.clauses.iterator();
+            return new Iterator<Clause>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Clause next() {
+                    return it.next().getValue();
+                }
+            };
+        }
     }
     
     @Override
     public String toString() {
         final StringBuilder buf = new StringBuilder();
         boolean isFirst = true;
-        for (Clause c : this.clauses) {
+        for (Clause c : getClauses()) {
             if (isFirst) {
                 isFirst = false;
             } else {
@@ -289,11 +345,7 @@ final class PathCondition implements Cloneable {
             throw new InternalError(e);
         }
 
-        //does a deep copy
-        o.clauses = new ArrayList<>(this.clauses);
-        o.referenceResolutionMap = new HashMap<>(this.referenceResolutionMap);
-        o.objectCounters = new HashMap<>(this.objectCounters);
-
+        //no need to copy anything, all the fields are persistent
         return o;
     }
 }
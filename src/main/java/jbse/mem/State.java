@@ -2717,6 +2717,15 @@ public final class State implements Cloneable {
         return this.stack.frames().size();
     }
 
+    /**
+     * Returns the number of objects in the heap.
+     * 
+     * @return an {@code int}, the number of objects.
+     */
+    public int getHeapSize() {
+        return this.heap.getSize();
+    }
+
     /**
      * Returns a copy of the state's heap.
      * 
@@ -2734,6 +2743,29 @@ public final class State implements Cloneable {
         return this.heap.getObjects();
     }
 
+    /**
+     * Returns a view of the state's heap. Differently from 
+     * {@link #getHeap()} it does not copy the heap, and 
+     * it gets the objects from the heap only when they 
+     * are accessed, so it is cheaper when only a few 
+     * objects are looked up, or when the heap is only 
+     * iterated.
+     * 
+     * @return a read-only view of the state's heap as a 
+     * {@link SortedMap}{@code <}{@link Long}{@code , }{@link Objekt}{@code >}
+     * mapping heap positions to the {@link Objekt}s stored 
+     * at them. The view reflects the subsequent changes 
+     * to the heap, thus it must not be used after the 
+     * state is modified.
+     * @throws FrozenStateException if the state is frozen.
+     */
+    public SortedMap<Long, Objekt> getHeapView() throws FrozenStateException {
+    	if (this.frozen) {
+    		throw new FrozenStateException();
+    	}
+        return this.heap.getObjectsView();
+    }
+
     /**
      * Returns all the symbolic objects of this state according
      * to its path condition.
@@ -2781,7 +2813,7 @@ public final class State implements Cloneable {
                         if (!hasNext()) {
                             throw new NoSuchElementException();
                         }
-                        final Objekt retVal = State.this.heap.getObjects().get(this.next.getHeapPosition());
+                        final Objekt retVal = State.this.heap.getObject(this.next.getHeapPosition());
                         moveForward();
                         return retVal;
                     }
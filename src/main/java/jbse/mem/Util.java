@@ -4,6 +4,7 @@ import static jbse.common.Type.isPrimitive;
 import static jbse.common.Type.isReference;
 
 import java.util.List;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -192,17 +193,37 @@ public class Util {
 		isResolvedSymbolicReference(l, v);
 	}
 	
+	/**
+	 * Checks whether a {@link Value} is resolved. 
+	 * 
+	 * @param resolvedReferences a {@link Set}{@code <}{@link ReferenceSymbolic}{@code >}, 
+	 *        the symbolic references that are resolved. It must not be {@code null}.
+	 * @param v a {@link Value}. It must not be {@code null}.
+	 * @return {@code true} iff {@code v} is resolved, i.e., 
+	 * either is a {@link Primitive} (symbolic or not), or a 
+	 * concrete {@link Reference}, or a symbolic 
+	 * {@link Reference} in {@code resolvedReferences}.
+	 */
+	public static boolean isResolved(Set<ReferenceSymbolic> resolvedReferences, Value v) {
+		return
+		isPrimitive(v.getType()) ||
+		v instanceof ReferenceConcrete ||
+        v instanceof ReferenceArrayImmaterial ||
+        v instanceof KlassPseudoReference ||
+		(isSymbolicReference(v) && resolvedReferences.contains(v));
+	}
+	
     /**
      * Iterates an action on all the initial objects
      * stored in the expansion clauses in this path
      * condition.
      * 
-     * @param clauses a {@link List}{@code <}{@link Clause}{@code >}. 
+     * @param clauses a {@link List}{@code <? extends }{@link Clause}{@code >}. 
      * @param action a {@link Consumer}{@code <}{@link HeapObjekt}{@code >}
      *        that is invoked for each initial object. It receives in input
      *        the object and its heap position.
      */
-    public static void forAllInitialObjects(List<Clause> clauses, BiConsumer<HeapObjekt, Long> action) {
+    public static void forAllInitialObjects(List<? extends Clause> clauses, BiConsumer<HeapObjekt, Long> action) {
         for (Clause c : clauses) {
             if (c instanceof ClauseAssumeExpands) {
                 final ClauseAssumeExpands cExpands = (ClauseAssumeExpands) c;
@@ -3,11 +3,16 @@ package jbse.rewr;
 import static jbse.val.Rewriter.applyRewriters;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import jbse.common.exc.UnexpectedInternalException;
+import jbse.val.Any;
 import jbse.val.Calculator;
 import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolicAtomic;
 import jbse.val.Rewriter;
+import jbse.val.Term;
 import jbse.val.exc.NoResultException;
 
 /**
@@ -16,7 +21,52 @@ import jbse.val.exc.NoResultException;
  * @author Pietro Braione
  */
 public class CalculatorRewriting extends Calculator {
+    /** The maximum number of memoized simplifications. */
+    private static final int SIMPLIFY_CACHE_SIZE = 10_000;
+    
+    /**
+     * Wraps a {@link Primitive} so that it is compared by identity. 
+     * Since all the inputs to simplification are interned first, 
+     * identity is as good as equality for hits, and it does not 
+     * confuse equal values with different atomic symbols. 
+     * 
+     * @author Pietro Braione
+     */
+    private static final class SimplifyKey {
+        private final Primitive p;
+        
+        SimplifyKey(Primitive p) {
+            this.p = p;
+        }
+        
+        @Override
+        public int hashCode() {
+            return this.p.hashCode();
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            return (obj instanceof SimplifyKey) && ((SimplifyKey) obj).p == this.p;
+        }
+    }
+
     private final ArrayList<RewriterCalculatorRewriting> rewriters = new ArrayList<>();
+    
+    /** Memoizes the results of {@link #simplify(Primitive)}, in least-recently-used order. */
+    private final LinkedHashMap<SimplifyKey, Primitive> simplifyCache = new LinkedHashMap<SimplifyKey, Primitive>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SimplifyKey, Primitive> eldest) {
+            return size() > SIMPLIFY_CACHE_SIZE;
+        }
+    };
+    
+    /** The number of simplifications answered by the cache. */
+    private long simplifyHits = 0L;
+    
+    /** The number of simplifications not found in the cache. */
+    private long simplifyMisses = 0L;
 
     /**
      * Constructor.
@@ -31,6 +81,7 @@ public class CalculatorRewriting extends Calculator {
      * @param calc another CalculatorRewriting.
      */
     public CalculatorRewriting(CalculatorRewriting calc) {
+    	super(calc);
     	for (RewriterCalculatorRewriting rewriter : calc.rewriters) {
     		final RewriterCalculatorRewriting rewriterNew = rewriter.clone();
     		rewriterNew.calc = this;
@@ -46,12 +97,52 @@ public class CalculatorRewriting extends Calculator {
     public void addRewriter(RewriterCalculatorRewriting rewriter) {
     	rewriter.calc = this;
         this.rewriters.add(rewriter);
+        this.simplifyCache.clear();
+    }
+    
+    /**
+     * Returns the number of simplifications that were
+     * answered by the memoization cache.
+     * 
+     * @return a {@code long}.
+     */
+    public long getSimplifyHits() {
+        return this.simplifyHits;
+    }
+    
+    /**
+     * Returns the number of simplifications that were
+     * not found in the memoization cache.
+     * 
+     * @return a {@code long}.
+     */
+    public long getSimplifyMisses() {
+        return this.simplifyMisses;
     }
 
+    /**
+     * {@inheritDoc}
+     * The results are memoized, so simplifying again a
+     * {@link Primitive} that was recently simplified 
+     * does not apply the rewriters again.
+     */
     @Override
     public Primitive simplify(Primitive p) {
     	try {
-    		final Primitive retVal = applyRewriters(p, this.rewriters);
+    		final Primitive pInterned = intern(p);
+    		if (pInterned instanceof PrimitiveSymbolicAtomic || pInterned instanceof Term || pInterned instanceof Any) {
+    			//cheap, and not interned: not worth caching
+    			return applyRewriters(pInterned, this.rewriters);
+    		}
+    		final SimplifyKey key = new SimplifyKey(pInterned);
+    		final Primitive cached = this.simplifyCache.get(key);
+    		if (cached != null) {
+    			++this.simplifyHits;
+    			return cached;
+    		}
+    		++this.simplifyMisses;
+    		final Primitive retVal = applyRewriters(pInterned, this.rewriters);
+    		this.simplifyCache.put(key, retVal);
     		return retVal;
     	} catch (NoResultException e) {
     		//this should not happen
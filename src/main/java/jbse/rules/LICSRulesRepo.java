@@ -6,12 +6,14 @@ import static jbse.bc.Signatures.JAVA_LINKEDHASHMAP;
 import static jbse.bc.Signatures.JAVA_OBJECT;
 import static jbse.common.Type.ARRAYOF;
 import static jbse.common.Type.CHAR;
+import static jbse.rules.RuleMatcher.matchingRules;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jbse.common.Type;
 import jbse.val.ReferenceSymbolic;
@@ -22,6 +24,13 @@ public final class LICSRulesRepo implements Cloneable {
     private HashMap<String, Set<LICSRuleAliases>> rulesNeverAliases = new HashMap<>();
 	private HashMap<String, Set<LICSRuleNotNull>> rulesNotNull = new HashMap<>();
 	
+	//the rules compiled into matchers, lazily by class; 
+	//an entry is dropped whenever a rule is added to its class
+	private ConcurrentHashMap<String, RuleMatcher<LICSRuleExpandsTo>> compiledExpandsTo = new ConcurrentHashMap<>();
+	private ConcurrentHashMap<String, RuleMatcher<LICSRuleAliases>> compiledAliases = new ConcurrentHashMap<>();
+	private ConcurrentHashMap<String, RuleMatcher<LICSRuleAliases>> compiledNeverAliases = new ConcurrentHashMap<>();
+	private ConcurrentHashMap<String, RuleMatcher<LICSRuleNotNull>> compiledNotNull = new ConcurrentHashMap<>();
+	
 	public LICSRulesRepo() {
 		//adds some default rules
 		//java.lang.String
@@ -70,6 +79,7 @@ public final class LICSRulesRepo implements Cloneable {
 			this.rulesExpandsTo.put(toExpand, c);
 		}
 		c.add(new LICSRuleExpandsTo(originExp, classAllowed));
+		this.compiledExpandsTo.remove(toExpand);
 		//TODO detect overlap of expand-to-nothing with expand-to-something rules and throw exception  
 	}
 
@@ -110,6 +120,7 @@ public final class LICSRulesRepo implements Cloneable {
 			this.rulesAliases.put(toResolve, c);
 		}
 		c.add(new LICSRuleAliasesTarget(originExp, pathAllowedExp));
+		this.compiledAliases.remove(toResolve);
 	}
 
     /**
@@ -143,6 +154,7 @@ public final class LICSRulesRepo implements Cloneable {
 			this.rulesAliases.put(toResolve, c);
 		}
 		c.add(new LICSRuleAliasesInstanceof(originExp, classAllowed));
+		this.compiledAliases.remove(toResolve);
 	}
 
     /**
@@ -179,6 +191,7 @@ public final class LICSRulesRepo implements Cloneable {
             this.rulesNeverAliases.put(toResolve, c);
         }
         c.add(new LICSRuleAliasesTarget(originExp, pathDisallowedExp));
+        this.compiledNeverAliases.remove(toResolve);
     }
 
     /**
@@ -201,6 +214,7 @@ public final class LICSRulesRepo implements Cloneable {
 			this.rulesNotNull.put(toResolve, c);
 		}
 		c.add(new LICSRuleNotNull(originExp));
+		this.compiledNotNull.remove(toResolve);
 	}
 
 	/**
@@ -214,16 +228,7 @@ public final class LICSRulesRepo implements Cloneable {
 	public ArrayList<LICSRuleExpandsTo> matchingLICSRulesExpandsTo(ReferenceSymbolic ref) {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
-		final ArrayList<LICSRuleExpandsTo> retVal = new ArrayList<LICSRuleExpandsTo>();
-		final Set<LICSRuleExpandsTo> rulesSet = this.rulesExpandsTo.get(refClass);
-		if (rulesSet != null) {
-			for (LICSRuleExpandsTo rule : rulesSet) {
-				if (rule.matches(ref)) {
-					retVal.add(rule);
-				}
-			}
-		}
-		return retVal;
+		return new ArrayList<>(matchingRules(this.rulesExpandsTo, this.compiledExpandsTo, refClass, ref));
 	}
 
 	/**
@@ -238,12 +243,9 @@ public final class LICSRulesRepo implements Cloneable {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
 		final ArrayList<LICSRuleAliases> retVal = new ArrayList<LICSRuleAliases>();
-		final Set<LICSRuleAliases> rulesSet = this.rulesAliases.get(refClass);
-		if (rulesSet != null) {
-			for (LICSRuleAliases rule : rulesSet) {
-				if (rule.matches(ref) && !rule.requiresMax()) {
-					retVal.add(rule);
-				}
+		for (LICSRuleAliases rule : matchingRules(this.rulesAliases, this.compiledAliases, refClass, ref)) {
+			if (!rule.requiresMax()) {
+				retVal.add(rule);
 			}
 		}
 		return retVal;
@@ -261,12 +263,9 @@ public final class LICSRulesRepo implements Cloneable {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
 		final ArrayList<LICSRuleAliases> retVal = new ArrayList<LICSRuleAliases>();
-		final Set<LICSRuleAliases> rulesSet = this.rulesAliases.get(refClass);
-		if (rulesSet != null) {
-			for (LICSRuleAliases rule : rulesSet) {
-				if (rule.matches(ref) && rule.requiresMax()) {
-					retVal.add(rule);
-				}
+		for (LICSRuleAliases rule : matchingRules(this.rulesAliases, this.compiledAliases, refClass, ref)) {
+			if (rule.requiresMax()) {
+				retVal.add(rule);
 			}
 		}
 		return retVal;
@@ -284,16 +283,7 @@ public final class LICSRulesRepo implements Cloneable {
     public ArrayList<LICSRuleAliases> matchingLICSRulesNeverAliases(ReferenceSymbolic ref) {
         final String type = ref.getStaticType();
         final String refClass = Type.className(type);
-        final ArrayList<LICSRuleAliases> retVal = new ArrayList<LICSRuleAliases>();
-        final Set<LICSRuleAliases> rulesSet = this.rulesNeverAliases.get(refClass);
-        if (rulesSet != null) {
-            for (LICSRuleAliases rule : rulesSet) {
-                if (rule.matches(ref)) {
-                    retVal.add(rule);
-                }
-            }
-        }
-        return retVal;
+        return new ArrayList<>(matchingRules(this.rulesNeverAliases, this.compiledNeverAliases, refClass, ref));
     }
 
 	/**
@@ -305,15 +295,7 @@ public final class LICSRulesRepo implements Cloneable {
 	public boolean someMatchingLICSRulesNotNull(ReferenceSymbolic ref) {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
-		final Set<LICSRuleNotNull> rulesSet = this.rulesNotNull.get(refClass);
-		if (rulesSet != null) {
-			for (LICSRuleNotNull rule : rulesSet) {
-				if (rule.matches(ref)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return !matchingRules(this.rulesNotNull, this.compiledNotNull, refClass, ref).isEmpty();
 	}
 
     @Override
@@ -334,11 +316,21 @@ public final class LICSRulesRepo implements Cloneable {
         for (Map.Entry<String, Set<LICSRuleExpandsTo>> e : this.rulesExpandsTo.entrySet()) {
             o.rulesExpandsTo.put(e.getKey(), new HashSet<>(e.getValue()));
         }
+        o.rulesNeverAliases = new HashMap<>();
+        for (Map.Entry<String, Set<LICSRuleAliases>> e : this.rulesNeverAliases.entrySet()) {
+            o.rulesNeverAliases.put(e.getKey(), new HashSet<>(e.getValue()));
+        }
         o.rulesNotNull = new HashMap<>();
         for (Map.Entry<String, Set<LICSRuleNotNull>> e : this.rulesNotNull.entrySet()) {
             o.rulesNotNull.put(e.getKey(), new HashSet<>(e.getValue()));
         }
         
+        //the matchers are immutable and can be shared
+        o.compiledExpandsTo = new ConcurrentHashMap<>(this.compiledExpandsTo);
+        o.compiledAliases = new ConcurrentHashMap<>(this.compiledAliases);
+        o.compiledNeverAliases = new ConcurrentHashMap<>(this.compiledNeverAliases);
+        o.compiledNotNull = new ConcurrentHashMap<>(this.compiledNotNull);
+        
         return o;
 	}
 }
@@ -2,6 +2,7 @@ package jbse.rules;
 
 import static jbse.rules.Util.ANY;
 import static jbse.rules.Util.makeOriginPatternAbsolute;
+import static jbse.rules.Util.requiredLiteral;
 
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -19,6 +20,12 @@ import jbse.val.ReferenceSymbolic;
 public abstract class Rule {
 	protected final Pattern originPattern;
 	
+	/** 
+	 * A literal that occurs in all the origin {@link String}s
+	 * that match {@code originPattern} (possibly empty).
+	 */
+	final String requiredLiteral;
+	
 	/**
 	 * Constructor.
 	 * 
@@ -29,6 +36,7 @@ public abstract class Rule {
 	 */
 	public Rule(String originExp) { 
 		this.originPattern = makeOriginPatternAbsolute(originExp == null ? ANY : originExp);
+		this.requiredLiteral = requiredLiteral(this.originPattern.pattern());
 	}
 	
 	/**
@@ -0,0 +1,221 @@
+package jbse.rules;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jbse.val.ReferenceSymbolic;
+
+/**
+ * Matches the origins of symbolic references against a set of
+ * {@link Rule}s at once. The literal strings that the origin
+ * patterns of the rules require are compiled into an Aho-Corasick
+ * automaton, so a single scan of an origin string discards all
+ * the rules whose required literal does not occur in it, and only
+ * the remaining rules are matched against their patterns. The
+ * results are memoized per origin. A matcher is immutable
+ * (but for its memo) and thread-safe.
+ *
+ * @author Pietro Braione
+ *
+ * @param <R> the type of the rules.
+ */
+final class RuleMatcher<R extends Rule> {
+	/** The maximum number of memoized origins; when exceeded the memo is emptied. */
+	private static final int MEMO_CAPACITY = 8192;
+
+	/** The rules, in iteration order of the set they were taken from. */
+	private final ArrayList<R> rules;
+
+	/**
+	 * For each rule, the index of its required literal in the
+	 * automaton, or {@code -1} if the rule requires no literal.
+	 */
+	private final int[] ruleLiteral;
+
+	/** The automaton of the required literals. */
+	private final Automaton automaton;
+
+	/** The memoized matching rules, by origin string. */
+	private final ConcurrentHashMap<String, List<R>> memo = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param rules a {@link Collection}{@code <R>}; its
+	 *        content is copied.
+	 */
+	RuleMatcher(Collection<R> rules) {
+		this.rules = new ArrayList<>(rules);
+		this.ruleLiteral = new int[this.rules.size()];
+		final LinkedHashMap<String, Integer> literals = new LinkedHashMap<>();
+		for (int i = 0; i < this.ruleLiteral.length; ++i) {
+			final String literal = this.rules.get(i).requiredLiteral;
+			if (literal.isEmpty()) {
+				this.ruleLiteral[i] = -1;
+			} else {
+				this.ruleLiteral[i] = literals.computeIfAbsent(literal, k -> literals.size());
+			}
+		}
+		this.automaton = new Automaton(new ArrayList<>(literals.keySet()));
+	}
+
+	/**
+	 * Returns the rules that match a reference.
+	 *
+	 * @param ref a {@link ReferenceSymbolic}.
+	 * @return a read-only {@link List}{@code <R>} of the rules
+	 *         that match {@code ref}, in the iteration order of
+	 *         the rules passed to the constructor.
+	 */
+	List<R> matching(ReferenceSymbolic ref) {
+		final String originString = ref.asOriginString();
+		final List<R> cached = this.memo.get(originString);
+		if (cached != null) {
+			return cached;
+		}
+		final boolean[] present = this.automaton.scan(originString);
+		final ArrayList<R> retVal = new ArrayList<>();
+		for (int i = 0; i < this.ruleLiteral.length; ++i) {
+			if ((this.ruleLiteral[i] < 0 || present[this.ruleLiteral[i]]) &&
+				this.rules.get(i).originPattern.matcher(originString).matches()) {
+				retVal.add(this.rules.get(i));
+			}
+		}
+		final List<R> retValUnmodifiable = Collections.unmodifiableList(retVal);
+		if (this.memo.size() >= MEMO_CAPACITY) {
+			this.memo.clear();
+		}
+		this.memo.put(originString, retValUnmodifiable);
+		return retValUnmodifiable;
+	}
+
+	/**
+	 * Returns the rules for a class that match a reference, 
+	 * compiling them into a {@link RuleMatcher} if not already done.
+	 * 
+	 * @param rules a {@link Map}{@code <}{@link String}{@code , }{@link Set}{@code <R>>}
+	 *        mapping class names to their rules.
+	 * @param compiled a {@link ConcurrentHashMap}{@code <}{@link String}{@code , }{@link RuleMatcher}{@code <R>>}
+	 *        caching the matchers for the rules in {@code rules}.
+	 * @param refClass a {@link String}, the name of the class.
+	 * @param ref a {@link ReferenceSymbolic}.
+	 * @return a read-only {@link List}{@code <R>} of the rules
+	 *         for {@code refClass} that match {@code ref}.
+	 */
+	static <R extends Rule> List<R> matchingRules(Map<String, Set<R>> rules, ConcurrentHashMap<String, RuleMatcher<R>> compiled, String refClass, ReferenceSymbolic ref) {
+		final Set<R> rulesSet = rules.get(refClass);
+		if (rulesSet == null) {
+			return Collections.emptyList();
+		}
+		return compiled.computeIfAbsent(refClass, k -> new RuleMatcher<>(rulesSet)).matching(ref);
+	}
+
+	/**
+	 * An Aho-Corasick automaton recognizing the occurrences
+	 * of a set of literal strings.
+	 *
+	 * @author Pietro Braione
+	 */
+	private static final class Automaton {
+		/** The transitions of the trie, by state. */
+		private final ArrayList<HashMap<Character, Integer>> next = new ArrayList<>();
+
+		/** The failure links, by state. */
+		private final ArrayList<Integer> fail = new ArrayList<>();
+
+		/** The indices of the literals recognized in each state. */
+		private final ArrayList<int[]> output = new ArrayList<>();
+
+		/** The number of literals. */
+		private final int numLiterals;
+
+		Automaton(List<String> literals) {
+			this.numLiterals = literals.size();
+			newState();
+
+			//builds the trie
+			final ArrayList<ArrayList<Integer>> outputs = new ArrayList<>();
+			outputs.add(new ArrayList<>());
+			for (int i = 0; i < literals.size(); ++i) {
+				int s = 0;
+				for (char c : literals.get(i).toCharArray()) {
+					Integer t = this.next.get(s).get(c);
+					if (t == null) {
+						t = newState();
+						outputs.add(new ArrayList<>());
+						this.next.get(s).put(c, t);
+					}
+					s = t;
+				}
+				outputs.get(s).add(i);
+			}
+
+			//builds the failure links breadth-first, merging the outputs
+			final ArrayDeque<Integer> queue = new ArrayDeque<>();
+			for (int t : this.next.get(0).values()) {
+				this.fail.set(t, 0);
+				queue.add(t);
+			}
+			while (!queue.isEmpty()) {
+				final int s = queue.remove();
+				for (HashMap.Entry<Character, Integer> e : this.next.get(s).entrySet()) {
+					final int t = e.getValue();
+					int f = this.fail.get(s);
+					while (f > 0 && !this.next.get(f).containsKey(e.getKey())) {
+						f = this.fail.get(f);
+					}
+					final Integer ft = this.next.get(f).get(e.getKey());
+					this.fail.set(t, (ft == null ? 0 : ft));
+					outputs.get(t).addAll(outputs.get(this.fail.get(t)));
+					queue.add(t);
+				}
+			}
+			for (ArrayList<Integer> o : outputs) {
+				this.output.add(o.stream().mapToInt(Integer::intValue).toArray());
+			}
+		}
+
+		private int newState() {
+			this.next.add(new HashMap<>());
+			this.fail.add(0);
+			return this.next.size() - 1;
+		}
+
+		/**
+		 * Scans a string.
+		 *
+		 * @param s a {@link String}.
+		 * @return a {@code boolean[]} whose {@code i}-th
+		 *         element is {@code true} iff the {@code i}-th
+		 *         literal occurs in {@code s}.
+		 */
+		boolean[] scan(String s) {
+			final boolean[] retVal = new boolean[this.numLiterals];
+			if (this.numLiterals == 0) {
+				return retVal;
+			}
+			int state = 0;
+			for (int i = 0; i < s.length(); ++i) {
+				final char c = s.charAt(i);
+				Integer t = this.next.get(state).get(c);
+				while (t == null && state > 0) {
+					state = this.fail.get(state);
+					t = this.next.get(state).get(c);
+				}
+				state = (t == null ? 0 : t);
+				for (int literal : this.output.get(state)) {
+					retVal[literal] = true;
+				}
+			}
+			return retVal;
+		}
+	}
+}
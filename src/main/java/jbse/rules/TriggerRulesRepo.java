@@ -11,12 +11,14 @@ import static jbse.bc.Signatures.JBSE_JAVA_LINKEDMAP_INITSYMBOLIC;
 import static jbse.bc.Signatures.JBSE_JAVA_LINKEDMAP_ONKEYRESOLUTION;
 import static jbse.bc.Signatures.JBSE_JAVA_MAP_INITSYMBOLIC;
 import static jbse.bc.Signatures.JBSE_JAVA_MAP_ONKEYRESOLUTION;
+import static jbse.rules.RuleMatcher.matchingRules;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jbse.bc.Signature;
 import jbse.common.Type;
@@ -33,6 +35,12 @@ public final class TriggerRulesRepo implements Cloneable {
 	private HashMap<String, Set<TriggerRuleAliases>> rulesAliases = new HashMap<>();
 	private HashMap<String, Set<TriggerRuleNull>> rulesNull = new HashMap<>();
 	
+	//the rules compiled into matchers, lazily by class; 
+	//an entry is dropped whenever a rule is added to its class
+	private ConcurrentHashMap<String, RuleMatcher<TriggerRuleExpandsTo>> compiledExpandsTo = new ConcurrentHashMap<>();
+	private ConcurrentHashMap<String, RuleMatcher<TriggerRuleAliases>> compiledAliases = new ConcurrentHashMap<>();
+	private ConcurrentHashMap<String, RuleMatcher<TriggerRuleNull>> compiledNull = new ConcurrentHashMap<>();
+	
 	public TriggerRulesRepo() {
 		//adds some default rules
     	//java.util.HashMap (model)
@@ -97,6 +105,7 @@ public final class TriggerRulesRepo implements Cloneable {
 			this.rulesExpandsTo.put(toExpand, c);
 		}
 		c.add(new TriggerRuleExpandsTo(originExp, classAllowed, triggerMethod, triggerParameter));
+		this.compiledExpandsTo.remove(toExpand);
 		//TODO detect overlap of expand-to-nothing with expand-to-something rules and throw exception  
 	}
 
@@ -142,6 +151,7 @@ public final class TriggerRulesRepo implements Cloneable {
 			this.rulesAliases.put(toResolve, c);
 		}
 		c.add(new TriggerRuleAliasesTarget(originExp, pathAllowedExp, triggerMethod, triggerParameter));
+		this.compiledAliases.remove(toResolve);
 	}
 
     /**
@@ -179,6 +189,7 @@ public final class TriggerRulesRepo implements Cloneable {
 			this.rulesAliases.put(toResolve, c);
 		}
 		c.add(new TriggerRuleAliasesInstanceof(originExp, classAllowed, triggerMethod, triggerParameter));
+		this.compiledAliases.remove(toResolve);
 	}
 
     /**
@@ -206,6 +217,7 @@ public final class TriggerRulesRepo implements Cloneable {
 			this.rulesNull.put(toResolve, c);
 		}
 		c.add(new TriggerRuleNull(originExp, triggerMethod, triggerParameter));
+		this.compiledNull.remove(toResolve);
 	}
 
 	/**
@@ -219,16 +231,7 @@ public final class TriggerRulesRepo implements Cloneable {
 	public ArrayList<TriggerRuleExpandsTo> matchingTriggerRulesExpandsTo(ReferenceSymbolic ref) {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
-		final ArrayList<TriggerRuleExpandsTo> retVal = new ArrayList<>();
-		final Set<TriggerRuleExpandsTo> rulesSet = this.rulesExpandsTo.get(refClass);
-		if (rulesSet != null) {
-			for (TriggerRuleExpandsTo rule : rulesSet) {
-				if (rule.matches(ref)) {
-					retVal.add(rule);
-				}
-			}
-		}
-		return retVal;
+		return new ArrayList<>(matchingRules(this.rulesExpandsTo, this.compiledExpandsTo, refClass, ref));
 	}
 
 	/**
@@ -243,12 +246,9 @@ public final class TriggerRulesRepo implements Cloneable {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
 		final ArrayList<TriggerRuleAliases> retVal = new ArrayList<>();
-		final Set<TriggerRuleAliases> rulesSet = this.rulesAliases.get(refClass);
-		if (rulesSet != null) {
-			for (TriggerRuleAliases rule : rulesSet) {
-				if (rule.matches(ref) && !rule.requiresMax()) {
-					retVal.add(rule);
-				}
+		for (TriggerRuleAliases rule : matchingRules(this.rulesAliases, this.compiledAliases, refClass, ref)) {
+			if (!rule.requiresMax()) {
+				retVal.add(rule);
 			}
 		}
 		return retVal;
@@ -266,12 +266,9 @@ public final class TriggerRulesRepo implements Cloneable {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
 		final ArrayList<TriggerRuleAliases> retVal = new ArrayList<>();
-		final Set<TriggerRuleAliases> rulesSet = this.rulesAliases.get(refClass);
-		if (rulesSet != null) {
-			for (TriggerRuleAliases rule : rulesSet) {
-				if (rule.matches(ref) && rule.requiresMax()) {
-					retVal.add(rule);
-				}
+		for (TriggerRuleAliases rule : matchingRules(this.rulesAliases, this.compiledAliases, refClass, ref)) {
+			if (rule.requiresMax()) {
+				retVal.add(rule);
 			}
 		}
 		return retVal;
@@ -288,16 +285,7 @@ public final class TriggerRulesRepo implements Cloneable {
 	public ArrayList<TriggerRuleNull> matchingTriggerRulesNull(ReferenceSymbolic ref) {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
-		final ArrayList<TriggerRuleNull> retVal = new ArrayList<>();
-		final Set<TriggerRuleNull> rulesSet = this.rulesNull.get(refClass);
-		if (rulesSet != null) {
-			for (TriggerRuleNull rule : rulesSet) {
-				if (rule.matches(ref)) {
-					retVal.add(rule);
-				}
-			}
-		}
-		return retVal;
+		return new ArrayList<>(matchingRules(this.rulesNull, this.compiledNull, refClass, ref));
 	}
 	
 	@Override
@@ -323,6 +311,11 @@ public final class TriggerRulesRepo implements Cloneable {
             o.rulesNull.put(e.getKey(), new HashSet<>(e.getValue()));
         }
         
+        //the matchers are immutable and can be shared
+        o.compiledExpandsTo = new ConcurrentHashMap<>(this.compiledExpandsTo);
+        o.compiledAliases = new ConcurrentHashMap<>(this.compiledAliases);
+        o.compiledNull = new ConcurrentHashMap<>(this.compiledNull);
+        
         return o;
 	}
 }
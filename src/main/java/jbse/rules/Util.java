@@ -52,6 +52,117 @@ public final class Util {
 		return makeOriginPatternAbsolute(translateOriginExpressionRelativeToAbsolute(specializedOriginExpRelative, originTarget));
 	}
 	
+	/**
+	 * Finds a literal that occurs in all the strings that
+	 * match a regular expression produced by {@link #makeOriginPatternAbsolute(String)}.
+	 * It is the longest run of literal characters outside 
+	 * any group and not followed by a quantifier. This 
+	 * is conservative: When in doubt it yields a shorter 
+	 * literal or the empty string. In particular it stops 
+	 * at the first escape that is not a single-character one 
+	 * (e.g., {@code \x41} or {@code \p{Lu}}), and gives up
+	 * on alternatives, quoted sequences, inline flags and 
+	 * nested character classes.
+	 * 
+	 * @param regex a {@link String}, the regular expression.
+	 * @return a {@link String}, possibly empty.
+	 */
+	static String requiredLiteral(String regex) {
+		if (regex.indexOf('|') >= 0 || regex.contains("\\Q")) {
+			return ""; //alternatives or quoted sequences: gives up
+		}
+		String retVal = "";
+		final StringBuilder current = new StringBuilder();
+		int depth = 0;
+		int i = 0;
+		while (i < regex.length()) {
+			final char c = regex.charAt(i);
+			if (c == '\\' && i + 1 < regex.length() && !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+				//escaped literal character
+				if (depth == 0) {
+					current.append(regex.charAt(i + 1));
+				}
+				i += 2;
+			} else if (c == '\\' && i + 1 < regex.length() && ESCAPES_SINGLE_CHARACTER.indexOf(regex.charAt(i + 1)) >= 0) {
+				//character class or boundary escape, e.g., \d
+				retVal = longest(retVal, current);
+				i += 2;
+				continue;
+			} else if (c == '\\') {
+				//escape of unknown length, e.g., \x41, \0101, \p{Lu}, 
+				//\k<name> or a back reference: stops
+				break;
+			} else if (c == '(') {
+				if (i + 2 < regex.length() && regex.charAt(i + 1) == '?' && 
+				    (Character.isLetter(regex.charAt(i + 2)) || regex.charAt(i + 2) == '-')) {
+					return ""; //inline flags: gives up
+				}
+				retVal = longest(retVal, current);
+				++depth;
+				++i;
+				continue;
+			} else if (c == ')') {
+				--depth;
+				++i;
+				continue;
+			} else if (c == '[') {
+				retVal = longest(retVal, current);
+				++i;
+				while (i < regex.length() && regex.charAt(i) != ']') {
+					if (regex.charAt(i) == '[') {
+						return ""; //nested character classes: gives up
+					}
+					i += (regex.charAt(i) == '\\' ? 2 : 1);
+				}
+				++i;
+				continue;
+			} else if (c == '.' || c == '^' || c == '$') {
+				retVal = longest(retVal, current);
+				++i;
+				continue;
+			} else if (c == '*' || c == '+' || c == '?' || c == '{') {
+				//quantifier of a group or class: ends the run
+				retVal = longest(retVal, current);
+				if (c == '{') {
+					while (i < regex.length() && regex.charAt(i) != '}') {
+						++i;
+					}
+				}
+				++i;
+				continue;
+			} else {
+				if (depth == 0) {
+					current.append(c);
+				}
+				++i;
+			}
+			
+			//the character just appended may be quantified
+			if (i < regex.length() && depth == 0 && current.length() > 0) {
+				final char q = regex.charAt(i);
+				if (q == '*' || q == '?' || q == '{') {
+					current.setLength(current.length() - 1);
+					retVal = longest(retVal, current);
+				} else if (q == '+') {
+					retVal = longest(retVal, current);
+				}
+			}
+		}
+		return longest(retVal, current);
+	}
+	
+	/** 
+	 * The letters that, after a backslash, make an escape
+	 * of exactly two characters that matches no literal.
+	 */
+	private static final String ESCAPES_SINGLE_CHARACTER = "dDsSwWhHvVbBAGZzRXtnrfae";
+	
+	private static String longest(String best, StringBuilder current) {
+		final String retVal = (current.length() > best.length() ? current.toString() : best);
+		current.setLength(0);
+		return retVal;
+	}
+	
 	/* TODO this is really ugly, but it works with the current 
 	 * implementation of origins as strings. Improve it later to a 
 	 * separate language. 
@@ -0,0 +1,77 @@
+package jbse.tree;
+
+import java.util.List;
+
+import jbse.mem.State;
+
+/**
+ * A strategy for selecting the next state that a {@link StateTree}
+ * emits among its pending states.
+ *
+ * @author Pietro Braione
+ */
+public interface SearchStrategy {
+    /**
+     * The position of a pending state in a {@link StateTree}.
+     *
+     * @author Pietro Braione
+     */
+    public static final class Selection {
+        /** The index of the branch. */
+        public final int branch;
+
+        /** The index of the state in the branch. */
+        public final int state;
+
+        /**
+         * Constructor.
+         *
+         * @param branch an {@code int}, the index of the branch.
+         * @param state an {@code int}, the index of the state in
+         *        the branch.
+         */
+        public Selection(int branch, int state) {
+            this.branch = branch;
+            this.state = state;
+        }
+    }
+
+    /**
+     * Selects the next state to be emitted.
+     *
+     * @param pending a {@link List}{@code <}{@link List}{@code <}{@link State}{@code >>},
+     *        the read-only lists of the pending states at each branch. The branches
+     *        are ordered from the most recently created (i.e., the deepest in
+     *        a depth-first visit) to the oldest one, and the states of each branch
+     *        are ordered as a depth-first visit would emit them. Neither
+     *        {@code pending} nor any of its lists is empty.
+     * @return a {@link Selection}, the position of the next state
+     *         to be emitted in {@code pending}.
+     */
+    Selection select(List<List<State>> pending);
+
+    /**
+     * Notifies that a state was added to the pending states. 
+     * By default it does nothing.
+     *
+     * @param s the added {@link State}.
+     */
+    default void notifyAdded(State s) { }
+
+    /**
+     * Notifies that a pending state was removed without 
+     * being emitted (e.g., because it was handed over to 
+     * another exploration worker). By default it does nothing.
+     *
+     * @param s the removed {@link State}.
+     */
+    default void notifyRemoved(State s) { }
+
+    /**
+     * Notifies that a state was emitted. By default
+     * it does nothing.
+     *
+     * @param s the emitted {@link State}.
+     */
+    default void notifyEmitted(State s) { }
+}
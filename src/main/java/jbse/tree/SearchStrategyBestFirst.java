@@ -0,0 +1,47 @@
+package jbse.tree;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import jbse.mem.State;
+
+/**
+ * A {@link SearchStrategy} that emits the pending state with 
+ * the highest score, as calculated by a user-supplied scoring 
+ * function. Ties are broken by depth-first order. Note that 
+ * selecting a state scores all the pending states, so the scoring 
+ * function should be cheap.
+ * 
+ * @author Pietro Braione
+ */
+public final class SearchStrategyBestFirst implements SearchStrategy {
+    private final ToDoubleFunction<State> score;
+
+    /**
+     * Constructor.
+     * 
+     * @param score a {@link ToDoubleFunction}{@code <}{@link State}{@code >}, 
+     *        the scoring function. It must not modify the states.
+     */
+    public SearchStrategyBestFirst(ToDoubleFunction<State> score) {
+        this.score = score;
+    }
+
+    @Override
+    public Selection select(List<List<State>> pending) {
+        int bestBranch = 0, bestState = 0;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int branch = 0; branch < pending.size(); ++branch) {
+            final List<State> states = pending.get(branch);
+            for (int state = 0; state < states.size(); ++state) {
+                final double score = this.score.applyAsDouble(states.get(state));
+                if (score > bestScore) {
+                    bestBranch = branch;
+                    bestState = state;
+                    bestScore = score;
+                }
+            }
+        }
+        return new Selection(bestBranch, bestState);
+    }
+}
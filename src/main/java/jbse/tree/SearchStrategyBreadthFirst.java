@@ -0,0 +1,19 @@
+package jbse.tree;
+
+import java.util.List;
+
+import jbse.mem.State;
+
+/**
+ * A {@link SearchStrategy} that visits the symbolic 
+ * execution tree breadth-first, i.e., it emits the states
+ * of the oldest pending branch first.
+ * 
+ * @author Pietro Braione
+ */
+public final class SearchStrategyBreadthFirst implements SearchStrategy {
+    @Override
+    public Selection select(List<List<State>> pending) {
+        return new Selection(pending.size() - 1, 0);
+    }
+}
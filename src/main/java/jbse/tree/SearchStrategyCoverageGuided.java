@@ -0,0 +1,173 @@
+package jbse.tree;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.Function;
+
+import jbse.bc.Signature;
+import jbse.mem.State;
+import jbse.mem.exc.ThreadStackEmptyException;
+
+/**
+ * A {@link SearchStrategy} that favors the pending states
+ * whose current bytecode (method and program counter) was
+ * not reached yet by any emitted state. The states at
+ * unvisited bytecodes, or all the states if there is no
+ * such state, are emitted in depth-first order. The
+ * bytecode of each pending state is calculated once,
+ * when the state is added, and the pending states
+ * are scanned only when some of them is at an unvisited
+ * bytecode.
+ *
+ * @author Pietro Braione
+ */
+public final class SearchStrategyCoverageGuided implements SearchStrategy {
+    private static final Selection FIRST = new Selection(0, 0);
+
+    /**
+     * A bytecode location.
+     *
+     * @author Pietro Braione
+     */
+    private static final class Location {
+        private final Signature method;
+        private final int programCounter;
+        private final int hashCode;
+
+        Location(Signature method, int programCounter) {
+            this.method = method;
+            this.programCounter = programCounter;
+            this.hashCode = 31 * method.hashCode() + programCounter;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Location other = (Location) obj;
+            return this.programCounter == other.programCounter && this.method.equals(other.method);
+        }
+    }
+
+    /**
+     * Calculates the location of a state, or
+     * {@code null} if the state has no location.
+     */
+    private final Function<State, Object> locator;
+
+    /** The locations of the pending states. */
+    private final IdentityHashMap<State, Object> locations = new IdentityHashMap<>();
+
+    /** The number of pending states at each location. */
+    private final HashMap<Object, int[]> numPendingAt = new HashMap<>();
+
+    /** The locations reached by the emitted states. */
+    private final HashSet<Object> visited = new HashSet<>();
+
+    /** The number of pending states at unvisited locations. */
+    private int numPendingUnvisited = 0;
+
+    /**
+     * Constructor.
+     */
+    public SearchStrategyCoverageGuided() {
+        this(SearchStrategyCoverageGuided::location);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param locator a {@link Function}{@code <}{@link State}{@code , }{@link Object}{@code >}
+     *        calculating the location of a state, or {@code null} if
+     *        the state has no location.
+     */
+    SearchStrategyCoverageGuided(Function<State, Object> locator) {
+        this.locator = locator;
+    }
+
+    @Override
+    public Selection select(List<List<State>> pending) {
+        if (this.numPendingUnvisited == 0) {
+            return FIRST;
+        }
+        for (int branch = 0; branch < pending.size(); ++branch) {
+            final List<State> states = pending.get(branch);
+            for (int state = 0; state < states.size(); ++state) {
+                final State s = states.get(state);
+                final Object location = (this.locations.containsKey(s) ? this.locations.get(s) : this.locator.apply(s));
+                if (location != null && !this.visited.contains(location)) {
+                    return new Selection(branch, state);
+                }
+            }
+        }
+        return FIRST;
+    }
+
+    @Override
+    public void notifyAdded(State s) {
+        final Object location = this.locator.apply(s);
+        this.locations.put(s, location);
+        if (location != null) {
+            ++this.numPendingAt.computeIfAbsent(location, k -> new int[1])[0];
+            if (!this.visited.contains(location)) {
+                ++this.numPendingUnvisited;
+            }
+        }
+    }
+
+    @Override
+    public void notifyRemoved(State s) {
+        untrack(s);
+    }
+
+    @Override
+    public void notifyEmitted(State s) {
+        final Object location = (this.locations.containsKey(s) ? untrack(s) : this.locator.apply(s));
+        if (location != null && this.visited.add(location)) {
+            final int[] numPending = this.numPendingAt.get(location);
+            if (numPending != null) {
+                this.numPendingUnvisited -= numPending[0];
+            }
+        }
+    }
+
+    /**
+     * Stops tracking a pending state.
+     *
+     * @param s a {@link State}.
+     * @return the location of {@code s}, or {@code null}
+     *         if {@code s} has no location or is not tracked.
+     */
+    private Object untrack(State s) {
+        final Object location = this.locations.remove(s);
+        if (location != null) {
+            final int[] numPending = this.numPendingAt.get(location);
+            if (--numPending[0] == 0) {
+                this.numPendingAt.remove(location);
+            }
+            if (!this.visited.contains(location)) {
+                --this.numPendingUnvisited;
+            }
+        }
+        return location;
+    }
+
+    private static Object location(State s) {
+        try {
+            return new Location(s.getCurrentMethodSignature(), s.getCurrentProgramCounter());
+        } catch (ThreadStackEmptyException e) {
+            return null;
+        }
+    }
+}
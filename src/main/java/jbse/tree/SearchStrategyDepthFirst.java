@@ -0,0 +1,20 @@
+package jbse.tree;
+
+import java.util.List;
+
+import jbse.mem.State;
+
+/**
+ * A {@link SearchStrategy} that visits the symbolic 
+ * execution tree depth-first. It is the default one.
+ * 
+ * @author Pietro Braione
+ */
+public final class SearchStrategyDepthFirst implements SearchStrategy {
+    private static final Selection FIRST = new Selection(0, 0);
+
+    @Override
+    public Selection select(List<List<State>> pending) {
+        return FIRST;
+    }
+}
@@ -0,0 +1,44 @@
+package jbse.tree;
+
+import java.util.List;
+import java.util.Random;
+
+import jbse.mem.State;
+
+/**
+ * A {@link SearchStrategy} that emits a state by a random walk 
+ * from the oldest pending branch to the most recent one: At each 
+ * branch the walk stops at one of the branch's states, or proceeds 
+ * to the next branch, with uniform probability. Similarly to the 
+ * random-path selection of KLEE, this favors the states that are 
+ * close to the root of the symbolic execution tree, that are 
+ * usually the ones at the least explored paths, without starving
+ * the deep ones.
+ * 
+ * @author Pietro Braione
+ */
+public final class SearchStrategyRandomPath implements SearchStrategy {
+    private final Random random;
+
+    /**
+     * Constructor.
+     * 
+     * @param seed a {@code long}, the seed of the 
+     *        pseudorandom walks.
+     */
+    public SearchStrategyRandomPath(long seed) {
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public Selection select(List<List<State>> pending) {
+        for (int branch = pending.size() - 1; branch > 0; --branch) {
+            final int numStates = pending.get(branch).size();
+            final int choice = this.random.nextInt(numStates + 1);
+            if (choice < numStates) {
+                return new Selection(branch, choice);
+            }
+        }
+        return new Selection(0, this.random.nextInt(pending.get(0).size()));
+    }
+}
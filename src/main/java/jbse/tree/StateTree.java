@@ -1,6 +1,21 @@
 package jbse.tree;
 
-import java.util.LinkedList;
+import static jbse.val.HistoryPoint.BRANCH_IDENTIFIER_SEPARATOR_COMPACT;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
@@ -12,7 +27,8 @@ import jbse.val.HistoryPoint;
 /**
  * Class storing the {@link State}s in the symbolic execution
  * tree which have been discovered but not yet analyzed. It stores
- * only the states at branch points.
+ * only the states at branch points. The order the states
+ * are emitted is decided by a {@link SearchStrategy}.
  * 
  * @author Pietro Braione
  * @author unknown
@@ -120,6 +136,12 @@ public class StateTree {
          */
         int emittedStates;
 
+        /** 
+         * The states of {@code branch} still to be emitted, 
+         * in inverse depth-first emission order.
+         */
+        final ArrayList<State> states = new ArrayList<>();
+
         /** 
          * Constructor for branch identification.
          */
@@ -130,6 +152,48 @@ public class StateTree {
         }
     }
 
+    /**
+     * Read-only view of the states of a branch, in 
+     * depth-first emission order.
+     * 
+     * @author Pietro Braione
+     */
+    private static final class BranchStates extends AbstractList<State> {
+        private final ArrayList<State> states;
+
+        BranchStates(ArrayList<State> states) {
+            this.states = states;
+        }
+
+        @Override
+        public State get(int index) {
+            return this.states.get(this.states.size() - 1 - index);
+        }
+
+        @Override
+        public int size() {
+            return this.states.size();
+        }
+    }
+
+    /**
+     * Read-only view of the pending states, by branch, 
+     * as it is passed to the {@link SearchStrategy}.
+     * 
+     * @author Pietro Braione
+     */
+    private final class Pending extends AbstractList<List<State>> {
+        @Override
+        public List<State> get(int index) {
+            return new BranchStates(branchInfo(index).states);
+        }
+
+        @Override
+        public int size() {
+            return StateTree.this.branchList.size();
+        }
+    }
+
     /** State identification mode. */
     private final StateIdentificationMode stateIdMode;
 
@@ -139,11 +203,70 @@ public class StateTree {
     /** Breadth mode, after switching to post-initial phase. */
     private final BreadthMode breadthModePostInitial;
 
-    /** Buffer of the inserted {@link State}s. */
-    private final LinkedList<State> stateBuffer = new LinkedList<State>();
+    /** 
+     * Buffer of the inserted {@link BranchInfo}s, from the 
+     * oldest to the most recently created.
+     */
+    private final ArrayList<BranchInfo> branchList = new ArrayList<BranchInfo>();
+
+    /** The number of {@link State}s to be emitted. */
+    private int numStates = 0;
+
+    /** The {@link SearchStrategy}. */
+    private SearchStrategy searchStrategy = new SearchStrategyDepthFirst();
+
+    /** The view of the pending states passed to {@link #searchStrategy}. */
+    private final Pending pending = new Pending();
+
+    /** 
+     * The position of the next state to be emitted, as 
+     * selected by {@link #searchStrategy}, or {@code null} 
+     * if it must be selected.
+     */
+    private SearchStrategy.Selection selection = null;
+
+    /** 
+     * The fraction of the maximum JVM heap above which the 
+     * cold pending states are evicted, or {@code 0} if the
+     * pending states are never evicted.
+     */
+    private double memoryHighWatermark = 0.0;
+
+    /** 
+     * The fraction of the maximum JVM heap the eviction 
+     * of the cold pending states aims at.
+     */
+    private double memoryLowWatermark = 0.0;
+
+    /** 
+     * The memory usage is not checked until the number of
+     * pending states exceeds this value. It avoids that 
+     * further states are evicted before the JVM has had the
+     * chance to reclaim the memory of the evicted ones.
+     */
+    private int evictionCheckThreshold = 0;
+
+    /** The number of evicted states. */
+    private long evictedStates = 0L;
+
+    /** 
+     * The file where the branch identifiers of the evicted 
+     * states are spilled, or {@code null} if there are no 
+     * spilled states.
+     */
+    private Path spillFile = null;
+
+    /** The writer to {@link #spillFile}. */
+    private BufferedWriter spillWriter = null;
 
-    /** Buffer of the inserted {@link BranchInfo}s. */
-    private final LinkedList<BranchInfo> branchList = new LinkedList<BranchInfo>();
+    /** The number of branch identifiers in {@link #spillFile}. */
+    private int numSpilledStates = 0;
+
+    /** 
+     * The branches whose pending states were all evicted since 
+     * the last invocation of {@link #takeEvictedBranches()}.
+     */
+    private ArrayList<BranchPoint> evictedBranches = new ArrayList<>();
 
     /** 
      * Flag indicating whether the tree level has been increased 
@@ -169,6 +292,143 @@ public class StateTree {
     }
     
     
+    /**
+     * Sets the search strategy. By default the 
+     * symbolic execution tree is visited depth-first.
+     * The strategy is notified of the states that are 
+     * already pending.
+     * 
+     * @param searchStrategy a {@link SearchStrategy}.
+     * @throws InvalidInputException if {@code searchStrategy == null}.
+     */
+    public void setSearchStrategy(SearchStrategy searchStrategy) throws InvalidInputException {
+        if (searchStrategy == null) {
+            throw new InvalidInputException("Attempted to set a null search strategy.");
+        }
+        this.searchStrategy = searchStrategy;
+        this.selection = null;
+        for (BranchInfo b : this.branchList) {
+            for (State s : b.states) {
+                searchStrategy.notifyAdded(s);
+            }
+        }
+    }
+
+    /**
+     * Bounds the memory used by the pending states. Whenever 
+     * the used JVM heap, both currently and after the last 
+     * garbage collection, exceeds {@code high} times the maximum 
+     * JVM heap, the tree evicts the coldest pending states, i.e., 
+     * the ones at the oldest branches that a depth-first visit 
+     * would emit last, shrinking the number of pending states 
+     * by a factor {@code low / high}. The branch identifiers of
+     * the evicted states are spilled to a temporary file, so 
+     * that the states can be re-executed from the initial 
+     * state after the other ones (see {@link #takeSpilledBranchIdentifiers()}).
+     * By default no state is evicted.
+     * 
+     * @param high a {@code double}, the high watermark, as a fraction
+     *        of the maximum JVM heap. {@code 0} disables eviction.
+     * @param low a {@code double}, the low watermark, as a fraction
+     *        of the maximum JVM heap.
+     * @throws InvalidInputException if {@code high != 0} and it is not
+     *         {@code 0 < low < high <= 1}.
+     */
+    public void setMemoryWatermarks(double high, double low) throws InvalidInputException {
+        if (high != 0.0 && !(0.0 < low && low < high && high <= 1.0)) {
+            throw new InvalidInputException("Invalid memory watermarks: high " + high + ", low " + low + ".");
+        }
+        this.memoryHighWatermark = high;
+        this.memoryLowWatermark = low;
+        this.evictionCheckThreshold = 0;
+    }
+
+    /**
+     * Returns the number of pending states that were 
+     * evicted because the memory high watermark was exceeded.
+     * 
+     * @return a nonnegative {@code long}.
+     */
+    public long getNumOfEvictedStates() {
+        return this.evictedStates;
+    }
+
+    /**
+     * Returns the number of evicted states whose branch 
+     * identifiers are spilled and were not taken yet.
+     * 
+     * @return a nonnegative {@code int}.
+     */
+    public int getNumOfSpilledStates() {
+        return this.numSpilledStates;
+    }
+
+    /**
+     * Returns the branch identifiers of the evicted states
+     * that were not taken yet.
+     * 
+     * @return a {@link List}{@code <}{@link String}{@code >}, the 
+     *         branch identifiers (as they would be after emission)
+     *         of the states evicted since the last invocation 
+     *         of {@link #takeSpilledBranchIdentifiers()}.
+     * @throws IOException if reading the spill file fails.
+     */
+    public List<String> getSpilledBranchIdentifiers() throws IOException {
+        if (this.spillFile == null) {
+            return Collections.emptyList();
+        }
+        this.spillWriter.flush();
+        return Files.readAllLines(this.spillFile, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Takes the branch identifiers of the evicted states, 
+     * and empties the spill file.
+     * 
+     * @return a {@link List}{@code <}{@link String}{@code >}, the 
+     *         branch identifiers (as they would be after emission)
+     *         of the states evicted since the previous invocation 
+     *         of this method.
+     * @throws IOException if reading the spill file fails. In this 
+     *         case the spilled identifiers are not lost, and the
+     *         method can be invoked again.
+     */
+    public List<String> takeSpilledBranchIdentifiers() throws IOException {
+        if (this.spillFile == null) {
+            return Collections.emptyList();
+        }
+        this.spillWriter.flush();
+        final List<String> retVal = Files.readAllLines(this.spillFile, StandardCharsets.UTF_8);
+        
+        //the identifiers were read: the spill file can be discarded
+        try {
+            this.spillWriter.close();
+            Files.deleteIfExists(this.spillFile);
+        } catch (IOException e) {
+            //the file is deleted on exit: nothing to do
+        }
+        this.spillFile = null;
+        this.spillWriter = null;
+        this.numSpilledStates = 0;
+        return retVal;
+    }
+
+    /**
+     * Takes the branches whose pending states were all evicted.
+     * 
+     * @return a {@link List}{@code <}{@link BranchPoint}{@code >}, the
+     *         branches whose pending states were all evicted since 
+     *         the previous invocation of this method.
+     */
+    public List<BranchPoint> takeEvictedBranches() {
+        if (this.evictedBranches.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<BranchPoint> retVal = this.evictedBranches;
+        this.evictedBranches = new ArrayList<>();
+        return retVal;
+    }
+
     /**
      * Switches the breadth mode to the 
      * one specified with the class constructor.
@@ -273,7 +533,7 @@ public class StateTree {
      *              to emit.
      */
     public boolean hasStates() {
-        return !this.stateBuffer.isEmpty();
+        return this.numStates > 0;
     }
     
     /**
@@ -287,7 +547,7 @@ public class StateTree {
     public int getNumOfStatesAtBranch(BranchPoint bp) {
     	for (BranchInfo info : this.branchList) {
     		if (info.branch == bp) {
-    			return info.totalStates - info.emittedStates;
+    			return info.states.size();
     		}
     	}
     	return 0;
@@ -299,27 +559,20 @@ public class StateTree {
      * @param bp a {@link BranchPoint}.
      * @param index an {@code int}. It must be between 0 and {@link #getNumOfStatesAtBranch(BranchPoint) getNumOfStatesAtBranch}{@code (bp) - 1}.
      * @return the {@link State} at the branch identified by {@code bp} 
-     *         that is the next {@code index}-th to be emitted.
+     *         that is the next {@code index}-th to be emitted in 
+     *         depth-first order.
      * @throws InvalidInputException if {@code index < 0 || index >= }{@link #getNumOfStatesAtBranch(BranchPoint) getNumOfStatesAtBranch}{@code (bp)}.
      */
     public State getStateAtBranch(BranchPoint bp, int index) throws InvalidInputException {
     	if (index < 0 || index >= getNumOfStatesAtBranch(bp)) {
     		throw new InvalidInputException("Tried to get state at branch " + bp + " with index " + index + " (total number of states at branch is " + getNumOfStatesAtBranch(bp) + ").");
     	}
-    	int position = 0;
-    	boolean found = false;
     	for (BranchInfo info : this.branchList) {
     		if (info.branch == bp) {
-    			found = true;
-    			break;
+    			return info.states.get(info.states.size() - 1 - index);
     		}
-    		position += info.totalStates - info.emittedStates;
-    	}
-    	if (found) {
-    		return this.stateBuffer.get(position + index);
-    	} else {
-    		throw new InvalidInputException("Tried to get state at branch " + bp + " but no state seems to exist at branch.");
     	}
+    	throw new InvalidInputException("Tried to get state at branch " + bp + " but no state seems to exist at branch.");
     }
 
     /**
@@ -330,22 +583,121 @@ public class StateTree {
      * @throws NoSuchElementException if {@link #hasStates()} {@code == false}.
      */
     public State nextState() throws FrozenStateException {
-        final State s = this.stateBuffer.removeFirst();
-        final BranchInfo b = this.branchList.getFirst();
+        if (!hasStates()) {
+            throw new NoSuchElementException();
+        }
+        final SearchStrategy.Selection sel = selection();
+        final BranchInfo b = branchInfo(sel.branch);
+        final State s = b.states.remove(b.states.size() - 1 - sel.state);
+        --this.numStates;
         ++b.emittedStates;
-        if (b.emittedStates == b.totalStates) {
-            this.branchList.removeFirst();
+        if (b.states.isEmpty()) {
+            this.branchList.remove(this.branchList.size() - 1 - sel.branch);
         }
+        this.selection = null;
         
         if (!this.userProvidedStartState && this.stateIdMode == StateIdentificationMode.COMPACT && s.phase() == Phase.POST_INITIAL) {
             s.addBranchToHistoryPoint(String.valueOf(b.emittedStates));
         } //else, the history point was already set by addState
         this.userProvidedStartState = false;
+        this.searchStrategy.notifyEmitted(s);
 
         return s;
     }    
     
     
+    /**
+     * Returns the branch identifiers of the states still
+     * to be emitted, as they will be after their emission. 
+     * In {@link StateIdentificationMode#COMPACT} mode the 
+     * identifiers are predicted assuming that each branch 
+     * emits its states in depth-first order.
+     * 
+     * @return a {@link List}{@code <}{@link String}{@code >}.
+     */
+    public List<String> getPendingBranchIdentifiers() {
+        final ArrayList<String> retVal = new ArrayList<>();
+        for (int i = this.branchList.size() - 1; i >= 0; --i) {
+            final BranchInfo b = this.branchList.get(i);
+            final int numStates = b.states.size();
+            for (int j = 0; j < numStates; ++j) {
+                retVal.add(pendingBranchIdentifier(b, j));
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Returns the branch identifier of a pending state
+     * as it will be after its emission.
+     * 
+     * @param b the {@link BranchInfo} of the state.
+     * @param index an {@code int}, the position of the state 
+     *        in the depth-first emission order of {@code b}.
+     * @return a {@link String}.
+     */
+    private String pendingBranchIdentifier(BranchInfo b, int index) {
+        final State s = b.states.get(b.states.size() - 1 - index);
+        if (!this.userProvidedStartState && this.stateIdMode == StateIdentificationMode.COMPACT && s.phase() == Phase.POST_INITIAL) {
+            return s.getBranchIdentifier() + BRANCH_IDENTIFIER_SEPARATOR_COMPACT + (b.emittedStates + index + 1);
+        } else {
+            return s.getBranchIdentifier();
+        }
+    }
+
+    /**
+     * Returns the number of branches that have states 
+     * still to be emitted.
+     * 
+     * @return a nonnegative {@code int}.
+     */
+    public int getNumOfBranches() {
+        return this.branchList.size();
+    }
+
+    /**
+     * Removes from the store all the states of the oldest 
+     * (i.e., the shallowest) pending branch, the one 
+     * whose states would be emitted last by a depth-first
+     * visit. The states are 
+     * given the same identifiers that {@link #nextState()} 
+     * would give them. Used to hand over pending work 
+     * to other exploration workers.
+     * 
+     * @return a {@link List}{@code <}{@link State}{@code >}, the
+     *         removed states in depth-first emission order, or an empty list
+     *         if the store is empty or the oldest branch has some 
+     *         pre-initial or initial state (in this case nothing 
+     *         is removed).
+     * @throws FrozenStateException if some of the removed {@link State}s 
+     *         is frozen.
+     */
+    public List<State> removeStatesAtOldestBranch() throws FrozenStateException {
+        final ArrayList<State> retVal = new ArrayList<>();
+        if (this.branchList.isEmpty()) {
+            return retVal;
+        }
+        final BranchInfo b = this.branchList.get(0);
+        for (State s : b.states) {
+            if (s.phase() != Phase.POST_INITIAL) {
+                return retVal;
+            }
+        }
+        final int numStates = b.states.size();
+        for (int i = 0; i < numStates; ++i) {
+            final State s = b.states.get(numStates - 1 - i);
+            if (this.stateIdMode == StateIdentificationMode.COMPACT) {
+                s.addBranchToHistoryPoint(String.valueOf(b.emittedStates + i + 1));
+            }
+            this.searchStrategy.notifyRemoved(s);
+            retVal.add(s);
+        }
+        this.numStates -= numStates;
+        this.branchList.remove(0);
+        this.selection = null;
+        return retVal;
+    }
+
     /**
      * Possibly increases by one the level of the tree. 
      * Note that increasing the level without adding a 
@@ -393,8 +745,9 @@ public class StateTree {
      * will crash the engine.
      */
     private void addBranchPoint() {
-        this.branchList.addFirst(new BranchInfo());
+        this.branchList.add(new BranchInfo());
         this.createdBranch = true;
+        this.selection = null;
     }
 
     /**
@@ -425,11 +778,65 @@ public class StateTree {
     public BranchPoint nextBranch() {
         if (this.branchList.isEmpty()) {
             return null;
+        } else if (branchInfo(0).states.isEmpty()) {
+            //a branch was just created: its states will be added next
+            return branchInfo(0).branch;
         } else {
-            return this.branchList.getFirst().branch;
+            return branchInfo(selection().branch).branch;
         }
     }    
 
+    /**
+     * Returns the most recently created branch point.
+     * 
+     * @return the {@link BranchPoint} of the most recently 
+     *         created branch that is still in the store, 
+     *         or {@code null} if the store has no branch. 
+     *         The branch may have no states yet, if it was 
+     *         just created; otherwise it has states still 
+     *         to be emitted, because a branch is removed 
+     *         from the store when its last state is emitted.
+     */
+    public BranchPoint lastBranch() {
+        if (this.branchList.isEmpty()) {
+            return null;
+        } else {
+            return branchInfo(0).branch;
+        }
+    }
+
+    /**
+     * Returns the position of the next state to be emitted, 
+     * possibly asking it to the search strategy. The position 
+     * is cached until the store is modified, so that 
+     * {@link #nextBranch()} and {@link #nextState()} agree 
+     * also with nondeterministic strategies.
+     * 
+     * @return a {@link SearchStrategy.Selection}.
+     */
+    private SearchStrategy.Selection selection() {
+        if (this.selection == null) {
+            final SearchStrategy.Selection sel = this.searchStrategy.select(this.pending);
+            if (sel == null || sel.branch < 0 || sel.branch >= this.branchList.size() || 
+                sel.state < 0 || sel.state >= branchInfo(sel.branch).states.size()) {
+                throw new UnexpectedInternalException("The search strategy " + this.searchStrategy.getClass().getName() + " selected a nonexisting state.");
+            }
+            this.selection = sel;
+        }
+        return this.selection;
+    }
+
+    /**
+     * Returns a branch.
+     * 
+     * @param index an {@code int}, the index of the branch,
+     *        {@code 0} for the most recently created one.
+     * @return the {@link BranchInfo} at {@code index}.
+     */
+    private BranchInfo branchInfo(int index) {
+        return this.branchList.get(this.branchList.size() - 1 - index);
+    }
+
     /**
      * Adds a state to the buffer and increases the 
      * total count of states in the branch.
@@ -437,7 +844,111 @@ public class StateTree {
      * @param s the {@link State} to be added.
      */
     private void add(State s) {
-        this.stateBuffer.addFirst(s);
-        ++(this.branchList.getFirst().totalStates);
+        final BranchInfo b = this.branchList.get(this.branchList.size() - 1);
+        b.states.add(s);
+        ++b.totalStates;
+        ++this.numStates;
+        this.selection = null;
+        this.searchStrategy.notifyAdded(s);
+        if (this.memoryHighWatermark > 0.0 && this.numStates > this.evictionCheckThreshold) {
+            possiblyEvict();
+        }
+    }
+
+    /**
+     * Evicts the coldest pending states if the used 
+     * JVM heap exceeds the high watermark, and spills their
+     * branch identifiers. It never evicts the states of the 
+     * most recently created branch, nor the pre-initial and 
+     * initial states. If spilling fails the states are kept.
+     */
+    private void possiblyEvict() {
+        if (usedMemory() <= this.memoryHighWatermark || usedMemoryAfterLastCollection() <= this.memoryHighWatermark) {
+            return;
+        }
+        final int target = (int) (this.numStates * (this.memoryLowWatermark / this.memoryHighWatermark));
+        final long evictedStatesBefore = this.evictedStates;
+        while (this.numStates > target && this.branchList.size() > 1) {
+            final BranchInfo b = this.branchList.get(0);
+            if (b.states.get(0).phase() != Phase.POST_INITIAL) {
+                break;
+            }
+            try {
+                spill(pendingBranchIdentifier(b, b.states.size() - 1));
+            } catch (IOException e) {
+                break;
+            }
+            final State s = b.states.remove(0); //the one a depth-first visit emits last
+            this.searchStrategy.notifyRemoved(s);
+            --this.numStates;
+            ++this.evictedStates;
+            if (b.states.isEmpty()) {
+                this.branchList.remove(0);
+                this.evictedBranches.add(b.branch);
+            }
+        }
+        if (this.spillWriter != null) {
+            try {
+                this.spillWriter.flush();
+            } catch (IOException e) {
+                //the identifiers are still buffered: nothing to do
+            }
+        }
+        if (this.evictedStates > evictedStatesBefore) {
+            //no need to check again until the pending states grow back
+            this.evictionCheckThreshold = (int) Math.min(Integer.MAX_VALUE, (long) (this.numStates * (this.memoryHighWatermark / this.memoryLowWatermark)));
+        }
+    }
+
+    /**
+     * Appends a branch identifier to the spill file.
+     * 
+     * @param branchIdentifier a {@link String}.
+     * @throws IOException if the spill file cannot be
+     *         created or written.
+     */
+    private void spill(String branchIdentifier) throws IOException {
+        if (this.spillFile == null) {
+            final Path spillFile = Files.createTempFile("jbse", ".spill");
+            try {
+                this.spillWriter = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                Files.deleteIfExists(spillFile);
+                throw e;
+            }
+            this.spillFile = spillFile;
+            spillFile.toFile().deleteOnExit();
+        }
+        this.spillWriter.write(branchIdentifier);
+        this.spillWriter.newLine();
+        ++this.numSpilledStates;
+    }
+
+    /**
+     * Returns the used fraction of the maximum JVM heap.
+     * 
+     * @return a {@code double}.
+     */
+    private static double usedMemory() {
+        final Runtime rt = Runtime.getRuntime();
+        return (double) (rt.totalMemory() - rt.freeMemory()) / rt.maxMemory();
+    }
+
+    /**
+     * Returns the used fraction of the maximum JVM heap 
+     * after the last garbage collection of each heap memory 
+     * pool, that does not count the garbage not yet collected.
+     * 
+     * @return a {@code double}.
+     */
+    private static double usedMemoryAfterLastCollection() {
+        long used = 0L;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                final MemoryUsage usage = pool.getCollectionUsage();
+                used += (usage == null ? pool.getUsage() : usage).getUsed();
+            }
+        }
+        return (double) used / Runtime.getRuntime().maxMemory();
     }
 }
@@ -78,6 +78,22 @@ public abstract class Calculator {
 
     /** Default value for reference types. */
     private static final ReferenceConcrete DEFAULT_REFERENCE;
+    
+    /** The smallest int value in {@link #SMALL_INTS}. */
+    private static final int SMALL_INT_MIN = -128;
+    
+    /** 
+     * The int values from {@link #SMALL_INT_MIN} on, that are 
+     * preallocated because they are used very often (e.g., as 
+     * constants, loop counters or array indices).
+     */
+    private static final Simplex[] SMALL_INTS = new Simplex[1152];
+    
+    /** 
+     * The char values with ASCII codes, that are preallocated 
+     * because they are used very often (e.g., by strings).
+     */
+    private static final Simplex[] ASCII_CHARS = new Simplex[128];
 
     static {
         try {
@@ -99,6 +115,12 @@ public abstract class Calculator {
             DEFAULT_DOUBLE    = ZERO_DOUBLE;
             DEFAULT_CHAR      = Simplex.make(Character.valueOf('\u0000'));
             DEFAULT_REFERENCE = Null.getInstance();
+            for (int i = 0; i < SMALL_INTS.length; ++i) {
+                SMALL_INTS[i] = (i + SMALL_INT_MIN == 0 ? ZERO_INT : Simplex.make(Integer.valueOf(i + SMALL_INT_MIN)));
+            }
+            for (int i = 0; i < ASCII_CHARS.length; ++i) {
+                ASCII_CHARS[i] = (i == 0 ? DEFAULT_CHAR : Simplex.make(Character.valueOf((char) i)));
+            }
         } catch (InvalidOperandException e) {
             //this should never happen
             throw new UnexpectedInternalException(e);
@@ -108,6 +130,54 @@ public abstract class Calculator {
 	/** The stack. */
     private final ArrayDeque<Primitive> stack = new ArrayDeque<>();
 
+    /** The hash-consing table, possibly shared with other {@link Calculator}s. */
+    private final PrimitiveInterner interner;
+
+    /**
+     * Constructor.
+     */
+    protected Calculator() {
+        this.interner = new PrimitiveInterner();
+        for (Simplex constant : new Simplex[] { TRUE, FALSE, ZERO_BYTE, ZERO_INT, ZERO_LONG, ZERO_SHORT, ZERO_FLOAT, ZERO_DOUBLE, DEFAULT_CHAR }) {
+            this.interner.intern(constant);
+        }
+        for (Simplex constant : SMALL_INTS) {
+            this.interner.intern(constant);
+        }
+        for (Simplex constant : ASCII_CHARS) {
+            this.interner.intern(constant);
+        }
+    }
+
+    /**
+     * Constructor. The created {@link Calculator} shares
+     * its hash-consing table with another one, so that the
+     * values produced by both are interned together.
+     * 
+     * @param calc another {@link Calculator}.
+     */
+    protected Calculator(Calculator calc) {
+        this.interner = calc.interner;
+    }
+
+    /**
+     * Interns a {@link Primitive}. All the {@link Expression}s,
+     * {@link WideningConversion}s, {@link NarrowingConversion}s,
+     * {@link PrimitiveSymbolicApply}s and {@link Simplex}es 
+     * produced by this calculator are interned, so that equal
+     * values are, as far as possible, the same object.
+     * 
+     * @param p a {@link Primitive}.
+     * @return a {@link Primitive} equal to {@code p}. If
+     *         {@code p} is an instance of one of the interned 
+     *         classes, it is the canonical representative of 
+     *         the values equal to {@code p} (and all its 
+     *         subterms are canonical as well).
+     */
+    public final <P extends Primitive> P intern(P p) {
+        return this.interner.intern(p);
+    }
+
     /**
      * Factory method for values with type {@link Any}.
      * 
@@ -138,7 +208,7 @@ public abstract class Calculator {
             return ZERO_BYTE;
         }
         try {
-            return Simplex.make(Byte.valueOf(value));
+            return intern(Simplex.make(Byte.valueOf(value)));
         } catch (InvalidOperandException e) {
             //this should never happen
             throw new UnexpectedInternalException(e);
@@ -156,7 +226,7 @@ public abstract class Calculator {
             return ZERO_SHORT;
         }
         try {
-            return Simplex.make(Short.valueOf(value));
+            return intern(Simplex.make(Short.valueOf(value)));
         } catch (InvalidOperandException e) {
             //this should never happen
             throw new UnexpectedInternalException(e);
@@ -170,11 +240,11 @@ public abstract class Calculator {
      * @return a {@link Simplex} representing {@code value}. 
      */
     public final Simplex valInt(int value) {
-        if (value == 0) {
-            return ZERO_INT;
+        if (value >= SMALL_INT_MIN && value < SMALL_INT_MIN + SMALL_INTS.length) {
+            return SMALL_INTS[value - SMALL_INT_MIN];
         }
         try {
-            return Simplex.make(Integer.valueOf(value));
+            return intern(Simplex.make(Integer.valueOf(value)));
         } catch (InvalidOperandException e) {
             //this should never happen
             throw new UnexpectedInternalException(e);
@@ -192,7 +262,7 @@ public abstract class Calculator {
             return ZERO_LONG;
         }
         try {
-            return Simplex.make(Long.valueOf(value));
+            return intern(Simplex.make(Long.valueOf(value)));
         } catch (InvalidOperandException e) {
             //this should never happen
             throw new UnexpectedInternalException(e);
@@ -210,7 +280,7 @@ public abstract class Calculator {
             return ZERO_FLOAT;
         }
         try {
-            return Simplex.make(Float.valueOf(value));
+            return intern(Simplex.make(Float.valueOf(value)));
         } catch (InvalidOperandException e) {
             //this should never happen
             throw new UnexpectedInternalException(e);
@@ -228,7 +298,7 @@ public abstract class Calculator {
             return ZERO_DOUBLE;
         }
         try {
-            return Simplex.make(Double.valueOf(value));
+            return intern(Simplex.make(Double.valueOf(value)));
         } catch (InvalidOperandException e) {
             //this should never happen
             throw new UnexpectedInternalException(e);
@@ -242,8 +312,11 @@ public abstract class Calculator {
      * @return a {@link Simplex} representing {@code value}. 
      */
     public final Simplex valChar(char value) {
+        if (value < ASCII_CHARS.length) {
+            return ASCII_CHARS[value];
+        }
         try {
-            return Simplex.make(Character.valueOf(value));
+            return intern(Simplex.make(Character.valueOf(value)));
         } catch (InvalidOperandException e) {
             //this should never happen
             throw new UnexpectedInternalException(e);
@@ -617,7 +690,7 @@ public abstract class Calculator {
      */
     public final Primitive applyFunctionPrimitiveAndPop(char type, HistoryPoint historyPoint, String operator, Value... args) 
     throws InvalidTypeException, InvalidInputException {
-    	return simplify(new PrimitiveSymbolicApply(type, historyPoint, operator, args));
+    	return intern(simplify(new PrimitiveSymbolicApply(type, historyPoint, operator, args)));
     }
     
     /**
@@ -1077,7 +1150,7 @@ public abstract class Calculator {
     	} else {
         	final Primitive operand = pop();
             try {
-                push(simplify(Expression.makeExpressionUnary(operator, operand)));
+                push(intern(simplify(Expression.makeExpressionUnary(operator, operand))));
             } catch (InvalidOperatorException | InvalidOperandException e) {
                 //this should never happen
                 throw new UnexpectedInternalException(e);
@@ -1106,7 +1179,7 @@ public abstract class Calculator {
     	} else {
         	final Primitive firstOperand = pop();
         	try {
-        		push(simplify(Expression.makeExpressionBinary(firstOperand, operator, operand)));
+        		push(intern(simplify(Expression.makeExpressionBinary(firstOperand, operator, operand))));
         	} catch (InvalidOperatorException | InvalidOperandException e) {
         		//this should never happen
         		throw new UnexpectedInternalException(e);
@@ -1127,7 +1200,7 @@ public abstract class Calculator {
     public final Calculator widen(char type) throws InvalidTypeException {
     	final Primitive operand = pop();
         try {
-            push(simplify(WideningConversion.make(type, operand)));
+            push(intern(simplify(WideningConversion.make(type, operand))));
         } catch (InvalidOperandException e) {
             //this should never happen
             throw new UnexpectedInternalException(e);
@@ -1147,7 +1220,7 @@ public abstract class Calculator {
     public final Calculator narrow(char type) throws InvalidTypeException {
     	final Primitive operand = pop();
         try {
-            push(simplify(NarrowingConversion.make(type, operand)));
+            push(intern(simplify(NarrowingConversion.make(type, operand))));
         } catch (InvalidOperandException e) {
             //this should never happen
             throw new UnexpectedInternalException(e);
@@ -1176,14 +1249,14 @@ public abstract class Calculator {
 			}
         } else if (widens(type, operandType)) {
             try {
-                push(simplify(WideningConversion.make(type, operand)));
+                push(intern(simplify(WideningConversion.make(type, operand))));
             } catch (InvalidOperandException | InvalidTypeException e) {
                 //this should never happen
                 throw new UnexpectedInternalException(e);
             }
         } else if (narrows(type, operandType)) {
             try {
-                push(simplify(NarrowingConversion.make(type, operand)));
+                push(intern(simplify(NarrowingConversion.make(type, operand))));
             } catch (InvalidOperandException | InvalidTypeException e) {
                 //this should never happen
                 throw new UnexpectedInternalException(e);
@@ -1300,9 +1373,9 @@ public abstract class Calculator {
 	        }
 
 	        if (expression.isUnary()) {
-	        	this.result = simplify(Expression.makeExpressionUnary(expression.getOperator(), second));
+	        	this.result = intern(simplify(Expression.makeExpressionUnary(expression.getOperator(), second)));
 	        } else {
-	        	this.result = simplify(Expression.makeExpressionBinary(first, expression.getOperator(), second));
+	        	this.result = intern(simplify(Expression.makeExpressionBinary(first, expression.getOperator(), second)));
 	        }
 	        Calculator.this.replaceCache.put(key, this.result);
 		}
@@ -1329,7 +1402,7 @@ public abstract class Calculator {
 		        }
 		    }
 		    
-		    this.result = simplify(new PrimitiveSymbolicApply(x.getType(), x.historyPoint(), x.getOperator(), argsNew));
+		    this.result = intern(simplify(new PrimitiveSymbolicApply(x.getType(), x.historyPoint(), x.getOperator(), argsNew)));
 	        Calculator.this.replaceCache.put(key, this.result);
 		}
 
@@ -1364,7 +1437,7 @@ public abstract class Calculator {
 	        	x.getArg().accept(this);
 	        	arg = this.result;
 	        }
-	        this.result = simplify(NarrowingConversion.make(x.getType(), arg));
+	        this.result = intern(simplify(NarrowingConversion.make(x.getType(), arg)));
 	        Calculator.this.replaceCache.put(key, this.result);
 		}
 
@@ -1384,7 +1457,7 @@ public abstract class Calculator {
 	        	x.getArg().accept(this);
 	        	arg = this.result;
 	        }
-	        this.result = simplify(WideningConversion.make(x.getType(), arg));
+	        this.result = intern(simplify(WideningConversion.make(x.getType(), arg)));
 	        Calculator.this.replaceCache.put(key, this.result);
 		}
     }
@@ -26,11 +26,11 @@ public final class Expression extends PrimitiveSymbolicComputed {
     /** The hash code of this object. */
     private final int hashCode;
 
-    /** The string representation of this object. */
-    private final String toString;
+    /** The string representation of this object, lazily calculated. */
+    private String toString;
     
-    /** The origin String representation of this object. */
-    private final String asOriginString;
+    /** The origin String representation of this object, lazily calculated. */
+    private String asOriginString;
 
     /**
      * Factory method for verbatim expressions (binary).
@@ -129,12 +129,6 @@ public final class Expression extends PrimitiveSymbolicComputed {
     	tmpHashCode = prime * tmpHashCode + this.operator.hashCode();
     	tmpHashCode = prime * tmpHashCode + this.secondOp.hashCode();
     	this.hashCode = tmpHashCode;
-
-    	//calculates toString
-    	this.toString = stringify(true);
-    	
-    	//calculates originString
-    	this.asOriginString = stringify(false);
     }
     
     private String stringify(boolean toString) {
@@ -232,6 +226,9 @@ public final class Expression extends PrimitiveSymbolicComputed {
     
     @Override
     public String asOriginString() {
+        if (this.asOriginString == null) {
+            this.asOriginString = stringify(false);
+        }
         return this.asOriginString;
     }
     
@@ -255,6 +252,9 @@ public final class Expression extends PrimitiveSymbolicComputed {
 
     @Override
     public String toString() {
+        if (this.toString == null) {
+            this.toString = stringify(true);
+        }
         return this.toString;
     }
 
@@ -275,6 +275,9 @@ public final class Expression extends PrimitiveSymbolicComputed {
             return false;
         }
         final Expression other = (Expression) obj;
+        if (this.hashCode != other.hashCode) {
+            return false;
+        }
         if (this.firstOp == null) {
             if (other.firstOp != null) {
                 return false;
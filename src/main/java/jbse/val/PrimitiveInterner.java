@@ -0,0 +1,161 @@
+package jbse.val;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+import jbse.common.exc.InvalidInputException;
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidOperatorException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * A weak hash-consing table for {@link Expression}s,
+ * {@link WideningConversion}s, {@link NarrowingConversion}s,
+ * {@link PrimitiveSymbolicApply}s and {@link Simplex}es.
+ * Interning a {@link Primitive} returns the canonical
+ * representative of its equivalence class, with all its
+ * subterms canonical in turn, so that equal interned
+ * {@link Primitive}s are, as far as possible, the same object
+ * (symbols are never replaced with equal symbols that are
+ * different objects). Representatives are
+ * weakly referenced, so they are dropped when no longer in use.
+ *
+ * @author Pietro Braione
+ *
+ */
+final class PrimitiveInterner {
+    private final WeakHashMap<Primitive, WeakReference<Primitive>> table = new WeakHashMap<>();
+
+    /**
+     * Interns a {@link Primitive}.
+     *
+     * @param p a {@link Primitive}.
+     * @return the canonical {@link Primitive} equal to {@code p}.
+     *         If {@code p} is not an instance of one of the interned
+     *         classes, or if it has an equal canonical {@link Primitive}
+     *         with different atomic symbols, it is returned unchanged.
+     */
+    @SuppressWarnings("unchecked")
+    <P extends Primitive> P intern(P p) {
+        if (!(p instanceof Expression || p instanceof WideningConversion ||
+              p instanceof NarrowingConversion || p instanceof PrimitiveSymbolicApply ||
+              p instanceof Simplex)) {
+            return p;
+        }
+        synchronized (this) {
+            final WeakReference<Primitive> ref = this.table.get(p);
+            final Primitive canonical = (ref == null ? null : ref.get());
+            if (canonical != null && (canonical == p || sameSubterms(canonical, p))) {
+                return (P) canonical;
+            }
+        }
+        final Primitive pCanonicalSubterms = internSubterms(p);
+        synchronized (this) {
+            final WeakReference<Primitive> ref = this.table.get(pCanonicalSubterms);
+            final Primitive canonical = (ref == null ? null : ref.get());
+            if (canonical == null) {
+                this.table.put(pCanonicalSubterms, new WeakReference<>(pCanonicalSubterms));
+                return (P) pCanonicalSubterms;
+            } else if (sameSubterms(canonical, pCanonicalSubterms)) {
+                return (P) canonical;
+            } else {
+                return p; //equal, but does not render the same: cannot be interned
+            }
+        }
+    }
+    
+    /**
+     * Checks whether two equal {@link Primitive}s are made
+     * of the same subterms. This is stronger than equality, 
+     * because atomic symbols are equal when they have the 
+     * same origin, but the decision procedures identify 
+     * them by their identifier, that may differ across states. 
+     * Therefore a value must not be replaced by an equal one
+     * with a different atomic symbol.
+     * 
+     * @param canonical a {@link Primitive} with interned subterms.
+     * @param p a {@link Primitive} with interned subterms, 
+     *        equal to {@code canonical}.
+     * @return {@code true} iff {@code canonical} and {@code p}
+     *         have the same immediate subterms.
+     */
+    private static boolean sameSubterms(Primitive canonical, Primitive p) {
+        if (canonical instanceof Expression) {
+            final Expression e1 = (Expression) canonical;
+            final Expression e2 = (Expression) p;
+            return (e1.isUnary() || sameSubterm(e1.getFirstOperand(), e2.getFirstOperand())) && 
+                   sameSubterm(e1.getSecondOperand(), e2.getSecondOperand());
+        } else if (canonical instanceof WideningConversion) {
+            return sameSubterm(((WideningConversion) canonical).getArg(), ((WideningConversion) p).getArg());
+        } else if (canonical instanceof NarrowingConversion) {
+            return sameSubterm(((NarrowingConversion) canonical).getArg(), ((NarrowingConversion) p).getArg());
+        } else if (canonical instanceof PrimitiveSymbolicApply) {
+            final Value[] args1 = ((PrimitiveSymbolicApply) canonical).getArgs();
+            final Value[] args2 = ((PrimitiveSymbolicApply) p).getArgs();
+            for (int i = 0; i < args1.length; ++i) {
+                if (!sameSubterm(args1[i], args2[i])) {
+                    return false;
+                }
+            }
+            return true;
+        } else {
+            return true; //Simplex
+        }
+    }
+    
+    private static boolean sameSubterm(Value v1, Value v2) {
+        //interned subterms are the same object, Terms and Simplexes are 
+        //identified by their value, all the rest is identified by identity 
+        return v1 == v2 || ((v1 instanceof Term || v1 instanceof Simplex) && v1.equals(v2));
+    }
+
+    /**
+     * Rebuilds a {@link Primitive} so that its
+     * immediate subterms are interned.
+     *
+     * @param p a {@link Primitive}.
+     * @return a {@link Primitive} equal to {@code p} whose
+     *         subterms are interned. It is {@code p} itself
+     *         if its subterms are already interned.
+     */
+    private Primitive internSubterms(Primitive p) {
+        try {
+            if (p instanceof Expression) {
+                final Expression e = (Expression) p;
+                final Primitive secondOperand = intern(e.getSecondOperand());
+                if (e.isUnary()) {
+                    return (secondOperand == e.getSecondOperand() ? e : Expression.makeExpressionUnary(e.getOperator(), secondOperand));
+                }
+                final Primitive firstOperand = intern(e.getFirstOperand());
+                return (firstOperand == e.getFirstOperand() && secondOperand == e.getSecondOperand() ? e :
+                        Expression.makeExpressionBinary(firstOperand, e.getOperator(), secondOperand));
+            } else if (p instanceof WideningConversion) {
+                final WideningConversion w = (WideningConversion) p;
+                final Primitive arg = intern(w.getArg());
+                return (arg == w.getArg() ? w : WideningConversion.make(w.getType(), arg));
+            } else if (p instanceof NarrowingConversion) {
+                final NarrowingConversion n = (NarrowingConversion) p;
+                final Primitive arg = intern(n.getArg());
+                return (arg == n.getArg() ? n : NarrowingConversion.make(n.getType(), arg));
+            } else if (p instanceof PrimitiveSymbolicApply) {
+                final PrimitiveSymbolicApply a = (PrimitiveSymbolicApply) p;
+                final Value[] args = a.getArgs();
+                boolean changed = false;
+                for (int i = 0; i < args.length; ++i) {
+                    if (args[i] instanceof Primitive) {
+                        final Primitive arg = intern((Primitive) args[i]);
+                        changed = changed || (arg != args[i]);
+                        args[i] = arg;
+                    }
+                }
+                return (changed ? new PrimitiveSymbolicApply(a.getType(), a.historyPoint(), a.getOperator(), args) : a);
+            } else {
+                return p; //Simplex
+            }
+        } catch (InvalidOperandException | InvalidOperatorException | InvalidTypeException | InvalidInputException e) {
+            //this should never happen, rebuilding with equal subterms
+            throw new UnexpectedInternalException(e);
+        }
+    }
+}
@@ -111,10 +111,11 @@ public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed impl
 	/** The hash code of this object. */
     private final int hashCode;
 
-    /** The string representation of this object. */
-	private final String toString;
+    /** The string representation of this object, lazily calculated. */
+	private String toString;
 	
-	private final String originString;
+    /** The origin string representation of this object, lazily calculated. */
+	private String originString;
 	
 	/**
 	 * Constructor. 
@@ -151,28 +152,21 @@ public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed impl
 		tmpHashCode = prime * tmpHashCode + ((operator == null) ? 0 : operator.hashCode());
                 tmpHashCode = prime * tmpHashCode + ((historyPoint == null) ? 0 : historyPoint.hashCode());
 		this.hashCode = tmpHashCode;
-		
-		//calculates toString
-		{
-			final StringBuilder buf = new StringBuilder();
-			buf.append(this.operator);
-			buf.append('(');
-			boolean first = true;
-			for (Value v : this.args) {
-				buf.append(first ? "" : ",");
-				buf.append(v.toString());
-				first = false;
-			}
-			buf.append(')');
-			if (historyPoint != null) {
-				buf.append('@');
-				buf.append(historyPoint.toString());
-			}
-			this.toString = buf.toString();
-		}
-		
-		//calculates originString
-		{
+	}
+	
+	@Override
+	public String getOperator() {
+		return this.operator;
+	}
+
+	@Override
+	public Value[] getArgs() {
+		return this.args.clone();
+	}
+	
+	@Override
+	public String asOriginString() {
+		if (this.originString == null) {
             final StringBuilder buf = new StringBuilder();
             buf.append('<');
             buf.append(this.operator);
@@ -192,20 +186,6 @@ public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed impl
             }
             this.originString = buf.toString();
 		}
-	}
-	
-	@Override
-	public String getOperator() {
-		return this.operator;
-	}
-
-	@Override
-	public Value[] getArgs() {
-		return this.args.clone();
-	}
-	
-	@Override
-	public String asOriginString() {
 		return this.originString;
 	}
 	
@@ -229,6 +209,23 @@ public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed impl
 
 	@Override
 	public String toString() {
+		if (this.toString == null) {
+			final StringBuilder buf = new StringBuilder();
+			buf.append(this.operator);
+			buf.append('(');
+			boolean first = true;
+			for (Value v : this.args) {
+				buf.append(first ? "" : ",");
+				buf.append(v.toString());
+				first = false;
+			}
+			buf.append(')');
+			if (historyPoint() != null) {
+				buf.append('@');
+				buf.append(historyPoint().toString());
+			}
+			this.toString = buf.toString();
+		}
 		return this.toString;
 	}
 
@@ -249,6 +246,9 @@ public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed impl
 			return false;
 		}
 		final PrimitiveSymbolicApply other = (PrimitiveSymbolicApply) obj;
+		if (this.hashCode != other.hashCode) {
+			return false;
+		}
 		if (!Arrays.equals(this.args, other.args)) {
 			return false;
 		}
@@ -20,8 +20,8 @@ public final class Simplex extends Primitive implements Cloneable {
     /** The hash code. */
     private final int hashCode;
 
-    /** The string representation of this object. */
-    private final String toString;
+    /** The string representation of this object, lazily calculated. */
+    private String toString;
 
     /**
      * Constructor.
@@ -53,9 +53,6 @@ public final class Simplex extends Primitive implements Cloneable {
         int result = 1;
         result = prime + result * this.value.hashCode();
         this.hashCode = result;
-
-        //calculates toString
-        this.toString = toString(this.value);
     }
     
     /**
@@ -265,6 +262,9 @@ public final class Simplex extends Primitive implements Cloneable {
 
     @Override
     public String toString() {
+        if (this.toString == null) {
+            this.toString = toString(this.value);
+        }
         return this.toString;
     }
 
@@ -285,6 +285,9 @@ public final class Simplex extends Primitive implements Cloneable {
             return false;
         }
         final Simplex other = (Simplex) obj;
+        if (this.hashCode != other.hashCode) {
+            return false;
+        }
         if (this.value == null) {
             if (other.value != null) {
                 return false;
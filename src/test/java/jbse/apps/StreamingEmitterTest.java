@@ -0,0 +1,53 @@
+package jbse.apps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class StreamingEmitterTest {
+	@Test
+	public void testOrderPreserved() throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final StringBuilder expected = new StringBuilder();
+		try (final StreamingEmitter e = new StreamingEmitter(Channels.newChannel(bytes), 4)) {
+			for (int i = 0; i < 1000; ++i) {
+				final String line = "state " + i + " è\n";
+				expected.append(line);
+				e.submit(() -> line);
+			}
+		}
+		assertEquals(expected.toString(), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testLargeText() throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final StringBuilder large = new StringBuilder();
+		for (int i = 0; i < 100000; ++i) {
+			large.append((char) ('a' + i % 26));
+		}
+		try (final StreamingEmitter e = new StreamingEmitter(Channels.newChannel(bytes), 1)) {
+			e.submit(large::toString);
+		}
+		assertEquals(large.toString(), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testFailureReported() throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final StreamingEmitter e = new StreamingEmitter(Channels.newChannel(bytes), 1);
+		e.submit(() -> { throw new IllegalStateException(); });
+		try {
+			e.close();
+			assertTrue(false);
+		} catch (IOException exc) {
+			assertTrue(exc.getCause() instanceof IllegalStateException);
+		}
+	}
+}
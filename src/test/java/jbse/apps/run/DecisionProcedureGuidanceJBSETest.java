@@ -0,0 +1,127 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import jbse.bc.Signature;
+import jbse.dec.DecisionProcedureAlgorithms;
+import jbse.dec.DecisionProcedureAlwSat;
+import jbse.dec.DecisionProcedureClassInit;
+import jbse.jvm.Runner.Actions;
+import jbse.jvm.RunnerParameters;
+import jbse.jvm.StartupSnapshots;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterExpressionOrConversionOnSimplex;
+import jbse.rewr.RewriterFunctionApplicationOnSimplex;
+import jbse.rewr.RewriterNegationElimination;
+import jbse.rewr.RewriterZeroUnit;
+import jbse.rules.ClassInitRulesRepo;
+import jbse.tree.DecisionAlternativeComparators;
+import jbse.tree.DecisionAlternative_IFX;
+import jbse.val.HistoryPoint;
+import jbse.val.Primitive;
+import jbse.val.SymbolFactory;
+
+public class DecisionProcedureGuidanceJBSETest {
+    private static final Signature COUNT = new Signature("paths/Branches", "(III)I", "count");
+
+    private static CalculatorRewriting calc() {
+        final CalculatorRewriting calc = new CalculatorRewriting();
+        calc.addRewriter(new RewriterExpressionOrConversionOnSimplex()); //indispensable
+        calc.addRewriter(new RewriterFunctionApplicationOnSimplex()); //indispensable
+        calc.addRewriter(new RewriterZeroUnit()); //indispensable
+        calc.addRewriter(new RewriterNegationElimination()); //indispensable?
+        return calc;
+    }
+
+    /**
+     * Builds the parameters of the concrete execution of
+     * {@code paths.Branches.driver()}, that invokes
+     * {@code count(1, -2, 3)}.
+     */
+    private static RunnerParameters driverParameters(CalculatorRewriting calc) throws Exception {
+        final RunnerParameters p = new RunnerParameters();
+        p.setJBSELibPath(Paths.get("build/classes/java/main"));
+        p.setJavaHome(Paths.get(System.getProperty("java.home", "")));
+        p.addUserClasspath(Paths.get("src/test/resources/jbse/jvm/testdata"));
+        p.setMethodSignature("paths/Branches", "()I", "driver");
+        p.setCalculator(calc);
+        p.setDecisionProcedure(new DecisionProcedureAlgorithms(new DecisionProcedureClassInit(new DecisionProcedureAlwSat(calc), new ClassInitRulesRepo())));
+        return p;
+    }
+
+    /**
+     * Asks the guidance which outcomes of {@code x > 0} are
+     * possible for each parameter {@code x} of {@code count}.
+     */
+    private static List<Boolean> answers(DecisionProcedureGuidanceJBSE guidance, CalculatorRewriting calc) throws Exception {
+        final SymbolFactory f = new SymbolFactory();
+        final HistoryPoint hp = HistoryPoint.unknown();
+        final ArrayList<Boolean> retVal = new ArrayList<>();
+        for (String param : new String[] { "a", "b", "c" }) {
+            final Primitive condition = calc.push(f.createSymbolLocalVariablePrimitive(hp, "I", param)).gt(calc.valInt(0)).pop();
+            final TreeSet<DecisionAlternative_IFX> result = new TreeSet<>(DecisionAlternativeComparators.defaultComparatorDecisionAlternative_IFX());
+            guidance.decide_IFX(condition, result);
+            assertEquals(1, result.size());
+            retVal.add(result.first().value());
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testSecondConstructionReusesConcreteState() throws Exception {
+        final StartupSnapshots snapshots = new StartupSnapshots(4);
+
+        final CalculatorRewriting calc1 = calc();
+        final RunnerParameters p1 = driverParameters(calc1);
+        final Actions actions1 = p1.getActions();
+        final DecisionProcedureGuidanceJBSE guidance1 = new DecisionProcedureGuidanceJBSE(new DecisionProcedureAlwSat(calc1), calc1, p1, COUNT, 1, snapshots);
+        final List<Boolean> answers1;
+        try {
+            assertNotSame(actions1, p1.getActions()); //ran the concrete execution
+            assertEquals(0, snapshots.getHits());
+            assertEquals(1, snapshots.getMisses());
+            answers1 = answers(guidance1, calc1);
+        } finally {
+            guidance1.close();
+        }
+
+        final CalculatorRewriting calc2 = calc();
+        final RunnerParameters p2 = driverParameters(calc2);
+        final Actions actions2 = p2.getActions();
+        final DecisionProcedureGuidanceJBSE guidance2 = new DecisionProcedureGuidanceJBSE(new DecisionProcedureAlwSat(calc2), calc2, p2, COUNT, 1, snapshots);
+        try {
+            assertSame(actions2, p2.getActions()); //skipped the concrete execution
+            assertEquals(1, snapshots.getHits());
+            assertEquals(answers1, answers(guidance2, calc2));
+        } finally {
+            guidance2.close();
+        }
+        assertEquals(Arrays.asList(true, false, true), answers1);
+    }
+
+    @Test
+    public void testNoReuseByDefault() throws Exception {
+        final CalculatorRewriting calc = calc();
+        final RunParameters parameters = new RunParameters();
+        assertNull(parameters.getGuidanceJBSESnapshots());
+        final RunnerParameters p = driverParameters(calc);
+        final Actions actions = p.getActions();
+        final DecisionProcedureGuidanceJBSE guidance = new DecisionProcedureGuidanceJBSE(new DecisionProcedureAlwSat(calc), calc, p, COUNT, 1);
+        try {
+            assertNotSame(actions, p.getActions()); //ran the concrete execution
+        } finally {
+            guidance.close();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.sun.jdi.Field;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.Value;
+
+import jbse.common.exc.InvalidInputException;
+import jbse.val.HistoryPoint;
+import jbse.val.Symbolic;
+import jbse.val.SymbolFactory;
+import jbse.val.exc.InvalidTypeException;
+
+public class DecisionProcedureGuidanceJDICacheTest {
+    private final SymbolFactory f = new SymbolFactory();
+
+    private Symbolic local(String name) throws InvalidInputException, InvalidTypeException {
+        return (Symbolic) this.f.createSymbolLocalVariablePrimitive(HistoryPoint.unknown(), "I", name);
+    }
+
+    /** Counts the resolutions of each origin. */
+    private static final class CountingResolver implements DecisionProcedureGuidanceJDICache.Resolver {
+        final HashMap<String, Integer> resolutions = new HashMap<>();
+
+        @Override
+        public Object resolve(Symbolic origin) {
+            this.resolutions.merge(origin.asOriginString(), 1, Integer::sum);
+            return origin.asOriginString();
+        }
+
+        int resolutions(Symbolic origin) {
+            return this.resolutions.getOrDefault(origin.asOriginString(), 0);
+        }
+    }
+
+    /** Counts the round-trips for the field values of an object. */
+    private static ObjectReference object(List<ObjectReference> reads) {
+        return (ObjectReference) Proxy.newProxyInstance(DecisionProcedureGuidanceJDICacheTest.class.getClassLoader(), new Class<?>[] { ObjectReference.class }, (proxy, method, args) -> {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            } else if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            } else if (method.getName().equals("toString")) {
+                return "stub object " + System.identityHashCode(proxy);
+            } else if (method.getName().equals("getValues")) {
+                reads.add((ObjectReference) proxy);
+                return Collections.<Field, Value>emptyMap();
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    @Test
+    public void testHitUntilInvalidated() throws Exception {
+        final DecisionProcedureGuidanceJDICache cache = new DecisionProcedureGuidanceJDICache(16, 16);
+        final CountingResolver resolver = new CountingResolver();
+        final Symbolic a = local("a");
+        assertEquals(a.asOriginString(), cache.get(a, true, resolver));
+        assertEquals(a.asOriginString(), cache.get(a, true, resolver));
+        assertEquals(1, resolver.resolutions(a));
+
+        //the debuggee moved
+        cache.invalidate();
+        cache.get(a, true, resolver);
+        assertEquals(2, resolver.resolutions(a));
+    }
+
+    @Test
+    public void testNullMemoizedUnlessNotCacheable() throws Exception {
+        final DecisionProcedureGuidanceJDICache cache = new DecisionProcedureGuidanceJDICache(16, 16);
+        final int[] resolutions = new int[1];
+        final DecisionProcedureGuidanceJDICache.Resolver resolver = origin -> { ++resolutions[0]; return null; };
+        final Symbolic a = local("a");
+        assertNull(cache.get(a, true, resolver));
+        assertNull(cache.get(a, true, resolver));
+        assertEquals(1, resolutions[0]);
+        final Symbolic b = local("b");
+        cache.get(b, false, resolver);
+        cache.get(b, false, resolver);
+        assertEquals(3, resolutions[0]);
+    }
+
+    @Test
+    public void testOriginsEvictedLeastRecentlyUsed() throws Exception {
+        final DecisionProcedureGuidanceJDICache cache = new DecisionProcedureGuidanceJDICache(2, 16);
+        final CountingResolver resolver = new CountingResolver();
+        final Symbolic a = local("a");
+        final Symbolic b = local("b");
+        final Symbolic c = local("c");
+        cache.get(a, true, resolver);
+        cache.get(b, true, resolver);
+        cache.get(a, true, resolver);
+        cache.get(c, true, resolver); //evicts b
+        cache.get(a, true, resolver);
+        cache.get(c, true, resolver);
+        assertEquals(1, resolver.resolutions(a));
+        assertEquals(1, resolver.resolutions(c));
+        cache.get(b, true, resolver);
+        assertEquals(2, resolver.resolutions(b));
+    }
+
+    @Test
+    public void testSymbolicApplyDependencyKeptAcrossIndexResolution() throws Exception {
+        final DecisionProcedureGuidanceJDICache cache = new DecisionProcedureGuidanceJDICache(16, 16);
+        final CountingResolver resolver = new CountingResolver();
+        final Symbolic array = local("array");
+        final Symbolic index = local("index");
+        final Symbolic element = local("element");
+
+        //the array is returned by an uninterpreted function,
+        //the index is not; the element is resolved as in
+        //DecisionProcedureGuidanceJDI, that resolves the
+        //container, then the index
+        final DecisionProcedureGuidanceJDICache.Resolver elementResolver = origin -> {
+            resolver.resolve(origin);
+            cache.get(array, true, o -> { cache.setDependsOnSymbolicApply(); return resolver.resolve(o); });
+            final boolean containerDependsOnSymbolicApply = cache.dependsOnSymbolicApply();
+            cache.get(index, true, resolver);
+            if (containerDependsOnSymbolicApply) {
+                cache.setDependsOnSymbolicApply();
+            }
+            return "element";
+        };
+        cache.get(element, true, elementResolver);
+        assertTrue(cache.dependsOnSymbolicApply());
+        cache.get(element, true, elementResolver);
+        assertEquals(2, resolver.resolutions(element));
+        assertEquals(2, resolver.resolutions(array));
+        assertEquals(1, resolver.resolutions(index));
+    }
+
+    @Test
+    public void testDependencyResetForEachOrigin() throws Exception {
+        final DecisionProcedureGuidanceJDICache cache = new DecisionProcedureGuidanceJDICache(16, 16);
+        final CountingResolver resolver = new CountingResolver();
+        final Symbolic apply = local("apply");
+        final Symbolic a = local("a");
+        cache.get(apply, true, o -> { cache.setDependsOnSymbolicApply(); return resolver.resolve(o); });
+        assertTrue(cache.dependsOnSymbolicApply());
+
+        //a later, independent origin is memoized
+        cache.get(a, true, o -> { assertFalse(cache.dependsOnSymbolicApply()); return resolver.resolve(o); });
+        cache.get(a, true, resolver);
+        assertEquals(1, resolver.resolutions(a));
+    }
+
+    @Test
+    public void testFieldValuesEvictedLeastRecentlyUsedAndInvalidated() {
+        final DecisionProcedureGuidanceJDICache cache = new DecisionProcedureGuidanceJDICache(16, 2);
+        final List<ObjectReference> reads = new ArrayList<>();
+        final ObjectReference o1 = object(reads);
+        final ObjectReference o2 = object(reads);
+        final ObjectReference o3 = object(reads);
+        final List<Field> fields = Collections.emptyList();
+        final Map<Field, Value> values1 = cache.fieldValues(o1, fields);
+        assertSame(values1, cache.fieldValues(o1, fields));
+        cache.fieldValues(o2, fields);
+        cache.fieldValues(o1, fields);
+        cache.fieldValues(o3, fields); //evicts o2
+        cache.fieldValues(o1, fields);
+        assertEquals(3, reads.size());
+        cache.fieldValues(o2, fields);
+        assertEquals(4, reads.size());
+
+        //the debuggee moved
+        cache.invalidate();
+        cache.fieldValues(o1, fields);
+        assertEquals(5, reads.size());
+    }
+}
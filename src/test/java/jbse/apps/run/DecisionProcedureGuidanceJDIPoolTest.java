@@ -0,0 +1,140 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.sun.jdi.VirtualMachine;
+
+public class DecisionProcedureGuidanceJDIPoolTest {
+    private static final class StubLauncher implements DecisionProcedureGuidanceJDIPool.Launcher {
+        final BlockingQueue<VirtualMachine> launched = new LinkedBlockingQueue<>();
+        final BlockingQueue<VirtualMachine> disposed = new LinkedBlockingQueue<>();
+        volatile boolean fail = false;
+
+        @Override
+        public VirtualMachine launch() throws GuidanceException {
+            if (this.fail) {
+                throw new GuidanceException("launch failed");
+            }
+            final VirtualMachine vm = (VirtualMachine) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { VirtualMachine.class }, (proxy, method, args) -> {
+                if (method.getName().equals("equals")) {
+                    return proxy == args[0];
+                } else if (method.getName().equals("hashCode")) {
+                    return System.identityHashCode(proxy);
+                } else if (method.getName().equals("toString")) {
+                    return "stub VM " + System.identityHashCode(proxy);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+            this.launched.add(vm);
+            return vm;
+        }
+
+        @Override
+        public void dispose(VirtualMachine vm) {
+            this.disposed.add(vm);
+        }
+
+        VirtualMachine nextLaunched() throws InterruptedException {
+            return this.launched.poll(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testLeaseWithoutPrelaunchLaunchesOnDemand() throws Exception {
+        final StubLauncher launcher = new StubLauncher();
+        final DecisionProcedureGuidanceJDIPool pool = new DecisionProcedureGuidanceJDIPool(launcher, 0, 0);
+        assertTrue(launcher.launched.isEmpty());
+        final VirtualMachine vm = pool.lease();
+        assertSame(vm, launcher.launched.poll());
+        assertTrue(launcher.launched.isEmpty());
+        pool.close();
+        assertTrue(launcher.disposed.isEmpty());
+    }
+
+    @Test
+    public void testLeaseReturnsPrelaunchedAndRefills() throws Exception {
+        final StubLauncher launcher = new StubLauncher();
+        final DecisionProcedureGuidanceJDIPool pool = new DecisionProcedureGuidanceJDIPool(launcher, 2, 0);
+        final VirtualMachine first = launcher.nextLaunched();
+        final VirtualMachine second = launcher.nextLaunched();
+        assertSame(first, pool.lease());
+        final VirtualMachine third = launcher.nextLaunched(); //the refill
+        assertNotNull(third);
+        assertSame(second, pool.lease());
+        assertSame(third, pool.lease());
+        pool.close();
+    }
+
+    @Test
+    public void testCloseDisposesParkedOnly() throws Exception {
+        final StubLauncher launcher = new StubLauncher();
+        final DecisionProcedureGuidanceJDIPool pool = new DecisionProcedureGuidanceJDIPool(launcher, 1, 0);
+        final VirtualMachine leased = pool.lease();
+        final VirtualMachine parked = launcher.nextLaunched();
+        final VirtualMachine refill = launcher.nextLaunched();
+        assertSame(leased, parked);
+        pool.close(); //the refill is disposed, either by close or by the launching thread
+        assertSame(refill, launcher.disposed.poll(10, TimeUnit.SECONDS));
+        assertTrue(launcher.disposed.isEmpty());
+    }
+
+    @Test(expected = GuidanceException.class)
+    public void testLeaseAfterCloseFails() throws Exception {
+        final DecisionProcedureGuidanceJDIPool pool = new DecisionProcedureGuidanceJDIPool(new StubLauncher(), 1, 0);
+        pool.close();
+        pool.lease();
+    }
+
+    @Test(expected = GuidanceException.class)
+    public void testLaunchFailureSurfacesOnLease() throws Exception {
+        final StubLauncher launcher = new StubLauncher();
+        launcher.fail = true;
+        final DecisionProcedureGuidanceJDIPool pool = new DecisionProcedureGuidanceJDIPool(launcher, 1, 0);
+        try {
+            pool.lease();
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testMakeLiveEvictsLeastRecentlyUsed() {
+        final DecisionProcedureGuidanceJDIPool pool = new DecisionProcedureGuidanceJDIPool(new StubLauncher(), 0, 2);
+        final List<String> evicted = new ArrayList<>();
+        pool.makeLive("a", () -> evicted.add("a"));
+        pool.makeLive("b", () -> evicted.add("b"));
+        pool.makeLive("a", () -> evicted.add("a"));
+        assertTrue(evicted.isEmpty());
+        pool.makeLive("c", () -> evicted.add("c"));
+        assertEquals(Collections.singletonList("b"), evicted);
+        pool.makeLive("b", () -> evicted.add("b'"));
+        assertEquals(Arrays.asList("b", "a"), evicted);
+        pool.close();
+    }
+
+    @Test
+    public void testMakeLiveUnbounded() {
+        final DecisionProcedureGuidanceJDIPool pool = new DecisionProcedureGuidanceJDIPool(new StubLauncher(), 0, 0);
+        final List<Integer> evicted = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            final int j = i;
+            pool.makeLive(i, () -> evicted.add(j));
+        }
+        assertTrue(evicted.isEmpty());
+        pool.close();
+    }
+}
@@ -0,0 +1,93 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.Signature;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.mem.ClauseAssumeNull;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.HistoryPoint;
+import jbse.val.Primitive;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.SymbolFactory;
+
+public class InitialHeapCheckerTest {
+    private static final Signature REP_OK = new Signature("List", "()Z", "repOk");
+
+    private CalculatorRewriting calc;
+    private ReferenceSymbolic thisList, thisNext, other, thisx;
+    private Primitive thisSize, otherSize, thisxSize;
+
+    @Before
+    public void setUp() throws Exception {
+        this.calc = new CalculatorRewriting();
+        final SymbolFactory f = new SymbolFactory();
+        final HistoryPoint hp = HistoryPoint.startingPreInitial(false);
+        this.thisList = f.createSymbolLocalVariableReference(hp, "LList;", "LList;", "this");
+        this.thisNext = f.createSymbolMemberFieldReference("LList;", "LList;", this.thisList, "next", "List");
+        this.other = f.createSymbolLocalVariableReference(hp, "LList;", "LList;", "other");
+        this.thisx = f.createSymbolLocalVariableReference(hp, "LList;", "LList;", "thisx");
+        this.thisSize = f.createSymbolMemberFieldPrimitive("I", this.thisList, "size", "List");
+        this.otherSize = f.createSymbolMemberFieldPrimitive("I", this.other, "size", "List");
+        this.thisxSize = f.createSymbolMemberFieldPrimitive("I", this.thisx, "size", "List");
+    }
+
+    private String key(Clause... pathCondition) {
+        return InitialHeapChecker.verdictKey(REP_OK, this.thisList, "List", Arrays.asList(pathCondition), false);
+    }
+
+    private Clause positive(Primitive p) throws Exception {
+        return new ClauseAssume(this.calc.push(p).gt(this.calc.valInt(0)).pop());
+    }
+
+    @Test
+    public void testInSliceBoundary() {
+        final List<String> roots = Collections.singletonList("{ROOT}:this");
+        assertTrue(InitialHeapChecker.inSlice("{ROOT}:this", roots));
+        assertTrue(InitialHeapChecker.inSlice("{ROOT}:this.List:next", roots));
+        assertTrue(InitialHeapChecker.inSlice("{ROOT}:this[0]", roots));
+        assertTrue(InitialHeapChecker.inSlice("{ROOT}:this::KEY-OF[0]", roots));
+        assertFalse(InitialHeapChecker.inSlice("{ROOT}:thisx", roots));
+        assertFalse(InitialHeapChecker.inSlice("{ROOT}:thisx.List:next", roots));
+        assertFalse(InitialHeapChecker.inSlice("{ROOT}:this.List:nextx", Collections.singletonList("{ROOT}:this.List:next")));
+        assertTrue(InitialHeapChecker.inSlice("[List].first", roots)); //not rooted in a local variable
+    }
+
+    @Test
+    public void testKeyHitOutsideSlice() throws Exception {
+        final Clause thisNextNull = new ClauseAssumeNull(this.thisNext);
+        final String key = key(thisNextNull);
+        assertEquals(key, key(thisNextNull, new ClauseAssumeNull(this.other)));
+        assertEquals(key, key(new ClauseAssumeNull(this.thisx), thisNextNull));
+        assertEquals(key, key(thisNextNull, positive(this.otherSize), positive(this.thisxSize)));
+    }
+
+    @Test
+    public void testKeyInvalidatedInSlice() throws Exception {
+        final String key = key();
+        assertNotEquals(key, key(new ClauseAssumeNull(this.thisNext)));
+        assertNotEquals(key, key(positive(this.thisSize)));
+        assertNotEquals(key(new ClauseAssumeNull(this.thisNext)), key(new ClauseAssumeNull(this.thisNext), positive(this.thisSize)));
+    }
+
+    @Test
+    public void testKeyPrimitiveConnected() throws Exception {
+        final Clause sameSize = new ClauseAssume(this.calc.push(this.thisSize).eq(this.otherSize).pop());
+        final String key = key(sameSize);
+        assertNotEquals(key(), key);
+        assertNotEquals(key, key(sameSize, positive(this.otherSize))); //constrains this.size through other.size
+        assertNotEquals(key, key(positive(this.otherSize), sameSize));
+        assertEquals(key, key(sameSize, positive(this.thisxSize)));
+    }
+}
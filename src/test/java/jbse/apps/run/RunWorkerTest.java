@@ -0,0 +1,68 @@
+package jbse.apps.run;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import jbse.jvm.RunnerDistributed.Assignment;
+
+public class RunWorkerTest {
+    public static final class Factory implements Supplier<RunParameters> {
+        @Override
+        public RunParameters get() {
+            final RunParameters retVal = new RunParameters();
+            retVal.setDistribution(4, 2, Paths.get("foo"), Factory.class);
+            return retVal;
+        }
+    }
+
+    @Test
+    public void testConfigure() throws Exception {
+        final Path workDir = Files.createTempDirectory("jbse");
+        final Assignment assignment = new Assignment(".1.2", workDir.resolve("c"), workDir.resolve("r"), 100L);
+        final RunParameters p = new Factory().get();
+        RunWorker.configure(p, assignment);
+        assertEquals(0, p.getDistributionWorkers());
+        assertEquals(".1.2", p.getIdentifierSubregion());
+        assertEquals(workDir.resolve("c"), p.getCheckpointFilePath());
+        assertEquals(100L, p.getTimeout());
+        assertEquals(workDir.resolve("r"), p.getOutputFilePath());
+        assertNull(p.getStateOutputFilePath());
+        assertFalse(p.getShowOnConsole());
+    }
+
+    @Test
+    public void testConfigureStateOutput() throws Exception {
+        final Path workDir = Files.createTempDirectory("jbse");
+        final Assignment assignment = new Assignment(".1.2", workDir.resolve("c"), workDir.resolve("r"), 0L);
+        final RunParameters p = new Factory().get();
+        p.setStateOutputFilePath(workDir.resolve("states"));
+        RunWorker.configure(p, assignment);
+        assertEquals(workDir.resolve("r"), p.getStateOutputFilePath());
+        assertEquals(workDir.resolve("r.out"), p.getOutputFilePath());
+        assertEquals(0L, p.getTimeout());
+    }
+
+    @Test
+    public void testCommand() {
+        final List<String> command = RunWorker.command(Factory.class.getName());
+        assertEquals(RunWorker.class.getName(), command.get(command.size() - 2));
+        assertEquals(Factory.class.getName(), command.get(command.size() - 1));
+    }
+
+    @Test
+    public void testWrongArguments() {
+        assertEquals(1, RunWorker.run(new String[0]));
+        assertEquals(1, RunWorker.run(new String[] { Factory.class.getName(), ".1" }));
+        assertEquals(1, RunWorker.run(new String[] { "not.a.Factory", ".1", "c", "r", "0" }));
+    }
+}
@@ -0,0 +1,81 @@
+package jbse.bc;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import jbse.common.exc.InvalidInputException;
+
+public class ClassFileStoreTest {
+    private static ClassFile array(String className, ClassFile memberClass) {
+        return new ClassFileArray(className, memberClass, null, null, null);
+    }
+
+    private final ClassFile cf_INT_ARRAY = array("[I", new ClassFileInteger());
+    private final ClassFile cf_LONG_ARRAY = array("[J", new ClassFileLong());
+    private final ClassFile cf_BOOLEAN_ARRAY = array("[Z", new ClassFileBoolean());
+    private final ClassFile cf_BYTE_ARRAY = array("[B", new ClassFileByte());
+
+    @Test
+    public void testCloneSeesClassesOfOriginal() throws InvalidInputException {
+        final ClassFileStore original = new ClassFileStore();
+        original.putClassFile(1, this.cf_INT_ARRAY);
+        original.putClassFile(2, this.cf_LONG_ARRAY);
+        final ClassFileStore clone = original.clone();
+        assertSame(this.cf_INT_ARRAY, clone.getClassFile(1, "[I"));
+        assertSame(this.cf_LONG_ARRAY, clone.getClassFile(2, "[J"));
+    }
+
+    @Test
+    public void testWriteToCloneInvisibleToOriginal() throws InvalidInputException {
+        final ClassFileStore original = new ClassFileStore();
+        original.putClassFile(1, this.cf_INT_ARRAY);
+        final ClassFileStore clone = original.clone();
+        clone.putClassFile(1, this.cf_LONG_ARRAY); //shared table
+        clone.putClassFile(3, this.cf_BOOLEAN_ARRAY); //new table
+        assertSame(this.cf_LONG_ARRAY, clone.getClassFile(1, "[J"));
+        assertSame(this.cf_BOOLEAN_ARRAY, clone.getClassFile(3, "[Z"));
+        assertNull(original.getClassFile(1, "[J"));
+        assertNull(original.getClassFile(3, "[Z"));
+        assertSame(this.cf_INT_ARRAY, original.getClassFile(1, "[I"));
+    }
+
+    @Test
+    public void testWriteToOriginalInvisibleToClone() throws InvalidInputException {
+        final ClassFileStore original = new ClassFileStore();
+        original.putClassFile(1, this.cf_INT_ARRAY);
+        final ClassFileStore clone = original.clone();
+        original.putClassFile(1, this.cf_LONG_ARRAY); //shared table
+        original.putClassFile(3, this.cf_BOOLEAN_ARRAY); //new table
+        assertSame(this.cf_LONG_ARRAY, original.getClassFile(1, "[J"));
+        assertSame(this.cf_BOOLEAN_ARRAY, original.getClassFile(3, "[Z"));
+        assertNull(clone.getClassFile(1, "[J"));
+        assertNull(clone.getClassFile(3, "[Z"));
+        assertSame(this.cf_INT_ARRAY, clone.getClassFile(1, "[I"));
+    }
+
+    @Test
+    public void testWritesAfterCopyStayPrivate() throws InvalidInputException {
+        final ClassFileStore original = new ClassFileStore();
+        original.putClassFile(1, this.cf_INT_ARRAY);
+        final ClassFileStore clone1 = original.clone();
+        final ClassFileStore clone2 = clone1.clone();
+
+        //the first write copies the table, the second
+        //modifies the copy in place
+        clone1.putClassFile(1, this.cf_LONG_ARRAY);
+        clone1.putClassFile(1, this.cf_BOOLEAN_ARRAY);
+        original.putClassFile(1, this.cf_BYTE_ARRAY);
+        assertSame(this.cf_LONG_ARRAY, clone1.getClassFile(1, "[J"));
+        assertSame(this.cf_BOOLEAN_ARRAY, clone1.getClassFile(1, "[Z"));
+        assertNull(clone1.getClassFile(1, "[B"));
+        assertSame(this.cf_BYTE_ARRAY, original.getClassFile(1, "[B"));
+        assertNull(original.getClassFile(1, "[J"));
+        assertNull(original.getClassFile(1, "[Z"));
+        assertNull(clone2.getClassFile(1, "[J"));
+        assertNull(clone2.getClassFile(1, "[Z"));
+        assertNull(clone2.getClassFile(1, "[B"));
+        assertSame(this.cf_INT_ARRAY, clone2.getClassFile(1, "[I"));
+    }
+}
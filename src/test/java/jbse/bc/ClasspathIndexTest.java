@@ -0,0 +1,91 @@
+package jbse.bc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import org.junit.Test;
+
+public class ClasspathIndexTest {
+    private static final byte[] CONTENT_A = "class a content, class a content, class a content".getBytes();
+    private static final byte[] CONTENT_B = "class b".getBytes();
+
+    private static Path makeJar(Path dir, String name, byte[] contentA) throws IOException {
+        final Path jar = dir.resolve(name);
+        try (final JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            //a deflated entry
+            out.putNextEntry(new JarEntry("p/A.class"));
+            out.write(contentA);
+            out.closeEntry();
+
+            //a stored entry
+            final JarEntry e = new JarEntry("p/q/B.class");
+            e.setMethod(ZipEntry.STORED);
+            e.setSize(CONTENT_B.length);
+            final CRC32 crc = new CRC32();
+            crc.update(CONTENT_B);
+            e.setCrc(crc.getValue());
+            out.putNextEntry(e);
+            out.write(CONTENT_B);
+            out.closeEntry();
+        }
+        return jar;
+    }
+
+    @Test
+    public void testFindInJar() throws IOException {
+        final Path dir = Files.createTempDirectory("jbse");
+        final Path jar = makeJar(dir, "test1.jar", CONTENT_A);
+        final ClasspathIndex index = new ClasspathIndex(Collections.singletonList(jar), null);
+        final ClasspathIndex.Location a = index.find("p/A");
+        assertNotNull(a);
+        assertEquals(jar, a.getContainer());
+        assertArrayEquals(CONTENT_A, a.read());
+        assertArrayEquals(CONTENT_B, index.find("p/q/B").read());
+        assertNull(index.find("p/C"));
+    }
+
+    @Test
+    public void testLookupOrder() throws IOException {
+        final Path dir = Files.createTempDirectory("jbse");
+        final Path classes = Files.createDirectories(dir.resolve("classes").resolve("p"));
+        final byte[] contentDir = "from directory".getBytes();
+        Files.write(classes.resolve("A.class"), contentDir);
+        final Path jar = makeJar(dir, "test2.jar", CONTENT_A);
+        final ClasspathIndex index = new ClasspathIndex(Arrays.asList(dir.resolve("classes"), jar), null);
+        assertArrayEquals(contentDir, index.find("p/A").read());
+        assertArrayEquals(CONTENT_B, index.find("p/q/B").read());
+    }
+
+    @Test
+    public void testPersistedAndInvalidated() throws IOException {
+        final Path dir = Files.createTempDirectory("jbse");
+        final Path cache = dir.resolve("cache");
+        final Path jar = makeJar(dir, "test3.jar", CONTENT_A);
+        assertArrayEquals(CONTENT_A, new ClasspathIndex(Collections.singletonList(jar), cache).find("p/A").read());
+        try (final java.util.stream.Stream<Path> files = Files.list(cache)) {
+            assertEquals(1, files.count());
+        }
+
+        //rewrites the jar with different content and modification time
+        final byte[] contentA2 = "another content for class a".getBytes();
+        makeJar(dir, "test3.jar", contentA2);
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 10000));
+        final ClasspathIndex.Location a = new ClasspathIndex(Collections.singletonList(jar), cache).find("p/A");
+        assertTrue(a != null);
+        assertArrayEquals(contentA2, a.read());
+    }
+}
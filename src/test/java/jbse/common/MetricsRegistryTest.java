@@ -0,0 +1,77 @@
+package jbse.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import jbse.common.exc.InvalidInputException;
+
+public class MetricsRegistryTest {
+	@Test
+	public void testCounter() throws InvalidInputException {
+		final MetricsRegistry m = new MetricsRegistry();
+		final MetricsRegistry.Counter c = m.counter("c_total", "k", "v");
+		c.inc();
+		c.add(4);
+		assertSame(c, m.counter("c_total", "k", "v"));
+		assertEquals(5L, m.counter("c_total", "k", "v").get());
+		assertEquals(0L, m.counter("c_total", "k", "w").get());
+	}
+
+	@Test
+	public void testHistogramQuantiles() throws InvalidInputException {
+		final MetricsRegistry.Histogram h = new MetricsRegistry().histogram("h");
+		assertEquals(0L, h.getValueAtQuantile(0.5));
+		for (long v = 1; v <= 1000; ++v) {
+			h.record(v);
+		}
+		assertEquals(1000L, h.getCount());
+		assertEquals(500500L, h.getSum());
+		assertEquals(1000L, h.getMax());
+		final long p50 = h.getValueAtQuantile(0.5);
+		assertTrue(p50 >= 500 && p50 <= 500 * 1.125);
+		final long p99 = h.getValueAtQuantile(0.99);
+		assertTrue(p99 >= 990 && p99 <= 1000);
+		assertEquals(1000L, h.getValueAtQuantile(1.0));
+	}
+
+	@Test
+	public void testHistogramLargeValues() throws InvalidInputException {
+		final MetricsRegistry.Histogram h = new MetricsRegistry().histogram("h");
+		h.record(Long.MAX_VALUE);
+		h.record(-1L);
+		assertEquals(0L, h.getValueAtQuantile(0.5));
+		assertEquals(Long.MAX_VALUE, h.getValueAtQuantile(1.0));
+	}
+
+	@Test(expected=InvalidInputException.class)
+	public void testOddLabels() throws InvalidInputException {
+		new MetricsRegistry().counter("c_total", "k");
+	}
+
+	@Test
+	public void testPrometheus() throws InvalidInputException {
+		final MetricsRegistry m = new MetricsRegistry();
+		m.counter("c_total", "k", "a\"b").add(3);
+		m.histogram("h_nanoseconds", "op", "x").record(10);
+		m.gauge(() -> 1.5, "g");
+		final String dump = m.toPrometheus();
+		assertTrue(dump.contains("# TYPE c_total counter\nc_total{k=\"a\\\"b\"} 3\n"));
+		assertTrue(dump.contains("# TYPE g gauge\ng 1.50000\n"));
+		assertTrue(dump.contains("h_nanoseconds{op=\"x\",quantile=\"0.5\"} 10\n"));
+		assertTrue(dump.contains("h_nanoseconds_count{op=\"x\"} 1\n"));
+	}
+
+	@Test
+	public void testJson() throws InvalidInputException {
+		final MetricsRegistry m = new MetricsRegistry();
+		m.counter("c_total", "k", "v").inc();
+		m.histogram("h").record(7);
+		final String dump = m.toJson();
+		assertTrue(dump.contains("\"c_total{k=\\\"v\\\"}\": 1"));
+		assertTrue(dump.contains("\"h\": {\"count\": 1, \"sum\": 7, \"max\": 7, \"p50\": 7, \"p90\": 7, \"p99\": 7}"));
+		assertTrue(dump.contains("\"gauges\": {},"));
+	}
+}
@@ -0,0 +1,84 @@
+package jbse.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PersistentHashMapTest {
+	/** A key whose hash code collides with the hash codes of many other keys. */
+	private static final class CollidingKey {
+		private final int id;
+
+		CollidingKey(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.id % 3 - 1;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof CollidingKey && ((CollidingKey) obj).id == this.id;
+		}
+	}
+
+	@Test
+	public void testPutGetIsPersistent() {
+		final PersistentHashMap<String, Integer> m0 = PersistentHashMap.empty();
+		final PersistentHashMap<String, Integer> m1 = m0.put("a", 1);
+		final PersistentHashMap<String, Integer> m2 = m1.put("b", 2);
+		final PersistentHashMap<String, Integer> m3 = m2.put("a", 3);
+		assertEquals(0, m0.size());
+		assertNull(m0.get("a"));
+		assertEquals(Integer.valueOf(1), m1.get("a"));
+		assertFalse(m1.containsKey("b"));
+		assertEquals(Integer.valueOf(1), m2.get("a"));
+		assertEquals(Integer.valueOf(2), m2.get("b"));
+		assertEquals(Integer.valueOf(3), m3.get("a"));
+		assertEquals(2, m3.size());
+	}
+
+	@Test
+	public void testCollisions() {
+		PersistentHashMap<CollidingKey, Integer> m = PersistentHashMap.empty();
+		for (int i = 0; i < 30; ++i) {
+			m = m.put(new CollidingKey(i), i);
+		}
+		final PersistentHashMap<CollidingKey, Integer> snapshot = m;
+		for (int i = 0; i < 30; i += 2) {
+			m = m.put(new CollidingKey(i), -i);
+		}
+		assertEquals(30, m.size());
+		for (int i = 0; i < 30; ++i) {
+			assertEquals(Integer.valueOf(i % 2 == 0 ? -i : i), m.get(new CollidingKey(i)));
+			assertEquals(Integer.valueOf(i), snapshot.get(new CollidingKey(i)));
+		}
+		assertFalse(m.containsKey(new CollidingKey(30)));
+	}
+
+	@Test
+	public void testAgainstHashMap() {
+		final Random r = new Random(42);
+		final HashMap<Integer, Integer> expected = new HashMap<>();
+		PersistentHashMap<Integer, Integer> actual = PersistentHashMap.empty();
+		for (int i = 0; i < 20000; ++i) {
+			final int key = r.nextInt(5000) - 2500;
+			expected.put(key, i);
+			actual = actual.put(key, i);
+		}
+		assertEquals(expected.size(), actual.size());
+		for (Map.Entry<Integer, Integer> e : expected.entrySet()) {
+			assertTrue(actual.containsKey(e.getKey()));
+			assertEquals(e.getValue(), actual.get(e.getKey()));
+		}
+	}
+}
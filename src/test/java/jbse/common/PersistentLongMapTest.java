@@ -0,0 +1,86 @@
+package jbse.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class PersistentLongMapTest {
+	@Test
+	public void testEmpty() {
+		final PersistentLongMap<String> m = PersistentLongMap.empty();
+		assertEquals(0L, m.size());
+		assertTrue(m.isEmpty());
+		assertNull(m.get(0L));
+		assertFalse(m.iterator().hasNext());
+		assertSame(m, m.remove(5L));
+	}
+
+	@Test
+	public void testPutGetIsPersistent() {
+		final PersistentLongMap<String> m0 = PersistentLongMap.empty();
+		final PersistentLongMap<String> m1 = m0.put(3L, "a");
+		final PersistentLongMap<String> m2 = m1.put(100000L, "b");
+		final PersistentLongMap<String> m3 = m2.put(3L, "c");
+		assertNull(m0.get(3L));
+		assertEquals("a", m1.get(3L));
+		assertNull(m1.get(100000L));
+		assertEquals("a", m2.get(3L));
+		assertEquals("b", m2.get(100000L));
+		assertEquals("c", m3.get(3L));
+		assertEquals(2L, m3.size());
+		final PersistentLongMap<String> m4 = m3.remove(3L);
+		assertNull(m4.get(3L));
+		assertEquals("c", m3.get(3L));
+		assertEquals(1L, m4.size());
+	}
+
+	@Test
+	public void testLargeKeys() {
+		final PersistentLongMap<String> m = PersistentLongMap.<String>empty().put(Long.MAX_VALUE, "max").put(0L, "zero");
+		assertEquals("max", m.get(Long.MAX_VALUE));
+		assertEquals("zero", m.get(0L));
+		assertNull(m.get(-1L));
+		final Iterator<Map.Entry<Long, String>> it = m.iterator();
+		assertEquals(Long.valueOf(0L), it.next().getKey());
+		assertEquals(Long.valueOf(Long.MAX_VALUE), it.next().getKey());
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void testAgainstTreeMap() {
+		final Random r = new Random(42);
+		final TreeMap<Long, Integer> expected = new TreeMap<>();
+		PersistentLongMap<Integer> actual = PersistentLongMap.empty();
+		for (int i = 0; i < 20000; ++i) {
+			final long key = r.nextInt(5000);
+			if (r.nextInt(3) == 0) {
+				expected.remove(key);
+				actual = actual.remove(key);
+			} else {
+				expected.put(key, i);
+				actual = actual.put(key, i);
+			}
+		}
+		assertEquals((long) expected.size(), actual.size());
+		final Iterator<Map.Entry<Long, Integer>> it = actual.iterator();
+		for (Map.Entry<Long, Integer> e : expected.entrySet()) {
+			assertEquals(e, it.next());
+			assertEquals(e.getValue(), actual.get(e.getKey()));
+		}
+		assertFalse(it.hasNext());
+		final Iterator<Map.Entry<Long, Integer>> itFrom = actual.iteratorFrom(2500L);
+		for (Map.Entry<Long, Integer> e : expected.tailMap(2500L).entrySet()) {
+			assertEquals(e, itFrom.next());
+		}
+		assertFalse(itFrom.hasNext());
+	}
+}
@@ -0,0 +1,163 @@
+package jbse.dec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.common.Type;
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.exc.DecisionException;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.mem.Objekt;
+import jbse.mem.exc.ContradictionException;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterExpressionOrConversionOnSimplex;
+import jbse.rewr.RewriterNegationElimination;
+import jbse.rewr.RewriterZeroUnit;
+import jbse.val.Calculator;
+import jbse.val.Expression;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Term;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class DecisionProcedureSatCacheTest {
+	CalculatorRewriting calc;
+	DecisionProcedureCounting counting;
+	DecisionProcedureSatCache dec;
+	Expression aGtZero, aLtZero, bGtZero;
+	
+	/**
+	 * Counts the queries, and answers unsat iff the query is 
+	 * {@code A < 0} and {@code A > 0} is assumed.
+	 */
+	class DecisionProcedureCounting implements DecisionProcedure {
+		int queries = 0;
+		int numPositive = 0;
+
+		@Override
+		public Calculator getCalculator() { return DecisionProcedureSatCacheTest.this.calc; }
+
+		@Override
+		public void pushAssumption(Clause c) { 
+			if (c instanceof ClauseAssume && ((ClauseAssume) c).getCondition().equals(DecisionProcedureSatCacheTest.this.aGtZero)) {
+				++this.numPositive;
+			}
+		}
+
+		@Override
+		public void clearAssumptions() { this.numPositive = 0; }
+
+		@Override
+		public List<Clause> getAssumptions() { return null; }
+
+		@Override
+		public boolean isSat(Expression exp) { 
+			++this.queries;
+			return !(exp.equals(DecisionProcedureSatCacheTest.this.aLtZero) && this.numPositive > 0); 
+		}
+
+		@Override
+		public boolean isSatNull(ReferenceSymbolic r) { return true; }
+
+		@Override
+		public boolean isSatAliases(ReferenceSymbolic r, long heapPos, Objekt o) { return true; }
+
+		@Override
+		public boolean isSatExpands(ReferenceSymbolic r, ClassFile classFile) { return true; }
+
+		@Override
+		public boolean isSatInitialized(ClassFile classFile) { return true; }
+
+		@Override
+		public boolean isSatNotInitialized(ClassFile classFile) { return true; }
+	}
+	
+	@Before
+	public void setUp() throws InvalidInputException, InvalidTypeException, InvalidOperandException {
+		this.calc = new CalculatorRewriting();
+		this.calc.addRewriter(new RewriterExpressionOrConversionOnSimplex());
+		this.calc.addRewriter(new RewriterZeroUnit());
+		this.calc.addRewriter(new RewriterNegationElimination());
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		final Term B = this.calc.valTerm(Type.INT, "B");
+		this.aGtZero = (Expression) this.calc.push(A).gt(this.calc.valInt(0)).pop();
+		this.aLtZero = (Expression) this.calc.push(A).lt(this.calc.valInt(0)).pop();
+		this.bGtZero = (Expression) this.calc.push(B).gt(this.calc.valInt(0)).pop();
+		this.counting = new DecisionProcedureCounting();
+		this.dec = new DecisionProcedureSatCache(this.counting, 100);
+	}
+	
+	@Test
+	public void testHit() throws InvalidInputException, DecisionException, ContradictionException {
+		this.dec.pushAssumption(new ClauseAssume(this.aGtZero));
+		this.dec.pushAssumption(new ClauseAssume(this.bGtZero));
+		assertFalse(this.dec.isSat(this.aLtZero));
+		assertEquals(1, this.counting.queries);
+		
+		//same assumptions in different order
+		this.dec.clearAssumptions();
+		this.dec.pushAssumption(new ClauseAssume(this.bGtZero));
+		this.dec.pushAssumption(new ClauseAssume(this.aGtZero));
+		assertFalse(this.dec.isSat(this.aLtZero));
+		assertEquals(1, this.counting.queries);
+		assertEquals(1L, this.dec.getHits());
+		assertEquals(1L, this.dec.getMisses());
+	}
+	
+	@Test
+	public void testNoUnsatSuperset() throws InvalidInputException, DecisionException, ContradictionException {
+		//a negative answer may be an unknown one, and 
+		//so it is not propagated to the supersets
+		this.dec.pushAssumption(new ClauseAssume(this.aGtZero));
+		assertFalse(this.dec.isSat(this.aLtZero));
+		this.dec.pushAssumption(new ClauseAssume(this.bGtZero));
+		assertFalse(this.dec.isSat(this.aLtZero));
+		assertEquals(2, this.counting.queries);
+		assertEquals(0L, this.dec.getSubsumptionHits());
+	}
+	
+	@Test
+	public void testSatSubset() throws InvalidInputException, DecisionException, ContradictionException {
+		this.dec.pushAssumption(new ClauseAssume(this.bGtZero));
+		assertTrue(this.dec.isSat(this.aLtZero));
+		this.dec.clearAssumptions();
+		assertTrue(this.dec.isSat(this.aLtZero));
+		assertEquals(1, this.counting.queries);
+		assertEquals(1L, this.dec.getSubsumptionHits());
+	}
+	
+	@Test
+	public void testMissOnDifferentAssumptions() throws InvalidInputException, DecisionException, ContradictionException {
+		assertTrue(this.dec.isSat(this.aLtZero));
+		this.dec.pushAssumption(new ClauseAssume(this.aGtZero));
+		assertFalse(this.dec.isSat(this.aLtZero));
+		assertEquals(2, this.counting.queries);
+	}
+	
+	@Test
+	public void testSubsumingSetsBounded() throws InvalidInputException, DecisionException, InvalidTypeException, InvalidOperandException {
+		this.dec = new DecisionProcedureSatCache(this.counting, 2);
+		final Expression bLtZero = (Expression) this.calc.push(this.calc.valTerm(Type.INT, "B")).lt(this.calc.valInt(0)).pop();
+		assertTrue(this.dec.isSat(this.aLtZero));
+		assertTrue(this.dec.isSat(this.bGtZero));
+		assertTrue(this.dec.isSat(bLtZero));
+		assertEquals(3, this.counting.queries);
+		
+		//both the answer and the satisfiable sets for A < 0 were evicted
+		assertTrue(this.dec.isSat(this.aLtZero));
+		assertEquals(4, this.counting.queries);
+		assertEquals(0L, this.dec.getSubsumptionHits());
+		
+		//the most recent queries are still remembered
+		assertTrue(this.dec.isSat(bLtZero));
+		assertEquals(4, this.counting.queries);
+	}
+}
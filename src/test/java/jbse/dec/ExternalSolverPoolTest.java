@@ -0,0 +1,110 @@
+package jbse.dec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.rewr.CalculatorRewriting;
+
+public class ExternalSolverPoolTest {
+    /**
+     * A fake solver, that records each launch in the file passed
+     * as its argument and answers sat to every satisfiability check.
+     */
+    private static final String FAKE_SOLVER =
+        "echo launched >> \"$1\"\n" +
+        "while IFS= read -r line; do\n" +
+        "  case \"$line\" in\n" +
+        "    *\"(check-sat)\"*) echo sat ;;\n" +
+        "    *\"(exit)\"*) exit 0 ;;\n" +
+        "  esac\n" +
+        "done\n";
+
+    private Path launches;
+    private List<String> commandLine;
+    private CalculatorRewriting calc;
+
+    @Before
+    public void setUp() throws IOException {
+        final Path dir = Files.createTempDirectory("jbse");
+        final Path solver = dir.resolve("solver.sh");
+        Files.write(solver, FAKE_SOLVER.getBytes(StandardCharsets.UTF_8));
+        this.launches = dir.resolve("launches");
+        Files.createFile(this.launches);
+        this.commandLine = Arrays.asList("/bin/sh", solver.toString(), this.launches.toString());
+        this.calc = new CalculatorRewriting();
+    }
+
+    private int launches() throws IOException {
+        return Files.readAllLines(this.launches).size();
+    }
+
+    @Test
+    public void testProcessReused() throws Exception {
+        try (final ExternalSolverPool pool = new ExternalSolverPool(2)) {
+            final DecisionProcedure dec1 = new DecisionProcedureSMTLIB2_AUFNIRA(new DecisionProcedureAlwSat(this.calc), this.commandLine, pool);
+            dec1.close();
+            final DecisionProcedure dec2 = new DecisionProcedureSMTLIB2_AUFNIRA(new DecisionProcedureAlwSat(this.calc), this.commandLine, pool);
+            dec2.close();
+            assertEquals(1, launches());
+            final ExternalSolverPool.Session s = pool.borrow(this.commandLine);
+            assertTrue(s.isInitialized());
+            assertTrue(pool.giveBack(s));
+        }
+    }
+
+    @Test
+    public void testBorrowGiveBack() throws Exception {
+        try (final ExternalSolverPool pool = new ExternalSolverPool(1)) {
+            final ExternalSolverPool.Session s1 = pool.borrow(this.commandLine);
+            final ExternalSolverPool.Session s2 = pool.borrow(this.commandLine);
+            assertNotSame(s1, s2);
+            assertTrue(pool.giveBack(s1));
+            assertFalse(pool.giveBack(s2)); //pool full
+            s2.kill();
+            assertSame(s1, pool.borrow(this.commandLine));
+        }
+    }
+
+    @Test
+    public void testDeadProcessRestarted() throws Exception {
+        try (final ExternalSolverPool pool = new ExternalSolverPool(2)) {
+            final ExternalSolverPool.Session s = pool.borrow(this.commandLine);
+            assertTrue(pool.giveBack(s));
+            s.getProcess().destroyForcibly().waitFor();
+            final DecisionProcedure dec = new DecisionProcedureSMTLIB2_AUFNIRA(new DecisionProcedureAlwSat(this.calc), this.commandLine, pool);
+            dec.close();
+            final ExternalSolverPool.Session sNew = pool.borrow(this.commandLine);
+            assertNotSame(s, sNew);
+            assertTrue(sNew.isAlive());
+            assertTrue(sNew.isInitialized()); //the one used by dec
+            assertFalse(pool.giveBack(s)); //dead
+            sNew.kill();
+        }
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        final ExternalSolverPool pool = new ExternalSolverPool(2);
+        final ExternalSolverPool.Session s1 = pool.borrow(this.commandLine);
+        final ExternalSolverPool.Session s2 = pool.borrow(this.commandLine);
+        assertTrue(pool.giveBack(s1));
+        pool.close();
+        s1.getProcess().waitFor();
+        assertFalse(s1.isAlive());
+        assertFalse(pool.giveBack(s2));
+        s2.kill();
+    }
+}
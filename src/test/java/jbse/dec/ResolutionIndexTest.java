@@ -0,0 +1,71 @@
+package jbse.dec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.mem.ClauseAssumeNull;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.HistoryPoint;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.SymbolFactory;
+
+public class ResolutionIndexTest {
+	ResolutionIndex index;
+	ReferenceSymbolic a, b, c;
+	Clause aNull, bNull, cNull, trueClause;
+
+	@Before
+	public void setUp() throws Exception {
+		this.index = new ResolutionIndex();
+		final SymbolFactory f = new SymbolFactory();
+		final HistoryPoint hp = HistoryPoint.startingPreInitial(false);
+		this.a = f.createSymbolLocalVariableReference(hp, "Ljava/lang/Object;", "Ljava/lang/Object;", "a");
+		this.b = f.createSymbolLocalVariableReference(hp, "Ljava/lang/Object;", "Ljava/lang/Object;", "b");
+		this.c = f.createSymbolLocalVariableReference(hp, "Ljava/lang/Object;", "Ljava/lang/Object;", "c");
+		this.aNull = new ClauseAssumeNull(this.a);
+		this.bNull = new ClauseAssumeNull(this.b);
+		this.cNull = new ClauseAssumeNull(this.c);
+		this.trueClause = new ClauseAssume(new CalculatorRewriting().valBoolean(true));
+	}
+
+	@Test
+	public void testPushAndClear() {
+		this.index.push(this.trueClause);
+		this.index.push(this.aNull);
+		assertTrue(this.index.resolvedReferences().contains(this.a));
+		assertFalse(this.index.resolvedReferences().contains(this.b));
+		this.index.clear();
+		assertTrue(this.index.resolvedReferences().isEmpty());
+	}
+
+	@Test
+	public void testSetKeepsCommonPrefix() {
+		this.index.set(Arrays.asList(this.trueClause, this.aNull, this.bNull));
+		this.index.set(Arrays.asList(this.trueClause, this.aNull, this.cNull));
+		assertEquals(2, this.index.resolvedReferences().size());
+		assertTrue(this.index.resolvedReferences().contains(this.a));
+		assertTrue(this.index.resolvedReferences().contains(this.c));
+		this.index.set(Arrays.asList(this.trueClause));
+		assertTrue(this.index.resolvedReferences().isEmpty());
+		assertTrue(this.index.expansions().isEmpty());
+	}
+
+	@Test
+	public void testSetRebuildsInvalid() {
+		this.index.set(Arrays.asList(this.aNull, this.bNull));
+		this.index.invalidate();
+		assertFalse(this.index.isValid());
+		this.index.set(Arrays.asList(this.cNull));
+		assertTrue(this.index.isValid());
+		assertEquals(1, this.index.resolvedReferences().size());
+		assertTrue(this.index.resolvedReferences().contains(this.c));
+	}
+}
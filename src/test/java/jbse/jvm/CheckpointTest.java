@@ -0,0 +1,99 @@
+package jbse.jvm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class CheckpointTest {
+    @Test
+    public void testSaveLoad() throws IOException {
+        final Checkpoint checkpoint = new Checkpoint();
+        checkpoint.setCounter(Checkpoint.COUNTER_ANALYZED_STATES, 1234L);
+        checkpoint.setCounter(Checkpoint.COUNTER_PATHS_TOTAL, 5L);
+        checkpoint.setCounter("foo", -1L);
+        checkpoint.addPending(".1.2");
+        checkpoint.addPending(".1.1.3");
+        final Path file = Files.createTempDirectory("jbse").resolve("checkpoint");
+        checkpoint.save(file);
+
+        final Checkpoint loaded = Checkpoint.load(file);
+        assertEquals(checkpoint.getCounterNames(), loaded.getCounterNames());
+        assertEquals(1234L, loaded.getCounter(Checkpoint.COUNTER_ANALYZED_STATES));
+        assertEquals(5L, loaded.getCounter(Checkpoint.COUNTER_PATHS_TOTAL));
+        assertEquals(-1L, loaded.getCounter("foo"));
+        assertEquals(0L, loaded.getCounter(Checkpoint.COUNTER_PATHS_OUT_OF_SCOPE));
+        assertEquals(Arrays.asList(".1.2", ".1.1.3"), loaded.getPending());
+    }
+
+    @Test
+    public void testSaveReplaces() throws IOException {
+        final Path file = Files.createTempDirectory("jbse").resolve("checkpoint");
+        final Checkpoint first = new Checkpoint();
+        first.addPending(".1.2");
+        first.save(file);
+        final Checkpoint second = new Checkpoint();
+        second.save(file);
+        assertTrue(Checkpoint.load(file).getPending().isEmpty());
+        assertEquals(1, Files.list(file.getParent()).count()); //no temporary file left
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadNotACheckpoint() throws IOException {
+        final Path file = Files.createTempFile("jbse", ".txt");
+        Files.write(file, "foo\n".getBytes(StandardCharsets.UTF_8));
+        Checkpoint.load(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadIllFormedCounter() throws IOException {
+        final Path file = Files.createTempFile("jbse", ".txt");
+        Files.write(file, "jbse-checkpoint 1\ncounter pathsTotal x\n".getBytes(StandardCharsets.UTF_8));
+        Checkpoint.load(file);
+    }
+
+    @Test
+    public void testResumeSamePathsAsUninterrupted() throws Exception {
+        final long pathsSequential = RunnerParallelTest.pathsSequential();
+        final Path file = Files.createTempDirectory("jbse").resolve("checkpoint");
+
+        //stops after some paths, the checkpoint is saved at the end of each path
+        final RunnerParameters pInterrupted = RunnerParallelTest.parameters(RunnerParallelTest.calc());
+        pInterrupted.setCheckpointFile(file, 0, TimeUnit.MILLISECONDS);
+        pInterrupted.setActions(new Runner.Actions() {
+            private int paths = 0;
+
+            @Override
+            public boolean atPathEnd() {
+                return ++this.paths == 3;
+            }
+        });
+        final Runner rInterrupted = new RunnerBuilder().build(pInterrupted);
+        try {
+            rInterrupted.run();
+        } finally {
+            rInterrupted.getEngine().close();
+        }
+        final Checkpoint checkpoint = Checkpoint.load(file);
+        assertEquals(2L, checkpoint.getCounter(Checkpoint.COUNTER_PATHS_TOTAL));
+        assertTrue(!checkpoint.getPending().isEmpty());
+
+        //resumes
+        final RunnerParameters pResumed = RunnerParallelTest.parameters(RunnerParallelTest.calc());
+        pResumed.setResume(checkpoint);
+        final Runner rResumed = new RunnerBuilder().build(pResumed);
+        try {
+            rResumed.run();
+        } finally {
+            rResumed.getEngine().close();
+        }
+        assertEquals(pathsSequential, rResumed.getPathsTotal());
+    }
+}
@@ -0,0 +1,44 @@
+package jbse.jvm;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import jbse.tree.SearchStrategy;
+import jbse.tree.SearchStrategyBreadthFirst;
+import jbse.tree.SearchStrategyDepthFirst;
+
+public class EngineObserverTest {
+    /**
+     * Counts the changes of the boolean field {@code flag}
+     * during the symbolic execution of
+     * {@code paths.Flags.set(int, int, int)}, that has eight
+     * paths and changes {@code flag} five times in its
+     * execution tree.
+     */
+    private static int updates(SearchStrategy searchStrategy) throws Exception {
+        final RunnerParameters p = RunnerParallelTest.parameters(RunnerParallelTest.calc());
+        p.setMethodSignature("paths/Flags", "(III)V", "set");
+        p.setSearchStrategy(searchStrategy);
+        final int[] updates = new int[1];
+        p.addExecutionObserver("paths/Flags", "Z", "flag", e -> ++updates[0]);
+        final Runner r = new RunnerBuilder().build(p);
+        try {
+            r.run();
+        } finally {
+            r.getEngine().close();
+        }
+        assertEquals(8L, r.getPathsTotal());
+        return updates[0];
+    }
+
+    @Test
+    public void testDepthFirst() throws Exception {
+        assertEquals(5, updates(new SearchStrategyDepthFirst()));
+    }
+
+    @Test
+    public void testBreadthFirstJumpsRestoreObservedValues() throws Exception {
+        assertEquals(5, updates(new SearchStrategyBreadthFirst()));
+    }
+}
@@ -0,0 +1,219 @@
+package jbse.jvm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import jbse.jvm.RunnerDistributed.Assignment;
+import jbse.jvm.RunnerDistributed.Worker;
+import jbse.jvm.RunnerDistributed.WorkerLauncher;
+
+public class RunnerDistributedTest {
+	/**
+	 * A stand-in launcher that runs the workers in the invoking
+	 * thread. A worker with a time slice splits its region in
+	 * two subregions, unless the region is already split,
+	 * and also reports a pending state outside its region.
+	 */
+	private static final class LocalLauncher implements WorkerLauncher {
+		final List<String> explored = Collections.synchronizedList(new ArrayList<>());
+
+		@Override
+		public Worker launch(Assignment assignment) throws IOException {
+			final String region = assignment.getRegion();
+			final Checkpoint checkpoint = new Checkpoint();
+			if (assignment.getTimeSlice() > 0 && region.indexOf('.') < 0) {
+				checkpoint.addPending(region + ".1");
+				checkpoint.addPending(region + ".2");
+				checkpoint.addPending("9");
+				checkpoint.setCounter(Checkpoint.COUNTER_ANALYZED_STATES, 5);
+			} else {
+				this.explored.add(region);
+				checkpoint.setCounter(Checkpoint.COUNTER_PATHS_TOTAL, 1);
+				checkpoint.setCounter(Checkpoint.COUNTER_ANALYZED_STATES, 10);
+				Files.write(assignment.getResultFile(), ("[" + region + "]").getBytes(StandardCharsets.UTF_8));
+			}
+			checkpoint.save(assignment.getCheckpointFile());
+			return new Worker() {
+				@Override
+				public boolean isAlive() { return false; }
+
+				@Override
+				public int exitValue() { return 0; }
+
+				@Override
+				public void destroy() { }
+			};
+		}
+	}
+
+	@Test
+	public void testAllRegionsExplored() throws Exception {
+		final Path workDir = Files.createTempDirectory("jbse");
+		final LocalLauncher launcher = new LocalLauncher();
+		final RunnerDistributed r = new RunnerDistributed(launcher, 2, workDir);
+		r.run(Arrays.asList("1", "2", "3"));
+		assertEquals(3, launcher.explored.size());
+		assertEquals(3, r.getPathsTotal());
+		assertEquals(30, r.getAnalyzedStates());
+		final Path out = workDir.resolve("merged");
+		r.mergeResults(RunnerDistributed.MERGER_CONCATENATE, out);
+		assertEquals("[1][2][3]", new String(Files.readAllBytes(out), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testSlowRegionsSplit() throws Exception {
+		final Path workDir = Files.createTempDirectory("jbse");
+		final LocalLauncher launcher = new LocalLauncher();
+		final RunnerDistributed r = new RunnerDistributed(launcher, 2, workDir);
+		r.setTimeSlice(1, TimeUnit.SECONDS);
+		r.run(Arrays.asList("1", "2"));
+		//the pending state 9 is outside the regions, and is not explored
+		assertEquals(4, launcher.explored.size());
+		assertTrue(launcher.explored.containsAll(Arrays.asList("1.1", "1.2", "2.1", "2.2")));
+		assertEquals(4, r.getPathsTotal());
+		assertEquals(50, r.getAnalyzedStates());
+	}
+
+	@Test
+	public void testFailingWorker() throws Exception {
+		final Path workDir = Files.createTempDirectory("jbse");
+		final RunnerDistributed r = new RunnerDistributed(assignment -> new Worker() {
+			@Override
+			public boolean isAlive() { return false; }
+
+			@Override
+			public int exitValue() { return 1; }
+
+			@Override
+			public void destroy() { }
+		}, 1, workDir);
+		try {
+			r.run(Arrays.asList("1"));
+			assertTrue(false);
+		} catch (IOException e) {
+			//expected
+		}
+	}
+
+	@Test
+	public void testAssignmentArguments() throws Exception {
+		final Path workDir = Files.createTempDirectory("jbse");
+		final Assignment a = new Assignment("1.2", workDir.resolve("c"), workDir.resolve("r"), 100L);
+		final List<String> args = new ArrayList<>();
+		args.add("other");
+		args.addAll(a.toArguments());
+		final Assignment b = Assignment.fromArguments(args.toArray(new String[0]), 1);
+		assertEquals(a.getRegion(), b.getRegion());
+		assertEquals(a.getCheckpointFile(), b.getCheckpointFile());
+		assertEquals(a.getResultFile(), b.getResultFile());
+		assertEquals(a.getTimeSlice(), b.getTimeSlice());
+	}
+
+	private static Worker terminated() {
+		return new Worker() {
+			@Override
+			public boolean isAlive() { return false; }
+
+			@Override
+			public int exitValue() { return 0; }
+
+			@Override
+			public void destroy() { }
+		};
+	}
+
+	@Test
+	public void testNoProgressDoublesTimeSlice() throws Exception {
+		final Path workDir = Files.createTempDirectory("jbse");
+		final List<String> launches = new ArrayList<>();
+		final RunnerDistributed r = new RunnerDistributed(assignment -> {
+			final String region = assignment.getRegion();
+			final long timeSlice = assignment.getTimeSlice();
+			launches.add(region + "@" + timeSlice);
+			final Checkpoint checkpoint = new Checkpoint();
+			checkpoint.setCounter(Checkpoint.COUNTER_ANALYZED_STATES, 7);
+			if (timeSlice < 4000L) {
+				//stops on the root of the region, or on the path to it
+				checkpoint.addPending(region.equals("1") ? "1" : "2");
+				checkpoint.addPending("3"); //outside the region
+			} else {
+				checkpoint.setCounter(Checkpoint.COUNTER_PATHS_TOTAL, 1);
+			}
+			checkpoint.save(assignment.getCheckpointFile());
+			return terminated();
+		}, 1, workDir);
+		r.setTimeSlice(1, TimeUnit.SECONDS);
+		r.run(Arrays.asList("1", "2.1"));
+		assertEquals(Arrays.asList("1@1000", "2.1@1000", "1@2000", "2.1@2000", "1@4000", "2.1@4000"), launches);
+		assertEquals(2, r.getPathsTotal());
+		assertEquals(14, r.getAnalyzedStates()); //only the workers that made progress
+	}
+
+	@Test(expected = IOException.class)
+	public void testNoProgressWithoutTimeSlice() throws Exception {
+		final Path workDir = Files.createTempDirectory("jbse");
+		final RunnerDistributed r = new RunnerDistributed(assignment -> {
+			final Checkpoint checkpoint = new Checkpoint();
+			checkpoint.addPending(assignment.getRegion());
+			checkpoint.save(assignment.getCheckpointFile());
+			return terminated();
+		}, 1, workDir);
+		r.run(Arrays.asList("1"));
+	}
+
+	@Test
+	public void testSamePathsAsSequential() throws Exception {
+		final Runner sequential = new RunnerBuilder().build(RunnerParallelTest.parameters(RunnerParallelTest.calc()));
+		try {
+			sequential.run();
+		} finally {
+			sequential.getEngine().close();
+		}
+		final List<String> regions = RunnerDistributed.preExplore(RunnerParallelTest.parameters(RunnerParallelTest.calc()), 2);
+		assertTrue(regions.size() > 1);
+
+		//runs the workers in the invoking thread
+		final Map<String, Long> analyzedStates = new TreeMap<>();
+		final Path workDir = Files.createTempDirectory("jbse");
+		final RunnerDistributed r = new RunnerDistributed(assignment -> {
+			try {
+				final RunnerParameters pWorker = RunnerParallelTest.parameters(RunnerParallelTest.calc());
+				assignment.applyTo(pWorker);
+				final Runner worker = new RunnerBuilder().build(pWorker);
+				try {
+					worker.run();
+				} finally {
+					worker.getEngine().close();
+				}
+				analyzedStates.put(assignment.getRegion(), worker.getEngine().getAnalyzedStates());
+			} catch (Exception e) {
+				throw new IOException(e);
+			}
+			return terminated();
+		}, 1, workDir);
+		r.run(regions);
+		assertEquals(sequential.getPathsTotal(), r.getPathsTotal());
+
+		//the re-execution of the paths to the regions is not counted
+		long analyzedStatesWithPrefixes = 0;
+		for (long n : analyzedStates.values()) {
+			analyzedStatesWithPrefixes += n;
+		}
+		assertTrue(r.getAnalyzedStates() < analyzedStatesWithPrefixes);
+		assertTrue(r.getAnalyzedStates() <= sequential.getEngine().getAnalyzedStates());
+	}
+}
@@ -0,0 +1,28 @@
+package jbse.jvm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RunnerEvictionTest {
+    @Test
+    public void testEvictedStatesReplayed() throws Exception {
+        final long pathsSequential = RunnerParallelTest.pathsSequential();
+
+        //any used memory exceeds the high watermark, also
+        //after a garbage collection
+        System.gc();
+        final RunnerParameters p = RunnerParallelTest.parameters(RunnerParallelTest.calc());
+        p.setMemoryWatermarks(1e-300, 1e-301);
+        final Runner r = new RunnerBuilder().build(p);
+        try {
+            r.run();
+            assertTrue(r.getEngine().getEvictedStates() > 0);
+            assertEquals(0L, r.getEngine().getSpilledStates());
+        } finally {
+            r.getEngine().close();
+        }
+        assertEquals(pathsSequential, r.getPathsTotal());
+    }
+}
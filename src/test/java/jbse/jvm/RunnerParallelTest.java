@@ -0,0 +1,73 @@
+package jbse.jvm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import jbse.dec.DecisionProcedureAlgorithms;
+import jbse.dec.DecisionProcedureAlwSat;
+import jbse.dec.DecisionProcedureClassInit;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterExpressionOrConversionOnSimplex;
+import jbse.rewr.RewriterFunctionApplicationOnSimplex;
+import jbse.rewr.RewriterNegationElimination;
+import jbse.rewr.RewriterZeroUnit;
+import jbse.rules.ClassInitRulesRepo;
+
+public class RunnerParallelTest {
+    static CalculatorRewriting calc() {
+        final CalculatorRewriting calc = new CalculatorRewriting();
+        calc.addRewriter(new RewriterExpressionOrConversionOnSimplex()); //indispensable
+        calc.addRewriter(new RewriterFunctionApplicationOnSimplex()); //indispensable
+        calc.addRewriter(new RewriterZeroUnit()); //indispensable
+        calc.addRewriter(new RewriterNegationElimination()); //indispensable?
+        return calc;
+    }
+
+    /**
+     * Builds the parameters for the symbolic execution of
+     * {@code paths.Branches.count(int, int, int)}, that
+     * has eight paths.
+     */
+    static RunnerParameters parameters(CalculatorRewriting calc) throws Exception {
+        final RunnerParameters p = new RunnerParameters();
+        p.setJBSELibPath(Paths.get("build/classes/java/main"));
+        p.setJavaHome(Paths.get(System.getProperty("java.home", "")));
+        p.addUserClasspath(Paths.get("src/test/resources/jbse/jvm/testdata"));
+        p.setMethodSignature("paths/Branches", "(III)I", "count");
+        p.setCalculator(calc);
+        p.setDecisionProcedure(new DecisionProcedureAlgorithms(new DecisionProcedureClassInit(new DecisionProcedureAlwSat(calc), new ClassInitRulesRepo())));
+        return p;
+    }
+
+    static long pathsSequential() throws Exception {
+        final RunnerParameters p = parameters(calc());
+        final Runner r = new RunnerBuilder().build(p);
+        try {
+            r.run();
+        } finally {
+            r.getEngine().close();
+        }
+        return r.getPathsTotal();
+    }
+
+    @Test
+    public void testSamePathsAsSequential() throws Exception {
+        final long pathsSequential = pathsSequential();
+        assertTrue(pathsSequential >= 8);
+
+        final int numWorkers = 3;
+        final CalculatorRewriting calc = calc();
+        final RunnerParameters[] parameters = new RunnerParameters[numWorkers];
+        for (int i = 0; i < numWorkers; ++i) {
+            parameters[i] = parameters(i == 0 ? calc : new CalculatorRewriting(calc));
+        }
+        try (final RunnerParallel r = new RunnerParallelBuilder().build(i -> parameters[i], numWorkers)) {
+            r.run();
+            assertEquals(pathsSequential, r.getPathsTotal());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package jbse.jvm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.Test;
+
+public class StartupSnapshotsTest {
+    private static long runPaths(StartupSnapshots snapshots) throws Exception {
+        final RunnerParameters p = RunnerParallelTest.parameters(RunnerParallelTest.calc());
+        p.setStartupSnapshots(snapshots);
+        final Runner r = new RunnerBuilder().build(p);
+        try {
+            r.run();
+        } finally {
+            r.getEngine().close();
+        }
+        return r.getPathsTotal();
+    }
+
+    @Test
+    public void testMissThenHit() throws Exception {
+        final StartupSnapshots snapshots = new StartupSnapshots(4);
+        final long pathsFirst = runPaths(snapshots);
+        assertEquals(0L, snapshots.getHits());
+        assertEquals(1L, snapshots.getMisses());
+
+        //same settings: starts from the stored state
+        final long pathsSecond = runPaths(snapshots);
+        assertEquals(1L, snapshots.getHits());
+        assertEquals(1L, snapshots.getMisses());
+        assertEquals(pathsFirst, pathsSecond);
+    }
+
+    @Test
+    public void testMissOnDifferentKey() throws Exception {
+        final StartupSnapshots snapshots = new StartupSnapshots(4);
+        assertNull(snapshots.get("foo"));
+        assertEquals(1L, snapshots.getMisses());
+        runPaths(snapshots);
+        assertNull(snapshots.get("foo"));
+        assertEquals(0L, snapshots.getHits());
+        assertEquals(3L, snapshots.getMisses());
+
+        final RunnerParameters p = RunnerParallelTest.parameters(RunnerParallelTest.calc());
+        assertNotNull(snapshots.get(StartupSnapshots.keyOf(p.getEngineParameters())));
+        p.setMethodSignature("paths/Branches", "()I", "driver");
+        assertNull(snapshots.get(StartupSnapshots.keyOf(p.getEngineParameters())));
+    }
+
+    private static void touch(Path p) throws Exception {
+        Files.setLastModifiedTime(p, FileTime.fromMillis(Files.getLastModifiedTime(p).toMillis() + 10_000L));
+    }
+
+    @Test
+    public void testKeyInvalidatedByChangedEntry() throws Exception {
+        final Path dir = Files.createTempDirectory("jbse");
+        final Path pkg = Files.createDirectory(dir.resolve("paths"));
+        final Path classFile = pkg.resolve("Branches.class");
+        Files.copy(Paths.get("src/test/resources/jbse/jvm/testdata/paths/Branches.class"), classFile);
+        final Path jar = Files.createTempFile("jbse", ".jar");
+        final EngineParameters p = new EngineParameters();
+        p.setJBSELibPath(Paths.get("build/classes/java/main"));
+        p.setJavaHome(Paths.get(System.getProperty("java.home", "")));
+        p.addUserClasspath(dir, jar);
+        p.setMethodSignature("paths/Branches", "(III)I", "count");
+        final String key = StartupSnapshots.keyOf(p);
+        assertEquals(key, StartupSnapshots.keyOf(p));
+
+        //the files under the directories are not inspected
+        final FileTime dirTime = Files.getLastModifiedTime(dir);
+        touch(classFile);
+        Files.setLastModifiedTime(dir, dirTime);
+        assertEquals(key, StartupSnapshots.keyOf(p));
+
+        touch(dir);
+        final String keyDir = StartupSnapshots.keyOf(p);
+        assertNotEquals(key, keyDir);
+
+        touch(jar);
+        assertNotEquals(keyDir, StartupSnapshots.keyOf(p));
+    }
+}
@@ -0,0 +1,118 @@
+package jbse.mem;
+
+import static jbse.bc.ClassLoaders.*;
+import static org.junit.Assert.*;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.rewr.CalculatorRewriting;
+
+public class HeapViewTest {
+    private ClassFile classFile;
+    private CalculatorRewriting calc;
+    private Heap heap;
+    private long pos0, pos1, pos2;
+
+    @Before
+    public void setUp() throws Exception {
+        //environment
+        final ArrayList<Path> userPath = new ArrayList<>();
+        userPath.add(Paths.get("src/test/resources/jbse/bc/testdata"));
+        final Classpath env = new Classpath(Paths.get("."), Paths.get(System.getProperty("java.home", "")), Collections.emptyList(), userPath);
+
+        //class hierarchy
+        final ClassHierarchy hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap());
+        this.classFile = hier.loadCreateClass(CLASSLOADER_APP, "tsafe/main/SimpleCalculator", true);
+
+        //calculator
+        this.calc = new CalculatorRewriting();
+
+        //a heap with two objects shared with another heap
+        //and one object owned
+        final Heap heapShared = new Heap(100);
+        this.pos0 = heapShared.addNew(newInstance());
+        this.pos1 = heapShared.addNew(newInstance());
+        this.heap = heapShared.lazyClone();
+        this.pos2 = this.heap.addNew(newInstance());
+    }
+
+    private InstanceImpl_DEFAULT newInstance() throws Exception {
+        return new InstanceImpl_DEFAULT(this.calc, false, this.classFile, null, null, this.classFile.numOfStaticFields(), this.classFile.getObjectFields());
+    }
+
+    @Test
+    public void testIterationOrder() {
+        final SortedMap<Long, Objekt> view = this.heap.getObjectsView();
+        assertEquals(Arrays.asList(this.pos0, this.pos1, this.pos2), new ArrayList<>(view.keySet()));
+        assertEquals(3, view.size());
+        assertEquals(Long.valueOf(this.pos0), view.firstKey());
+        assertEquals(Long.valueOf(this.pos2), view.lastKey());
+        for (Map.Entry<Long, Objekt> e : view.entrySet()) {
+            assertSame(this.classFile, e.getValue().getType());
+        }
+    }
+
+    @Test
+    public void testGetContainsKey() {
+        final SortedMap<Long, Objekt> view = this.heap.getObjectsView();
+        assertTrue(view.containsKey(this.pos0));
+        assertTrue(view.containsKey(this.pos2));
+        assertFalse(view.containsKey(this.pos2 + 1));
+        assertFalse(view.containsKey("foo"));
+        assertNotNull(view.get(this.pos1));
+        assertSame(this.classFile, view.get(this.pos1).getType());
+        assertNull(view.get(this.pos2 + 1));
+        assertNull(view.get("foo"));
+    }
+
+    @Test
+    public void testSubViews() {
+        final SortedMap<Long, Objekt> view = this.heap.getObjectsView();
+        assertEquals(Arrays.asList(this.pos1), new ArrayList<>(view.subMap(this.pos1, this.pos2).keySet()));
+        assertEquals(Arrays.asList(this.pos0, this.pos1), new ArrayList<>(view.headMap(this.pos2).keySet()));
+        assertEquals(Arrays.asList(this.pos1, this.pos2), new ArrayList<>(view.tailMap(this.pos1).keySet()));
+        assertFalse(view.headMap(this.pos0).containsKey(this.pos0));
+        assertTrue(view.headMap(this.pos0).isEmpty());
+    }
+
+    @Test
+    public void testViewReflectsChanges() throws Exception {
+        final SortedMap<Long, Objekt> view = this.heap.getObjectsView();
+        final SortedMap<Long, Objekt> copy = this.heap.getObjects();
+        final long pos3 = this.heap.addNew(newInstance());
+        this.heap.disposeExcept(Collections.singleton(pos3));
+        assertEquals(Arrays.asList(pos3), new ArrayList<>(view.keySet()));
+        assertEquals(Arrays.asList(this.pos0, this.pos1, this.pos2), new ArrayList<>(copy.keySet()));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnlyPut() throws Exception {
+        this.heap.getObjectsView().put(this.pos2 + 1, newInstance());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnlySetValue() throws Exception {
+        this.heap.getObjectsView().entrySet().iterator().next().setValue(newInstance());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnlyRemove() {
+        final Iterator<Long> it = this.heap.getObjectsView().keySet().iterator();
+        it.next();
+        it.remove();
+    }
+}
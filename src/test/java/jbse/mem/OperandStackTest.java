@@ -0,0 +1,55 @@
+package jbse.mem;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import jbse.mem.exc.InvalidNumberOfOperandsException;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Calculator;
+import jbse.val.Value;
+
+public class OperandStackTest {
+    private final Calculator calc = new CalculatorRewriting();
+
+    @Test
+    public void testPushPopOrder() throws InvalidNumberOfOperandsException {
+        final OperandStack s = new OperandStack();
+        for (int i = 0; i < 20; ++i) {
+            s.push(this.calc.valInt(i));
+        }
+        assertEquals(this.calc.valInt(19), s.top());
+        assertArrayEquals(new Value[] { this.calc.valInt(17), this.calc.valInt(18), this.calc.valInt(19) }, s.operands(3));
+        assertEquals(this.calc.valInt(19), s.values().iterator().next());
+        s.pop(10);
+        assertEquals(this.calc.valInt(9), s.pop());
+        assertEquals(9, s.values().size());
+    }
+
+    @Test(expected=InvalidNumberOfOperandsException.class)
+    public void testPopEmpty() throws InvalidNumberOfOperandsException {
+        final OperandStack s = new OperandStack();
+        s.push(this.calc.valInt(0));
+        s.pop();
+        s.pop();
+    }
+
+    @Test
+    public void testCloneIsIndependent() throws InvalidNumberOfOperandsException {
+        final OperandStack s = new OperandStack();
+        s.push(this.calc.valInt(1));
+        s.push(this.calc.valInt(2));
+        final OperandStack c = s.clone();
+        s.pop();
+        s.push(this.calc.valInt(3));
+        c.push(this.calc.valInt(4));
+        assertEquals(Arrays.asList(this.calc.valInt(3), this.calc.valInt(1)), Arrays.asList(s.values().toArray()));
+        assertEquals(Arrays.asList(this.calc.valInt(4), this.calc.valInt(2), this.calc.valInt(1)), Arrays.asList(c.values().toArray()));
+        c.clear();
+        assertEquals(0, c.values().size());
+        assertEquals(2, s.values().size());
+    }
+}
@@ -1,13 +1,16 @@
 package jbse.rewr;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import jbse.common.Type;
 import jbse.common.exc.UnexpectedInternalException;
+import jbse.val.Expression;
 import jbse.val.HistoryPoint;
+import jbse.val.Operator;
 import jbse.val.Primitive;
 import jbse.val.Term;
 import jbse.val.exc.InvalidTypeException;
@@ -41,5 +44,45 @@ public final class RewriterBasicTest {
 		final Primitive p_post = this.calc.applyFunctionPrimitiveAndPop(Type.INT, this.hist, "foo", this.calc.valTerm(Type.DOUBLE, "BAZ"));
 		assertEquals(this.calc.applyFunctionPrimitiveAndPop(Type.INT, this.hist, "foo", this.calc.valTerm(Type.DOUBLE, "FOO")), p_post);
 	}
-
+	
+	@Test
+	public void testInterning() throws Exception {
+		//no rewriters
+		this.calc = new CalculatorRewriting();
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		final Term B = this.calc.valTerm(Type.INT, "B");
+		final Primitive p1 = this.calc.push(A).add(B).mul(this.calc.valInt(2)).pop();
+		final Primitive p2 = this.calc.push(A).add(B).mul(this.calc.valInt(2)).pop();
+		assertSame(p1, p2);
+		final Expression verbatim = Expression.makeExpressionBinary(Expression.makeExpressionBinary(A, Operator.ADD, B), Operator.MUL, this.calc.valInt(2));
+		assertEquals(p1, verbatim);
+		assertSame(p1, this.calc.intern(verbatim));
+	}
+	
+	@Test
+	public void testSimplifyMemoized() throws Exception {
+		final int[] count = new int[1];
+		this.calc = new CalculatorRewriting();
+		this.calc.addRewriter(new RewriterCalculatorRewriting() {
+			@Override
+			protected void rewriteExpression(Expression x) throws NoResultException {
+				++count[0];
+				super.rewriteExpression(x);
+			}
+		});
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		final Primitive p1 = this.calc.push(A).add(this.calc.valInt(1)).pop();
+		final int countAfterFirst = count[0];
+		final Primitive p2 = this.calc.push(A).add(this.calc.valInt(1)).pop();
+		assertSame(p1, p2);
+		assertEquals(countAfterFirst, count[0]);
+	}
+	
+	@Test
+	public void testSmallValuesPreallocated() throws Exception {
+		assertSame(this.calc.valInt(42), this.calc.valInt(42));
+		assertSame(this.calc.valInt(-1), this.calc.intern(this.calc.valInt(-1)));
+		assertSame(this.calc.valChar('a'), this.calc.valChar('a'));
+		assertEquals(this.calc.valInt(100000), this.calc.valInt(100000));
+	}
 }
@@ -0,0 +1,141 @@
+package jbse.rules;
+
+import static jbse.rules.Util.requiredLiteral;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import jbse.val.HistoryPoint;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.SymbolFactory;
+
+public class UtilTest {
+	/**
+	 * Checks that all the strings matching a regular 
+	 * expression contain its required literal.
+	 */
+	private static void assertSound(String regex, String... strings) {
+		final String literal = requiredLiteral(regex);
+		for (String s : strings) {
+			if (Pattern.matches(regex, s)) {
+				assertTrue("\"" + s + "\" matches " + regex + " but does not contain \"" + literal + "\"", s.contains(literal));
+			}
+		}
+	}
+	
+	@Test
+	public void testLiteralRuns() {
+		assertEquals("{ROOT}:this", requiredLiteral(Util.makeOriginPatternAbsolute("{ROOT}:this").pattern()));
+		assertEquals(".List:next", requiredLiteral(Util.makeOriginPatternAbsolute("{R_ANY}.List:next").pattern()));
+		assertEquals("abcd", requiredLiteral("ab.abcd.abc"));
+		assertEquals("abc", requiredLiteral("abcd*"));
+		assertEquals("abcd", requiredLiteral("abcd+"));
+		assertEquals("ab", requiredLiteral("ab(cde)?f"));
+		assertEquals("", requiredLiteral("(abc)"));
+		assertEquals("xyz", requiredLiteral("a[bcd]xyz"));
+	}
+	
+	@Test
+	public void testSingleCharacterEscapes() {
+		assertEquals("abc", requiredLiteral("ab\\dabc"));
+		assertEquals("a.b", requiredLiteral("a\\.b\\sxy"));
+		assertEquals("xyz", requiredLiteral("\\bxyz\\B"));
+	}
+	
+	@Test
+	public void testEscapesOfUnknownLength() {
+		assertEquals("ab", requiredLiteral("ab\\x41cdef"));
+		assertEquals("ab", requiredLiteral("ab\\x{41}cdef"));
+		assertEquals("ab", requiredLiteral("ab\\u0041cdef"));
+		assertEquals("ab", requiredLiteral("ab\\0101cdef"));
+		assertEquals("ab", requiredLiteral("ab\\p{Lu}cdef"));
+		assertEquals("ab", requiredLiteral("ab\\P{Lu}cdef"));
+		assertEquals("ab", requiredLiteral("ab\\cAcdef"));
+		assertEquals("x", requiredLiteral("(?<n>x)x\\k<n>yz"));
+		assertEquals("", requiredLiteral("(a)\\1bcd"));
+		assertSound("ab\\x41cdef", "abAcdef", "ab41cdef");
+		assertSound("ab\\u0041cdef", "abAcdef");
+		assertSound("ab\\0101cdef", "abAcdef");
+		assertSound("ab\\p{Lu}cdef", "abQcdef");
+		assertSound("(?<n>x)x\\k<n>yz", "xxxyz");
+	}
+	
+	@Test
+	public void testGivesUp() {
+		assertEquals("", requiredLiteral("abc|def"));
+		assertEquals("", requiredLiteral("\\Qabc\\E"));
+		assertEquals("", requiredLiteral("(?i)abcdef"));
+		assertEquals("", requiredLiteral("(?-i)abcdef"));
+		assertEquals("", requiredLiteral("(?s:.)abcdef"));
+		assertEquals("", requiredLiteral("a[b[cd]]xyz"));
+		assertSound("(?i)abcdef", "ABCDEF");
+		assertSound("a[b[cd]]xyz", "acxyz");
+	}
+	
+	@Test
+	public void testGroupsNotRequired() {
+		assertEquals("", requiredLiteral("(abc)?"));
+		assertEquals("", requiredLiteral("(?=abc)"));
+		assertEquals("x", requiredLiteral("(?:abc)*x"));
+		assertSound("(?:abc)*x", "x", "abcx");
+	}
+	
+	/**
+	 * The rule fixtures: origin expressions in the 
+	 * style of the settings files.
+	 */
+	private static final String[] FIXTURES = {
+		"{ROOT}:this",
+		"{ROOT}:this.List:next",
+		"{ROOT}:this.List:next.List:next",
+		"{R_ANY}.List:next",
+		"{R_ANY}.List:value",
+		"{ROOT}:this(.List:next)*",
+		"{ROOT}:this(.List:next)+.List:value",
+		"{ROOT}:this.{°}*",
+		"{ROOT}:this.List:nex{°}",
+		"{ROOT}:(this|that).List:next",
+		"{ROOT}:that{°}*",
+		"{ROOT}:this.List:next{EOL}",
+		"{R_ANY}",
+	};
+	
+	@Test
+	public void testRuleMatcherSameAsPatterns() throws Exception {
+		final List<Rule> rules = new ArrayList<>();
+		for (String fixture : FIXTURES) {
+			rules.add(new Rule(fixture) { });
+		}
+		final RuleMatcher<Rule> matcher = new RuleMatcher<>(rules);
+		
+		final SymbolFactory f = new SymbolFactory();
+		final HistoryPoint hp = HistoryPoint.startingPreInitial(false);
+		final List<ReferenceSymbolic> refs = new ArrayList<>();
+		for (String root : Arrays.asList("this", "that", "other")) {
+			ReferenceSymbolic ref = f.createSymbolLocalVariableReference(hp, "LList;", "LList;", root);
+			refs.add(ref);
+			for (int i = 0; i < 3; ++i) {
+				refs.add(f.createSymbolMemberFieldReference("LList;", "LList;", ref, "value", "List"));
+				ref = f.createSymbolMemberFieldReference("LList;", "LList;", ref, "next", "List");
+				refs.add(ref);
+			}
+		}
+		
+		for (ReferenceSymbolic ref : refs) {
+			final List<Rule> expected = new ArrayList<>();
+			for (Rule rule : rules) {
+				if (Pattern.matches(rule.originPattern.pattern(), ref.asOriginString())) {
+					expected.add(rule);
+				}
+			}
+			assertEquals(ref.asOriginString(), expected, matcher.matching(ref));
+			assertEquals(ref.asOriginString(), expected, matcher.matching(ref)); //memoized
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package jbse.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.Classpath;
+import jbse.mem.State;
+import jbse.tree.SearchStrategy.Selection;
+import jbse.tree.StateTree.BreadthMode;
+import jbse.tree.StateTree.StateIdentificationMode;
+import jbse.val.SymbolFactory;
+
+public class SearchStrategyTest {
+	/** Three branches, the most recent with one state, the oldest with three. */
+	private static final List<List<State>> PENDING = Arrays.asList(
+		Collections.singletonList((State) null), 
+		Arrays.asList((State) null, null), 
+		Arrays.asList((State) null, null, null));
+
+	@Test
+	public void testDepthFirst() {
+		final Selection sel = new SearchStrategyDepthFirst().select(PENDING);
+		assertEquals(0, sel.branch);
+		assertEquals(0, sel.state);
+	}
+
+	@Test
+	public void testBreadthFirst() {
+		final Selection sel = new SearchStrategyBreadthFirst().select(PENDING);
+		assertEquals(2, sel.branch);
+		assertEquals(0, sel.state);
+	}
+
+	@Test
+	public void testRandomPathReplicableAndComplete() {
+		final SearchStrategyRandomPath r1 = new SearchStrategyRandomPath(42L);
+		final SearchStrategyRandomPath r2 = new SearchStrategyRandomPath(42L);
+		final HashSet<String> selected = new HashSet<>();
+		for (int i = 0; i < 1000; ++i) {
+			final Selection sel1 = r1.select(PENDING);
+			final Selection sel2 = r2.select(PENDING);
+			assertEquals(sel1.branch, sel2.branch);
+			assertEquals(sel1.state, sel2.state);
+			assertTrue(sel1.state < PENDING.get(sel1.branch).size());
+			selected.add(sel1.branch + "." + sel1.state);
+		}
+		assertEquals(6, selected.size());
+	}
+
+	@Test
+	public void testBestFirst() {
+		//scores the states in the order they are visited: 1, 5, 2, 5, 0, 3
+		final double[] scores = { 1, 5, 2, 5, 0, 3 };
+		final int[] next = { 0 };
+		final SearchStrategyBestFirst s = new SearchStrategyBestFirst(state -> scores[next[0]++]);
+		final Selection sel = s.select(PENDING);
+		assertEquals(6, next[0]);
+		assertEquals(1, sel.branch); //ties broken by depth-first order
+		assertEquals(0, sel.state);
+	}
+
+	@Test
+	public void testCoverageGuided() throws Exception {
+		final StateTree tree = new StateTree(StateIdentificationMode.COMPACT, BreadthMode.MORE_THAN_ONE);
+		final State s1 = new State(true, tree.getPreInitialHistoryPoint().startingInitial(), 100, 100, new Classpath(Paths.get("."), Paths.get("."), Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap(), new SymbolFactory());
+		final State s2 = s1.clone();
+		final State s3 = s1.clone();
+		final State s4 = s1.clone();
+		final IdentityHashMap<State, Object> locations = new IdentityHashMap<>();
+		locations.put(s1, "L1");
+		locations.put(s2, "L1");
+		locations.put(s3, "L2");
+		locations.put(s4, "L3");
+		final int[] located = { 0 };
+		final SearchStrategyCoverageGuided s = new SearchStrategyCoverageGuided(state -> { ++located[0]; return locations.get(state); });
+		for (State state : Arrays.asList(s1, s2, s3, s4)) {
+			s.notifyAdded(state);
+		}
+
+		//s1 is at an unvisited location
+		Selection sel = s.select(Arrays.asList(Collections.singletonList(s1), Arrays.asList(s2, s3), Collections.singletonList(s4)));
+		assertEquals(0, sel.branch);
+		assertEquals(0, sel.state);
+		s.notifyEmitted(s1);
+
+		//s2 is at the location of s1, s3 is not
+		sel = s.select(Arrays.asList(Arrays.asList(s2, s3), Collections.singletonList(s4)));
+		assertEquals(0, sel.branch);
+		assertEquals(1, sel.state);
+		s.notifyEmitted(s3);
+
+		//s4 is at an unvisited location
+		sel = s.select(Arrays.asList(Collections.singletonList(s2), Collections.singletonList(s4)));
+		assertEquals(1, sel.branch);
+		assertEquals(0, sel.state);
+
+		//s4 is removed without being emitted: no pending state 
+		//is at an unvisited location, so the first one is selected
+		s.notifyRemoved(s4);
+		sel = s.select(Arrays.asList(Collections.singletonList(s2)));
+		assertEquals(0, sel.branch);
+		assertEquals(0, sel.state);
+		
+		//the locations are calculated only when the states are added
+		assertEquals(4, located[0]);
+	}
+}
@@ -1,12 +1,16 @@
 package jbse.tree;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 
 import org.junit.Test;
 
@@ -27,6 +31,12 @@ public class StateTreeTest {
 		assertTrue(tree.possiblyAddBranchPoint(true, false, false, false));
 	}
 	
+	@Test(expected = InvalidInputException.class)
+	public void testMemoryWatermarksInvalid() throws InvalidInputException {
+		final StateTree tree = new StateTree(StateIdentificationMode.COMPACT, BreadthMode.MORE_THAN_ONE);
+		tree.setMemoryWatermarks(0.5, 0.8);
+	}
+	
 	@Test
 	public void testAddState1() throws InvalidClassFileFactoryClassException, IOException, InvalidInputException {
 		final StateTree tree = new StateTree(StateIdentificationMode.COMPACT, BreadthMode.MORE_THAN_ONE);
@@ -124,4 +134,122 @@ public class StateTreeTest {
 		final State statePicked = tree.getStateAtBranch(bp_1_2, 1);
 		assertSame(_1_2_6, statePicked);
 	}
+	
+	@Test
+	public void testRemoveStatesAtOldestBranch() throws InvalidClassFileFactoryClassException, IOException, InvalidInputException {
+		final StateTree tree = new StateTree(StateIdentificationMode.COMPACT, BreadthMode.MORE_THAN_ONE);
+		final State _1_1 = new State(true, tree.getPreInitialHistoryPoint().startingInitial(), 100, 100, new Classpath(Paths.get("."), Paths.get("."), Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap(), new SymbolFactory());
+		_1_1.setPhasePostInitial();
+		final State _1_2 = _1_1.clone();
+		final State _1_3 = _1_1.clone();
+		tree.possiblyAddBranchPoint(true, false, false, false);
+		tree.addState(_1_3, 0, null);
+		tree.addState(_1_2, 0, null);
+		tree.addState(_1_1, 0, null);
+		tree.nextState(); //emits _1_1
+		final State _1_1_1 = _1_1.clone();
+		final State _1_1_2 = _1_1.clone();
+		tree.possiblyAddBranchPoint(true, false, false, false);
+		tree.addState(_1_1_2, 0, null);
+		tree.addState(_1_1_1, 0, null);
+		assertEquals(2, tree.getNumOfBranches());
+		
+		final List<State> removed = tree.removeStatesAtOldestBranch();
+		assertEquals(2, removed.size());
+		assertSame(_1_2, removed.get(0));
+		assertSame(_1_3, removed.get(1));
+		assertEquals(".1.2", _1_2.getBranchIdentifier().toString());
+		assertEquals(".1.3", _1_3.getBranchIdentifier().toString());
+		assertEquals(1, tree.getNumOfBranches());
+		assertSame(_1_1_1, tree.nextState());
+		assertSame(_1_1_2, tree.nextState());
+		assertEquals(".1.1.2", _1_1_2.getBranchIdentifier().toString());
+		assertTrue(!tree.hasStates());
+		assertTrue(tree.removeStatesAtOldestBranch().isEmpty());
+	}
+	
+	@Test
+	public void testBreadthFirst() throws InvalidClassFileFactoryClassException, IOException, InvalidInputException {
+		final StateTree tree = new StateTree(StateIdentificationMode.COMPACT, BreadthMode.MORE_THAN_ONE);
+		tree.setSearchStrategy(new SearchStrategyBreadthFirst());
+		final State _1_1 = new State(true, tree.getPreInitialHistoryPoint().startingInitial(), 100, 100, new Classpath(Paths.get("."), Paths.get("."), Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap(), new SymbolFactory());
+		_1_1.setPhasePostInitial();
+		final State _1_2 = _1_1.clone();
+		tree.possiblyAddBranchPoint(true, false, false, false);
+		tree.addState(_1_2, 0, null);
+		tree.addState(_1_1, 0, null);
+		assertSame(_1_1, tree.nextState());
+		final BranchPoint bp_1 = tree.nextBranch();
+		final State _1_1_1 = _1_1.clone();
+		final State _1_1_2 = _1_1.clone();
+		tree.possiblyAddBranchPoint(true, false, false, false);
+		tree.addState(_1_1_2, 0, null);
+		tree.addState(_1_1_1, 0, null);
+		assertSame(bp_1, tree.nextBranch()); //the shallower branch first
+		assertSame(_1_2, tree.nextState());
+		assertSame(_1_1_1, tree.nextState());
+		assertSame(_1_1_2, tree.nextState());
+		assertTrue(!tree.hasStates());
+		assertEquals(".1.2", _1_2.getBranchIdentifier().toString());
+		assertEquals(".1.1.2", _1_1_2.getBranchIdentifier().toString());
+	}
+	
+	@Test
+	public void testEvictionSpillsBranchIdentifiers() throws InvalidClassFileFactoryClassException, IOException, InvalidInputException {
+		final StateTree tree = new StateTree(StateIdentificationMode.COMPACT, BreadthMode.MORE_THAN_ONE);
+		final State _1_1 = new State(true, tree.getPreInitialHistoryPoint().startingInitial(), 100, 100, new Classpath(Paths.get("."), Paths.get("."), Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap(), new SymbolFactory());
+		_1_1.setPhasePostInitial();
+		final State _1_2 = _1_1.clone();
+		final State _1_3 = _1_1.clone();
+		tree.possiblyAddBranchPoint(true, false, false, false);
+		tree.addState(_1_3, 0, null);
+		tree.addState(_1_2, 0, null);
+		tree.addState(_1_1, 0, null);
+		tree.nextState(); //emits _1_1
+		final List<String> pending = tree.getPendingBranchIdentifiers();
+		assertEquals(Arrays.asList(".1.2", ".1.3"), pending);
+		final BranchPoint bp1 = tree.nextBranch();
+		
+		//any used memory exceeds the high watermark, also
+		//after a garbage collection
+		System.gc();
+		tree.setMemoryWatermarks(1e-300, 1e-301);
+		final State _1_1_1 = _1_1.clone();
+		final State _1_1_2 = _1_1.clone();
+		tree.possiblyAddBranchPoint(true, false, false, false);
+		tree.addState(_1_1_2, 0, null); //evicts _1_2 and _1_3
+		tree.addState(_1_1_1, 0, null);
+		assertEquals(2L, tree.getNumOfEvictedStates());
+		assertEquals(2, tree.getNumOfSpilledStates());
+		assertEquals(1, tree.getNumOfBranches());
+		assertEquals(new HashSet<>(pending), new HashSet<>(tree.getSpilledBranchIdentifiers()));
+		assertEquals(Collections.singletonList(bp1), tree.takeEvictedBranches());
+		assertTrue(tree.takeEvictedBranches().isEmpty());
+		assertSame(_1_1_1, tree.nextState());
+		assertSame(_1_1_2, tree.nextState());
+		assertFalse(tree.hasStates());
+		
+		assertEquals(new HashSet<>(pending), new HashSet<>(tree.takeSpilledBranchIdentifiers()));
+		assertEquals(0, tree.getNumOfSpilledStates());
+		assertTrue(tree.takeSpilledBranchIdentifiers().isEmpty());
+	}
+	
+	@Test
+	public void testNoEvictionWithoutWatermarks() throws InvalidClassFileFactoryClassException, IOException, InvalidInputException {
+		final StateTree tree = new StateTree(StateIdentificationMode.COMPACT, BreadthMode.MORE_THAN_ONE);
+		final State _1_1 = new State(true, tree.getPreInitialHistoryPoint().startingInitial(), 100, 100, new Classpath(Paths.get("."), Paths.get("."), Collections.emptyList(), Collections.emptyList()), ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap(), new SymbolFactory());
+		_1_1.setPhasePostInitial();
+		final State _1_2 = _1_1.clone();
+		tree.possiblyAddBranchPoint(true, false, false, false);
+		tree.addState(_1_2, 0, null);
+		tree.addState(_1_1, 0, null);
+		tree.nextState(); //emits _1_1
+		final State _1_1_1 = _1_1.clone();
+		tree.possiblyAddBranchPoint(true, false, false, false);
+		tree.addState(_1_1_1, 0, null);
+		assertEquals(0L, tree.getNumOfEvictedStates());
+		assertEquals(2, tree.getNumOfBranches());
+		assertTrue(tree.takeEvictedBranches().isEmpty());
+		assertTrue(tree.takeSpilledBranchIdentifiers().isEmpty());
+	}
 }